@@ -0,0 +1,124 @@
+// File: src/jmh/java/citadels/EngineBenchmark.java
+package citadels;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the engine's hot paths at 4 and 7 players: filling the
+ * deck, playing one all-CPU round, scoring, and looking up built
+ * districts. Scoring and lookups run on a game a few rounds in, so cities
+ * are part built. Run with {@code ./gradlew jmh}, which adds the GC
+ * profiler for the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    // Rounds played before the game is measured
+    private static final int ROUNDS_IN = 5;
+
+    @Param({"4", "7"})
+    int players;
+
+    // A game a few rounds in, scored and searched by the benchmarks
+    GameState game;
+    // A game whose deck is refilled over and over
+    private GameState deck;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = GameState.headless(42L);
+        App.setupGame(game, players, false);
+        for (int i = 0; i < ROUNDS_IN && !game.gameEndTriggered; i++) {
+            App.playRound(game);
+        }
+        deck = GameState.headless(1L);
+    }
+
+    /**
+     * A fresh copy of the game for each round played. A round takes tens
+     * of microseconds, so copying per call is affordable, but the GC
+     * profiler counts the copy's allocation in the round's; subtract
+     * {@link #copyGame()} for the round alone.
+     */
+    @State(Scope.Thread)
+    public static class Copy {
+        GameState game;
+        // Seed for the next copy, so rounds differ
+        private long seed;
+
+        @Setup(Level.Invocation)
+        public void copy(EngineBenchmark benchmark) {
+            game = benchmark.game.copy();
+            game.random = new GameRandom(seed++);
+        }
+    }
+
+    /** Clears the deck and refills it from the district catalog. */
+    @Benchmark
+    public int initializeDeck() {
+        App.initializeDeck(deck);
+        return deck.deck.size();
+    }
+
+    /** Copies the game, as done before every {@link #playRound}. */
+    @Benchmark
+    public GameState copyGame() {
+        return game.copy();
+    }
+
+    /** Plays one all-CPU round: character selection, then every turn. */
+    @Benchmark
+    public GameState playRound(Copy copy) {
+        App.characterSelectionPhase(copy.game);
+        App.turnPhase(copy.game);
+        return copy.game;
+    }
+
+    /** Scores every player's city. */
+    @Benchmark
+    public int calculateScore() {
+        int sum = 0;
+        for (Player p : game.players) {
+            sum += p.calculateScore(false, true);
+        }
+        return sum;
+    }
+
+    /** Looks up a built and an unbuilt district in every city. */
+    @Benchmark
+    public int hasBuilt() {
+        int found = 0;
+        for (Player p : game.players) {
+            if (p.hasBuilt("Manor")) {
+                found++;
+            }
+            if (p.hasBuilt("Dragon Gate")) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /** Prints the final scores to a null sink and picks the winner. */
+    @Benchmark
+    public Player scoreAndDeclareWinner() {
+        return App.scoreAndDeclareWinner(game);
+    }
+}
@@ -0,0 +1,71 @@
+// File: src/jmh/java/citadels/SerializerBenchmark.java
+package citadels;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of a save and load round trip through {@link Serializer} at
+ * 4 and 7 players, in the JSON and the binary format, on a game a few
+ * rounds in. Each round trip writes and reads a temporary file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({"4", "7"})
+    int players;
+
+    @Param({".json", BinarySerializer.EXTENSION})
+    String format;
+
+    // The game saved by every round trip
+    private GameState game;
+    // The game every round trip loads into
+    private GameState loaded;
+    // Save file, deleted after the trial
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        game = GameState.headless(42L);
+        App.setupGame(game, players, false);
+        for (int i = 0; i < 5 && !game.gameEndTriggered; i++) {
+            App.playRound(game);
+        }
+        loaded = GameState.headless(0L);
+        file = File.createTempFile("citadels-bench", format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    /** Saves the game and loads it back. */
+    @Benchmark
+    public GameState saveAndLoad() throws IOException, ParseException {
+        Serializer.saveGame(game, file.getPath());
+        Serializer.loadGame(loaded, file.getPath());
+        return loaded;
+    }
+}
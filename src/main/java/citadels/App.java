@@ -2,21 +2,14 @@
 package citadels;
 
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.Map;
 import java.util.Comparator;
 
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 
@@ -25,19 +18,6 @@ import org.json.simple.parser.ParseException;
  * Handles game setup, main loop, turn processing, and scoring.
  */
 public class App {
-    // List of all players in the game
-    static List<Player> players = new ArrayList<>();
-    // Deck of district cards
-    static List<District> deck = new ArrayList<>();
-    // The player who currently holds the crown
-    static Player crownedPlayer;
-    // Debug mode flag
-    static boolean debugMode = false;
-    // Scanner for user input
-    static Scanner scanner;
-    // Used to show hand only on first selection
-    static boolean firstSelection = true;
-
     /**
      * Character names, indexed by character number (1-based).
      */
@@ -60,975 +40,669 @@ public class App {
             "Warlord - Gain 1 gold for each red (military) district in your city. May destroy one district by paying one less than its cost (cannot target a city with 8 districts or a Keep, and cannot target a Bishop's city if Bishop is alive)."
     };
 
-    // The character number that was killed this round (0 if none)
-    public static int killedCharacter = 0;
-    // The character number that was robbed this round (0 if none)
-    public static int robbedCharacter = 0;
-    // The player who is the Thief this round (null if none)
-    public static Player thiefPlayer = null;
-    // Flag to indicate if the game end has been triggered
-    public static boolean gameEndTriggered = false;
-    // The first player to complete their city
-    public static Player firstCompleter = null;
-
     /**
      * Main entry point for the Citadels game.
-     * @param args command-line arguments (unused)
+     * Runs an interactive game (replayable when started as
+     * {@code seed <seed>}), or a headless batch of all-CPU games when
+     * started as {@code simulate <players> <games> [seed]}, or a match of a
+     * search player against CPUs when started as
+     * {@code mcts <players> <games> <ms per decision> [seed]}, or a
+     * round-robin between CPU strategies when started as
+     * {@code tournament <players> <games per seating> <strategy,...> [seed]},
+     * or a local game server when started as
+     * {@code server [port] [players] [seed] [journal dir]}, or a loopback load test of
+     * that server when started as
+     * {@code loadtest <sessions> <commands per session> [players] [seed]},
+     * or a headless replay of recorded input when started as
+     * {@code replay <seed> <commands file> [golden file]} or
+     * {@code replay <corpus directory> [record]}, or a recording of an
+     * all-CPU game with keyframes when started as
+     * {@code record <file> <players> [seed] [keyframe every]}, or that
+     * recording opened at a round when started as
+     * {@code review <file> <round>}.
+     * Engine metrics are published over JMX in every mode, and recorded
+     * when {@code -Dcitadels.metrics=true} is given or a JMX client turns
+     * them on.
+     * @param args command-line arguments
      */
     public static void main(String[] args) {
-        scanner = new Scanner(System.in);
-
-        int numPlayers = promptPlayerCount(); // Ask for number of players
-        initializeDeck(); // Load and shuffle the deck
-
-        // Create players
-        players.clear();
-        for (int i = 1; i <= numPlayers; i++) {
-            players.add(new Player(i, i == 1)); // Player 1 is always human
+        EngineMetrics.register();
+        if (args.length > 0 && args[0].equalsIgnoreCase("simulate")) {
+            runSimulation(args);
+            return;
         }
+        if (args.length > 0 && args[0].equalsIgnoreCase("mcts")) {
+            runMctsMatch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("tournament")) {
+            runTournament(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("server")) {
+            runServer(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("loadtest")) {
+            runLoadTest(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("replay")) {
+            runReplay(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("record")) {
+            runRecord(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("review")) {
+            runReview(args);
+            return;
+        }
+        GameState game = new GameState(new Scanner(System.in));
+        if (args.length > 1 && args[0].equalsIgnoreCase("seed")) {
+            try {
+                game.random = new GameRandom(Long.parseLong(args[1]));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid seed: " + args[1]);
+                return;
+            }
+        }
+        System.out.printf("Game seed: %d%n", game.random.getSeed());
+        playGame(game);
+    }
 
-        // Randomly assign crown
-        crownedPlayer = players.get(new Random().nextInt(numPlayers));
-
-        System.out.println("Shuffling deck...");
-        Collections.shuffle(deck);
+    /**
+     * Parses the {@code simulate} arguments, runs the batch and prints the
+     * aggregate report, followed by the engine metrics if they are recorded.
+     * @param args command-line arguments starting with "simulate"
+     */
+    static void runSimulation(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: simulate <players 4-7> <games> [seed]");
+            return;
+        }
+        try {
+            int numPlayers = Integer.parseInt(args[1]);
+            int games = Integer.parseInt(args[2]);
+            long seed = args.length > 3 ? Long.parseLong(args[3])
+                    : System.nanoTime();
+            SimulationResult result = Simulator.run(numPlayers, games, seed);
+            System.out.print(result.report());
+            printMetrics();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid simulate arguments: " + e.getMessage());
+        }
+    }
 
-        System.out.println("Adding characters...");
-        System.out.println("Dealing cards...");
-        // Give each player 2 gold and 4 cards
-        for (Player p : players) {
-            p.addGold(2);
-            for (int j = 0; j < 4; j++) {
-                drawCardForPlayer(p);
-            }
+    /**
+     * Parses the {@code tournament} arguments, plays every seating of the
+     * strategies and prints each strategy's results overall and per seat,
+     * followed by the engine metrics if they are recorded.
+     * Strategies are {@code heuristic} or {@code mcts:<ms per decision>}.
+     * @param args command-line arguments starting with "tournament"
+     */
+    static void runTournament(String[] args) {
+        if (args.length < 4) {
+            System.out.println("Usage: tournament <players 4-7> <games per seating>"
+                    + " <strategy,...> [seed]");
+            System.out.println("  strategies: heuristic, mcts:<ms per decision>");
+            return;
         }
+        try {
+            int numPlayers = Integer.parseInt(args[1]);
+            int games = Integer.parseInt(args[2]);
+            List<Tournament.Entrant> entrants = new ArrayList<>();
+            for (String spec : args[3].split(",")) {
+                entrants.add(Tournament.Entrant.parse(spec));
+            }
+            long seed = args.length > 4 ? Long.parseLong(args[4])
+                    : System.nanoTime();
+            TournamentResult result = Tournament.run(entrants, numPlayers, games, seed);
+            System.out.print(result.report());
+            printMetrics();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid tournament arguments: " + e.getMessage());
+        }
+    }
 
-        System.out.println("Starting Citadels with " + numPlayers + " players...");
-        System.out.println("You are player 1");
-
-        // Main game loop
-        while (!gameEndTriggered) {
-            characterSelectionPhase(); // Character selection
-            turnPhase(); // Each character's turn
-
-            if (!gameEndTriggered) {
-                // Reset for next round
-                killedCharacter = 0;
-                robbedCharacter = 0;
-                thiefPlayer = null;
-                for (Player p : players) {
-                    p.setCharacter(0);
-                }
-            }
+    // Prints the engine metrics report if metrics are being recorded
+    private static void printMetrics() {
+        EngineMetrics metrics = EngineMetrics.get();
+        if (metrics.isEnabled()) {
+            System.out.print(metrics.report());
         }
+    }
 
-        scoreAndDeclareWinner(); // Show final scores
+    /**
+     * Parses the {@code server} arguments and serves games on the loopback
+     * interface until Enter is pressed, then prints the command latencies.
+     * @param args command-line arguments starting with "server"
+     */
+    static void runServer(String[] args) {
+        try {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+            int numPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+            long seed = args.length > 3 ? Long.parseLong(args[3])
+                    : System.nanoTime();
+            Path journals = args.length > 4 ? Path.of(args[4]) : null;
+            try (GameServer server = GameServer.start(port, numPlayers, seed, journals)) {
+                System.out.printf("Citadels server listening on 127.0.0.1:%d (%d players)."
+                        + " Press Enter to stop.%n", server.getPort(), numPlayers);
+                new Scanner(System.in).nextLine();
+                System.out.printf("%d connections, command latency: %s%n",
+                        server.getAcceptedCount(),
+                        server.getHost().getCommandLatency().summary());
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid server arguments: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not start server: " + e.getMessage());
+        } catch (NoSuchElementException e) {
+            // input closed: stop the server
+        }
     }
 
     /**
-     * Prompts the user for the number of players (4-7).
-     * @return the number of players
+     * Parses the {@code loadtest} arguments, starts a server on a free
+     * port, drives it with the sessions over loopback and prints the
+     * throughput and the client and server p50/p99 command latency.
+     * @param args command-line arguments starting with "loadtest"
      */
-    public static int promptPlayerCount() {
-        int count = 0;
-        do {
-            System.out.print("Enter how many players [4-7]: ");
-            String input = scanner.nextLine().trim();
-            try { count = Integer.parseInt(input); }
-            catch (NumberFormatException e) { count = 0; }
-        } while (count < 4 || count > 7);
-        return count;
+    static void runLoadTest(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: loadtest <sessions> <commands per session> [players 4-7] [seed]");
+            return;
+        }
+        try {
+            int sessions = Integer.parseInt(args[1]);
+            int commands = Integer.parseInt(args[2]);
+            int numPlayers = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+            long seed = args.length > 4 ? Long.parseLong(args[4])
+                    : System.nanoTime();
+            try (GameServer server = GameServer.start(0, numPlayers, seed)) {
+                LoadGenerator load = new LoadGenerator(server.getPort(), sessions, commands, seed);
+                load.run(10 * 60 * 1000L);
+                System.out.print(load.report());
+                System.out.printf("  Server latency: %s%n",
+                        server.getHost().getCommandLatency().summary());
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid loadtest arguments: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Load test failed: " + e.getMessage());
+        }
     }
 
     /**
-     * Initializes the deck of district cards from the cards.tsv resource file.
+     * Parses the {@code replay} arguments and replays either one recording,
+     * printing its transcript or comparing it with a golden file, or a
+     * corpus directory of recordings, printing which ones failed.
+     * @param args command-line arguments starting with "replay"
      */
-    public static void initializeDeck() {
-        deck.clear();
-        InputStream in = App.class.getClassLoader()
-                .getResourceAsStream("citadels/cards.tsv");
-        if (in == null) {
-            throw new RuntimeException("cards.tsv not found on classpath");
+    static void runReplay(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: replay <seed> <commands file> [golden file]");
+            System.out.println("       replay <corpus directory> [record]");
+            return;
         }
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(in))) {
-            String line;
-            boolean skippedHeader = false;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                if (!skippedHeader) {
-                    skippedHeader = true;
-                    continue;
-                }
-                String[] parts = line.split("\\t");
-                if (parts.length < 4) continue;
-                String name = parts[0];
-                int qty = Integer.parseInt(parts[1]);
-                String color = parts[2].toLowerCase();
-                int cost = Integer.parseInt(parts[3]);
-                String desc = parts.length > 4 ? parts[4] : "";
-                for (int i = 0; i < qty; i++) {
-                    deck.add(new District(name, color, cost, desc));
-                }
+        try {
+            Path dir = Path.of(args[1]);
+            if (Files.isDirectory(dir)) {
+                boolean record = args.length > 2 && args[2].equalsIgnoreCase("record");
+                ReplayResult result = Replay.runCorpus(dir, record);
+                System.out.print(result.report());
+                return;
+            }
+            if (args.length < 3) {
+                System.out.println("Usage: replay <seed> <commands file> [golden file]");
+                return;
+            }
+            long seed = Long.parseLong(args[1]);
+            String transcript = Replay.play(seed,
+                    Replay.readRecording(Path.of(args[2])));
+            if (args.length < 4) {
+                System.out.print(transcript);
+                return;
             }
+            String diff = Replay.firstDifference(
+                    Files.readString(Path.of(args[3])), transcript);
+            System.out.println(diff == null ? "Replay matches " + args[3]
+                    : "Replay differs from " + args[3] + ": " + diff);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid replay arguments: " + e.getMessage());
         } catch (IOException e) {
-            throw new RuntimeException("Error reading cards.tsv", e);
+            System.out.println("Replay failed: " + e.getMessage());
         }
     }
 
     /**
-     * Draws a card from the deck and adds it to the player's hand.
-     * @param p the player to draw a card for
+     * Parses the {@code record} arguments, plays an all-CPU game and
+     * writes it to a keyframed replay file.
+     * @param args command-line arguments starting with "record"
      */
-    public static void drawCardForPlayer(Player p) {
-        if (!deck.isEmpty()) {
-            p.addCardToHand(deck.remove(0));
+    static void runRecord(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: record <file> <players 4-7> [seed] [keyframe every]");
+            return;
+        }
+        try {
+            int numPlayers = Integer.parseInt(args[2]);
+            if (numPlayers < 4 || numPlayers > 7) {
+                throw new IllegalArgumentException("player count must be 4-7, got " + numPlayers);
+            }
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+            int every = args.length > 4 ? Integer.parseInt(args[4])
+                    : ReplayFile.DEFAULT_KEYFRAME_EVERY;
+            GameState game = GameState.headless(seed);
+            setupGame(game, numPlayers, false);
+            int rounds = ReplayFile.record(Path.of(args[1]), game, every);
+            System.out.printf("Recorded %d rounds to %s%n", rounds, args[1]);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid record arguments: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Recording failed: " + e.getMessage());
         }
     }
 
     /**
-     * Handles the character selection phase for all players.
-     * Deals with discards, face-up/face-down, and player choices.
+     * Parses the {@code review} arguments, opens a replay file at the
+     * given round and prints every player and city at that point.
+     * @param args command-line arguments starting with "review"
      */
-    public static void characterSelectionPhase() {
-        if (firstSelection) {
-            System.out.println("Your starting hand of district cards:");
-            showHand(players.get(0));
-            firstSelection = false;
+    static void runReview(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: review <file> <round>");
+            return;
         }
-
-        System.out.println("Player " + crownedPlayer.getId()
-                + " is the crowned player and goes first.");
-        System.out.println("Press t to process turns");
-        waitForContinue();
-        System.out.println("================================");
-        System.out.println("SELECTION PHASE");
-        System.out.println("================================");
-
-        List<Integer> charDeck = new ArrayList<>();
-        for (int i = 1; i <= 8; i++) charDeck.add(i);
-        Random rand = new Random();
-
-        // 1) face-down discard
-        int faceDown = charDeck.remove(rand.nextInt(charDeck.size()));
-
-        // 2) face-up discards (King cannot be face-up)
-        // 2) face-up discards, King cannot be face-up
-        int faceUpCount = players.size() == 4 ? 2
-                : players.size() == 5 ? 1
-                : 0;
-        List<Integer> faceUp = new ArrayList<>();
-        for (int i = 0; i < faceUpCount; ) {
-            int c = charDeck.remove(rand.nextInt(charDeck.size()));
-            if (c == 4) {
-                // King cannot be face-up: put it back and retry
-                System.out.println("King was removed.");
-                System.out.println("The King cannot be visibly removed, trying again...");
-                charDeck.add(c);
-                Collections.shuffle(charDeck);
-                // clear any already-picked face-up cards and restart
-                faceUp.clear();
-                i = 0;
-                continue;
-            }
-            faceUp.add(c);
-            i++;
+        try (ReplayFile replay = ReplayFile.open(Path.of(args[1]))) {
+            int round = Integer.parseInt(args[2]);
+            long start = System.nanoTime();
+            ReplayFile.Cursor cursor = replay.seek(round);
+            long micros = (System.nanoTime() - start) / 1000;
+            GameState game = cursor.getGame();
+            game.out = new ConsoleSink(System.out);
+            game.out.printf("After round %d of %d (seek took %d us):%n",
+                    cursor.getRound(), replay.getRounds(), micros);
+            showAllPlayers(game);
+            for (Player p : game.players) {
+                showCity(game, p);
+            }
+            game.out.flush();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid review arguments: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Review failed: " + e.getMessage());
         }
+    }
 
-        System.out.println("A mystery character was removed.");
-        for (int c : faceUp) {
-            System.out.println(CHARACTER_NAMES[c] + " was removed.");
+    /**
+     * Parses the {@code mcts} arguments, plays the games with a search
+     * player at seat 1 and the built-in CPU at the other seats, and prints
+     * the search player's win rate, throughput and decision latency.
+     * @param args command-line arguments starting with "mcts"
+     */
+    static void runMctsMatch(String[] args) {
+        if (args.length < 4) {
+            System.out.println("Usage: mcts <players 4-7> <games> <ms per decision> [seed]");
+            return;
         }
-
-        // 3) players pick in crown order
-        int crownIdx = players.indexOf(crownedPlayer), n = players.size();
-        for (int p = 0; p < n; p++) {
-            Player cur = players.get((crownIdx + p) % n);
-            boolean lastOfSeven = (n == 7 && p == n - 1);
-
-            if (cur.isHuman()) {
-                List<Integer> avail = new ArrayList<>(charDeck);
-                System.out.print("Choose your character from: ");
-                if (lastOfSeven) {
-                    int rem = avail.isEmpty() ? -1 : avail.get(0);
-                    if (rem != -1) System.out.print(CHARACTER_NAMES[rem] + ", ");
-                    System.out.println(CHARACTER_NAMES[faceDown] + ".");
-                } else {
-                    for (int i = 0; i < avail.size(); i++) {
-                        System.out.print(CHARACTER_NAMES[avail.get(i)]);
-                        if (i < avail.size() - 1) System.out.print(", ");
-                    }
-                    System.out.println(".");
-                }
-                while (true) {
-                    String in = scanner.nextLine().trim();
-                    if (in.equalsIgnoreCase("debug")) {
-                        debugMode = !debugMode;
-                        System.out.println("Debug mode " + (debugMode ? "ON" : "OFF"));
-                        continue;
-                    }
-                    if (in.toLowerCase().startsWith("info")) {
-                        handleInfoCommand(in, cur);
-                        continue;
-                    }
-                    int pick = 0;
-                    try { pick = Integer.parseInt(in); }
-                    catch (Exception e) {
-                        for (int c2 : charDeck) {
-                            if (CHARACTER_NAMES[c2].equalsIgnoreCase(in)) {
-                                pick = c2; break;
-                            }
-                        }
-                        if (lastOfSeven && CHARACTER_NAMES[faceDown]
-                                .equalsIgnoreCase(in)) {
-                            pick = faceDown;
-                        }
+        try {
+            int numPlayers = Integer.parseInt(args[1]);
+            int games = Integer.parseInt(args[2]);
+            long budget = Long.parseLong(args[3]);
+            long seed = args.length > 4 ? Long.parseLong(args[4])
+                    : System.nanoTime();
+            if (numPlayers < 4 || numPlayers > 7) {
+                throw new IllegalArgumentException(
+                        "player count must be 4-7, got " + numPlayers);
+            }
+            int wins = 0;
+            try (MctsStrategy mcts = new MctsStrategy(budget,
+                    Runtime.getRuntime().availableProcessors(), seed)) {
+                for (int i = 0; i < games; i++) {
+                    GameState game = GameState.headless(Simulator.gameSeed(seed, i));
+                    setupGame(game, numPlayers, false);
+                    game.players.get(0).setStrategy(mcts);
+                    for (int r = 0; r < Simulator.MAX_ROUNDS && !game.gameEndTriggered; r++) {
+                        playRound(game);
                     }
-                    if (lastOfSeven) {
-                        int rem = avail.isEmpty() ? -1 : avail.get(0);
-                        if (pick == rem || pick == faceDown) {
-                            cur.setCharacter(pick);
-                            if (pick == faceDown) faceDown = rem;
-                            charDeck.remove(Integer.valueOf(pick));
-                            break;
-                        }
-                    } else if (charDeck.contains(pick)) {
-                        cur.setCharacter(pick);
-                        charDeck.remove(Integer.valueOf(pick));
-                        break;
+                    if (scoreAndDeclareWinner(game) == game.players.get(0)) {
+                        wins++;
                     }
-                    System.out.println("Invalid character. Please choose an available one.");
-                }
-                System.out.println("You chose the " +
-                        CHARACTER_NAMES[cur.getCharacter()] + ".");
-            } else {
-                System.out.println("Player " + cur.getId() + " is choosing a character...");
-                waitForContinue();
-                List<Integer> avail = new ArrayList<>(charDeck);
-                int choice;
-                if (lastOfSeven) {
-                    choice = rand.nextBoolean() ? avail.get(0) : faceDown;
-                    int other = (choice == faceDown ? avail.get(0) : faceDown);
-                    faceDown = other;
-                } else {
-                    choice = avail.get(rand.nextInt(avail.size()));
                 }
-                cur.setCharacter(choice);
-                charDeck.remove(Integer.valueOf(choice));
-                System.out.println("Player " + cur.getId() + " chose a character.");
+                System.out.printf("Player 1 (MCTS) won %d of %d games (%.1f%%, %.1f%% by chance)%n",
+                        wins, games, games == 0 ? 0.0 : 100.0 * wins / games,
+                        100.0 / numPlayers);
+                System.out.print(mcts.report());
             }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid mcts arguments: " + e.getMessage());
         }
-
-        System.out.println("Character choosing is over, action round will now begin.");
     }
 
     /**
-     * Handles the turn phase for all characters in order (1-8).
-     * Each character's ability and build phase is processed.
+     * Sets up and plays one complete game on the given state, from the
+     * player-count prompt through final scoring.
+     * @param game the game to play
      */
-    public static void turnPhase() {
-        System.out.println("================================");
-        System.out.println("TURN PHASE");
-        System.out.println("================================");
-
-        for (int r = 1; r <= 8; r++) {
-            Player cur = null;
-            for (Player p : players) {
-                if (p.getCharacter() == r) {
-                    cur = p; break;
-                }
-            }
+    public static void playGame(GameState game) {
+        int numPlayers = promptPlayerCount(game); // Ask for number of players
+        playGame(game, numPlayers);
+    }
 
-            System.out.println(r + ": " + CHARACTER_NAMES[r]);
+    /**
+     * Sets up and plays one complete game with a known number of players,
+     * player 1 being human.
+     * @param game the game to play
+     * @param numPlayers number of players (4-7)
+     */
+    public static void playGame(GameState game, int numPlayers) {
+        try {
+            startGame(game, numPlayers);
 
-            // if killed or not chosen, skip
-            if (cur == null || r == killedCharacter) {
-                if (cur != null && r == killedCharacter)
-                    System.out.println("The " + CHARACTER_NAMES[r] + " was killed.");
-                else
-                    System.out.println("No one is the " + CHARACTER_NAMES[r]);
-                if (r < 8) waitForContinue();
-                continue;
+            // Main game loop
+            while (!game.gameEndTriggered) {
+                playRound(game);
             }
 
-            // reveal
-            System.out.println("Player " + cur.getId()
-                    + " is the " + CHARACTER_NAMES[r]);
-            if (cur.isHuman()) System.out.println("Your turn.");
-            if (debugMode && !cur.isHuman()) {
-                System.out.print("[DEBUG] Player " + cur.getId() + " hand: ");
-                for (District d : cur.getHand()) {
-                    System.out.print(d.getName() + "(" + d.getColor() + ") ");
-                }
-                System.out.println();
-            }
+            scoreAndDeclareWinner(game); // Show final scores
+        } finally {
+            game.out.flush();
+        }
+    }
 
-            // 1) Assassin (r==1)
-            // … inside turnPhase(), in place of your existing Assassin block …
-
-// Assassin (r == 1)
-            if (r == 1) {
-                if (cur.isHuman()) {
-                    System.out.print("Who do you want to kill? Choose 2–8 (invalid to skip): ");
-                    String in = scanner.nextLine().trim();
-                    int t = -1;
-                    try {
-                        t = Integer.parseInt(in);
-                    } catch (NumberFormatException e) {
-                        // invalid → skip
-                    }
-                    if (t >= 2 && t <= 8) {
-                        killedCharacter = t;
-                        System.out.println("You chose to kill the " + CHARACTER_NAMES[t] + ".");
-                    } else {
-                        System.out.println("Skipping Assassin ability.");
-                    }
-                } else {
-                    // CPU as before
-                    List<Integer> opts = new ArrayList<>();
-                    for (int x = 2; x <= 8; x++) opts.add(x);
-                    killedCharacter = opts.get(new Random().nextInt(opts.size()));
-                    System.out.println("Assassin chooses to kill the " +
-                            CHARACTER_NAMES[killedCharacter] + ".");
-                }
-            }
+    /**
+     * Sets up a new game with player 1 human and announces it.
+     * @param game the game to set up
+     * @param numPlayers number of players (4-7)
+     */
+    static void startGame(GameState game, int numPlayers) {
+        setupGame(game, numPlayers, true);
 
-            // 2) Thief choose (r==2)
-            // … and in place of your existing Thief block …
-
-            if (r == 2) {
-                if (cur.isHuman()) {
-                    System.out.print("Who do you want to steal from? Choose 3–8 (invalid to skip): ");
-                    String in = scanner.nextLine().trim();
-                    int t = -1;
-                    try {
-                        t = Integer.parseInt(in);
-                    } catch (NumberFormatException e) {
-                        // invalid → skip
-                    }
-                    if (t >= 3 && t <= 8 && t != killedCharacter) {
-                        robbedCharacter = t;
-                        thiefPlayer = cur;
-                        System.out.println("You chose to steal from the " + CHARACTER_NAMES[t] + ".");
-                    } else {
-                        System.out.println("Skipping Thief ability.");
-                    }
-                } else {
-                    // CPU as before
-                    List<Integer> opts = new ArrayList<>();
-                    for (int x = 3; x <= 8; x++) {
-                        if (x != killedCharacter) opts.add(x);
-                    }
-                    robbedCharacter = opts.isEmpty() ? 0
-                            : opts.get(new Random().nextInt(opts.size()));
-                    thiefPlayer = cur;
-                    System.out.println("Thief plans to rob the " +
-                            CHARACTER_NAMES[robbedCharacter] + ".");
-                }
-            }
+        game.out.printf("Starting Citadels with %d players...%n", numPlayers);
+        game.out.println("You are player 1");
+    }
 
-            // 3) Thief steals immediately upon reveal
-            if (r == robbedCharacter
-                    && cur != null
-                    && thiefPlayer != null
-                    && thiefPlayer.getCharacter() == 2
-                    && thiefPlayer != cur) {
-                int amt = cur.getGold();
-                cur.spendGold(amt);
-                thiefPlayer.addGold(amt);
-                System.out.println("The Thief stole " + amt +
-                        " gold from Player " + cur.getId() + ".");
-            }
+    /**
+     * Loads and shuffles the deck, seats the players, assigns the crown and
+     * deals each player 2 gold and 4 cards.
+     * @param game the game to set up
+     * @param numPlayers number of players (4-7)
+     * @param humanFirst true if player 1 is controlled by a human
+     */
+    public static void setupGame(GameState game, int numPlayers, boolean humanFirst) {
+        initializeDeck(game); // Load and shuffle the deck
 
-            // 4) Resource collection
-            if (cur.isHuman()) {
-                System.out.print("Collect 2 gold or draw two cards and pick one [gold/cards]: ");
-                while (true) {
-                    String choice = scanner.nextLine().trim().toLowerCase();
-                    if ("gold".equals(choice)) {
-                        cur.addGold(2);
-                        System.out.println("Player " + cur.getId() + " received 2 gold.");
-                        break;
-                    }
-                    // draw "cards" income
-                    int drawCount = cur.hasBuilt("Observatory") ? 3 : 2;
-                    List<District> drawn = new ArrayList<>();
-                    for (int i = 0; i < drawCount && !deck.isEmpty(); i++) {
-                        drawn.add(deck.remove(0));
-                    }
+        // Create players
+        game.players.clear();
+        for (int i = 1; i <= numPlayers; i++) {
+            game.players.add(new Player(i, humanFirst && i == 1));
+        }
 
-                    if (drawn.isEmpty()) {
-                        System.out.println("No cards could be drawn.");
-                    } else if (drawn.size() == 1) {
-                        // only one available
-                        cur.addCardToHand(drawn.get(0));
-                        System.out.println("Only one card available — you drew " +
-                                drawn.get(0).displayShort() + ".");
-                    } else if (cur.hasBuilt("Library")) {
-                        // Library: keep all drawn
-                        drawn.forEach(cur::addCardToHand);
-                        System.out.printf("Due to Library, you keep all %d cards: %s%n",
-                                drawn.size(),
-                                drawn.stream().map(District::displayShort)
-                                        .collect(Collectors.joining(", "))
-                        );
-                    } else {
-                        // normal pick-one
-                        System.out.println("You drew:");
-                        for (int i = 0; i < drawn.size(); i++) {
-                            System.out.printf("  %d. %s%n", i + 1, drawn.get(i).displayShort());
-                        }
-                        System.out.print("Choose which to keep [1-" + drawn.size() + "]: ");
-                        int sel;
-                        while (true) {
-                            try {
-                                sel = Integer.parseInt(scanner.nextLine().trim());
-                                if (sel >= 1 && sel <= drawn.size()) break;
-                            } catch (NumberFormatException ignored) {}
-                            System.out.print("Please enter a number 1–" + drawn.size() + ": ");
-                        }
-                        District keep = drawn.remove(sel - 1);
-                        cur.addCardToHand(keep);
-                        // return the rest to bottom of deck
-                        deck.addAll(drawn);
-                        System.out.println("You kept " + keep.displayShort() + ".");
-                    }
+        // Randomly assign crown
+        game.crownedPlayer = game.players.get(game.random.characters.nextInt(numPlayers));
 
-                    System.out.print("Invalid choice. Type 'gold' or 'cards': ");
-                }
-            } else {
-                // CPU heuristic
-                if (cur.getHand().isEmpty() || cur.getGold() < 2) {
-                    cur.addGold(2);
-                    System.out.println("Player " + cur.getId() + " took 2 gold.");
-                } else {
-                    District d1 = deck.isEmpty() ? null : deck.remove(0);
-                    District d2 = deck.isEmpty() ? null : deck.remove(0);
-                    if (d1 != null && d2 != null) {
-                        boolean lib = cur.hasBuilt("Library");
-                        if (lib) {
-                            cur.addCardToHand(d1);
-                            cur.addCardToHand(d2);
-                        } else {
-                            District keep = d1.getCost() >= d2.getCost() ? d1 : d2;
-                            District discard = keep == d1 ? d2 : d1;
-                            cur.addCardToHand(keep);
-                            deck.add(discard);
-                        }
-                        System.out.println("Player " + cur.getId() + " drew cards.");
-                    } else {
-                        cur.addGold(2);
-                        System.out.println("Player " + cur.getId() + " took 2 gold.");
-                    }
-                }
-            }
+        game.out.println("Shuffling deck...");
+        game.deck.shuffle(game.random.deck);
 
-            // 5) Magician ability
-            if (r == 3) {
-                if (cur.isHuman()) {
-                    System.out.print("Use Magician ability? [yes/no]: ");
-                    if (scanner.nextLine().trim().toLowerCase().startsWith("y")) {
-                        System.out.print("Type 'exchange <player>' or 'discard <indexes>': ");
-                        String act = scanner.nextLine().trim().toLowerCase();
-                        if (act.startsWith("exchange")) {
-                            try {
-                                int tid = Integer.parseInt(act.split("\\s+")[1]);
-                                Player tp = players.get(tid - 1);
-                                List<District> tmp = cur.getHand();
-                                cur.getHand().clear();
-                                cur.getHand().addAll(tp.getHand());
-                                tp.getHand().clear();
-                                tp.getHand().addAll(tmp);
-                                System.out.println("Exchanged with Player " + tid + ".");
-                            } catch (Exception ignored) { }
-                        } else if (act.startsWith("discard")) {
-                            String[] ps = act.split("\\s+");
-                            List<Integer> idxs = new ArrayList<>();
-                            for (int i = 1; i < ps.length; i++) {
-                                try { idxs.add(Integer.parseInt(ps[i]) - 1); }
-                                catch (Exception ignored) { }
-                            }
-                            Collections.sort(idxs, Collections.reverseOrder());
-                            int cnt = 0;
-                            for (int i : idxs) {
-                                if (i >= 0 && i < cur.getHand().size()) {
-                                    cur.getHand().remove(i);
-                                    cnt++;
-                                }
-                            }
-                            for (int i = 0; i < cnt; i++) drawCardForPlayer(cur);
-                            System.out.println("Discarded " + cnt + ", drew " + cnt + ".");
-                        }
-                    }
-                } else {
-                    Player best = null;
-                    for (Player p : players) {
-                        if (p != cur && p.getHand().size() > cur.getHand().size()) {
-                            if (best == null || p.getHand().size() > best.getHand().size()) {
-                                best = p;
-                            }
-                        }
-                    }
-                    if (best != null && !best.getHand().isEmpty()) {
-                        List<District> tmp = new ArrayList<>(cur.getHand());
-                        cur.getHand().clear();
-                        cur.getHand().addAll(best.getHand());
-                        best.getHand().clear();
-                        best.getHand().addAll(tmp);
-                        System.out.println("Player " + cur.getId()
-                                + " exchanged hands with Player " + best.getId() + ".");
-                    } else {
-                        Set<String> seen = new HashSet<>();
-                        int cnt = 0;
-                        for (int i = cur.getHand().size() - 1; i >= 0; i--) {
-                            District d = cur.getHand().get(i);
-                            if (seen.contains(d.getName().toLowerCase())) {
-                                cur.getHand().remove(i);
-                                cnt++;
-                            } else {
-                                seen.add(d.getName().toLowerCase());
-                            }
-                        }
-                        for (int i = 0; i < cnt; i++) drawCardForPlayer(cur);
-                        if (cnt > 0) {
-                            System.out.println("Player " + cur.getId()
-                                    + " refreshed " + cnt + " cards.");
-                        }
-                    }
-                }
-            }
-            // 4.5) Laboratory (once per turn)
-// If you have built the Laboratory, you may discard one card from your hand and gain 1 gold.
-            if (cur.hasBuilt("Laboratory")) {
-                if (cur.isHuman()) {
-                    System.out.print("Use Laboratory? Discard 1 card → gain 1 gold [yes/no]: ");
-                    if (scanner.nextLine().trim().equalsIgnoreCase("yes")
-                            && !cur.getHand().isEmpty()) {
-                        showHand(cur);
-                        System.out.print("Which card to discard [1-" + cur.getHand().size() + "]? ");
-                        int idx = Integer.parseInt(scanner.nextLine().trim()) - 1;
-                        if (idx >= 0 && idx < cur.getHand().size()) {
-                            District removed = cur.getHand().remove(idx);
-                            cur.addGold(1);
-                            System.out.println("Discarded " + removed.getName()
-                                    + ", gained 1 gold.");
-                        } else {
-                            System.out.println("Invalid index; skipping Laboratory.");
-                        }
-                    }
-                } else {
-                    // simple CPU: if it has ≥3 cards, discard the cheapest for 1 gold
-                    District cheapest = cur.getHand().stream()
-                            .min(Comparator.comparingInt(District::getCost))
-                            .orElse(null);
-                    if (cheapest != null && cur.getHand().size() >= 3) {
-                        cur.getHand().remove(cheapest);
-                        cur.addGold(1);
-                        System.out.println("Player " + cur.getId()
-                                + " discards " + cheapest.getName()
-                                + " for 1 gold (Laboratory).");
-                    }
-                }
-            }
-            // 4.6) Smithy (once per turn)
-// If you have built the Smithy, you may pay 2 gold to draw 3 cards.
-            if (cur.hasBuilt("Smithy")) {
-                if (cur.isHuman()) {
-                    System.out.print("Use Smithy? Pay 2 gold → draw 3 cards [yes/no]: ");
-                    if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
-                        if (cur.spendGold(2)) {
-                            List<District> drawn = new ArrayList<>();
-                            for (int i = 0; i < 3 && !deck.isEmpty(); i++) {
-                                drawn.add(deck.remove(0));
-                            }
-                            drawn.forEach(cur::addCardToHand);
-                            System.out.println("Smithy: drew " +
-                                    drawn.stream()
-                                            .map(District::displayShort)
-                                            .collect(Collectors.joining(", "))
-                            );
-                        } else {
-                            System.out.println("Not enough gold for Smithy.");
-                        }
-                    }
-                } else {
-                    // simple CPU: if gold≥2 and hand≤3, use Smithy
-                    if (cur.getGold() >= 2 && cur.getHand().size() <= 3) {
-                        cur.spendGold(2);
-                        List<District> drawn = new ArrayList<>();
-                        for (int i = 0; i < 3 && !deck.isEmpty(); i++) {
-                            drawn.add(deck.remove(0));
-                        }
-                        drawn.forEach(cur::addCardToHand);
-                        System.out.println("Player " + cur.getId()
-                                + " uses Smithy to draw 3 cards.");
-                    }
-                }
+        game.out.println("Adding characters...");
+        game.out.println("Dealing cards...");
+        // Give each player 2 gold and 4 cards
+        for (Player p : game.players) {
+            p.addGold(2);
+            for (int j = 0; j < 4; j++) {
+                drawCardForPlayer(game, p);
             }
+        }
+    }
 
-            // 6) Architect ability
-            if (r == 7) {
-                drawCardForPlayer(cur);
-                drawCardForPlayer(cur);
-                System.out.println((cur.isHuman() ? "You" : "Player " + cur.getId())
-                        + " drew 2 extra cards (Architect).");
-            }
+    /**
+     * Plays one round: character selection followed by every character's
+     * turn, then clears the round effects unless the game has ended.
+     * Buffered output is flushed after each phase. The round is a
+     * {@link RoundMachine} driven by blocking reads of the game's input.
+     * @param game the current game state
+     */
+    public static void playRound(GameState game) {
+        new RoundMachine(game).play();
+    }
 
-            // 7) Colour incomes & crown/merchant
-            if (r == 4 || r == 5 || r == 6 || r == 8) {
-                String col = r == 4 ? "yellow"
-                        : r == 5 ? "blue"
-                        : r == 6 ? "green"
-                        :         "red";
-
-                // School of Magic override
-                String schoolColor = null;
-                if (cur.hasBuilt("School of Magic")) {
-                    if (cur.isHuman()) {
-                        System.out.print("Choose School of Magic color for this income [yellow/blue/green/red]: ");
-                        schoolColor = scanner.nextLine().trim().toLowerCase();
-                    } else {
-                        // CPU: pick the color they have most of in city
-                        Map<String,Long> counts = cur.getCity().stream()
-                                .collect(Collectors.groupingBy(District::getColor, Collectors.counting()));
-                        schoolColor = counts.entrySet().stream()
-                                .max(Comparator.comparingLong(Map.Entry::getValue))
-                                .map(Map.Entry::getKey)
-                                .orElse(col);
-                    }
-                }
+    /**
+     * Prompts the user for the number of players (4-7).
+     * @param game the current game state
+     * @return the number of players
+     */
+    public static int promptPlayerCount(GameState game) {
+        int count = 0;
+        do {
+            game.out.print("Enter how many players [4-7]: ");
+            String input = game.nextLine().trim();
+            try { count = Integer.parseInt(input); }
+            catch (NumberFormatException e) { count = 0; }
+        } while (count < 4 || count > 7);
+        return count;
+    }
 
-                int gain = 0;
-                for (District d : cur.getCity()) {
-                    if (d.getColor().equals(col)
-                            || (d.getName().equalsIgnoreCase("School of Magic")
-                            && schoolColor != null
-                            && schoolColor.equals(col))) {
-                        gain++;
-                    }
-                }
-                if (gain > 0) {
-                    cur.addGold(gain);
-                    if (cur.isHuman())
-                        System.out.printf("You received %d gold from your %s districts.%n", gain, col);
-                    else
-                        System.out.printf("Player %d received %d gold from their %s districts.%n",
-                                cur.getId(), gain, col);
-                }
-            }
-            if (r == 4 || r == 5 || r == 6 || r == 8) {
-                String col = r == 4 ? "yellow"
-                        : r == 5 ? "blue"
-                        : r == 6 ? "green"
-                        :         "red";
-
-                // School of Magic override
-                String schoolColor = null;
-                if (cur.hasBuilt("School of Magic")) {
-                    if (cur.isHuman()) {
-                        System.out.print("Choose School of Magic color for this income [yellow/blue/green/red]: ");
-                        schoolColor = scanner.nextLine().trim().toLowerCase();
-                    } else {
-                        // CPU: pick the color they have most of in city
-                        Map<String,Long> counts = cur.getCity().stream()
-                                .collect(Collectors.groupingBy(District::getColor, Collectors.counting()));
-                        schoolColor = counts.entrySet().stream()
-                                .max(Comparator.comparingLong(Map.Entry::getValue))
-                                .map(Map.Entry::getKey)
-                                .orElse(col);
-                    }
-                }
+    /**
+     * Initializes the deck with every card in the district catalog
+     * (loaded once from the cards.tsv resource file).
+     * @param game the current game state
+     */
+    public static void initializeDeck(GameState game) {
+        game.deck.clear();
+        DistrictCatalog.get().fillDeck(game.deck);
+    }
 
-                int gain = 0;
-                for (District d : cur.getCity()) {
-                    if (d.getColor().equals(col)
-                            || (d.getName().equalsIgnoreCase("School of Magic")
-                            && schoolColor != null
-                            && schoolColor.equals(col))) {
-                        gain++;
-                    }
-                }
-                if (gain > 0) {
-                    cur.addGold(gain);
-                    if (cur.isHuman())
-                        System.out.printf("You received %d gold from your %s districts.%n", gain, col);
-                    else
-                        System.out.printf("Player %d received %d gold from their %s districts.%n",
-                                cur.getId(), gain, col);
-                }
-            }
+    /**
+     * Draws a card from the deck and adds it to the player's hand.
+     * @param game the current game state
+     * @param p the player to draw a card for
+     */
+    public static void drawCardForPlayer(GameState game, Player p) {
+        District d = game.deck.draw();
+        if (d != null) {
+            addToHand(game, p, d);
+        }
+    }
 
-            if (r == 4) {
-                crownedPlayer = cur;
-            }
-            if (r == 6) {
-                cur.addGold(1);
-                System.out.println((cur.isHuman() ? "Merchant gains an extra 1 gold."
-                        : "Player " + cur.getId() + " gains an extra 1 gold (Merchant)."));
-            }
+    /**
+     * Adds a drawn card to a player's hand and publishes the draw.
+     * @param game the current game state
+     * @param p the player receiving the card
+     * @param d the card drawn
+     */
+    static void addToHand(GameState game, Player p, District d) {
+        p.addCardToHand(d);
+        game.emit(GameEvent.Type.CARD_DRAWN, p, 0, 0, d, null);
+    }
 
-            // 8) Warlord destruction
-            if (r == 8 && cur.isHuman()) {
-                System.out.print("Destroy a district? [player#/no]: ");
-                String respLine = scanner.nextLine().trim().toLowerCase();
-                if (!respLine.equals("no")) {
-                    String numStr = respLine.replaceAll("\\D+", "");
-                    if (!numStr.isEmpty()) {
-                        int tid = Integer.parseInt(numStr);
-                        if (tid >= 1 && tid <= players.size()) {
-                            Player tgt = players.get(tid - 1);
-                            if (!tgt.getCity().isEmpty()
-                                    && tgt.getCity().size() < 8
-                                    && !(tgt.getCharacter() == 5 && killedCharacter != 5)) {
-                                for (int i = 0; i < tgt.getCity().size(); i++) {
-                                    System.out.printf("%d. %s%n",
-                                            i+1, tgt.getCity().get(i).displayLong(true));
-                                }
-                                System.out.print("Choose [1-" + tgt.getCity().size()
-                                        + " / 0 to cancel]: ");
-                                String choiceLine = scanner.nextLine().trim();
-                                String choiceNum = choiceLine.replaceAll("\\D+", "");
-                                if (!choiceNum.isEmpty()) {
-                                    int choice = Integer.parseInt(choiceNum);
-                                    if (choice >= 1 && choice <= tgt.getCity().size()) {
-                                        District td = tgt.getCity().get(choice - 1);
-                                        int cost = Math.max(0, td.getCost() - 1);
-                                        if (tgt.hasBuilt("Great Wall")) cost = td.getCost();
-                                        if (cost <= cur.getGold()) {
-                                            cur.spendGold(cost);
-                                            tgt.getCity().remove(td);
-                                            System.out.println("Destroyed " + td.getName()
-                                                    + " from Player " + tgt.getId() + ".");
-                                            if (tgt.hasBuilt("Graveyard") && tgt.getGold() > 0) {
-                                                System.out.print("Recover with Graveyard? [yes/no]: ");
-                                                if (scanner.nextLine().trim().toLowerCase()
-                                                        .startsWith("y")) {
-                                                    tgt.spendGold(1);
-                                                    tgt.getHand().add(td);
-                                                    System.out.println("Recovered " + td.getName()
-                                                            + " into Player " + tgt.getId() + "'s hand.");
-                                                }
-                                            }
-                                        } else {
-                                            System.out.println("Not enough gold to destroy " + td.getName());
-                                        }
-                                    }
-                                }
-                            } else {
-                                System.out.println("Cannot destroy that city.");
-                            }
-                        } else {
-                            System.out.println("Invalid player number: " + numStr);
-                        }
-                    } else {
-                        System.out.println("Invalid input. Please enter a player number or 'no'.");
-                    }
-                }
-            } else if (r == 8) {
-                // CPU Warlord destruction (unchanged)...
-                // [omitted for brevity, same as your existing logic]
-            }
+    /**
+     * Handles the character selection phase for all players.
+     * Deals with discards, face-up/face-down, and player choices.
+     * @param game the current game state
+     */
+    public static void characterSelectionPhase(GameState game) {
+        RoundMachine.selection(game).play();
+    }
 
-            // 9) Build phase
-            int limit = (r == 7 ? 3 : 1), built = 0;
-            if (cur.isHuman()) {
-                while (true) {
-                    System.out.print("> ");
-                    String cmd = scanner.nextLine().trim();
-                    if (processCommand(cur, cmd)) continue;
-                    if (cmd.equalsIgnoreCase("end")) {
-                        System.out.println("You ended your turn.");
-                        break;
-                    }
-                    if (cmd.startsWith("build ")) {
-                        if (built >= limit) {
-                            System.out.println("No builds remaining."); continue;
-                        }
-                        String[] ps = cmd.split("\\s+");
-                        if (ps.length >= 2) {
-                            try {
-                                int hi = Integer.parseInt(ps[1]) - 1;
-                                District d = (hi >= 0 && hi < cur.getHand().size())
-                                        ? cur.getHand().get(hi) : null;
-                                if (d == null) {
-                                    System.out.println("Invalid selection.");
-                                } else if (d.getCost() > cur.getGold()) {
-                                    System.out.println("Not enough gold.");
-                                } else if (cur.hasBuilt(d.getName())) {
-                                    System.out.println("Already built that district.");
-                                } else {
-                                    cur.spendGold(d.getCost());
-                                    cur.getHand().remove(hi);
-                                    cur.getCity().add(d);
-                                    System.out.println("Built " + d.displayShort());
-                                    built++;
-                                    if (cur.getCity().size() >= 8 && !gameEndTriggered) {
-                                        gameEndTriggered = true;
-                                        if (firstCompleter == null) firstCompleter = cur;
-                                    }
-                                    if (built >= limit) {
-                                        System.out.println("Build limit reached.");
-                                    }
-                                }
-                            } catch (Exception e) {
-                                System.out.println("Usage: build <hand index>");
-                            }
-                        }
-                        continue;
-                    }
-                    System.out.println("Unknown command.");
-                }
-            } else {
-                for (int b = 0; b < limit; b++) {
-                    District best = null;
-                    int idx = -1;
-                    for (int i = 0; i < cur.getHand().size(); i++) {
-                        District d = cur.getHand().get(i);
-                        if (d.getCost() <= cur.getGold() && !cur.hasBuilt(d.getName())) {
-                            if (best == null || d.getCost() < best.getCost()) {
-                                best = d; idx = i;
-                            }
-                        }
-                    }
-                    if (best != null) {
-                        cur.spendGold(best.getCost());
-                        cur.getHand().remove(idx);
-                        cur.getCity().add(best);
-                        System.out.println("Player " + cur.getId() +
-                                " built " + best.getName() + ".");
-                        built++;
-                        if (cur.getCity().size() >= 8 && !gameEndTriggered) {
-                            gameEndTriggered = true;
-                            if (firstCompleter == null) firstCompleter = cur;
-                        }
-                    } else {
-                        break;
-                    }
-                }
-            }
+    /**
+     * Handles the turn phase for all characters in order (1-8).
+     * Each character's ability and build phase is processed.
+     * @param game the current game state
+     */
+    public static void turnPhase(GameState game) {
+        game.out.println("================================");
+        game.out.println("TURN PHASE");
+        game.out.println("================================");
 
-            // end-of-turn pause
-            if (r < 8) {
-                System.out.println("Press t to continue.");
-                waitForContinue();
-            }
-        }
+        turnPhase(game, 1);
+    }
+
+    /**
+     * Plays the turns of the characters from the given one up to the
+     * Warlord. Search players use this to play out a copied game from the
+     * start of a character's turn.
+     * @param game the current game state
+     * @param first the first character to play (1-8)
+     */
+    static void turnPhase(GameState game, int first) {
+        RoundMachine.turns(game, first).play();
+    }
+
+    /**
+     * Returns what the Warlord pays to destroy a district: one less than
+     * its cost, or its full cost if the owner has the Great Wall.
+     * @param d the district
+     * @param greatWall whether its owner has built the Great Wall
+     * @return gold to pay
+     */
+    static int destroyCost(District d, boolean greatWall) {
+        return greatWall ? d.getCost() : Math.max(0, d.getCost() - 1);
     }
+
     /**
      * Processes a command entered by the player during their turn.
+     * @param game the current game state
      * @param cur the current player
      * @param cmd the command string
      * @return true if the command was handled, false otherwise
      */
-    public static boolean processCommand(Player cur, String cmd) {
+    public static boolean processCommand(GameState game, Player cur, String cmd) {
         String lower = cmd.trim().toLowerCase();
         if (lower.equals("hand")) {
-            showHand(cur); return true;
+            showHand(game, cur); return true;
         }
         if (lower.startsWith("gold")) {
-            handleGoldCommand(lower); return true;
+            handleGoldCommand(game, lower); return true;
         }
         if (lower.matches("^(citadel|city|list)(\\s+\\d+)?$")) {
-            handleCityCommand(lower); return true;
+            handleCityCommand(game, lower); return true;
         }
         if (lower.equals("all")) {
-            showAllPlayers(); return true;
+            showAllPlayers(game); return true;
         }
         if (lower.equals("action")) {
-            System.out.println(CHARACTER_INFO[cur.getCharacter()]);
+            game.out.println(CHARACTER_INFO[cur.getCharacter()]);
             return true;
         }
         if (lower.startsWith("info ")) {
-            handleInfoCommand(cmd, cur); return true;
-        }
-        if (lower.startsWith("save ")) {
-            doSave(cmd.substring(5).trim()); return true;
+            handleInfoCommand(game, cmd, cur); return true;
         }
-        if (lower.startsWith("load ")) {
-            doLoad(cmd.substring(5).trim()); return true;
+        if (lower.startsWith("save ") || lower.startsWith("load ")) {
+            if (game.remote) {
+                refuseRemote(game);
+            } else if (lower.startsWith("save ")) {
+                doSave(game, cmd.substring(5).trim());
+            } else {
+                doLoad(game, cmd.substring(5).trim());
+            }
+            return true;
         }
         if (lower.equals("help")) {
-            printHelp(); return true;
+            printHelp(game); return true;
         }
         if (lower.equals("debug")) {
-            debugMode = !debugMode;
-            System.out.println("Debug mode " + (debugMode ? "ON" : "OFF"));
-            return true;
+            toggleDebug(game); return true;
         }
         return false;
     }
 
+    /**
+     * Turns debug mode, which shows the CPU players' hands, on or off,
+     * unless the human plays over the network.
+     * @param game the current game state
+     */
+    static void toggleDebug(GameState game) {
+        if (game.remote) {
+            refuseRemote(game);
+            return;
+        }
+        game.debugMode = !game.debugMode;
+        game.out.printf("Debug mode %s%n", game.debugMode ? "ON" : "OFF");
+    }
+
+    // Tells a network player that a command is only for the console
+    private static void refuseRemote(GameState game) {
+        game.out.println("That command is not available over the network.");
+    }
+
     /**
      * Wrapper for saving the game, with error handling.
+     * @param game the current game state
      * @param filename the file to save to
      */
-    public static void doSave(String filename) {
+    public static void doSave(GameState game, String filename) {
         try {
-            saveGame(filename);
+            saveGame(game, filename);
         } catch (Exception e) {
-            System.out.println("Failed to save game: " + e.getMessage());
+            game.out.printf("Failed to save game: %s%n", e.getMessage());
         }
     }
     /**
      * Wrapper for loading the game, with error handling.
+     * @param game the current game state
      * @param filename the file to load from
      */
-    static void doLoad(String filename) {
+    static void doLoad(GameState game, String filename) {
         try {
-            loadGame(filename);
+            loadGame(game, filename);
         } catch (Exception e) {
-            System.out.println("Failed to load game: " + e.getMessage());
+            game.out.printf("Failed to load game: %s%n", e.getMessage());
         }
     }
 
     /**
      * Handles the 'gold' command to show gold for a player.
+     * @param game the current game state
      * @param arg the command argument
      */
-    static void handleGoldCommand(String arg) {
+    static void handleGoldCommand(GameState game, String arg) {
         String[] parts = arg.split("\\s+");
         if (parts.length == 1) {
-            System.out.println("You have " + players.get(0).getGold() + " gold.");
+            game.out.printf("You have %d gold.%n", game.players.get(0).getGold());
         } else {
             try {
                 int pid = Integer.parseInt(parts[1]);
-                Player p = players.get(pid - 1);
-                System.out.println("Player " + pid + " has " + p.getGold() + " gold.");
+                Player p = game.players.get(pid - 1);
+                game.out.printf("Player %d has %d gold.%n", pid, p.getGold());
             } catch (Exception e) {
-                System.out.println("Invalid player number.");
+                game.out.println("Invalid player number.");
             }
         }
     }
 
     /**
      * Handles the 'city', 'citadel', or 'list' command to show a player's city.
+     * @param game the current game state
      * @param arg the command argument
      */
-    static void handleCityCommand(String arg) {
+    static void handleCityCommand(GameState game, String arg) {
         String[] parts = arg.split("\\s+");
         int pid = 1;
         if (parts.length > 1) {
             try { pid = Integer.parseInt(parts[1]); }
             catch (Exception ignored) { }
         }
-        if (pid < 1 || pid > players.size()) {
-            System.out.println("No such player: " + pid);
+        if (pid < 1 || pid > game.players.size()) {
+            game.out.printf("No such player: %d%n", pid);
             return;
         }
-        showCity(players.get(pid - 1));
+        showCity(game, game.players.get(pid - 1));
     }
 
     /**
      * Prints the built districts for a player.
+     * @param game the current game state
      * @param p the player
      */
-    public static void showCity(Player p) {
-        System.out.println("Player " + p.getId() + " has built:");
+    public static void showCity(GameState game, Player p) {
+        game.out.printf("Player %d has built:%n", p.getId());
         if (p.getCity().isEmpty()) {
-            System.out.println("  (none)");
+            game.out.println("  (none)");
         } else {
             for (District d : p.getCity()) {
-                System.out.printf("  %s (%s), points: %d%n",
+                game.out.printf("  %s (%s), points: %d%n",
                         d.getName(), d.getColor(), d.getCost());
             }
         }
@@ -1036,13 +710,14 @@ public class App {
 
     /**
      * Handles the 'info' command to show info about a character or district.
+     * @param game the current game state
      * @param cmd the command string
      * @param cur the current player
      */
-    static void handleInfoCommand(String cmd, Player cur) {
+    static void handleInfoCommand(GameState game, String cmd, Player cur) {
         String[] sp = cmd.trim().split("\\s+", 2);
         if (sp.length < 2) {
-            System.out.println("Specify a character name or a hand index.");
+            game.out.println("Specify a character name or a hand index.");
             return;
         }
         String arg = sp[1].trim();
@@ -1050,7 +725,7 @@ public class App {
         // Character info?
         for (int i = 1; i <= 8; i++) {
             if (CHARACTER_NAMES[i].equalsIgnoreCase(arg)) {
-                System.out.println(CHARACTER_INFO[i]);
+                game.out.println(CHARACTER_INFO[i]);
                 return;
             }
         }
@@ -1075,135 +750,144 @@ public class App {
 
         if (found != null) {
             if (found.isUnique()) {
-                System.out.println(found.getDescription());
+                game.out.println(found.getDescription());
             } else {
-                System.out.println("That district is not purple.");
+                game.out.println("That district is not purple.");
             }
         } else {
-            System.out.println("No purple district named \"" + arg + "\" in your hand.");
+            game.out.printf("No purple district named \"%s\" in your hand.%n", arg);
         }
     }
 
     /**
      * Shows the hand and gold for a player (only if human).
+     * @param game the current game state
      * @param p the player
      */
-    static void showHand(Player p) {
+    static void showHand(GameState game, Player p) {
         if (!p.isHuman()) {
-            System.out.println("You cannot see other players' hands (unless debug).");
+            game.out.println("You cannot see other players' hands (unless debug).");
             return;
         }
-        System.out.println("You have " + p.getGold() + " gold. Cards in hand:");
+        game.out.printf("You have %d gold. Cards in hand:%n", p.getGold());
         for (int i = 0; i < p.getHand().size(); i++) {
-            System.out.println((i + 1) + ". " + p.getHand().get(i).displayLong(false));
+            game.out.printf("%d. %s%n", i + 1, p.getHand().get(i).displayLong(false));
         }
     }
 
     /**
      * Shows the status of all players.
+     * @param game the current game state
      */
-    public static void showAllPlayers() {
-        for (Player p : players) {
-            System.out.println(p.toString());
+    public static void showAllPlayers(GameState game) {
+        for (Player p : game.players) {
+            game.out.println(p.toString());
         }
     }
 
     /**
      * Prints help for available commands.
+     * @param game the current game state
      */
-    public static void printHelp() {
-        System.out.println("Available commands:");
-        System.out.println("t : processes next turn");
-        System.out.println("hand : shows your cards and gold");
-        System.out.println("gold [p] : shows gold of player p");
-        System.out.println("build <h> : builds card at position h in your hand");
-        System.out.println("city/citadel/list [p] : shows built districts of player p");
-        System.out.println("action : gives info about your character action");
-        System.out.println("info <name> : info about building or character");
-        System.out.println("all : shows status of all players");
-        System.out.println("save <file> : saves game state");
-        System.out.println("load <file> : loads game state");
-        System.out.println("end : ends your turn");
-        System.out.println("debug : toggles debug mode");
+    public static void printHelp(GameState game) {
+        game.out.println("Available commands:");
+        game.out.println("t : processes next turn");
+        game.out.println("hand : shows your cards and gold");
+        game.out.println("gold [p] : shows gold of player p");
+        game.out.println("build <h> : builds card at position h in your hand");
+        game.out.println("city/citadel/list [p] : shows built districts of player p");
+        game.out.println("action : gives info about your character action");
+        game.out.println("info <name> : info about building or character");
+        game.out.println("all : shows status of all players");
+        if (!game.remote) {
+            game.out.println("save <file> : saves game state");
+            game.out.println("load <file> : loads game state");
+        }
+        game.out.println("end : ends your turn");
+        if (!game.remote) {
+            game.out.println("debug : toggles debug mode");
+        }
     }
     /**
      * Waits for the user to press 't' to continue, or processes global commands.
+     * @param game the current game state
      */
-    public static void waitForContinue() {
-        while (true) {
-            String in = scanner.nextLine().trim();
-            // 1) t still advances
-            if (in.equalsIgnoreCase("t")) {
-                break;
-            }
-            // 2) allow global commands at any time
-            //    processCommand returns true if it handled something
-            if (processCommand(players.get(0), in)) {
-                continue;  // show hand, all, debug, save/load, etc., then keep waiting
-            }
+    public static void waitForContinue(GameState game) {
+        // nobody to press t in an all-CPU game
+        if (!game.hasHumanPlayer()) {
+            return;
+        }
+        while (!continueCommand(game, game.nextLine().trim())) {
+            // keep waiting for 't'
+        }
+    }
+
+    /**
+     * Handles one line typed while the game waits for 't': global commands
+     * are run, anything else is refused.
+     * @param game the current game state
+     * @param in the trimmed input line
+     * @return true if the line was 't' and the game may continue
+     */
+    static boolean continueCommand(GameState game, String in) {
+        // 1) t still advances
+        if (in.equalsIgnoreCase("t")) {
+            return true;
+        }
+        // 2) allow global commands at any time
+        //    processCommand returns true if it handled something
+        if (!processCommand(game, game.players.get(0), in)) {
             // 3) otherwise still insist on 't'
-            System.out.println("It is not your turn. Press t to continue.");
+            game.out.println("It is not your turn. Press t to continue.");
         }
+        return false;
     }
 
     /**
      * Calculates and prints the final scores, then declares the winner.
+     * Counts the game as completed in the {@link EngineMetrics} and
+     * records the scoring as a {@link FlightEvents} event.
+     * @param game the current game state
+     * @return the winning player
      */
-    public static void scoreAndDeclareWinner() {
-        System.out.println("================================");
-        System.out.println("GAME OVER - Final Scores");
-        System.out.println("================================");
+    public static Player scoreAndDeclareWinner(GameState game) {
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Scoring event = new FlightEvents.Scoring();
+        event.begin();
+        game.out.println("================================");
+        game.out.println("GAME OVER - Final Scores");
+        game.out.println("================================");
 
         Map<Player,Integer> scores = new LinkedHashMap<>();
-        Map<Player,String> breakdowns = new LinkedHashMap<>();
-
-        for (Player p : players) {
-            boolean completed = p.getCity().size() >= 8;
-            boolean first    = (firstCompleter == p);
 
-            StringBuilder sb = new StringBuilder();
-            sb.append("Player ").append(p.getId());
-            if (p.isHuman()) sb.append(" (you)");
-            sb.append(":\n");
+        for (Player p : game.players) {
+            City city = p.getCity();
+            p.setFirstCompleter(game.firstCompleter == p);
+            int total = p.getScore();
+            scores.put(p, total);
+            game.emit(GameEvent.Type.FINAL_SCORE, p, p.getCharacter(), total, null, null);
 
-            int total = 0;
-            sb.append("  Districts built:\n");
-            for (District d : p.getCity()) {
-                sb.append("    - ").append(d.getName())
-                        .append(" (").append(d.getColor()).append("), cost ")
-                        .append(d.getCost()).append("\n");
-                total += d.getCost();
+            game.out.printf("Player %d%s:%n", p.getId(), p.isHuman() ? " (you)" : "");
+            game.out.println("  Districts built:");
+            for (District d : city) {
+                game.out.printf("    - %s (%s), cost %d%n",
+                        d.getName(), d.getColor(), d.getCost());
             }
-            sb.append("  Sum of costs: ").append(total).append("\n");
+            game.out.printf("  Sum of costs: %d%n", city.getCostTotal());
 
-            Set<String> cols = new HashSet<>();
-            for (District d : p.getCity()) cols.add(d.getColor().toLowerCase());
-            if (cols.containsAll(Arrays.asList("yellow","blue","green","red","purple"))) {
-                sb.append("  Diversity bonus: +3\n");
-                total += 3;
+            if (city.getDiversityBonus() > 0) {
+                game.out.printf("  Diversity bonus: +%d%n", city.getDiversityBonus());
             }
 
-            if (completed) {
-                int bonus = first ? 4 : 2;
-                sb.append("  Completion bonus: +").append(bonus).append("\n");
-                total += bonus;
+            if (p.getCompletionBonus() > 0) {
+                game.out.printf("  Completion bonus: +%d%n", p.getCompletionBonus());
             }
 
-            int purpleBonus = 0;
-            for (District d : p.getCity()) purpleBonus += d.getPointBonus();
-            if (purpleBonus > 0) {
-                sb.append("  Unique district bonus: +")
-                        .append(purpleBonus).append("\n");
-                total += purpleBonus;
+            if (city.getUniqueBonus() > 0) {
+                game.out.printf("  Unique district bonus: +%d%n", city.getUniqueBonus());
             }
 
-            sb.append("  → Total: ").append(total).append(" points\n");
-            scores.put(p, total);
-            breakdowns.put(p, sb.toString());
-        }
-
-        for (String b : breakdowns.values()) {
-            System.out.print(b);
+            game.out.printf("  → Total: %d points%n", total);
         }
 
         int max = Collections.max(scores.values());
@@ -1217,30 +901,36 @@ public class App {
                 .max(Comparator.comparingInt(Player::getCharacter))
                 .get();
 
-        System.out.println("Congratulations, Player " + win.getId() + " wins!");
+        game.out.printf("Congratulations, Player %d wins!%n", win.getId());
+        game.emit(GameEvent.Type.GAME_END, win, win.getCharacter(), scores.get(win), null, null);
+        EngineMetrics.gameScored(timer);
+        event.finish(game, win);
+        return win;
     }
 
     /**
      * Saves the current game state to the specified file.
+     * @param game the current game state
      * @param filename path to the JSON file
      */
-    public static void saveGame(String filename) {
+    public static void saveGame(GameState game, String filename) {
         try {
-            Serializer.saveGame(filename);
+            Serializer.saveGame(game, filename);
         } catch (IOException e) {
-            System.out.println("Failed to save game: " + e.getMessage());
+            game.out.printf("Failed to save game: %s%n", e.getMessage());
         }
     }
 
     /**
      * Loads a saved game state from the specified file.
+     * @param game the current game state
      * @param filename path to the JSON file
      */
-    public static void loadGame(String filename) {
+    public static void loadGame(GameState game, String filename) {
         try {
-            Serializer.loadGame(filename);
+            Serializer.loadGame(game, filename);
         } catch (IOException | ParseException e) {
-            System.out.println("Failed to load game: " + e.getMessage());
+            game.out.printf("Failed to load game: %s%n", e.getMessage());
         }
     }
 }
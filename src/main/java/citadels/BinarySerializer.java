@@ -0,0 +1,253 @@
+// File: src/main/java/citadels/BinarySerializer.java
+package citadels;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary save format, an alternative to the JSON written by
+ * {@link Serializer}. Cards from the {@link DistrictCatalog} are stored as
+ * their card ID and every number as a varint, so a save is a few hundred
+ * bytes instead of tens of KB.
+ *
+ * <p>Layout (version 1):</p>
+ * <pre>
+ *   magic "CTDL", version byte, catalog fingerprint (int)
+ *   flags byte (1 = game end triggered, 2 = debug mode)
+ *   crown player ID, first completer ID (varints, 0 = none)
+ *   player count, then per player:
+ *     ID, human byte, gold, character, hand cards, city cards
+ *   deck cards
+ * </pre>
+ * <p>A card list is a varint count followed by one varint per card: the
+ * card ID plus one, or 0 followed by the name, color, cost and text of a
+ * card that is not in the catalog.</p>
+ */
+public class BinarySerializer {
+    /** File extension that selects the binary format when saving. */
+    public static final String EXTENSION = ".cit";
+    /** Current format version. */
+    public static final int VERSION = 1;
+
+    // First bytes of every binary save: "CTDL"
+    private static final int MAGIC = 0x4354444C;
+    private static final int FLAG_GAME_END = 1;
+    private static final int FLAG_DEBUG = 2;
+    // Most players a save may hold
+    private static final int MAX_PLAYERS = 7;
+
+    /**
+     * Indicates whether a file name selects the binary format.
+     *
+     * @param filename path of the save file
+     * @return true if it ends with {@link #EXTENSION}
+     */
+    public static boolean isBinaryName(String filename) {
+        return filename.toLowerCase().endsWith(EXTENSION);
+    }
+
+    /**
+     * Checks whether a stream starts with the binary save header. The
+     * stream must support mark/reset; it is left at its starting position.
+     *
+     * @param in the stream to check
+     * @return true if the stream holds a binary save
+     * @throws IOException if the stream cannot be read
+     */
+    static boolean hasMagic(InputStream in) throws IOException {
+        in.mark(4);
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = in.read();
+            if (b < 0) {
+                in.reset();
+                return false;
+            }
+            magic = (magic << 8) | b;
+        }
+        in.reset();
+        return magic == MAGIC;
+    }
+
+    /**
+     * Writes the game state to the given file in the binary format.
+     *
+     * @param game     the game state to save
+     * @param filename path of the file to write
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public static void saveGame(GameState game, String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename)))) {
+            write(game, out);
+        }
+        game.out.printf("Game saved to %s%n", filename);
+    }
+
+    // Writes a complete save, magic header first, to the stream
+    static void write(GameState game, DataOutputStream out) throws IOException {
+        DistrictCatalog catalog = DistrictCatalog.get();
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(catalog.getFingerprint());
+
+        out.writeByte((game.gameEndTriggered ? FLAG_GAME_END : 0)
+                | (game.debugMode ? FLAG_DEBUG : 0));
+        writeVarint(out, game.crownedPlayer == null ? 0 : game.crownedPlayer.getId());
+        writeVarint(out, game.firstCompleter == null ? 0 : game.firstCompleter.getId());
+
+        writeVarint(out, game.players.size());
+        for (Player p : game.players) {
+            writeVarint(out, p.getId());
+            out.writeBoolean(p.isHuman());
+            writeVarint(out, p.getGold());
+            writeVarint(out, p.getCharacter());
+            writeCards(out, p.getHand(), catalog);
+            writeCards(out, p.getCity(), catalog);
+        }
+        writeCards(out, game.deck, catalog);
+    }
+
+    // Restores a game from a stream positioned at the magic header, for
+    // Serializer.loadGame. The game is only changed once the whole save
+    // has been read
+    static void read(GameState game, DataInputStream in) throws IOException {
+        DistrictCatalog catalog = DistrictCatalog.get();
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary Citadels save");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        if (in.readInt() != catalog.getFingerprint()) {
+            throw new IOException("Save was written with a different card list");
+        }
+
+        int flags = in.readUnsignedByte();
+        int crown = readVarint(in);
+        int firstCompleter = readVarint(in);
+
+        // counts come from the file: bound them, and size nothing by them
+        int count = readCount(in, MAX_PLAYERS, "players");
+        int maxCards = catalog.getDeckSize();
+        Map<Integer, Player> idMap = new HashMap<>();
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int id = readVarint(in);
+            Player p = new Player(id, in.readBoolean());
+            p.addGold(readVarint(in));
+            p.setCharacter(readVarint(in));
+            int hand = readCount(in, maxCards, "cards in hand");
+            for (int j = 0; j < hand; j++) {
+                p.addCardToHand(readCard(in, catalog));
+            }
+            int city = readCount(in, maxCards, "cards in city");
+            for (int j = 0; j < city; j++) {
+                p.getCity().add(readCard(in, catalog));
+            }
+            players.add(p);
+            idMap.put(id, p);
+        }
+
+        int deckSize = readCount(in, maxCards, "cards in deck");
+        List<District> deck = new ArrayList<>();
+        for (int i = 0; i < deckSize; i++) {
+            deck.add(readCard(in, catalog));
+        }
+
+        game.players.clear();
+        game.players.addAll(players);
+        game.deck.clear();
+        for (District d : deck) {
+            game.deck.putBottom(d);
+        }
+        game.crownedPlayer = idMap.get(crown);
+        game.firstCompleter = idMap.get(firstCompleter);
+        if (game.firstCompleter != null) {
+            game.firstCompleter.setFirstCompleter(true);
+        }
+        game.gameEndTriggered = (flags & FLAG_GAME_END) != 0;
+        game.debugMode = (flags & FLAG_DEBUG) != 0;
+    }
+
+    private static void writeCards(DataOutputStream out, Collection<District> cards,
+                                   DistrictCatalog catalog) throws IOException {
+        writeVarint(out, cards.size());
+        for (District d : cards) {
+            int id = d.getId();
+            if (id >= 0 && catalog.byId(id) == d) {
+                writeVarint(out, id + 1);
+            } else {
+                writeVarint(out, 0);
+                out.writeUTF(d.getName());
+                out.writeUTF(d.getColor());
+                writeVarint(out, d.getCost());
+                out.writeUTF(d.getDescription());
+            }
+        }
+    }
+
+    private static District readCard(DataInputStream in, DistrictCatalog catalog)
+            throws IOException {
+        int ref = readVarint(in);
+        if (ref == 0) {
+            String name = in.readUTF();
+            String color = in.readUTF();
+            int cost = readVarint(in);
+            return catalog.intern(name, color, cost, in.readUTF());
+        }
+        if (ref > catalog.size()) {
+            throw new IOException("Unknown card ID " + (ref - 1));
+        }
+        return catalog.byId(ref - 1);
+    }
+
+    // Writes a non-negative int in 7-bit groups, low group first
+    static void writeVarint(DataOutputStream out, int v) throws IOException {
+        if (v < 0) {
+            throw new IOException("Negative value in save: " + v);
+        }
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    // Reads a count written by writeVarint, rejecting one above max
+    private static int readCount(DataInputStream in, int max, String what)
+            throws IOException {
+        int n = readVarint(in);
+        if (n > max) {
+            throw new IOException("Too many " + what + " in save: " + n);
+        }
+        return n;
+    }
+
+    // Reads an int written by writeVarint; the fifth group holds only the
+    // top 3 bits, so the result is never negative
+    static int readVarint(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            if (shift == 28 && (b & ~0x07) != 0) {
+                break;
+            }
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IOException("Malformed varint in save");
+    }
+}
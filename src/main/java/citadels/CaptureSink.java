@@ -0,0 +1,43 @@
+// File: src/main/java/citadels/CaptureSink.java
+package citadels;
+
+/**
+ * Keeps everything printed in memory so it can be read back, e.g. by
+ * tests checking what a command displayed.
+ */
+public class CaptureSink implements OutputSink {
+    // Everything printed so far
+    private final StringBuilder text = new StringBuilder();
+
+    @Override
+    public void print(String s) {
+        text.append(s);
+    }
+
+    @Override
+    public void println(String s) {
+        text.append(s).append(System.lineSeparator());
+    }
+
+    @Override
+    public void printf(String format, Object... args) {
+        text.append(String.format(format, args));
+    }
+
+    /**
+     * Discards everything captured so far.
+     */
+    public void reset() {
+        text.setLength(0);
+    }
+
+    /**
+     * Returns everything printed since creation or the last reset.
+     *
+     * @return the captured text
+     */
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+}
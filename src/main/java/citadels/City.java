@@ -0,0 +1,299 @@
+// File: src/main/java/citadels/City.java
+package citadels;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * The districts a player has built, kept as a list together with an index
+ * that is updated on every add and remove: per-color counts, a bitset of
+ * the unique (purple) catalog districts built, and how many of each card
+ * are built. Because every change goes through the list methods, the index
+ * stays consistent however the city is modified (building, the Warlord,
+ * the Graveyard, loading a save), and lookups such as
+ * {@link #contains(String)} are O(1). The point totals used for scoring
+ * are kept the same way, so the current score can be read at any time.
+ * Catalog districts are counted in arrays indexed by card ID, so
+ * {@link #copy()} is a handful of array copies.
+ */
+public class City extends AbstractList<District> implements RandomAccess {
+    /**
+     * District colors, in the order used by {@link #colorIndex(String)}.
+     */
+    public static final String[] COLORS = {"yellow", "blue", "green", "red", "purple"};
+
+    // The built districts, in build order
+    private final List<District> districts = new ArrayList<>();
+    // Number of built districts per color, indexed like COLORS
+    private final int[] colorCounts = new int[COLORS.length];
+    // Bit per catalog card ID of each unique district built
+    private final long[] uniqueBits =
+            new long[(DistrictCatalog.get().size() + 63) >>> 6];
+    // Number of built districts per catalog card ID
+    private final int[] idCounts = new int[DistrictCatalog.get().size()];
+    // Number of built non-catalog districts per lower-cased name, or null
+    private Map<String, Integer> otherCounts;
+    // Sum of the build costs of all districts
+    private int costTotal;
+    // Sum of the end-of-game bonuses of all districts
+    private int uniqueBonus;
+
+    /**
+     * Returns the index of a color in {@link #COLORS}.
+     *
+     * @param color color name (lower-case)
+     * @return its index, or -1 if it is not one of the five district colors
+     */
+    public static int colorIndex(String color) {
+        switch (color) {
+            case "yellow": return 0;
+            case "blue":   return 1;
+            case "green":  return 2;
+            case "red":    return 3;
+            case "purple": return 4;
+            default:       return -1;
+        }
+    }
+
+    @Override
+    public District get(int index) {
+        return districts.get(index);
+    }
+
+    @Override
+    public int size() {
+        return districts.size();
+    }
+
+    @Override
+    public void add(int index, District d) {
+        districts.add(index, d);
+        modCount++;
+        indexAdd(d);
+    }
+
+    @Override
+    public District remove(int index) {
+        District d = districts.remove(index);
+        modCount++;
+        indexRemove(d);
+        return d;
+    }
+
+    @Override
+    public District set(int index, District d) {
+        District old = districts.set(index, d);
+        indexRemove(old);
+        indexAdd(d);
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int i = districts.indexOf(o);
+        if (i < 0) {
+            return false;
+        }
+        remove(i);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        districts.clear();
+        modCount++;
+        Arrays.fill(colorCounts, 0);
+        Arrays.fill(uniqueBits, 0L);
+        Arrays.fill(idCounts, 0);
+        otherCounts = null;
+        costTotal = 0;
+        uniqueBonus = 0;
+    }
+
+    /**
+     * Returns an independent copy of this city and its index.
+     *
+     * @return a city with the same districts, in the same order
+     */
+    public City copy() {
+        City c = new City();
+        c.districts.addAll(districts);
+        System.arraycopy(colorCounts, 0, c.colorCounts, 0, colorCounts.length);
+        System.arraycopy(uniqueBits, 0, c.uniqueBits, 0, uniqueBits.length);
+        System.arraycopy(idCounts, 0, c.idCounts, 0, idCounts.length);
+        if (otherCounts != null) {
+            c.otherCounts = new HashMap<>(otherCounts);
+        }
+        c.costTotal = costTotal;
+        c.uniqueBonus = uniqueBonus;
+        return c;
+    }
+
+    /**
+     * Checks whether a district with the given name has been built.
+     *
+     * @param name district name (case-insensitive)
+     * @return true if at least one built district has that name
+     */
+    public boolean contains(String name) {
+        return countNamed(name) > 0;
+    }
+
+    /**
+     * Returns how many built districts have the given name.
+     *
+     * @param name district name (case-insensitive)
+     * @return number of districts with that name
+     */
+    public int countNamed(String name) {
+        District d = DistrictCatalog.get().byName(name);
+        int n = d == null ? 0 : idCounts[d.getId()];
+        if (otherCounts != null) {
+            Integer other = otherCounts.get(name.toLowerCase());
+            if (other != null) {
+                n += other;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns how many built districts have the given color.
+     *
+     * @param color color name (lower-case)
+     * @return number of districts of that color
+     */
+    public int countColor(String color) {
+        int c = colorIndex(color);
+        return c < 0 ? 0 : colorCounts[c];
+    }
+
+    /**
+     * Returns how many built districts have the color at the given index.
+     *
+     * @param colorIndex index into {@link #COLORS}
+     * @return number of districts of that color
+     */
+    public int countColor(int colorIndex) {
+        return colorCounts[colorIndex];
+    }
+
+    /**
+     * Checks whether the city has at least one district of all five colors.
+     *
+     * @return true if the diversity bonus applies
+     */
+    public boolean hasAllColors() {
+        for (int n : colorCounts) {
+            if (n == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the unique district with the given catalog ID has been
+     * built.
+     *
+     * @param id catalog card ID
+     * @return true if it is in the city
+     */
+    public boolean hasUnique(int id) {
+        return (uniqueBits[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Returns the sum of the build costs of the built districts.
+     *
+     * @return base points of the city
+     */
+    public int getCostTotal() {
+        return costTotal;
+    }
+
+    /**
+     * Returns the extra end-of-game points from unique districts such as
+     * the University and Dragon Gate.
+     *
+     * @return sum of {@link District#getPointBonus()} over the city
+     */
+    public int getUniqueBonus() {
+        return uniqueBonus;
+    }
+
+    /**
+     * Returns the bonus for having a district of every color.
+     *
+     * @return 3 if all five colors are present, otherwise 0
+     */
+    public int getDiversityBonus() {
+        return hasAllColors() ? 3 : 0;
+    }
+
+    /**
+     * Checks whether the city is complete (8 or more districts), which
+     * triggers the end of the game.
+     *
+     * @return true if at least 8 districts are built
+     */
+    public boolean isComplete() {
+        return districts.size() >= 8;
+    }
+
+    // Adds a district to the index
+    private void indexAdd(District d) {
+        int c = colorIndex(d.getColor());
+        if (c >= 0) {
+            colorCounts[c]++;
+        }
+        if (isCatalogCard(d)) {
+            idCounts[d.getId()]++;
+            if (d.isUnique()) {
+                uniqueBits[d.getId() >>> 6] |= 1L << d.getId();
+            }
+        } else {
+            if (otherCounts == null) {
+                otherCounts = new HashMap<>();
+            }
+            otherCounts.merge(d.getName().toLowerCase(), 1, Integer::sum);
+        }
+        costTotal += d.getCost();
+        uniqueBonus += d.getPointBonus();
+    }
+
+    // Removes a district from the index
+    private void indexRemove(District d) {
+        int c = colorIndex(d.getColor());
+        if (c >= 0) {
+            colorCounts[c]--;
+        }
+        costTotal -= d.getCost();
+        uniqueBonus -= d.getPointBonus();
+        if (isCatalogCard(d)) {
+            if (--idCounts[d.getId()] == 0 && d.isUnique()) {
+                uniqueBits[d.getId() >>> 6] &= ~(1L << d.getId());
+            }
+        } else {
+            String key = d.getName().toLowerCase();
+            Integer n = otherCounts.get(key);
+            if (n > 1) {
+                otherCounts.put(key, n - 1);
+            } else {
+                otherCounts.remove(key);
+            }
+        }
+    }
+
+    // True if the district is the shared catalog instance for its ID
+    private static boolean isCatalogCard(District d) {
+        int id = d.getId();
+        return id >= 0 && id < DistrictCatalog.get().size()
+                && DistrictCatalog.get().byId(id) == d;
+    }
+}
@@ -0,0 +1,67 @@
+// File: src/main/java/citadels/ConsoleSink.java
+package citadels;
+
+import java.io.PrintStream;
+import java.util.Formatter;
+
+/**
+ * Buffers game messages in memory and writes them to a stream in one go
+ * when flushed, instead of taking the stream's lock for every line. The
+ * game flushes before it waits for input and at the end of each phase, so
+ * a player never waits on a prompt that has not been shown.
+ *
+ * <p>Not thread-safe: each game needs its own sink.</p>
+ */
+public class ConsoleSink implements OutputSink {
+    // Buffered text is written out early once it grows past this many chars
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    // Stream the buffered text is written to
+    private final PrintStream out;
+    // Text printed since the last flush
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD);
+    // Formats printf messages straight into the buffer
+    private final Formatter formatter = new Formatter(buffer);
+
+    /**
+     * Creates a sink that writes to the given stream.
+     *
+     * @param out stream to write to, e.g. {@code System.out}
+     */
+    public ConsoleSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void print(String s) {
+        buffer.append(s);
+        flushIfFull();
+    }
+
+    @Override
+    public void println(String s) {
+        buffer.append(s).append(System.lineSeparator());
+        flushIfFull();
+    }
+
+    @Override
+    public void printf(String format, Object... args) {
+        formatter.format(format, args);
+        flushIfFull();
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.length() > 0) {
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+        out.flush();
+    }
+
+    private void flushIfFull() {
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+// File: src/main/java/citadels/CpuStrategy.java
+package citadels;
+
+/**
+ * Makes the decisions of a CPU-controlled seat. Every player holds a
+ * strategy, {@link HeuristicStrategy#INSTANCE} unless another one is set,
+ * and the game asks it whenever that seat has a choice to make.
+ *
+ * <p>Sets of characters are passed as bitmasks with bit {@code c} set for
+ * character {@code c} (1 = Assassin to 8 = Warlord); cards and players are
+ * chosen by their index in the hand, city or seating, so a decision need
+ * not allocate. The game checks every answer and treats an invalid one as
+ * passing up the choice.</p>
+ *
+ * <p>Only the character pick and the Assassin and Thief targets must be
+ * implemented; every other decision is left to {@link HeuristicStrategy}
+ * unless overridden.</p>
+ */
+public interface CpuStrategy {
+
+    /**
+     * Picks a character during the selection phase.
+     *
+     * @param game      the current game
+     * @param self      the choosing player
+     * @param available bitmask of the characters that may be chosen
+     * @return the chosen character, one of the bits of {@code available}
+     */
+    int chooseCharacter(GameState game, Player self, int available);
+
+    /**
+     * Picks the character the Assassin kills.
+     *
+     * @param game the current game
+     * @param self the Assassin
+     * @return a character from 2 to 8, or 0 to kill nobody
+     */
+    int assassinTarget(GameState game, Player self);
+
+    /**
+     * Picks the character the Thief robs.
+     *
+     * @param game the current game, with the killed character already set
+     * @param self the Thief
+     * @return a character from 3 to 8 other than the killed one, or 0 to
+     *         rob nobody
+     */
+    int thiefTarget(GameState game, Player self);
+
+    /**
+     * Chooses the turn's resources: 2 gold, or drawing two cards and
+     * keeping one.
+     *
+     * @param game the current game
+     * @param self the player whose turn it is
+     * @return true to take gold, false to draw cards
+     */
+    default boolean takeGold(GameState game, Player self) {
+        return HeuristicStrategy.INSTANCE.takeGold(game, self);
+    }
+
+    /**
+     * Picks which of two drawn cards to keep; the other goes to the
+     * bottom of the deck.
+     *
+     * @param game   the current game
+     * @param self   the drawing player
+     * @param first  the first card drawn
+     * @param second the second card drawn
+     * @return the card to keep, {@code first} or {@code second}
+     */
+    default District chooseKeptCard(GameState game, Player self, District first, District second) {
+        return HeuristicStrategy.INSTANCE.chooseKeptCard(game, self, first, second);
+    }
+
+    /**
+     * Picks the player the Magician exchanges hands with.
+     *
+     * @param game the current game
+     * @param self the Magician
+     * @return index of the player in the seating, or -1 to discard and
+     *         redraw instead
+     */
+    default int magicianExchange(GameState game, Player self) {
+        return HeuristicStrategy.INSTANCE.magicianExchange(game, self);
+    }
+
+    /**
+     * Picks the cards the Magician discards to draw as many new ones,
+     * when not exchanging hands.
+     *
+     * @param game the current game
+     * @param self the Magician
+     * @return bitmask of hand indexes to discard (bit {@code i} for card
+     *         {@code i}); 0 to keep the hand
+     */
+    default long magicianDiscard(GameState game, Player self) {
+        return HeuristicStrategy.INSTANCE.magicianDiscard(game, self);
+    }
+
+    /**
+     * Picks a card to discard for 1 gold with the Laboratory.
+     *
+     * @param game the current game
+     * @param self the owner of the Laboratory
+     * @return hand index of the card, or -1 not to use it
+     */
+    default int laboratoryDiscard(GameState game, Player self) {
+        return HeuristicStrategy.INSTANCE.laboratoryDiscard(game, self);
+    }
+
+    /**
+     * Decides whether to pay 2 gold to draw 3 cards with the Smithy.
+     *
+     * @param game the current game
+     * @param self the owner of the Smithy
+     * @return true to use it
+     */
+    default boolean useSmithy(GameState game, Player self) {
+        return HeuristicStrategy.INSTANCE.useSmithy(game, self);
+    }
+
+    /**
+     * Picks the color the School of Magic counts as for a color income.
+     *
+     * @param game  the current game
+     * @param self  the owner of the School of Magic
+     * @param color index into {@link City#COLORS} of the income being paid
+     * @return index into {@link City#COLORS}
+     */
+    default int schoolOfMagicColor(GameState game, Player self, int color) {
+        return HeuristicStrategy.INSTANCE.schoolOfMagicColor(game, self, color);
+    }
+
+    /**
+     * Picks the next district to build. Called again after each build
+     * until the build limit is reached or it returns -1.
+     *
+     * @param game the current game
+     * @param self the building player
+     * @return hand index of an affordable district not yet in the city, or
+     *         -1 to stop building
+     */
+    default int buildChoice(GameState game, Player self) {
+        return HeuristicStrategy.INSTANCE.buildChoice(game, self);
+    }
+
+    /**
+     * Picks the player whose city the Warlord attacks.
+     *
+     * @param game the current game
+     * @param self the Warlord
+     * @return index of the player in the seating, or -1 to destroy nothing
+     */
+    default int warlordTarget(GameState game, Player self) {
+        return HeuristicStrategy.INSTANCE.warlordTarget(game, self);
+    }
+
+    /**
+     * Picks the district the Warlord destroys in the target's city.
+     *
+     * @param game   the current game
+     * @param self   the Warlord
+     * @param target the player chosen by {@link #warlordTarget}
+     * @return index into the target's city, or -1 to destroy nothing
+     */
+    default int warlordDistrict(GameState game, Player self, Player target) {
+        return HeuristicStrategy.INSTANCE.warlordDistrict(game, self, target);
+    }
+
+    /**
+     * Decides whether to pay 1 gold to take a destroyed district back into
+     * the hand with the Graveyard.
+     *
+     * @param game      the current game
+     * @param self      the owner of the Graveyard
+     * @param destroyed the district the Warlord destroyed
+     * @return true to recover it
+     */
+    default boolean recoverWithGraveyard(GameState game, Player self, District destroyed) {
+        return HeuristicStrategy.INSTANCE.recoverWithGraveyard(game, self, destroyed);
+    }
+}
@@ -0,0 +1,197 @@
+// File: src/main/java/citadels/Determinizer.java
+package citadels;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples the hidden parts of a game as one player sees it, for search
+ * players that play out "possible worlds". Hidden are the characters of
+ * players not yet revealed (and so the face-down discard), the cards in
+ * opponents' hands and the order of the deck. Every sample is consistent
+ * with what the player knows: their own character and hand, the face-up
+ * discards, revealed characters, cities, hand sizes and deck size.
+ *
+ * <p>The view is captured once; after that {@link #sample} only touches
+ * preallocated arrays. Hidden characters are drawn from a bitmask of the
+ * unaccounted-for characters, and the hidden cards (opponents' hands and
+ * the deck together) are redealt with a partial Fisher-Yates shuffle of a
+ * single array, so a sample costs a few dozen random numbers and no
+ * allocation.</p>
+ *
+ * <p>Not thread-safe: each search worker needs its own instance.</p>
+ */
+public final class Determinizer {
+    // Every character, 1-8
+    private static final int ALL_CHARACTERS = 0b1_1111_1110;
+
+    // Seats whose characters are hidden from the viewer
+    private final int[] hiddenSeats;
+    // Characters the hidden seats may hold
+    private final int characterPool;
+    // Sampled character per seat, or the known one
+    private final int[] characters;
+
+    // Opponents' hand cards followed by the deck; reshuffled in place
+    private final District[] cards;
+    // Seat of each opponent hand, in the order their cards come in cards
+    private final int[] handSeats;
+    // Hand size per entry of handSeats
+    private final int[] handSizes;
+    // Number of cards dealt to hands; the rest is the deck
+    private final int handCards;
+
+    /**
+     * Captures the view of a player choosing a character. Players who
+     * picked before them hold hidden characters; those still to pick hold
+     * none yet.
+     *
+     * @param game    the game
+     * @param viewer  the choosing player
+     * @param offered bitmask of the characters offered to the viewer
+     * @return the determinizer
+     */
+    public static Determinizer forSelection(GameState game, Player viewer, int offered) {
+        return new Determinizer(game, viewer,
+                ALL_CHARACTERS & ~offered & ~game.faceUpCharacters, 0);
+    }
+
+    /**
+     * Captures a player's view at the start of the given character's turn.
+     * Characters below it have been revealed, unless they were killed.
+     *
+     * @param game   the game
+     * @param viewer the player
+     * @param turn   the character whose turn is about to start (1-8)
+     * @return the determinizer
+     */
+    public static Determinizer forTurn(GameState game, Player viewer, int turn) {
+        int pool = ALL_CHARACTERS & ~game.faceUpCharacters & ~(1 << viewer.getCharacter());
+        for (Player p : game.players) {
+            if (isRevealed(game, p, turn)) {
+                pool &= ~(1 << p.getCharacter());
+            }
+        }
+        return new Determinizer(game, viewer, pool, turn);
+    }
+
+    // True if p's character was shown before the given character's turn
+    private static boolean isRevealed(GameState game, Player p, int turn) {
+        int c = p.getCharacter();
+        return c != 0 && c < turn && c != game.killedCharacter;
+    }
+
+    private Determinizer(GameState game, Player viewer, int characterPool, int turn) {
+        List<Player> players = game.players;
+        int n = players.size();
+        this.characterPool = characterPool;
+        this.characters = new int[n];
+
+        int hidden = 0;
+        int opponents = 0;
+        int handTotal = 0;
+        for (int i = 0; i < n; i++) {
+            Player p = players.get(i);
+            characters[i] = p.getCharacter();
+            if (p != viewer) {
+                opponents++;
+                handTotal += p.getHand().size();
+                if (p.getCharacter() != 0 && !isRevealed(game, p, turn)) {
+                    hidden++;
+                }
+            }
+        }
+
+        this.hiddenSeats = new int[hidden];
+        this.handSeats = new int[opponents];
+        this.handSizes = new int[opponents];
+        this.handCards = handTotal;
+        this.cards = new District[handTotal + game.deck.size()];
+        int h = 0, o = 0, k = 0;
+        for (int i = 0; i < n; i++) {
+            Player p = players.get(i);
+            if (p == viewer) {
+                continue;
+            }
+            if (p.getCharacter() != 0 && !isRevealed(game, p, turn)) {
+                hiddenSeats[h++] = i;
+            }
+            handSeats[o] = i;
+            handSizes[o++] = p.getHand().size();
+            for (District d : p.getHand()) {
+                cards[k++] = d;
+            }
+        }
+        for (District d : game.deck) {
+            cards[k++] = d;
+        }
+    }
+
+    /**
+     * Returns the characters the hidden seats may hold.
+     *
+     * @return bitmask of characters
+     */
+    public int getCharacterPool() {
+        return characterPool;
+    }
+
+    /**
+     * Draws a new possible world: characters for the hidden seats, and a
+     * deal of the hidden cards into opponents' hands. The deck holds the
+     * rest, in no particular order.
+     *
+     * @param random source of randomness
+     */
+    public void sample(RandomGenerator random) {
+        int pool = characterPool;
+        for (int seat : hiddenSeats) {
+            int c = HeuristicStrategy.nthBit(pool, random.nextInt(Integer.bitCount(pool)));
+            characters[seat] = c;
+            pool &= ~(1 << c);
+        }
+        int n = cards.length;
+        for (int i = 0; i < handCards; i++) {
+            int j = i + random.nextInt(n - i);
+            District tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+    }
+
+    /**
+     * Returns the character of a seat in the last sample.
+     *
+     * @param seat index into the players
+     * @return its character, or 0 if it has not picked yet
+     */
+    public int characterOf(int seat) {
+        return characters[seat];
+    }
+
+    /**
+     * Writes the last sample into a copy of the game: hidden characters,
+     * opponents' hands and the deck, which is then shuffled with the
+     * copy's deck stream.
+     *
+     * @param world a copy of the game the view was captured from
+     */
+    public void apply(GameState world) {
+        for (int seat : hiddenSeats) {
+            world.players.get(seat).setCharacter(characters[seat]);
+        }
+        int k = 0;
+        for (int o = 0; o < handSeats.length; o++) {
+            List<District> hand = world.players.get(handSeats[o]).getHand();
+            hand.clear();
+            for (int i = 0; i < handSizes[o]; i++) {
+                hand.add(cards[k++]);
+            }
+        }
+        world.deck.clear();
+        while (k < cards.length) {
+            world.deck.putBottom(cards[k++]);
+        }
+        world.deck.shuffle(world.random.deck);
+    }
+}
@@ -1,22 +1,43 @@
 // File: src/main/java/citadels/District.java
 package citadels;
 
+/**
+ * An immutable district card. Cards loaded from cards.tsv are shared
+ * instances owned by {@link DistrictCatalog} and carry its card ID; cards
+ * created any other way have ID -1.
+ */
 public class District {
+    // Catalog card ID, or -1 if the card is not from the catalog
+    private final int id;
     // Name of the district
-    private String name;
+    private final String name;
     // Color category of the district (e.g., red, blue, green, purple)
-    private String color;
+    private final String color;
     // Cost to build the district
-    private int cost;
+    private final int cost;
     // Optional description of the district's effect or lore
-    private String description;
+    private final String description;
+    // Extra end-of-game points, worked out once from the name
+    private final int pointBonus;
 
     // Constructor to initialize a District object
     public District(String name, String color, int cost, String desc) {
+        this(-1, name, color, cost, desc);
+    }
+
+    // Constructor used by the catalog, which assigns the card ID
+    District(int id, String name, String color, int cost, String desc) {
+        this.id = id;
         this.name = name;
         this.color = color.toLowerCase(); // Normalize color to lowercase
         this.cost = cost;
         this.description = desc;
+        this.pointBonus = computePointBonus();
+    }
+
+    // Getter for the catalog card ID (-1 if not from the catalog)
+    public int getId() {
+        return id;
     }
 
     // Getter for the district's name
@@ -51,6 +72,11 @@ public class District {
      * E.g. University and Dragon Gate each grant +2 at scoring time.
      */
     public int getPointBonus() {
+        return pointBonus;
+    }
+
+    // Works out the end-of-game bonus from the color and name
+    private int computePointBonus() {
         if (!isUnique()) {
             return 0;
         }
@@ -0,0 +1,209 @@
+// File: src/main/java/citadels/DistrictCatalog.java
+package citadels;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, process-wide catalog of the district cards in cards.tsv.
+ * The file is parsed once, on first use. Every kind of card becomes a
+ * single shared {@link District} with a compact ID (its row in the file,
+ * starting at 0), and decks, hands and cities all hold these shared
+ * instances instead of per-copy objects.
+ */
+public final class DistrictCatalog {
+    // Classpath location of the card list
+    private static final String RESOURCE = "citadels/cards.tsv";
+
+    // One shared District per card kind, indexed by card ID
+    private final District[] districts;
+    // Copies of each card kind in a full deck, indexed by card ID
+    private final int[] quantities;
+    // Cards by exact and by lower-cased name, so the usual exact spelling
+    // is found without lower-casing it
+    private final Map<String, District> byName;
+    // Number of cards in a full deck
+    private final int deckSize;
+    // Hash of every card's name, color, cost and text, in ID order
+    private final int fingerprint;
+
+    // Lazily initialised holder, so the file is read once on first use
+    private static final class Holder {
+        static final DistrictCatalog INSTANCE = load();
+    }
+
+    private DistrictCatalog(List<District> districts, List<Integer> quantities) {
+        this.districts = districts.toArray(new District[0]);
+        this.quantities = new int[quantities.size()];
+        Map<String, District> names = new HashMap<>();
+        int total = 0;
+        for (int i = 0; i < this.quantities.length; i++) {
+            this.quantities[i] = quantities.get(i);
+            total += this.quantities[i];
+            names.put(this.districts[i].getName(), this.districts[i]);
+            names.put(key(this.districts[i].getName()), this.districts[i]);
+        }
+        this.byName = Collections.unmodifiableMap(names);
+        this.deckSize = total;
+        int h = this.districts.length;
+        for (District d : this.districts) {
+            h = 31 * h + d.getName().hashCode();
+            h = 31 * h + d.getColor().hashCode();
+            h = 31 * h + d.getCost();
+            h = 31 * h + d.getDescription().hashCode();
+        }
+        this.fingerprint = h;
+    }
+
+    /**
+     * Returns the catalog, parsing cards.tsv the first time it is called.
+     *
+     * @return the shared catalog
+     */
+    public static DistrictCatalog get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the number of card kinds.
+     *
+     * @return number of distinct districts
+     */
+    public int size() {
+        return districts.length;
+    }
+
+    /**
+     * Returns the number of cards in a full deck.
+     *
+     * @return total copies of all districts
+     */
+    public int getDeckSize() {
+        return deckSize;
+    }
+
+    /**
+     * Returns a hash of the whole card list. Card IDs are only meaningful
+     * between catalogs with the same fingerprint, so anything that stores
+     * IDs (e.g. binary saves) records it alongside them.
+     *
+     * @return the catalog fingerprint
+     */
+    public int getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the shared district with the given card ID.
+     *
+     * @param id card ID, 0 to size() - 1
+     * @return the district
+     * @throws IndexOutOfBoundsException if the ID is unknown
+     */
+    public District byId(int id) {
+        return districts[id];
+    }
+
+    /**
+     * Looks up a district by name.
+     *
+     * @param name district name (case-insensitive)
+     * @return the shared district, or null if there is none with that name
+     */
+    public District byName(String name) {
+        District d = byName.get(name);
+        return d != null ? d : byName.get(key(name));
+    }
+
+    // Key of a name in byName
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns how many copies of a card are in a full deck.
+     *
+     * @param id card ID
+     * @return number of copies
+     */
+    public int quantity(int id) {
+        return quantities[id];
+    }
+
+    /**
+     * Returns the shared catalog instance for a card, or a new district if
+     * the card is not in the catalog (e.g. a hand-edited save file).
+     *
+     * @param name  district name
+     * @param color district color
+     * @param cost  build cost
+     * @param desc  description text
+     * @return the matching shared district, or a new one
+     */
+    public District intern(String name, String color, int cost, String desc) {
+        District d = byName(name);
+        if (d != null && d.getName().equals(name)
+                && d.getColor().equalsIgnoreCase(color)
+                && d.getCost() == cost
+                && d.getDescription().equals(desc)) {
+            return d;
+        }
+        return new District(name, color, cost, desc);
+    }
+
+    /**
+     * Adds every copy of every card, in file order, to the bottom of a deck.
+     *
+     * @param deck the deck to fill
+     */
+    public void fillDeck(DistrictDeck deck) {
+        for (int id = 0; id < districts.length; id++) {
+            for (int i = 0; i < quantities[id]; i++) {
+                deck.putBottom(districts[id]);
+            }
+        }
+    }
+
+    // Parses cards.tsv: a header row, then name, qty, color, cost, text
+    private static DistrictCatalog load() {
+        InputStream in = DistrictCatalog.class.getClassLoader()
+                .getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new RuntimeException("cards.tsv not found on classpath");
+        }
+        List<District> districts = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in))) {
+            String line;
+            boolean skippedHeader = false;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                if (!skippedHeader) {
+                    skippedHeader = true;
+                    continue;
+                }
+                String[] parts = line.split("\\t");
+                if (parts.length < 4) continue;
+                String name = parts[0];
+                int qty = Integer.parseInt(parts[1]);
+                String color = parts[2].toLowerCase();
+                int cost = Integer.parseInt(parts[3]);
+                String desc = parts.length > 4 ? parts[4] : "";
+                districts.add(new District(districts.size(), name, color, cost, desc));
+                quantities.add(qty);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading cards.tsv", e);
+        }
+        return new DistrictCatalog(districts, quantities);
+    }
+}
@@ -0,0 +1,230 @@
+// File: src/main/java/citadels/DistrictDeck.java
+package citadels;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
+
+/**
+ * The district deck, stored as a circular array. Drawing from the top and
+ * putting cards on the bottom are O(1) and never shift the remaining cards.
+ * Iteration runs from the top card to the bottom card.
+ */
+public class DistrictDeck extends AbstractCollection<District> {
+    // Initial capacity, enough for the full cards.tsv deck without growing
+    private static final int DEFAULT_CAPACITY = 80;
+
+    // Ring buffer holding the cards; cards[head] is the top card
+    private District[] cards;
+    // Index of the top card in the ring
+    private int head;
+    // Number of cards in the deck
+    private int size;
+    // Bumped on every change, so iterators can detect modification
+    private int modCount;
+
+    /**
+     * Creates an empty deck.
+     */
+    public DistrictDeck() {
+        cards = new District[DEFAULT_CAPACITY];
+    }
+
+    // Wraps an existing ring; used by copy()
+    private DistrictDeck(District[] cards, int head, int size) {
+        this.cards = cards;
+        this.head = head;
+        this.size = size;
+    }
+
+    /**
+     * Returns an independent copy of the deck, in the same order. The ring
+     * is copied as is, so this is a single array copy.
+     *
+     * @return the copy
+     */
+    public DistrictDeck copy() {
+        return new DistrictDeck(cards.clone(), head, size);
+    }
+
+    /**
+     * Draws the top card of the deck.
+     *
+     * @return the top card, or null if the deck is empty
+     */
+    public District draw() {
+        if (size == 0) {
+            return null;
+        }
+        District d = cards[head];
+        cards[head] = null;
+        head = next(head);
+        size--;
+        modCount++;
+        return d;
+    }
+
+    /**
+     * Puts a card on the bottom of the deck.
+     *
+     * @param d the card to put back
+     */
+    public void putBottom(District d) {
+        if (size == cards.length) {
+            grow();
+        }
+        cards[slot(size)] = d;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Puts a card on the bottom of the deck.
+     *
+     * @param d the card to add
+     * @return always true
+     */
+    @Override
+    public boolean add(District d) {
+        putBottom(d);
+        return true;
+    }
+
+    /**
+     * Returns the card at the given depth without removing it.
+     *
+     * @param index 0 for the top card, size() - 1 for the bottom card
+     * @return the card at that position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public District peek(int index) {
+        checkIndex(index);
+        return cards[slot(index)];
+    }
+
+    /**
+     * Finds the first card, from the top, with the given name.
+     *
+     * @param name district name (case-insensitive)
+     * @return its depth in the deck, or -1 if no card has that name
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < size; i++) {
+            if (cards[slot(i)].getName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the card at the given depth, e.g. the card chosen when
+     * searching the deck with the Lighthouse. Cards above it move down by
+     * one; this is O(index).
+     *
+     * @param index depth of the card to take
+     * @return the removed card
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public District take(int index) {
+        checkIndex(index);
+        District d = cards[slot(index)];
+        for (int i = index; i > 0; i--) {
+            cards[slot(i)] = cards[slot(i - 1)];
+        }
+        cards[head] = null;
+        head = next(head);
+        size--;
+        modCount++;
+        return d;
+    }
+
+    /**
+     * Shuffles the deck in place (Fisher-Yates).
+     *
+     * @param random source of randomness
+     */
+    public void shuffle(RandomGenerator random) {
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int a = slot(i), b = slot(j);
+            District tmp = cards[a];
+            cards[a] = cards[b];
+            cards[b] = tmp;
+        }
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cards, null);
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<District> iterator() {
+        return new Iterator<District>() {
+            private final int expectedModCount = modCount;
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public District next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return cards[slot(i++)];
+            }
+        };
+    }
+
+    // Ring index of the card at the given depth
+    private int slot(int index) {
+        int s = head + index;
+        return s < cards.length ? s : s - cards.length;
+    }
+
+    // Ring index following the given one
+    private int next(int i) {
+        return i + 1 < cards.length ? i + 1 : 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " out of bounds for deck of " + size);
+        }
+    }
+
+    // Doubles the ring, unrolling it so the top card is at index 0
+    private void grow() {
+        District[] bigger = new District[Math.max(cards.length * 2, 1)];
+        for (int i = 0; i < size; i++) {
+            bigger[i] = cards[slot(i)];
+        }
+        cards = bigger;
+        head = 0;
+    }
+}
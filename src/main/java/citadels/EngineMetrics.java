@@ -0,0 +1,371 @@
+// File: src/main/java/citadels/EngineMetrics.java
+package citadels;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide engine metrics: rounds, turns and games completed, the time
+ * spent in each phase of a round, CPU decision latency per kind of
+ * decision, and save and load latency. They are published over JMX as
+ * {@value #OBJECT_NAME} once {@link #register()} is called.
+ *
+ * <p>Recording is off unless the {@value #PROPERTY} system property is
+ * true or a JMX client turns it on. The engine calls the static probes
+ * below; when recording is off every probe is a read of one volatile flag
+ * and nothing else, so the timing work is skipped entirely. When it is on,
+ * counts go to {@link LongAdder}s and latencies to striped
+ * {@link LatencyHistogram}s, so the threads of a simulation or tournament
+ * do not contend on shared counters.</p>
+ *
+ * <p>Only games played for real are counted: the copies that search-based
+ * CPU players play out (see {@link GameState#copy()}) are skipped.</p>
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+    /** Name the metrics are registered under. */
+    public static final String OBJECT_NAME = "citadels:type=EngineMetrics";
+    /** System property that turns recording on at start-up. */
+    public static final String PROPERTY = "citadels.metrics";
+
+    /** Phases of a game whose time is measured. */
+    public enum Phase {
+        /** Choosing characters, from the draw to the last choice. */
+        SELECTION,
+        /** Playing the character turns. */
+        TURNS,
+        /** Scoring a finished game. */
+        SCORING
+    }
+
+    /** Kinds of CPU decision whose latency is measured. */
+    public enum Decision {
+        /** Which character to take. */
+        CHARACTER,
+        /** The Assassin's target. */
+        ASSASSIN,
+        /** The Thief's target. */
+        THIEF,
+        /** Gold or cards, and which card to keep. */
+        RESOURCES,
+        /** The Magician's exchange or discard. */
+        MAGICIAN,
+        /** Which card to discard to the Laboratory. */
+        LABORATORY,
+        /** Whether to use the Smithy. */
+        SMITHY,
+        /** The colour of the School of Magic. */
+        SCHOOL_OF_MAGIC,
+        /** The Warlord's target and district. */
+        WARLORD,
+        /** Whether to recover a district with the Graveyard. */
+        GRAVEYARD,
+        /** Which district to build. */
+        BUILD
+    }
+
+    // Histogram stripes: one per core, up to 8
+    private static final int STRIPES = Math.min(8, Runtime.getRuntime().availableProcessors());
+    // The process-wide instance
+    private static final EngineMetrics INSTANCE = new EngineMetrics();
+    // Whether probes record; checked first by every probe
+    private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    // Totals since the last reset
+    private final LongAdder games = new LongAdder();
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    // Time per phase in nanoseconds, indexed by Phase ordinal
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    // Latencies, replaced as a whole on reset
+    private volatile Latencies latencies = new Latencies();
+    // When the counters were last reset
+    private volatile long resetNanos = System.nanoTime();
+
+    // Decision, save and load histograms
+    private static final class Latencies {
+        final LatencyHistogram[] decisions = new LatencyHistogram[Decision.values().length];
+        final LatencyHistogram save = new LatencyHistogram(STRIPES);
+        final LatencyHistogram load = new LatencyHistogram(STRIPES);
+
+        Latencies() {
+            for (int i = 0; i < decisions.length; i++) {
+                decisions[i] = new LatencyHistogram(STRIPES);
+            }
+        }
+    }
+
+    private EngineMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the process-wide metrics.
+     *
+     * @return the shared instance
+     */
+    public static EngineMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. Registering
+     * twice does nothing.
+     *
+     * @throws IllegalStateException if JMX refuses the registration
+     */
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Starts timing something done in a game.
+     *
+     * @param game the game
+     * @return the start time to pass to the matching probe, or 0 if
+     *         recording is off or the game is not counted
+     */
+    static long start(GameState game) {
+        return enabled && game.metered ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Starts timing something not tied to a game, such as a save.
+     *
+     * @return the start time, or 0 if recording is off
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Charges the time since {@code start} to a phase.
+     *
+     * @param phase the phase
+     * @param start the value from {@link #start(GameState)}
+     * @return the current time, to start timing the next phase, or 0 if
+     *         {@code start} was 0
+     */
+    static long phase(Phase phase, long start) {
+        if (start == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        INSTANCE.phaseNanos[phase.ordinal()].add(now - start);
+        return now;
+    }
+
+    /**
+     * Records the latency of a CPU decision.
+     *
+     * @param decision the kind of decision
+     * @param start    the value from {@link #start(GameState)}
+     */
+    static void decision(Decision decision, long start) {
+        if (start != 0) {
+            INSTANCE.latencies.decisions[decision.ordinal()].recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts a round played in a game.
+     *
+     * @param game the game
+     */
+    static void round(GameState game) {
+        if (enabled && game.metered) {
+            INSTANCE.rounds.increment();
+        }
+    }
+
+    /**
+     * Counts a character turn played in a game.
+     *
+     * @param game the game
+     */
+    static void turn(GameState game) {
+        if (enabled && game.metered) {
+            INSTANCE.turns.increment();
+        }
+    }
+
+    /**
+     * Counts a completed game and charges its scoring time.
+     *
+     * @param start the value from {@link #start(GameState)} when scoring began
+     */
+    static void gameScored(long start) {
+        if (start != 0) {
+            phase(Phase.SCORING, start);
+            INSTANCE.games.increment();
+        }
+    }
+
+    /**
+     * Records the latency of a save.
+     *
+     * @param start the value from {@link #start()}
+     */
+    static void saved(long start) {
+        if (start != 0) {
+            INSTANCE.latencies.save.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the latency of a load.
+     *
+     * @param start the value from {@link #start()}
+     */
+    static void loaded(long start) {
+        if (start != 0) {
+            INSTANCE.latencies.load.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the latency histogram of a kind of CPU decision.
+     *
+     * @param decision the kind of decision
+     * @return its histogram since the last reset
+     */
+    public LatencyHistogram getDecisionLatency(Decision decision) {
+        return latencies.decisions[decision.ordinal()];
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    @Override
+    public long getGamesCompleted() {
+        return games.sum();
+    }
+
+    @Override
+    public long getRounds() {
+        return rounds.sum();
+    }
+
+    @Override
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    @Override
+    public double getRoundsPerSecond() {
+        return perSecond(rounds.sum());
+    }
+
+    @Override
+    public double getTurnsPerSecond() {
+        return perSecond(turns.sum());
+    }
+
+    // Mean rate of a count since the last reset
+    private double perSecond(long count) {
+        double seconds = (System.nanoTime() - resetNanos) / 1e9;
+        return seconds <= 0 ? 0 : count / seconds;
+    }
+
+    @Override
+    public double getSelectionMillis() {
+        return phaseNanos[Phase.SELECTION.ordinal()].sum() / 1e6;
+    }
+
+    @Override
+    public double getTurnPhaseMillis() {
+        return phaseNanos[Phase.TURNS.ordinal()].sum() / 1e6;
+    }
+
+    @Override
+    public double getScoringMillis() {
+        return phaseNanos[Phase.SCORING.ordinal()].sum() / 1e6;
+    }
+
+    @Override
+    public double getSaveMeanMicros() {
+        return latencies.save.getMeanMicros();
+    }
+
+    @Override
+    public long getSaveP99Micros() {
+        return latencies.save.getPercentileMicros(99);
+    }
+
+    @Override
+    public double getLoadMeanMicros() {
+        return latencies.load.getMeanMicros();
+    }
+
+    @Override
+    public long getLoadP99Micros() {
+        return latencies.load.getPercentileMicros(99);
+    }
+
+    @Override
+    public String[] getDecisionLatencies() {
+        List<String> lines = new ArrayList<>();
+        for (Decision d : Decision.values()) {
+            LatencyHistogram h = getDecisionLatency(d);
+            if (h.getCount() > 0) {
+                lines.add(String.format("%s: %d decisions, mean %.2f us, p99 %d us, max %d us",
+                        d, h.getCount(), h.getMeanMicros(), h.getPercentileMicros(99),
+                        h.getMaxMicros()));
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Engine metrics: %d games, %d rounds (%.0f/s), %d turns (%.0f/s)%n",
+                getGamesCompleted(), getRounds(), getRoundsPerSecond(),
+                getTurns(), getTurnsPerSecond()));
+        sb.append(String.format("  Time in selection %.0f ms, turns %.0f ms, scoring %.0f ms%n",
+                getSelectionMillis(), getTurnPhaseMillis(), getScoringMillis()));
+        for (String line : getDecisionLatencies()) {
+            sb.append("  ").append(line).append(System.lineSeparator());
+        }
+        Latencies l = latencies;
+        if (l.save.getCount() > 0) {
+            sb.append("  Save: ").append(l.save.summary()).append(System.lineSeparator());
+        }
+        if (l.load.getCount() > 0) {
+            sb.append("  Load: ").append(l.load.summary()).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        games.reset();
+        rounds.reset();
+        turns.reset();
+        for (LongAdder a : phaseNanos) {
+            a.reset();
+        }
+        latencies = new Latencies();
+        resetNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,128 @@
+// File: src/main/java/citadels/EngineMetricsMBean.java
+package citadels;
+
+/**
+ * Management interface of {@link EngineMetrics}, as seen in JConsole or
+ * any other JMX client under {@value EngineMetrics#OBJECT_NAME}. Rates
+ * and totals count from the last {@link #reset()}, or from start-up.
+ */
+public interface EngineMetricsMBean {
+
+    /**
+     * Indicates whether the engine is recording metrics.
+     *
+     * @return true if enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns recording on or off. Turning it off keeps what was recorded.
+     *
+     * @param enabled true to record
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the number of games played to their final scores.
+     *
+     * @return games completed
+     */
+    long getGamesCompleted();
+
+    /**
+     * Returns the number of rounds played.
+     *
+     * @return rounds
+     */
+    long getRounds();
+
+    /**
+     * Returns the number of character turns played.
+     *
+     * @return turns
+     */
+    long getTurns();
+
+    /**
+     * Returns the mean rate of rounds since the last reset.
+     *
+     * @return rounds per second
+     */
+    double getRoundsPerSecond();
+
+    /**
+     * Returns the mean rate of turns since the last reset.
+     *
+     * @return turns per second
+     */
+    double getTurnsPerSecond();
+
+    /**
+     * Returns the time spent choosing characters.
+     *
+     * @return total in milliseconds
+     */
+    double getSelectionMillis();
+
+    /**
+     * Returns the time spent playing character turns.
+     *
+     * @return total in milliseconds
+     */
+    double getTurnPhaseMillis();
+
+    /**
+     * Returns the time spent scoring finished games.
+     *
+     * @return total in milliseconds
+     */
+    double getScoringMillis();
+
+    /**
+     * Returns the mean time to save a game.
+     *
+     * @return mean in microseconds
+     */
+    double getSaveMeanMicros();
+
+    /**
+     * Returns the 99th percentile time to save a game.
+     *
+     * @return p99 in microseconds
+     */
+    long getSaveP99Micros();
+
+    /**
+     * Returns the mean time to load a game.
+     *
+     * @return mean in microseconds
+     */
+    double getLoadMeanMicros();
+
+    /**
+     * Returns the 99th percentile time to load a game.
+     *
+     * @return p99 in microseconds
+     */
+    long getLoadP99Micros();
+
+    /**
+     * Summarises the CPU decision latency of every kind of decision made
+     * at least once.
+     *
+     * @return one line per kind of decision
+     */
+    String[] getDecisionLatencies();
+
+    /**
+     * Builds a human-readable summary of every metric.
+     *
+     * @return multi-line report
+     */
+    String report();
+
+    /**
+     * Clears every counter and histogram and restarts the rate clock.
+     */
+    void reset();
+}
@@ -0,0 +1,231 @@
+// File: src/main/java/citadels/EventBus.java
+package citadels;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers {@link GameEvent}s from any number of games to registered
+ * listeners through a fixed ring of preallocated event slots. Publishing
+ * claims a slot, fills in its fields and marks it ready; it never
+ * allocates and never waits. If the listeners fall so far behind that the
+ * ring is full, the event is dropped and counted instead of stalling the
+ * game.
+ *
+ * <p>Events are handed to the listeners in publication order, either by
+ * the dispatcher thread started with {@link #start()} or by calling
+ * {@link #dispatchAvailable()} directly; only one of the two may be used
+ * at a time.</p>
+ */
+public class EventBus implements AutoCloseable {
+    // How long the idle dispatcher sleeps before re-checking the ring
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // The ring of reusable event slots
+    private final GameEvent[] slots;
+    // capacity - 1, for mapping a sequence number to its slot
+    private final int mask;
+    // Registered listeners
+    private final List<GameEventListener> listeners = new CopyOnWriteArrayList<>();
+    // Sequence number the next publisher will claim
+    private final AtomicLong claimed = new AtomicLong();
+    // Events dropped because the ring was full
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Sequence number of the next event to dispatch
+    private volatile long dispatched;
+    // True while the dispatcher thread is parked waiting for events
+    private volatile boolean idle;
+    // False once close() has been called
+    private volatile boolean running = true;
+    // Thread dispatching events, once started
+    private volatile Thread dispatcher;
+
+    /**
+     * Creates a bus whose ring holds the given number of events.
+     *
+     * @param capacity ring size; rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public EventBus(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new GameEvent();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Registers a listener for every event published from now on.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(GameEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(GameEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Publishes an event. Safe to call from any number of game threads.
+     *
+     * @param game      game the event happened in
+     * @param type      what happened
+     * @param player    ID of the acting player, or 0
+     * @param character character involved, or 0
+     * @param amount    gold, cost or points involved, or 0
+     * @param district  district involved, or null
+     * @param target    ID of the player acted upon, or 0
+     * @return true if the event was queued, false if the ring was full
+     */
+    public boolean publish(GameState game, GameEvent.Type type, int player,
+                           int character, int amount, District district, int target) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - dispatched >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        GameEvent e = slots[(int) seq & mask];
+        e.game = game;
+        e.type = type;
+        e.player = player;
+        e.character = character;
+        e.amount = amount;
+        e.district = district;
+        e.target = target;
+        e.sequence = seq;  // volatile write: the slot is now ready
+
+        if (idle) {
+            Thread t = dispatcher;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hands every event that is ready to the listeners, on the calling
+     * thread, and frees their slots.
+     *
+     * @return the number of events dispatched
+     */
+    public int dispatchAvailable() {
+        int n = 0;
+        long next = dispatched;
+        while (true) {
+            GameEvent e = slots[(int) next & mask];
+            if (e.sequence != next) {
+                break;
+            }
+            for (GameEventListener l : listeners) {
+                try {
+                    l.onEvent(e);
+                } catch (RuntimeException ex) {
+                    // a failing listener must not stop delivery to the rest
+                }
+            }
+            e.game = null;
+            e.district = null;
+            next++;
+            dispatched = next;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Starts a daemon thread that dispatches events as they are published.
+     *
+     * @throws IllegalStateException if the dispatcher is already running
+     */
+    public synchronized void start() {
+        if (dispatcher != null) {
+            throw new IllegalStateException("dispatcher already started");
+        }
+        Thread t = new Thread(this::runDispatcher, "citadels-events");
+        t.setDaemon(true);
+        dispatcher = t;
+        t.start();
+    }
+
+    // Body of the dispatcher thread
+    private void runDispatcher() {
+        while (running) {
+            if (dispatchAvailable() == 0) {
+                idle = true;
+                if (slots[(int) dispatched & mask].sequence != dispatched && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+        dispatchAvailable();
+    }
+
+    /**
+     * Returns the number of events dropped because the ring was full.
+     *
+     * @return dropped event count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of events queued so far.
+     *
+     * @return published event count
+     */
+    public long getPublishedCount() {
+        return claimed.get();
+    }
+
+    /**
+     * Returns the number of slots in the ring.
+     *
+     * @return ring capacity
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Stops the dispatcher thread after it has delivered every event
+     * published before this call.
+     */
+    @Override
+    public void close() {
+        running = false;
+        Thread t = dispatcher;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+// File: src/main/java/citadels/FlightEvents.java
+package citadels;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder events for the phases of a game: character
+ * selection, each character's turn, each CPU decision, final scoring, and
+ * saving and loading. Every event carries the game's ID and round and,
+ * where there is one, the player and the character they hold, so a
+ * recording can line GC pauses or lock contention up with what the games
+ * were doing at the time.
+ *
+ * <p>The events are off unless a recording enables them, e.g. with
+ * {@code -XX:StartFlightRecording} and the default settings. Off, an
+ * event is never committed and the JIT removes the short-lived ones
+ * altogether. Like {@link EngineMetrics}, the copies that search-based
+ * CPU players play out (see {@link GameState#copy()}) record nothing.</p>
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Fields every game event carries. IDs and characters are 0 where
+     * there is no player.
+     */
+    @Category("Citadels")
+    @StackTrace(false)
+    abstract static class GameFlightEvent extends Event {
+        @Label("Game ID")
+        @Description("Process-wide ID of the game")
+        long gameId;
+
+        @Label("Round")
+        @Description("Rounds started in the game, counting this one")
+        int round;
+
+        @Label("Player ID")
+        int playerId;
+
+        @Label("Character")
+        @Description("Character the player holds (1-8), or 0 if none yet")
+        int character;
+
+        /**
+         * Ends the event and commits it, if it is being recorded.
+         *
+         * @param game   the game it happened in
+         * @param player the player concerned, or null
+         */
+        final void finish(GameState game, Player player) {
+            if (game.metered && shouldCommit()) {
+                gameId = game.id;
+                round = game.round;
+                if (player != null) {
+                    playerId = player.getId();
+                    character = player.getCharacter();
+                }
+                commit();
+            }
+        }
+    }
+
+    /** Character selection, from the draw to the last choice. */
+    @Name("citadels.CharacterSelection")
+    @Label("Character Selection")
+    static final class Selection extends GameFlightEvent {
+    }
+
+    /** One character's turn, including any wait for the human. */
+    @Name("citadels.Turn")
+    @Label("Turn")
+    static final class Turn extends GameFlightEvent {
+    }
+
+    /**
+     * One CPU decision. Only decisions of 1 ms or more are recorded unless
+     * the recording lowers the threshold: most take well under a
+     * microsecond, and recording them all would swamp a continuous
+     * recording.
+     */
+    @Name("citadels.Decision")
+    @Label("CPU Decision")
+    @Threshold("1 ms")
+    static final class Decision extends GameFlightEvent {
+        @Label("Decision")
+        String decision;
+    }
+
+    /** Final scoring; the player is the winner. */
+    @Name("citadels.Scoring")
+    @Label("Scoring")
+    static final class Scoring extends GameFlightEvent {
+    }
+
+    /** Saving a game. */
+    @Name("citadels.Save")
+    @Label("Save Game")
+    static final class Save extends GameFlightEvent {
+        @Label("File")
+        String file;
+    }
+
+    /** Loading a game. */
+    @Name("citadels.Load")
+    @Label("Load Game")
+    static final class Load extends GameFlightEvent {
+        @Label("File")
+        String file;
+    }
+
+    /**
+     * Starts timing a CPU decision.
+     *
+     * @return the event, to finish with {@link #decided}
+     */
+    static Decision decision() {
+        Decision event = new Decision();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Finishes a CPU decision event.
+     *
+     * @param event  the event from {@link #decision()}
+     * @param kind   the kind of decision
+     * @param game   the game
+     * @param player the deciding player
+     */
+    static void decided(Decision event, EngineMetrics.Decision kind, GameState game, Player player) {
+        event.decision = kind.name();
+        event.finish(game, player);
+    }
+}
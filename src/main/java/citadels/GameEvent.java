@@ -0,0 +1,154 @@
+// File: src/main/java/citadels/GameEvent.java
+package citadels;
+
+/**
+ * Something that happened in a game, as delivered to a
+ * {@link GameEventListener}. Events live in the slots of an
+ * {@link EventBus} ring and are reused once every listener has seen them,
+ * so a listener that wants to keep an event must copy the fields it needs
+ * (or call {@link #copy()}) before returning.
+ *
+ * <p>Fields that do not apply to a type are 0 or null; see {@link Type}.</p>
+ */
+public final class GameEvent {
+
+    /**
+     * Kinds of game event and the fields each one sets.
+     */
+    public enum Type {
+        /** player picked character. */
+        CHARACTER_CHOSEN,
+        /** player (the Assassin) chose to kill character. */
+        CHARACTER_KILLED,
+        /** player (the Thief) took amount gold from target. */
+        GOLD_STOLEN,
+        /** player took their income: amount gold, or 0 if they took cards. */
+        RESOURCE_TAKEN,
+        /** player added district to their hand. */
+        CARD_DRAWN,
+        /** player built district for amount gold. */
+        DISTRICT_BUILT,
+        /** player (the Warlord) destroyed target's district for amount gold. */
+        DISTRICT_DESTROYED,
+        /** player (the King) took the crown. */
+        CROWN_PASSED,
+        /** player scored amount points at the end of the game. */
+        FINAL_SCORE,
+        /** The game is over; player is the winner. */
+        GAME_END
+    }
+
+    // Sequence number of the slot's current event; -1 until first published
+    volatile long sequence = -1;
+
+    // Fields below are written by the publisher before sequence is set
+    GameState game;
+    Type type;
+    int player;
+    int character;
+    int amount;
+    District district;
+    int target;
+
+    GameEvent() {
+    }
+
+    /**
+     * Returns the game the event happened in.
+     *
+     * @return the game state
+     */
+    public GameState getGame() {
+        return game;
+    }
+
+    /**
+     * Returns what happened.
+     *
+     * @return the event type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the ID of the player who acted.
+     *
+     * @return player ID, or 0 if none
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the character involved (1 = Assassin … 8 = Warlord).
+     *
+     * @return character number, or 0 if none
+     */
+    public int getCharacter() {
+        return character;
+    }
+
+    /**
+     * Returns the gold, cost or points involved.
+     *
+     * @return the amount, or 0 if none
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * Returns the district involved.
+     *
+     * @return the district, or null if none
+     */
+    public District getDistrict() {
+        return district;
+    }
+
+    /**
+     * Returns the ID of the player acted upon.
+     *
+     * @return target player ID, or 0 if none
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns this event's position in the stream of events published to
+     * its bus, starting at 0.
+     *
+     * @return the sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns a copy that is not reused by the bus.
+     *
+     * @return a detached copy of this event
+     */
+    public GameEvent copy() {
+        GameEvent e = new GameEvent();
+        e.game = game;
+        e.type = type;
+        e.player = player;
+        e.character = character;
+        e.amount = amount;
+        e.district = district;
+        e.target = target;
+        e.sequence = sequence;
+        return e;
+    }
+
+    @Override
+    public String toString() {
+        return type + " player=" + player + " character=" + character
+                + " amount=" + amount
+                + " district=" + (district == null ? "-" : district.getName())
+                + " target=" + target;
+    }
+}
@@ -0,0 +1,18 @@
+// File: src/main/java/citadels/GameEventListener.java
+package citadels;
+
+/**
+ * Receives the events published to an {@link EventBus}. Listeners are
+ * called one at a time on the bus's dispatcher thread, never on a game
+ * thread.
+ */
+@FunctionalInterface
+public interface GameEventListener {
+
+    /**
+     * Handles one event. The event object is reused after this returns.
+     *
+     * @param event the event
+     */
+    void onEvent(GameEvent event);
+}
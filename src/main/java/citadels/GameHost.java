@@ -0,0 +1,275 @@
+// File: src/main/java/citadels/GameHost.java
+package citadels;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts many human-paced games in one process. Every {@link GameTable} has
+ * its own input queue and output stream, and all tables are played by one
+ * scheduler thread: a table is stepped through its {@link RoundMachine}
+ * when input arrives and otherwise holds no thread at all, so a table
+ * waiting for its player only costs its game state.
+ *
+ * <p>Tables opened with {@link #openJournaledTable} log their input to a
+ * {@link GameJournal}, so a game interrupted by a crash or a restart of
+ * the host can be picked up again with {@link #resumeTable}. Their files
+ * are written and forced to disk by one {@link JournalWriter} thread,
+ * started with the first such table, so the scheduler never waits on the
+ * disk.</p>
+ */
+public class GameHost implements AutoCloseable {
+    // Runs every table's steps on a single thread
+    private final ScheduledThreadPoolExecutor scheduler;
+    // Open tables by table ID
+    private final ConcurrentHashMap<Integer, GameTable> tables =
+            new ConcurrentHashMap<>();
+    // Next table ID to hand out
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    // Bus that tables opened from now on publish their events to, if any
+    private volatile EventBus events;
+    // True if tables opened from now on are played over the network
+    private volatile boolean remote;
+    // Latency of every table's commands
+    private final LatencyHistogram commandLatency = new LatencyHistogram();
+    // Writes every journaled table's file, or null until one is opened
+    private JournalWriter journalWriter;
+
+    /**
+     * Creates a host whose scheduler is a daemon thread.
+     */
+    public GameHost() {
+        this(r -> {
+            Thread t = new Thread(r, "citadels-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates a host whose scheduler thread comes from the given factory.
+     *
+     * @param threadFactory factory for the scheduler thread
+     */
+    public GameHost(ThreadFactory threadFactory) {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        // closing a table commits its journal, so pending commits can go
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Opens a table and starts its game. Player 1 is the human, whose input
+     * is fed through {@link GameTable#submit(String)}.
+     *
+     * @param numPlayers number of players (4-7)
+     * @param seed       seed for the game's random choices
+     * @param out        stream the game prints to
+     * @return the new table
+     * @throws IllegalArgumentException if the player count is not 4-7
+     */
+    public GameTable openTable(int numPlayers, long seed, PrintStream out) {
+        return openTable(numPlayers, seed, out, null);
+    }
+
+    /**
+     * Opens a table and starts its game, running a callback on the
+     * scheduler once the game has ended and the table is removed.
+     *
+     * @param numPlayers number of players (4-7)
+     * @param seed       seed for the game's random choices
+     * @param out        stream the game prints to
+     * @param onFinish   called when the game ends, or null
+     * @return the new table
+     * @throws IllegalArgumentException if the player count is not 4-7
+     */
+    public GameTable openTable(int numPlayers, long seed, PrintStream out, Runnable onFinish) {
+        if (numPlayers < 4 || numPlayers > 7) {
+            throw new IllegalArgumentException(
+                    "player count must be 4-7, got " + numPlayers);
+        }
+        int id = nextId.getAndIncrement();
+        return start(id, new GameTable(id, numPlayers, seed, out,
+                finisher(id, onFinish), commandLatency));
+    }
+
+    /**
+     * Opens a table whose input is logged to a new journal, replacing any
+     * existing file, and starts its game.
+     *
+     * @param numPlayers number of players (4-7)
+     * @param seed       seed for the game's random choices
+     * @param out        stream the game prints to
+     * @param onFinish   called when the game ends, or null
+     * @param file       path of the journal file
+     * @return the new table
+     * @throws IOException if the journal cannot be written
+     * @throws IllegalArgumentException if the player count is not 4-7
+     */
+    public GameTable openJournaledTable(int numPlayers, long seed, PrintStream out,
+                                        Runnable onFinish, Path file) throws IOException {
+        if (numPlayers < 4 || numPlayers > 7) {
+            throw new IllegalArgumentException(
+                    "player count must be 4-7, got " + numPlayers);
+        }
+        GameJournal journal = GameJournal.create(file, numPlayers, seed,
+                GameTable.STEPPED, new ConsoleSink(out), journalWriter());
+        int id = nextId.getAndIncrement();
+        return start(id, new GameTable(id, journal, finisher(id, onFinish), commandLatency));
+    }
+
+    /**
+     * Reopens the journal of an interrupted game at a new table. The game
+     * is rebuilt from the log on the scheduler and then waits at the
+     * prompt its player was last given, which is printed again.
+     *
+     * @param file     path of the journal file
+     * @param out      stream the game prints to
+     * @param onFinish called when the game ends, or null
+     * @return the new table
+     * @throws IOException if the journal cannot be read or is not a journal
+     */
+    public GameTable resumeTable(Path file, PrintStream out, Runnable onFinish)
+            throws IOException {
+        GameJournal journal = GameJournal.open(file, GameTable.STEPPED,
+                new ConsoleSink(out), journalWriter());
+        int id = nextId.getAndIncrement();
+        return start(id, new GameTable(id, journal, finisher(id, onFinish), commandLatency));
+    }
+
+    // Writer for journaled tables, started by the first of them
+    private synchronized JournalWriter journalWriter() {
+        if (journalWriter == null) {
+            journalWriter = new JournalWriter();
+        }
+        return journalWriter;
+    }
+
+    // Callback that removes a finished table, then runs the caller's
+    private Runnable finisher(int id, Runnable onFinish) {
+        return () -> {
+            tables.remove(id);
+            if (onFinish != null) {
+                onFinish.run();
+            }
+        };
+    }
+
+    // Registers a table and schedules its first step
+    private GameTable start(int id, GameTable table) {
+        table.getGame().setEventBus(events);
+        table.getGame().remote = remote;
+        tables.put(id, table);
+        table.start(scheduler);
+        return table;
+    }
+
+    /**
+     * Sets the bus that tables opened after this call publish their game
+     * events to. All tables share the bus and its dispatcher thread.
+     *
+     * @param events the bus, or null for no events
+     */
+    public void setEventBus(EventBus events) {
+        this.events = events;
+    }
+
+    /**
+     * Sets whether tables opened after this call are played over the
+     * network. Their players are refused the commands that read or write
+     * files on the host or show the CPU players' hands: {@code save},
+     * {@code load} and {@code debug}.
+     *
+     * @param remote true for tables played by remote clients
+     */
+    public void setRemote(boolean remote) {
+        this.remote = remote;
+    }
+
+    /**
+     * Looks up an open table.
+     *
+     * @param id table ID
+     * @return the table, or null if it does not exist or has finished
+     */
+    public GameTable getTable(int id) {
+        return tables.get(id);
+    }
+
+    /**
+     * Returns the tables whose games are still running.
+     *
+     * @return live view of the open tables
+     */
+    public Collection<GameTable> getTables() {
+        return tables.values();
+    }
+
+    /**
+     * Returns the number of tables whose games are still running.
+     *
+     * @return open table count
+     */
+    public int getOpenTableCount() {
+        return tables.size();
+    }
+
+    /**
+     * Returns the number of open tables idle waiting for input.
+     *
+     * @return waiting table count
+     */
+    public int getWaitingTableCount() {
+        int n = 0;
+        for (GameTable t : tables.values()) {
+            if (t.isWaitingForInput()) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns the latencies of every table's commands: the time from a
+     * line being submitted to its game asking for the next one.
+     *
+     * @return the shared histogram
+     */
+    public LatencyHistogram getCommandLatency() {
+        return commandLatency;
+    }
+
+    /**
+     * Closes every open table and stops the scheduler, and the journal
+     * writer once the journals are closed, after their games have ended.
+     */
+    @Override
+    public void close() {
+        for (GameTable t : tables.values()) {
+            t.close();
+        }
+        try {
+            // queued behind the closes, so every table still ends
+            scheduler.execute(this::shutdown);
+        } catch (RejectedExecutionException e) {
+            // already closed
+        }
+    }
+
+    // Stops the scheduler, and the writer once the closes queued on it
+    // by the tables are done
+    private void shutdown() {
+        scheduler.shutdown();
+        synchronized (this) {
+            if (journalWriter != null) {
+                journalWriter.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,639 @@
+// File: src/main/java/citadels/GameJournal.java
+package citadels;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Crash-safe autosave for one game: an append-only log of every line of
+ * player input the game reads. Shuffles, the crown and all CPU choices come
+ * from the game's seeded {@link GameRandom}, so the seed and the human's
+ * decisions (character picks, Assassin and Thief targets, gold or cards,
+ * the kept card, builds, Warlord targets, Magician actions) determine the
+ * whole game. After a crash, {@link #open} rebuilds the game by replaying
+ * the log from the seed, then hands over to live input.
+ *
+ * <p>Records are buffered and group-committed: they are written and forced
+ * to disk together once {@link #GROUP_SIZE} are pending, at the end of
+ * every round and when play ends. A game played by {@link #play()} also
+ * commits when a record is appended {@link #COMMIT_DELAY_MILLIS} or more
+ * after the oldest pending one, but nothing is committed while it waits
+ * for input. A hosted table (see {@link GameHost#openJournaledTable})
+ * commits on its host's scheduler {@link #COMMIT_DELAY_MILLIS} after the
+ * first record of a group, so there no record stays pending for longer,
+ * and hands the writing and forcing to its host's {@link JournalWriter}
+ * so the scheduler never waits for the disk. A crash loses at most the
+ * decisions of the last uncommitted group, which the player is simply
+ * asked for again.</p>
+ *
+ * <p>Every {@code compactEvery} rounds the log is compacted: the game is
+ * reseeded from its own streams and a new log, starting with a binary
+ * snapshot of the state and the new seed, atomically replaces the old one.
+ * Replay therefore never redoes more than a few rounds.</p>
+ *
+ * <p>Layout (version 1):</p>
+ * <pre>
+ *   magic "CTDJ", version byte
+ *   seed (long), player count, rounds played (varints)
+ *   snapshot byte (1 if a {@link BinarySerializer} save follows)
+ *   records: 'L' and an input line (modified UTF-8), or 'R' after a round
+ * </pre>
+ * <p>A record cut short by a crash is ignored and overwritten.</p>
+ */
+public class GameJournal implements InputSource, Closeable {
+    /** Number of pending records that triggers a commit. */
+    public static final int GROUP_SIZE = 16;
+    /** Time, in ms, after which pending records are due to be committed. */
+    public static final long COMMIT_DELAY_MILLIS = 200;
+    /** Default number of rounds between compactions. */
+    public static final int DEFAULT_COMPACT_EVERY = 3;
+
+    // First bytes of every journal: "CTDJ"
+    private static final int MAGIC = 0x4354444A;
+    private static final int VERSION = 1;
+    private static final byte LINE = 'L';
+    private static final byte ROUND = 'R';
+
+    // Path of the journal file
+    private final Path file;
+    // Where live input comes from once the log has been replayed
+    private final InputSource live;
+    // Where the game prints once the log has been replayed
+    private final OutputSink liveOut;
+    // The journaled game
+    private final GameState game;
+    // Number of players, used when the game is set up from the seed
+    private final int numPlayers;
+
+    // Open channel on the journal file, appending
+    private FileChannel channel;
+    // Seed the game's streams were created with after the last compaction
+    private long seed;
+    // Rounds played when the log was last compacted
+    private int baseRounds;
+    // Rounds played so far
+    private int rounds;
+    // True if the log starts from a snapshot rather than from setup
+    private boolean fromSnapshot;
+    // Rounds between compactions, or 0 to never compact
+    private int compactEvery = DEFAULT_COMPACT_EVERY;
+
+    // Logged input lines not yet handed back to the game
+    private final ArrayDeque<String> replayLines = new ArrayDeque<>();
+    // Logged round ends not yet reached by the replay
+    private int replayRounds;
+    // Collects output while replaying, or null once live
+    private CaptureSink replayOut;
+
+    // Encoded records not yet written to the file
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final DataOutputStream pendingData = new DataOutputStream(pending);
+    // Number of records in pending
+    private int pendingRecords;
+    // System.nanoTime() when the oldest pending record was added
+    private long pendingSince;
+    // Records appended and commits made since the journal was opened
+    private long recordCount;
+    private long commitCount;
+
+    // Writes the file on its own thread, or null to write on the caller's
+    private final JournalWriter writer;
+    // True once closing has begun
+    private boolean closed;
+    // First error writing the file on the writer's thread
+    private volatile IOException writeFailure;
+
+    private GameJournal(Path file, InputSource live, OutputSink liveOut, int numPlayers,
+                        JournalWriter writer) {
+        this.file = file;
+        this.live = live;
+        this.liveOut = liveOut;
+        this.numPlayers = numPlayers;
+        this.writer = writer;
+        this.game = new GameState(this, liveOut);
+    }
+
+    /**
+     * Starts a journal for a new game, replacing any existing file.
+     *
+     * @param file       path of the journal file
+     * @param numPlayers number of players (4-7), player 1 being human
+     * @param seed       seed for the game's random choices
+     * @param input      source of the human's input
+     * @param out        sink the game prints to
+     * @return the journal, ready to {@link #play()}
+     * @throws IOException if the file cannot be written
+     */
+    public static GameJournal create(Path file, int numPlayers, long seed,
+                                     InputSource input, OutputSink out) throws IOException {
+        return create(file, numPlayers, seed, input, out, null);
+    }
+
+    /**
+     * Starts a journal for a new game whose file is written by a writer
+     * thread, replacing any existing file once the writer gets to it.
+     *
+     * @param file       path of the journal file
+     * @param numPlayers number of players (4-7), player 1 being human
+     * @param seed       seed for the game's random choices
+     * @param input      source of the human's input
+     * @param out        sink the game prints to
+     * @param writer     thread that writes the file, or null for the caller's
+     * @return the journal
+     * @throws IOException if the file cannot be written
+     */
+    static GameJournal create(Path file, int numPlayers, long seed, InputSource input,
+                              OutputSink out, JournalWriter writer) throws IOException {
+        GameJournal journal = new GameJournal(file, input, out, numPlayers, writer);
+        journal.seed = seed;
+        journal.game.random = new GameRandom(seed);
+        journal.rewrite(false);
+        return journal;
+    }
+
+    /**
+     * Reopens the journal of an interrupted game. The game is rebuilt by
+     * {@link #play()}, which replays the log without printing and then
+     * shows the player the prompt they were last given.
+     *
+     * @param file  path of the journal file
+     * @param input source of the human's input once the log is replayed
+     * @param out   sink the game prints to once the log is replayed
+     * @return the journal, ready to {@link #play()}
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static GameJournal open(Path file, InputSource input, OutputSink out)
+            throws IOException {
+        return open(file, input, out, null);
+    }
+
+    /**
+     * Reopens the journal of an interrupted game; once it is read, the
+     * file is written by a writer thread.
+     *
+     * @param file   path of the journal file
+     * @param input  source of the human's input once the log is replayed
+     * @param out    sink the game prints to once the log is replayed
+     * @param writer thread that writes the file, or null for the caller's
+     * @return the journal
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    static GameJournal open(Path file, InputSource input, OutputSink out, JournalWriter writer)
+            throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        GameJournal journal;
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a Citadels journal: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported journal version " + version);
+            }
+            long seed = in.readLong();
+            int numPlayers = BinarySerializer.readVarint(in);
+            journal = new GameJournal(file, input, out, numPlayers, writer);
+            journal.seed = seed;
+            journal.baseRounds = BinarySerializer.readVarint(in);
+            journal.rounds = journal.baseRounds;
+            journal.fromSnapshot = in.readBoolean();
+            if (journal.fromSnapshot) {
+                BinarySerializer.read(journal.game, in);
+            }
+            journal.game.random = new GameRandom(seed);
+        } catch (EOFException e) {
+            throw new IOException("Truncated journal header: " + file, e);
+        }
+
+        // Records up to the first incomplete one
+        long valid = bytes.length - in.available();
+        try {
+            while (in.available() > 0) {
+                byte type = in.readByte();
+                if (type == LINE) {
+                    journal.replayLines.add(in.readUTF());
+                } else if (type == ROUND) {
+                    journal.replayRounds++;
+                } else {
+                    break;
+                }
+                valid = bytes.length - in.available();
+            }
+        } catch (EOFException e) {
+            // torn final record: dropped below
+        }
+
+        journal.channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        journal.channel.truncate(valid);
+        journal.channel.position(valid);
+        return journal;
+    }
+
+    /**
+     * Returns the journaled game.
+     *
+     * @return the game state
+     */
+    public GameState getGame() {
+        return game;
+    }
+
+    /**
+     * Sets how often the log is compacted into a snapshot.
+     *
+     * @param rounds rounds between compactions, or 0 to never compact
+     */
+    public void setCompactEvery(int rounds) {
+        this.compactEvery = rounds;
+    }
+
+    /**
+     * Returns the number of players.
+     *
+     * @return player count (4-7)
+     */
+    public int getPlayerCount() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the path of the journal file.
+     *
+     * @return journal file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of rounds played, including those replayed.
+     *
+     * @return rounds played
+     */
+    public int getRoundsPlayed() {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of records appended since the journal was opened.
+     *
+     * @return records appended
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the number of group commits since the journal was opened.
+     *
+     * @return commits that wrote at least one record
+     */
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    /**
+     * Plays the game to the end, or resumes it: the log is replayed first,
+     * then play continues with live input. Pending records are committed
+     * when play ends, however it ends.
+     *
+     * @throws java.util.NoSuchElementException if the live input is closed
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    public void play() {
+        try {
+            begin();
+            while (!game.gameEndTriggered) {
+                App.playRound(game);
+                roundEnded();
+            }
+            goLive();
+            App.scoreAndDeclareWinner(game);
+        } finally {
+            game.out.flush();
+            try {
+                commit();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the next line of input: a logged line while replaying,
+     * otherwise a line from the live input, which is appended to the log.
+     *
+     * @return the next input line
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    @Override
+    public String nextLine() {
+        String line = nextReplayed();
+        if (line == null) {
+            line = live.nextLine();
+            record(line);
+        }
+        return line;
+    }
+
+    /**
+     * Sets the game up from the seed, or restores it from the log's
+     * snapshot, ready to play its next round. Output is captured from here
+     * until the log has been replayed.
+     */
+    void begin() {
+        if (!replayLines.isEmpty() || replayRounds > 0) {
+            replayOut = new CaptureSink();
+            game.out = replayOut;
+        }
+        if (!fromSnapshot) {
+            App.startGame(game, numPlayers);
+        } else if (rounds > 0) {
+            game.firstSelection = false;
+        }
+    }
+
+    /**
+     * Returns the next logged line to replay. Once none is left the game
+     * goes live, showing the prompt it was last given.
+     *
+     * @return the logged line, or null once the log has been replayed
+     */
+    String nextReplayed() {
+        if (replayLines.isEmpty()) {
+            goLive();
+            return null;
+        }
+        if (replayOut != null) {
+            replayOut.reset();
+        }
+        return replayLines.poll();
+    }
+
+    /**
+     * Logs a line of live input.
+     *
+     * @param line the line the game is about to act on
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    void record(String line) {
+        try {
+            append(LINE, line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Indicates whether records are waiting to be committed.
+     *
+     * @return true if a commit would write anything
+     */
+    boolean hasPending() {
+        return pendingRecords > 0;
+    }
+
+    /**
+     * Writes all pending records to the file and forces them to disk, or
+     * with a writer thread, hands them to it to do so.
+     *
+     * @throws IOException if the journal cannot be written, or an earlier
+     *                     write on the writer's thread failed
+     */
+    public void commit() throws IOException {
+        IOException failure = writeFailure;
+        if (failure != null) {
+            throw new IOException("Journal write failed: " + file, failure);
+        }
+        if (pendingRecords == 0) {
+            return;
+        }
+        byte[] records = pending.toByteArray();
+        if (writer != null) {
+            writer.append(this, records);
+        } else {
+            writeRecords(records);
+            force();
+        }
+        pending.reset();
+        pendingRecords = 0;
+        commitCount++;
+    }
+
+    /**
+     * Commits pending records and closes the file, waiting for the writer
+     * thread if there is one.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish(false).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Commits pending records and closes the file, on the writer's thread
+     * if there is one. Closing again does nothing.
+     *
+     * @param delete true to delete the file once closed, when the game is
+     *               over and there is nothing left to resume
+     * @return completed once the file is closed, exceptionally with the
+     *         IOException if it could not be written
+     */
+    CompletableFuture<Void> finish(boolean delete) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (closed) {
+            done.complete(null);
+            return done;
+        }
+        closed = true;
+        IOException failure = null;
+        try {
+            commit();
+        } catch (IOException e) {
+            failure = e;
+        }
+        if (writer != null) {
+            if (failure != null) {
+                writeFailed(failure);
+            }
+            writer.close(this, delete, done);
+            return done;
+        }
+        try {
+            closeFile(delete);
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            done.completeExceptionally(failure);
+        } else {
+            done.complete(null);
+        }
+        return done;
+    }
+
+    /**
+     * Logs the end of a round, committing and compacting as due. Rounds
+     * still being replayed are not logged again.
+     *
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    void roundEnded() {
+        rounds++;
+        if (replayRounds > 0) {
+            replayRounds--;
+            return;
+        }
+        try {
+            append(ROUND, null);
+            commit();
+            if (compactEvery > 0 && rounds - baseRounds >= compactEvery
+                    && !game.gameEndTriggered) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Switches from replay to live output, showing the last prompt again.
+     * Does nothing once live.
+     */
+    void goLive() {
+        if (replayOut != null) {
+            liveOut.print(replayOut.toString());
+            liveOut.flush();
+            game.out = liveOut;
+            replayOut = null;
+        }
+    }
+
+    // Buffers one record, committing the group if it is full or old enough
+    private void append(byte type, String line) throws IOException {
+        if (pendingRecords == 0) {
+            pendingSince = System.nanoTime();
+        }
+        pendingData.writeByte(type);
+        if (line != null) {
+            pendingData.writeUTF(line);
+        }
+        pendingRecords++;
+        recordCount++;
+        if (pendingRecords >= GROUP_SIZE
+                || System.nanoTime() - pendingSince >= COMMIT_DELAY_MILLIS * 1_000_000L) {
+            commit();
+        }
+    }
+
+    // Reseeds the game and replaces the log with a snapshot of it
+    private void compact() throws IOException {
+        seed = game.random.nextSeed();
+        game.random = new GameRandom(seed);
+        baseRounds = rounds;
+        rewrite(true);
+    }
+
+    // Builds a fresh log (header and optional snapshot) and swaps it in
+    private void rewrite(boolean snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        BinarySerializer.writeVarint(out, numPlayers);
+        BinarySerializer.writeVarint(out, baseRounds);
+        out.writeBoolean(snapshot);
+        if (snapshot) {
+            BinarySerializer.write(game, out);
+        }
+        fromSnapshot = snapshot;
+        if (writer != null) {
+            writer.replace(this, bytes.toByteArray());
+        } else {
+            replaceLog(bytes.toByteArray());
+        }
+    }
+
+    // The methods below touch the file. With a writer they run on its
+    // thread only, in the order the game queued them
+
+    // Appends encoded records to the file
+    void writeRecords(byte[] records) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(records);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    // Forces appended records to disk
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    // Writes a whole new log beside the file and atomically swaps it in
+    void replaceLog(byte[] log) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(log);
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            ch.force(true);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Closes the file, deleting it if asked
+    void closeFile(boolean delete) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        if (delete) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Records the first failed write on the writer's thread
+    void writeFailed(Exception e) {
+        if (writeFailure == null) {
+            writeFailure = e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    // The first failed write on the writer's thread, or null
+    IOException getWriteFailure() {
+        return writeFailure;
+    }
+}
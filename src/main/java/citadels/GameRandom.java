@@ -0,0 +1,94 @@
+// File: src/main/java/citadels/GameRandom.java
+package citadels;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The random number streams of one game. A root {@link SplittableRandom}
+ * is created from the game's seed and split into an independent child
+ * stream per kind of choice, so that a game can be replayed exactly from
+ * its seed, and an extra draw in one stream (say, a CPU player that looks
+ * at one more option) does not change the deck order or the characters
+ * dealt.
+ *
+ * <p>Like the game it belongs to, a GameRandom is used by one thread at
+ * a time. Games that run in parallel each get their own, created from a
+ * seed or split off another game's, so they never share random state.</p>
+ */
+public final class GameRandom {
+    // Seed the root stream was created from
+    private final long seed;
+    // Root stream; only used to split off seeds and child games
+    private final SplittableRandom root;
+
+    // Deck shuffles
+    final SplittableRandom deck;
+    // Crown assignment and the character draw
+    final SplittableRandom characters;
+    // Choices made by CPU players
+    final SplittableRandom ai;
+
+    /**
+     * Creates the streams of a game with a fresh, unpredictable seed.
+     */
+    public GameRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates the streams of a game from a seed. Two games with the same
+     * seed and the same player input play out identically.
+     *
+     * @param seed the game's seed
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.root = new SplittableRandom(seed);
+        this.deck = root.split();
+        this.characters = root.split();
+        this.ai = root.split();
+    }
+
+    /**
+     * Returns the seed these streams were created from.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Draws a seed for new streams from the root stream, leaving the
+     * child streams untouched.
+     *
+     * @return a new seed
+     */
+    public long nextSeed() {
+        return root.nextLong();
+    }
+
+    /**
+     * Splits off the streams of another game, independent of this one.
+     *
+     * @return the new game's streams
+     */
+    public GameRandom split() {
+        return new GameRandom(nextSeed());
+    }
+
+    /**
+     * Shuffles a list in place (Fisher-Yates) with the given stream.
+     *
+     * @param list   the list to shuffle
+     * @param random source of randomness
+     * @param <T>    element type
+     */
+    static <T> void shuffle(List<T> list, SplittableRandom random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            list.set(i, list.set(j, list.get(i)));
+        }
+    }
+}
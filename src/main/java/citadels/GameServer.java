@@ -0,0 +1,443 @@
+// File: src/main/java/citadels/GameServer.java
+package citadels;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Telnet-style game server on a local TCP port. Every connection gets its
+ * own {@link GameTable} on a {@link GameHost} and speaks the same commands
+ * as the console game, one per line, except those that touch the
+ * server's files or show the CPU players' hands ({@code save},
+ * {@code load} and {@code debug}), which are refused.
+ *
+ * <p>All socket I/O runs on one selector thread with non-blocking
+ * channels, and every game is stepped by the host's scheduler thread when
+ * input arrives, so an idle connection costs no thread of its own.
+ * Complete lines read from a connection are submitted to its table. When a
+ * game flushes its output, the bytes are queued on the connection and the
+ * selector is woken to write them as the socket accepts them. A
+ * connection is closed once its game has ended and its output is written,
+ * and closing a connection closes its table.</p>
+ *
+ * <p>Given a journal directory, the server logs every game's input to a
+ * {@link GameJournal} named after the connection's number. After a crash
+ * or restart, the server's {@code i}th connection resumes the unfinished
+ * game of the previous run's {@code i}th connection; a journal is deleted
+ * once its game has been played to the end.</p>
+ */
+public class GameServer implements AutoCloseable {
+    // Bytes read from a connection at a time
+    private static final int READ_BUFFER = 4096;
+    // Longer input lines are cut to this many bytes
+    private static final int MAX_LINE = 1024;
+    // A connection whose unwritten output exceeds this is dropped
+    private static final int MAX_QUEUED_BYTES = 1 << 20;
+
+    // Hosts the game of every connection
+    private final GameHost host;
+    // Players at every table
+    private final int numPlayers;
+    // Seed the table seeds derive from
+    private final long seed;
+    // Directory the games are journaled to, or null
+    private final Path journals;
+    // Waits for socket readiness and for output to write
+    private final Selector selector;
+    // Accepts connections
+    private final ServerSocketChannel server;
+    // Connections with new output or a finished game, for the selector thread
+    private final ConcurrentLinkedQueue<Session> pending = new ConcurrentLinkedQueue<>();
+    // Open connections
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    // Connections accepted so far
+    private final AtomicInteger accepted = new AtomicInteger();
+    // Thread running the selector loop
+    private final Thread thread;
+    // False once the server is closing
+    private volatile boolean running = true;
+
+    private GameServer(GameHost host, int numPlayers, long seed, Path journals,
+                       Selector selector, ServerSocketChannel server) {
+        this.host = host;
+        this.numPlayers = numPlayers;
+        this.seed = seed;
+        this.journals = journals;
+        this.selector = selector;
+        this.server = server;
+        this.thread = new Thread(this::run, "citadels-server");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts a server listening on the loopback interface. Connection
+     * {@code i} plays the game seeded with {@link Simulator#gameSeed}
+     * of the server seed and {@code i}.
+     *
+     * @param port       TCP port, or 0 for any free port
+     * @param numPlayers players at every table (4-7)
+     * @param seed       seed the games' seeds derive from
+     * @return the running server
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if the player count is not 4-7
+     */
+    public static GameServer start(int port, int numPlayers, long seed) throws IOException {
+        return start(port, numPlayers, seed, null);
+    }
+
+    /**
+     * Starts a server listening on the loopback interface whose games are
+     * journaled to a directory, resuming the unfinished games found there.
+     *
+     * @param port       TCP port, or 0 for any free port
+     * @param numPlayers players at every table (4-7)
+     * @param seed       seed the games' seeds derive from
+     * @param journals   directory for the games' journals, or null for none
+     * @return the running server
+     * @throws IOException if the port cannot be bound or the directory
+     *                     cannot be created
+     * @throws IllegalArgumentException if the player count is not 4-7
+     */
+    public static GameServer start(int port, int numPlayers, long seed, Path journals)
+            throws IOException {
+        if (numPlayers < 4 || numPlayers > 7) {
+            throw new IllegalArgumentException(
+                    "player count must be 4-7, got " + numPlayers);
+        }
+        if (journals != null) {
+            Files.createDirectories(journals);
+        }
+        Selector selector = Selector.open();
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        GameHost host = new GameHost();
+        host.setRemote(true);
+        GameServer s = new GameServer(host, numPlayers, seed, journals, selector, server);
+        s.thread.start();
+        return s;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return local port
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of open connections.
+     *
+     * @return connection count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the number of connections accepted since the server started.
+     *
+     * @return accepted connection count
+     */
+    public int getAcceptedCount() {
+        return accepted.get();
+    }
+
+    /**
+     * Returns the host running the connections' games, e.g. for its
+     * command latencies.
+     *
+     * @return the game host
+     */
+    public GameHost getHost() {
+        return host;
+    }
+
+    /**
+     * Stops accepting, closes every connection and its table, and waits
+     * for the selector thread to end.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        host.close();
+    }
+
+    // Body of the selector thread
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Session s;
+                while ((s = pending.poll()) != null) {
+                    s.write();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Session session = (Session) key.attachment();
+                    if (key.isReadable()) {
+                        session.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        session.write();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // selector failed: fall through and shut down
+        } finally {
+            for (Session s : sessions) {
+                s.close();
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    // Accepts every waiting connection and opens a table for each
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session(channel);
+            try {
+                session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            } catch (ClosedChannelException e) {
+                continue;
+            }
+            sessions.add(session);
+            int number = accepted.getAndIncrement();
+            long tableSeed = Simulator.gameSeed(seed, number);
+            PrintStream out = new PrintStream(session.output, false, StandardCharsets.UTF_8);
+            if (journals == null) {
+                session.table = host.openTable(numPlayers, tableSeed, out, session::finish);
+                continue;
+            }
+            Path file = journals.resolve("game-" + number + ".journal");
+            try {
+                session.table = Files.exists(file)
+                        ? host.resumeTable(file, out, session::finish)
+                        : host.openJournaledTable(numPlayers, tableSeed, out,
+                                session::finish, file);
+            } catch (IOException e) {
+                // unreadable journal: drop the connection, keep serving
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * One connection: its channel, its table, the partial input line read
+     * so far and the output waiting to be written. Reads, writes and close
+     * happen on the selector thread; the scheduler only queues output.
+     */
+    private final class Session {
+        final SocketChannel channel;
+        SelectionKey key;
+        volatile GameTable table;
+        // Bytes read from the socket, reused for every read
+        final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+        // Input line being assembled
+        final byte[] line = new byte[MAX_LINE];
+        int lineLength;
+        // Output buffers waiting to be written, oldest first
+        final ConcurrentLinkedQueue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queuedBytes = new AtomicInteger();
+        // Collects what the game prints and queues it on flush
+        final OutputStream output = new SessionOutput(this);
+        // True once the game has ended
+        volatile boolean finished;
+        boolean closed;
+
+        Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        // Called from the scheduler: new output is queued
+        void queue(ByteBuffer bytes) {
+            if (queuedBytes.addAndGet(bytes.remaining()) > MAX_QUEUED_BYTES) {
+                // client is not reading: stop its game and drop it
+                finished = true;
+                GameTable t = table;
+                if (t != null) {
+                    t.close();
+                }
+            } else {
+                out.add(bytes);
+            }
+            wake();
+        }
+
+        // Called from the scheduler when the game has ended
+        void finish() {
+            finished = true;
+            wake();
+        }
+
+        private void wake() {
+            pending.add(this);
+            selector.wakeup();
+        }
+
+        // Reads what is available and submits every complete line
+        void read() {
+            int n;
+            try {
+                n = channel.read(in);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                close();
+                return;
+            }
+            in.flip();
+            while (in.hasRemaining()) {
+                byte b = in.get();
+                if (b == '\n') {
+                    int end = lineLength;
+                    if (end > 0 && line[end - 1] == '\r') {
+                        end--;
+                    }
+                    table.submit(new String(line, 0, end, StandardCharsets.UTF_8));
+                    lineLength = 0;
+                } else if (lineLength < MAX_LINE) {
+                    line[lineLength++] = b;
+                }
+            }
+            in.clear();
+        }
+
+        // Writes queued output until the socket is full; closes once the
+        // game has ended and everything is written
+        void write() {
+            if (closed) {
+                return;
+            }
+            try {
+                ByteBuffer head;
+                while ((head = out.peek()) != null) {
+                    int n = channel.write(head);
+                    queuedBytes.addAndGet(-n);
+                    if (head.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    out.poll();
+                }
+                if (finished) {
+                    close();
+                } else {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            sessions.remove(this);
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // already gone
+            }
+            if (table != null) {
+                table.close();
+            }
+        }
+    }
+
+    /**
+     * Stream a session's game prints to. Bytes collect in an array until
+     * the game flushes, which queues them on the session in one buffer.
+     */
+    private static final class SessionOutput extends OutputStream {
+        private final Session session;
+        private byte[] buf = new byte[512];
+        private int count;
+
+        SessionOutput(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        private void ensure(int extra) {
+            if (count + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (count > 0) {
+                session.queue(ByteBuffer.wrap(Arrays.copyOf(buf, count)));
+                count = 0;
+            }
+        }
+    }
+}
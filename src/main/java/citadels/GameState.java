@@ -0,0 +1,300 @@
+// File: src/main/java/citadels/GameState.java
+package citadels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds everything that belongs to a single game of Citadels: the players,
+ * the district deck, the crown holder, per-round character effects and the
+ * game-end flags. Every phase in {@link App} operates on one instance, so a
+ * single JVM can run any number of independent games side by side.
+ */
+public class GameState {
+    // Input of copied games, which are never driven by a human
+    private static final InputSource NO_INPUT = () -> {
+        throw new NoSuchElementException("Copied game has no input");
+    };
+    // Last game ID handed out
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    // List of all players in the game
+    List<Player> players = new ArrayList<>();
+    // Deck of district cards
+    DistrictDeck deck = new DistrictDeck();
+    // The player who currently holds the crown
+    Player crownedPlayer;
+    // Debug mode flag
+    boolean debugMode = false;
+    // True if the human plays over the network, and so may not use the
+    // commands that touch the host's files or show the CPU hands
+    boolean remote = false;
+    // Source of player input (a System.in scanner unless set)
+    InputSource input;
+    // Where game messages are printed (System.out unless set)
+    OutputSink out;
+    // Bus the game publishes its events to, or null if nobody listens
+    EventBus events;
+    // Random streams for the deck, the character draw and CPU choices
+    GameRandom random;
+    // Used to show hand only on first selection
+    boolean firstSelection = true;
+    // Whether this game counts towards the engine metrics and flight
+    // recorder events (false for copies)
+    boolean metered = true;
+    // Process-wide ID, for telling games apart in metrics and recordings;
+    // 0 for copies
+    final long id;
+    // Rounds started since the game was set up, restored or loaded
+    int round = 0;
+
+    // Characters discarded face up this round, one bit per character
+    int faceUpCharacters = 0;
+    // The character number that was killed this round (0 if none)
+    int killedCharacter = 0;
+    // The character number that was robbed this round (0 if none)
+    int robbedCharacter = 0;
+    // The player who is the Thief this round (null if none)
+    Player thiefPlayer = null;
+    // Flag to indicate if the game end has been triggered
+    boolean gameEndTriggered = false;
+    // The first player to complete their city
+    Player firstCompleter = null;
+
+    /**
+     * Creates an empty game with no players and an empty deck.
+     */
+    public GameState() {
+        this(null, new ConsoleSink(System.out));
+    }
+
+    /**
+     * Creates a game that reads its input from the given scanner.
+     *
+     * @param scanner source of player input for this game
+     */
+    public GameState(Scanner scanner) {
+        this(scanner::nextLine, new ConsoleSink(System.out));
+    }
+
+    /**
+     * Creates a game with its own input source and output sink.
+     *
+     * @param input source of player input for this game
+     * @param out   sink the game prints its messages to
+     */
+    public GameState(InputSource input, OutputSink out) {
+        this(input, out, new GameRandom(), NEXT_ID.incrementAndGet());
+    }
+
+    // Creates a game with the given streams and ID
+    private GameState(InputSource input, OutputSink out, GameRandom random, long id) {
+        this.input = input;
+        this.out = out;
+        this.random = random;
+        this.id = id;
+    }
+
+    /**
+     * Creates a game with no console: output is discarded and all random
+     * choices come from the given seed, so the game can be reproduced.
+     * Intended for all-CPU simulations.
+     *
+     * @param seed seed for this game's random choices
+     * @return a new headless game state
+     */
+    public static GameState headless(long seed) {
+        return new GameState(null, NullSink.INSTANCE, new GameRandom(seed),
+                NEXT_ID.incrementAndGet());
+    }
+
+    /**
+     * Returns an independent copy of this game position, for search-based
+     * CPU players that try out moves. Players, hands, cities and the deck
+     * are copied (districts themselves are immutable and shared), and the
+     * crown, Thief and first completer refer to the copied players.
+     *
+     * <p>The copy prints nothing, publishes no events and has no input: a
+     * human seat in it throws {@link NoSuchElementException} if asked for a
+     * decision. It gets its own unseeded {@link GameRandom}; use
+     * {@link #copy(GameRandom)} for reproducible lookahead. The original
+     * game's streams are left untouched. The copy keeps the round, and
+     * rounds played on it are not counted in {@link EngineMetrics} or
+     * {@link FlightEvents}, so it takes no ID from the process-wide
+     * counter: every copy has ID 0.</p>
+     *
+     * @return the copied game
+     */
+    public GameState copy() {
+        return copy(new GameRandom());
+    }
+
+    /**
+     * Returns an independent copy of this game position, as {@link #copy()},
+     * whose random choices come from the given streams.
+     *
+     * @param random streams for the copy's shuffles and CPU choices
+     * @return the copied game
+     */
+    public GameState copy(GameRandom random) {
+        GameState c = new GameState(NO_INPUT, NullSink.INSTANCE, random, 0);
+        c.metered = false;
+        for (Player p : players) {
+            c.players.add(p.copy());
+        }
+        c.deck = deck.copy();
+        c.crownedPlayer = c.samePlayer(crownedPlayer, this);
+        c.thiefPlayer = c.samePlayer(thiefPlayer, this);
+        c.firstCompleter = c.samePlayer(firstCompleter, this);
+        c.debugMode = debugMode;
+        c.firstSelection = firstSelection;
+        c.round = round;
+        c.faceUpCharacters = faceUpCharacters;
+        c.killedCharacter = killedCharacter;
+        c.robbedCharacter = robbedCharacter;
+        c.gameEndTriggered = gameEndTriggered;
+        return c;
+    }
+
+    // This game's counterpart of a player in another game with the same seating
+    private Player samePlayer(Player p, GameState other) {
+        return p == null ? null : players.get(other.players.indexOf(p));
+    }
+
+    /**
+     * Reads the next line of player input for this game, first flushing
+     * any buffered output so the player sees the prompt.
+     *
+     * @return the next input line
+     */
+    String nextLine() {
+        out.flush();
+        if (input == null) {
+            input = new Scanner(System.in)::nextLine;
+        }
+        return input.nextLine();
+    }
+
+    /**
+     * Publishes an event to this game's bus, if it has one.
+     *
+     * @param type      what happened
+     * @param player    the acting player, or null
+     * @param character character involved, or 0
+     * @param amount    gold, cost or points involved, or 0
+     * @param district  district involved, or null
+     * @param target    the player acted upon, or null
+     */
+    void emit(GameEvent.Type type, Player player, int character, int amount,
+              District district, Player target) {
+        if (events != null) {
+            events.publish(this, type,
+                    player == null ? 0 : player.getId(), character, amount,
+                    district, target == null ? 0 : target.getId());
+        }
+    }
+
+    /**
+     * Sets the bus this game publishes its events to.
+     *
+     * @param events the bus, or null to stop publishing
+     */
+    public void setEventBus(EventBus events) {
+        this.events = events;
+    }
+
+    /**
+     * Indicates whether any seat in this game is controlled by a human.
+     *
+     * @return true if at least one player is human
+     */
+    boolean hasHumanPlayer() {
+        for (Player p : players) {
+            if (p.isHuman()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears the per-round character effects (kill, robbery, chosen
+     * characters) before the next selection phase.
+     */
+    void resetRound() {
+        faceUpCharacters = 0;
+        killedCharacter = 0;
+        robbedCharacter = 0;
+        thiefPlayer = null;
+        for (Player p : players) {
+            p.setCharacter(0);
+        }
+    }
+
+    /**
+     * Returns this game's ID, unique within the process except for copies.
+     *
+     * @return game ID, from 1, or 0 for a copy
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the number of rounds started since the game was set up,
+     * restored from a replay, or loaded. Saves do not record it.
+     *
+     * @return current round, or 0 before the first
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Returns the players in seating order.
+     *
+     * @return list of players
+     */
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Returns the district deck, top card first.
+     *
+     * @return the deck
+     */
+    public DistrictDeck getDeck() {
+        return deck;
+    }
+
+    /**
+     * Returns the player currently holding the crown.
+     *
+     * @return crowned player
+     */
+    public Player getCrownedPlayer() {
+        return crownedPlayer;
+    }
+
+    /**
+     * Returns the first player to complete their city, or null.
+     *
+     * @return first completer
+     */
+    public Player getFirstCompleter() {
+        return firstCompleter;
+    }
+
+    /**
+     * Indicates whether a player has completed their city this game.
+     *
+     * @return true once the game end has been triggered
+     */
+    public boolean isGameEndTriggered() {
+        return gameEndTriggered;
+    }
+}
@@ -0,0 +1,354 @@
+// File: src/main/java/citadels/GameTable.java
+package citadels;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One hosted game: its {@link GameState}, the queue of input lines typed by
+ * the human at seat 1, and the {@link RoundMachine} of the round being
+ * played. The table holds no thread: {@link #submit(String)} queues a line
+ * and schedules the table on its host's scheduler, which steps the round
+ * with every queued line until it waits for input again. The time from a
+ * line being submitted to the game asking for the next one, i.e. how long
+ * the game took to act on it, is recorded as the command's latency.
+ *
+ * <p>A table may keep a {@link GameJournal}: every line is logged before
+ * the game acts on it, and a table reopened from the journal replays the
+ * log on its first step, then waits at the prompt the player was last
+ * given. Pending records are committed on the scheduler
+ * {@link GameJournal#COMMIT_DELAY_MILLIS} after the first of them, and the
+ * journal is deleted once the game has been played to the end. The file
+ * itself is written by the host's {@link JournalWriter}, never by the
+ * scheduler.</p>
+ */
+public class GameTable {
+    // Queued in place of a line once the table is closed
+    private static final Input CLOSED = new Input(null, 0);
+    // The game reads no input itself: lines are passed to its round
+    static final InputSource STEPPED = () -> {
+        throw new NoSuchElementException("Hosted games are stepped, not read");
+    };
+
+    // Host-assigned table number
+    private final int id;
+    // Players at this table
+    private final int numPlayers;
+    // State of the game played at this table
+    private final GameState game;
+    // Lines submitted by the human, not yet passed to the game
+    private final ConcurrentLinkedQueue<Input> lines = new ConcurrentLinkedQueue<>();
+    // Called once the game has ended
+    private final Runnable onFinish;
+    // Where command latencies are recorded, or null
+    private final LatencyHistogram latency;
+    // Log of the game's input, or null if it is not journaled
+    private final GameJournal journal;
+    // Runs the table's steps, one at a time
+    private volatile ScheduledExecutorService scheduler;
+    // True while a run of this table is queued on the scheduler or running
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // Released once the game has ended
+    private final CountDownLatch done = new CountDownLatch(1);
+    // Round being played; null until the game has started
+    private RoundMachine round;
+    // True while a commit of the journal is scheduled
+    private boolean commitScheduled;
+
+    // True while the game waits for input and none is queued
+    private volatile boolean waiting = false;
+    // True once the game has ended
+    private volatile boolean finished = false;
+    // Error that ended the game, if it did not end normally or by close
+    private volatile Throwable failure;
+
+    /**
+     * Creates a table whose game prints to the given stream.
+     *
+     * @param id         table number
+     * @param numPlayers number of players (4-7), player 1 being human
+     * @param seed       seed for the game's random choices
+     * @param out        stream the game prints to
+     * @param onFinish   called on the scheduler when the game ends
+     * @param latency    where command latencies are recorded, or null
+     */
+    GameTable(int id, int numPlayers, long seed, PrintStream out, Runnable onFinish,
+              LatencyHistogram latency) {
+        this.id = id;
+        this.numPlayers = numPlayers;
+        this.game = new GameState(STEPPED, new ConsoleSink(out));
+        this.game.random = new GameRandom(seed);
+        this.onFinish = onFinish;
+        this.latency = latency;
+        this.journal = null;
+    }
+
+    /**
+     * Creates a table playing a journaled game: a new one, or one being
+     * resumed from its log. The journal's live input must be
+     * {@link #STEPPED}.
+     *
+     * @param id       table number
+     * @param journal  journal of the game
+     * @param onFinish called on the scheduler when the game ends
+     * @param latency  where command latencies are recorded, or null
+     */
+    GameTable(int id, GameJournal journal, Runnable onFinish, LatencyHistogram latency) {
+        this.id = id;
+        this.numPlayers = journal.getPlayerCount();
+        this.game = journal.getGame();
+        this.onFinish = onFinish;
+        this.latency = latency;
+        this.journal = journal;
+    }
+
+    // A submitted line and when it was submitted
+    private static final class Input {
+        final String line;
+        final long nanos;
+
+        Input(String line, long nanos) {
+            this.line = line;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Starts the game on the given scheduler: it is set up and played up
+     * to the first prompt.
+     *
+     * @param scheduler executor running the table's steps
+     */
+    void start(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        schedule();
+    }
+
+    // Queues a run of this table unless one is already queued
+    private void schedule() {
+        if (scheduler != null && scheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                // host shut down: the table is being closed
+                scheduled.set(false);
+            }
+        }
+    }
+
+    // Steps the game with every queued line; runs on the scheduler only
+    private void run() {
+        waiting = false;
+        try {
+            if (round == null && !finished) {
+                if (journal != null) {
+                    journal.begin();
+                } else {
+                    App.startGame(game, numPlayers);
+                }
+                round = new RoundMachine(game);
+                advance(null);
+                replay();
+            }
+            Input in;
+            while (!finished && (in = lines.poll()) != null) {
+                if (in == CLOSED) {
+                    finish(false);
+                    break;
+                }
+                if (journal != null) {
+                    journal.record(in.line);
+                }
+                advance(in.line);
+                if (latency != null) {
+                    latency.recordNanos(System.nanoTime() - in.nanos);
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+            finish(false);
+        }
+        if (!finished && journal != null && journal.hasPending() && !commitScheduled) {
+            scheduleCommit();
+        }
+        waiting = !finished;
+        scheduled.set(false);
+        // a line may have arrived after the last poll
+        if (!finished && !lines.isEmpty()) {
+            schedule();
+        }
+    }
+
+    // Steps the game through the journal's logged lines, if any
+    private void replay() {
+        if (journal == null) {
+            return;
+        }
+        String line;
+        while (!finished && (line = journal.nextReplayed()) != null) {
+            advance(line);
+        }
+    }
+
+    // Commits the journal's pending records once the commit delay is up
+    private void scheduleCommit() {
+        try {
+            scheduler.schedule(() -> {
+                commitScheduled = false;
+                if (!finished) {
+                    try {
+                        journal.commit();
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                        finish(false);
+                    }
+                }
+            }, GameJournal.COMMIT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            commitScheduled = true;
+        } catch (RejectedExecutionException e) {
+            // host shut down: closing the table commits
+        }
+    }
+
+    // Steps the round with a line, starting new rounds until one waits
+    // for input or the game ends
+    private void advance(String line) {
+        while (!round.step(line)) {
+            line = null;
+            if (journal != null) {
+                journal.roundEnded();
+            }
+            if (game.gameEndTriggered) {
+                if (journal != null) {
+                    journal.goLive();
+                }
+                App.scoreAndDeclareWinner(game);
+                finish(true);
+                return;
+            }
+            round = new RoundMachine(game);
+        }
+    }
+
+    // Ends the game: flushes its output, deletes the journal if the game
+    // was played to the end or else commits it, and once the journal is
+    // closed releases anyone waiting
+    private void finish(boolean played) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            game.out.flush();
+        } finally {
+            if (journal == null) {
+                release();
+            } else {
+                journal.finish(played).whenComplete((v, e) -> {
+                    if (e != null && failure == null) {
+                        failure = e;
+                    }
+                    // back on the scheduler, unless the host has shut down
+                    try {
+                        scheduler.execute(this::release);
+                    } catch (RejectedExecutionException x) {
+                        release();
+                    }
+                });
+            }
+        }
+    }
+
+    // Tells the host the game is over, then releases anyone waiting
+    private void release() {
+        try {
+            onFinish.run();
+        } finally {
+            done.countDown();
+        }
+    }
+
+    /**
+     * Queues a line of input for the human player.
+     *
+     * @param line the line typed by the player
+     */
+    public void submit(String line) {
+        lines.offer(new Input(line, System.nanoTime()));
+        schedule();
+    }
+
+    /**
+     * Closes the table's input; the game ends once the lines queued before
+     * it have been played.
+     */
+    public void close() {
+        lines.offer(CLOSED);
+        schedule();
+    }
+
+    /**
+     * Waits for the game to end and, if it is journaled, for its journal
+     * to be closed.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return true if the game has ended
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean join(long timeoutMillis) throws InterruptedException {
+        return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the table number.
+     *
+     * @return table ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the state of the game at this table.
+     *
+     * @return game state
+     */
+    public GameState getGame() {
+        return game;
+    }
+
+    /**
+     * Indicates whether the game is waiting for the human with no input
+     * queued.
+     *
+     * @return true while idle waiting for input
+     */
+    public boolean isWaitingForInput() {
+        return waiting && lines.isEmpty();
+    }
+
+    /**
+     * Indicates whether the game has ended.
+     *
+     * @return true once the game is over or the table was closed
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Returns the error that ended the game, if any.
+     *
+     * @return the failure, or null if the game ended normally or was closed
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+}
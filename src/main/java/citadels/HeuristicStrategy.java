@@ -0,0 +1,199 @@
+// File: src/main/java/citadels/HeuristicStrategy.java
+package citadels;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The built-in CPU player: characters and Assassin and Thief targets are
+ * picked uniformly at random from the legal choices, using the game's CPU
+ * stream ({@link GameRandom}) so seeded games stay reproducible. The other
+ * decisions follow simple rules: take gold when short of it, keep the
+ * dearer card, build the cheapest district it can, and never use the
+ * Warlord's power. Stateless, so one instance serves every seat of every
+ * game.
+ *
+ * <p>Every decision scans the hand, city or seating in place and answers
+ * with an index or a mask, so deciding allocates nothing.</p>
+ */
+public final class HeuristicStrategy implements CpuStrategy {
+    /** The shared instance. */
+    public static final HeuristicStrategy INSTANCE = new HeuristicStrategy();
+
+    // Characters the Assassin may kill: 2-8
+    private static final int ASSASSIN_TARGETS = 0b1_1111_1100;
+    // Characters the Thief may rob: 3-8
+    private static final int THIEF_TARGETS = 0b1_1111_1000;
+
+    private HeuristicStrategy() {
+    }
+
+    @Override
+    public int chooseCharacter(GameState game, Player self, int available) {
+        return pick(available, game.random.ai);
+    }
+
+    @Override
+    public int assassinTarget(GameState game, Player self) {
+        return pick(ASSASSIN_TARGETS, game.random.ai);
+    }
+
+    @Override
+    public int thiefTarget(GameState game, Player self) {
+        return pick(THIEF_TARGETS & ~(1 << game.killedCharacter), game.random.ai);
+    }
+
+    // Gold when the hand is empty or there is not enough gold to build
+    @Override
+    public boolean takeGold(GameState game, Player self) {
+        return self.getHand().isEmpty() || self.getGold() < 2;
+    }
+
+    // The dearer card, the first one on a tie
+    @Override
+    public District chooseKeptCard(GameState game, Player self, District first, District second) {
+        return first.getCost() >= second.getCost() ? first : second;
+    }
+
+    // The largest hand, if it is larger than our own
+    @Override
+    public int magicianExchange(GameState game, Player self) {
+        int best = -1;
+        int bestSize = self.getHand().size();
+        List<Player> players = game.players;
+        for (int i = 0; i < players.size(); i++) {
+            Player p = players.get(i);
+            if (p != self && p.getHand().size() > bestSize) {
+                best = i;
+                bestSize = p.getHand().size();
+            }
+        }
+        return best;
+    }
+
+    // Duplicates: every card whose name appears again later in the hand
+    @Override
+    public long magicianDiscard(GameState game, Player self) {
+        List<District> hand = self.getHand();
+        int n = Math.min(hand.size(), Long.SIZE);
+        long discard = 0;
+        for (int i = 0; i < n; i++) {
+            String name = hand.get(i).getName();
+            for (int j = i + 1; j < n; j++) {
+                if (name.equalsIgnoreCase(hand.get(j).getName())) {
+                    discard |= 1L << i;
+                    break;
+                }
+            }
+        }
+        return discard;
+    }
+
+    // The cheapest card, once the hand holds three or more
+    @Override
+    public int laboratoryDiscard(GameState game, Player self) {
+        List<District> hand = self.getHand();
+        if (hand.size() < 3) {
+            return -1;
+        }
+        int cheapest = 0;
+        for (int i = 1; i < hand.size(); i++) {
+            if (hand.get(i).getCost() < hand.get(cheapest).getCost()) {
+                cheapest = i;
+            }
+        }
+        return cheapest;
+    }
+
+    // When there is gold to spare and few cards in hand
+    @Override
+    public boolean useSmithy(GameState game, Player self) {
+        return self.getGold() >= 2 && self.getHand().size() <= 3;
+    }
+
+    // The color most common in our city, or the income's own color
+    @Override
+    public int schoolOfMagicColor(GameState game, Player self, int color) {
+        City city = self.getCity();
+        int best = -1;
+        for (int c = 0; c < City.COLORS.length; c++) {
+            if (city.countColor(c) > 0
+                    && (best < 0 || city.countColor(c) > city.countColor(best))) {
+                best = c;
+            }
+        }
+        return best < 0 ? color : best;
+    }
+
+    // The cheapest affordable district not yet built
+    @Override
+    public int buildChoice(GameState game, Player self) {
+        List<District> hand = self.getHand();
+        int best = -1;
+        for (int i = 0; i < hand.size(); i++) {
+            District d = hand.get(i);
+            if (d.getCost() <= self.getGold() && !self.hasBuilt(d.getName())
+                    && (best < 0 || d.getCost() < hand.get(best).getCost())) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // The built-in player leaves cities alone
+    @Override
+    public int warlordTarget(GameState game, Player self) {
+        return -1;
+    }
+
+    // The cheapest district the Warlord can pay to destroy
+    @Override
+    public int warlordDistrict(GameState game, Player self, Player target) {
+        City city = target.getCity();
+        boolean wall = target.hasBuilt("Great Wall");
+        int best = -1;
+        for (int i = 0; i < city.size(); i++) {
+            int cost = App.destroyCost(city.get(i), wall);
+            if (cost <= self.getGold()
+                    && (best < 0 || cost < App.destroyCost(city.get(best), wall))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Always, when it can pay
+    @Override
+    public boolean recoverWithGraveyard(GameState game, Player self, District destroyed) {
+        return self.getGold() > 0;
+    }
+
+    /**
+     * Picks one of the set bits of a mask uniformly at random.
+     *
+     * @param mask   the choices, one bit each
+     * @param random source of randomness
+     * @return the index of the chosen bit, or 0 if the mask is empty
+     */
+    static int pick(int mask, RandomGenerator random) {
+        int n = Integer.bitCount(mask);
+        if (n == 0) {
+            return 0;
+        }
+        return nthBit(mask, random.nextInt(n));
+    }
+
+    /**
+     * Returns the index of the n-th lowest set bit of a mask.
+     *
+     * @param mask the mask
+     * @param n    0 for the lowest set bit
+     * @return index of that bit
+     */
+    static int nthBit(int mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+}
@@ -0,0 +1,20 @@
+// File: src/main/java/citadels/InputSource.java
+package citadels;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Supplies the lines a game reads as player input. The console game reads
+ * from a {@link java.util.Scanner}; hosted games read from their own queue.
+ */
+@FunctionalInterface
+public interface InputSource {
+
+    /**
+     * Returns the next line of input, blocking until one is available.
+     *
+     * @return the next input line, without its line terminator
+     * @throws NoSuchElementException if the input has been closed
+     */
+    String nextLine();
+}
@@ -0,0 +1,171 @@
+// File: src/main/java/citadels/JournalWriter.java
+package citadels;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes the {@link GameJournal}s of a {@link GameHost}'s tables on a
+ * thread of its own, so a slow disk never holds up the scheduler that
+ * steps every table. Tables only buffer their records; committed records,
+ * compacted logs and closes are queued here and done in order for each
+ * journal.
+ *
+ * <p>Commits are grouped across tables: everything queued while the
+ * thread was busy is written first, then every journal written to is
+ * forced to disk once. A journal whose write fails is written no further;
+ * the failure is reported by its next commit or close.</p>
+ */
+final class JournalWriter {
+    // What a queued write does
+    private enum Kind { APPEND, REPLACE, CLOSE, STOP }
+
+    // One queued write: records to append, a log to swap in, or a close
+    private static final class Op {
+        final Kind kind;
+        final GameJournal journal;
+        final byte[] bytes;
+        final boolean delete;
+        final CompletableFuture<Void> done;
+
+        Op(Kind kind, GameJournal journal, byte[] bytes, boolean delete,
+           CompletableFuture<Void> done) {
+            this.kind = kind;
+            this.journal = journal;
+            this.bytes = bytes;
+            this.delete = delete;
+            this.done = done;
+        }
+    }
+
+    // Queued after the last write once the writer is shut down
+    private static final Op STOP = new Op(Kind.STOP, null, null, false, null);
+
+    // Writes not yet done, oldest first
+    private final LinkedBlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+    // Thread doing the writes
+    private final Thread thread;
+
+    /**
+     * Creates a writer and starts its daemon thread.
+     */
+    JournalWriter() {
+        this.thread = new Thread(this::run, "citadels-journal");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues records to append to a journal's file and force to disk.
+     *
+     * @param journal the journal
+     * @param records encoded records
+     */
+    void append(GameJournal journal, byte[] records) {
+        queue.add(new Op(Kind.APPEND, journal, records, false, null));
+    }
+
+    /**
+     * Queues a new log to replace a journal's file atomically.
+     *
+     * @param journal the journal
+     * @param log     the whole new file
+     */
+    void replace(GameJournal journal, byte[] log) {
+        queue.add(new Op(Kind.REPLACE, journal, log, false, null));
+    }
+
+    /**
+     * Queues the close of a journal's file, once its queued records are
+     * forced to disk.
+     *
+     * @param journal the journal
+     * @param delete  true to delete the file once closed
+     * @param done    completed once the file is closed, exceptionally if
+     *                any write to it failed
+     */
+    void close(GameJournal journal, boolean delete, CompletableFuture<Void> done) {
+        queue.add(new Op(Kind.CLOSE, journal, null, delete, done));
+    }
+
+    /**
+     * Stops the thread once the writes queued so far are done.
+     */
+    void shutdown() {
+        queue.add(STOP);
+    }
+
+    // Body of the writer thread
+    private void run() {
+        List<Op> batch = new ArrayList<>();
+        // Journals written to in this batch and not yet forced
+        Set<GameJournal> dirty = new LinkedHashSet<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            for (Op op : batch) {
+                if (op.kind == Kind.STOP) {
+                    stopping = true;
+                } else {
+                    apply(op, dirty);
+                }
+            }
+            for (GameJournal j : dirty) {
+                try {
+                    j.force();
+                } catch (IOException | RuntimeException e) {
+                    j.writeFailed(e);
+                }
+            }
+            dirty.clear();
+            batch.clear();
+        }
+    }
+
+    // Does one write, recording a failure on its journal
+    private void apply(Op op, Set<GameJournal> dirty) {
+        GameJournal j = op.journal;
+        try {
+            switch (op.kind) {
+                case APPEND:
+                    if (j.getWriteFailure() == null) {
+                        j.writeRecords(op.bytes);
+                        dirty.add(j);
+                    }
+                    break;
+                case REPLACE:
+                    if (j.getWriteFailure() == null) {
+                        dirty.remove(j);
+                        j.replaceLog(op.bytes);
+                    }
+                    break;
+                default:
+                    if (dirty.remove(j) && j.getWriteFailure() == null) {
+                        j.force();
+                    }
+                    j.closeFile(op.delete);
+                    break;
+            }
+        } catch (IOException | RuntimeException e) {
+            j.writeFailed(e);
+        }
+        if (op.done != null) {
+            IOException failure = j.getWriteFailure();
+            if (failure == null) {
+                op.done.complete(null);
+            } else {
+                op.done.completeExceptionally(failure);
+            }
+        }
+    }
+}
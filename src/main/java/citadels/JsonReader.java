@@ -0,0 +1,378 @@
+// File: src/main/java/citadels/JsonReader.java
+package citadels;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.json.simple.parser.ParseException;
+
+/**
+ * Reads JSON token by token from a {@link Reader}, so a save can be
+ * loaded straight into players and districts without first parsing it
+ * into a tree of maps, lists and boxed numbers. Malformed input raises the
+ * same {@link ParseException} that json-simple's parser does.
+ */
+class JsonReader implements Closeable {
+    // Deepest nesting accepted: far beyond any save, and every level
+    // keeps its bit in firstMask
+    static final int MAX_DEPTH = 63;
+
+    // Source of the JSON text
+    private final Reader in;
+    // Characters read from the source but not yet consumed
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+    // Characters consumed before buf[0], for error positions
+    private int offset;
+    // Bit per nesting level: set until the container's first element
+    private long firstMask;
+    // Current nesting level (0 = top level)
+    private int depth;
+    // Reused for building strings
+    private final StringBuilder sb = new StringBuilder();
+
+    /**
+     * Creates a reader over the given source.
+     *
+     * @param in the JSON text
+     */
+    JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    void beginObject() throws IOException, ParseException {
+        open('{');
+    }
+
+    void endObject() throws IOException, ParseException {
+        close('}');
+    }
+
+    void beginArray() throws IOException, ParseException {
+        open('[');
+    }
+
+    void endArray() throws IOException, ParseException {
+        close(']');
+    }
+
+    /**
+     * Checks whether the current object or array has another element, and
+     * consumes the comma before it.
+     *
+     * @return true if an element follows
+     * @throws IOException    if reading fails
+     * @throws ParseException if the input is malformed
+     */
+    boolean hasNext() throws IOException, ParseException {
+        int c = peek();
+        if (c == '}' || c == ']') {
+            return false;
+        }
+        long bit = 1L << depth;
+        if ((firstMask & bit) != 0) {
+            firstMask &= ~bit;
+        } else {
+            expect(',');
+        }
+        return true;
+    }
+
+    /**
+     * Reads an object member name and the colon after it.
+     *
+     * @return the member name
+     * @throws IOException    if reading fails
+     * @throws ParseException if the input is malformed
+     */
+    String nextName() throws IOException, ParseException {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    String nextString() throws IOException, ParseException {
+        expect('"');
+        // Fast path: the whole string is in the buffer and has no escapes
+        for (int i = pos; i < limit; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                String s = new String(buf, pos, i - pos);
+                pos = i + 1;
+                return s;
+            }
+            if (c == '\\') {
+                break;
+            }
+        }
+        sb.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case '"':
+                    case '\\':
+                    case '/':  sb.append((char) c); break;
+                    case 'b':  sb.append('\b'); break;
+                    case 'f':  sb.append('\f'); break;
+                    case 'n':  sb.append('\n'); break;
+                    case 'r':  sb.append('\r'); break;
+                    case 't':  sb.append('\t'); break;
+                    case 'u':
+                        int v = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int h = Character.digit(read(), 16);
+                            if (h < 0) {
+                                throw unexpected(buf[pos - 1]);
+                            }
+                            v = (v << 4) | h;
+                        }
+                        sb.append((char) v);
+                        break;
+                    default:
+                        throw unexpected(c);
+                }
+            } else {
+                sb.append((char) c);
+            }
+        }
+    }
+
+    long nextLong() throws IOException, ParseException {
+        int c = peek();
+        boolean negative = c == '-';
+        if (negative) {
+            pos++;
+            c = peekRaw();
+        }
+        if (c < '0' || c > '9') {
+            throw unexpected(c);
+        }
+        long v = 0;
+        while (c >= '0' && c <= '9') {
+            if (v > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw unexpectedToken("number out of range");
+            }
+            v = v * 10 + (c - '0');
+            pos++;
+            c = peekRaw();
+        }
+        if (c == '.' || c == 'e' || c == 'E') {
+            throw unexpected(c);
+        }
+        return negative ? -v : v;
+    }
+
+    int nextInt() throws IOException, ParseException {
+        long v = nextLong();
+        if (v != (int) v) {
+            throw unexpectedToken(v);
+        }
+        return (int) v;
+    }
+
+    boolean nextBoolean() throws IOException, ParseException {
+        int c = peek();
+        if (c == 't') {
+            literal("true");
+            return true;
+        }
+        if (c == 'f') {
+            literal("false");
+            return false;
+        }
+        throw unexpected(c);
+    }
+
+    /**
+     * Consumes a null value if one comes next.
+     *
+     * @return true if the value was null
+     * @throws IOException    if reading fails
+     * @throws ParseException if the input is malformed
+     */
+    boolean nextNull() throws IOException, ParseException {
+        if (peek() == 'n') {
+            literal("null");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Skips over the next value, whatever its type.
+     *
+     * @throws IOException    if reading fails
+     * @throws ParseException if the input is malformed
+     */
+    void skipValue() throws IOException, ParseException {
+        int c = peek();
+        switch (c) {
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case '"': nextString(); break;
+            case 't':
+            case 'f': nextBoolean(); break;
+            case 'n': literal("null"); break;
+            default:  skipNumber(c); break;
+        }
+    }
+
+    // Consumes a number, checking it against the JSON number grammar
+    private void skipNumber(int c) throws IOException, ParseException {
+        if (c == '-') {
+            pos++;
+        }
+        if (!skipDigits()) {
+            throw c == -1 ? unexpected(c) : unexpectedToken(Character.valueOf((char) c));
+        }
+        if (peekRaw() == '.') {
+            pos++;
+            if (!skipDigits()) {
+                throw unexpected(peekRaw());
+            }
+        }
+        c = peekRaw();
+        if (c == 'e' || c == 'E') {
+            pos++;
+            c = peekRaw();
+            if (c == '+' || c == '-') {
+                pos++;
+            }
+            if (!skipDigits()) {
+                throw unexpected(peekRaw());
+            }
+        }
+    }
+
+    // Consumes a run of digits; false if there was none
+    private boolean skipDigits() throws IOException {
+        boolean any = false;
+        for (int c = peekRaw(); c >= '0' && c <= '9'; c = peekRaw()) {
+            pos++;
+            any = true;
+        }
+        return any;
+    }
+
+    /**
+     * Checks that nothing but whitespace follows the top-level value.
+     *
+     * @throws IOException    if reading fails
+     * @throws ParseException if there is trailing content
+     */
+    void endDocument() throws IOException, ParseException {
+        int c = peek();
+        if (c != -1) {
+            throw unexpected(c);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void open(char c) throws IOException, ParseException {
+        expect(c);
+        if (depth == MAX_DEPTH) {
+            throw unexpectedToken("nesting deeper than " + MAX_DEPTH);
+        }
+        depth++;
+        firstMask |= 1L << depth;
+    }
+
+    private void close(char c) throws IOException, ParseException {
+        expect(c);
+        firstMask &= ~(1L << depth);
+        depth--;
+    }
+
+    private void literal(String word) throws IOException, ParseException {
+        for (int i = 0; i < word.length(); i++) {
+            int c = read();
+            if (c != word.charAt(i)) {
+                throw unexpected(c);
+            }
+        }
+    }
+
+    private void expect(char c) throws IOException, ParseException {
+        int got = peek();
+        if (got != c) {
+            throw unexpected(got);
+        }
+        pos++;
+    }
+
+    // Next non-whitespace character, not consumed; -1 at end of input
+    private int peek() throws IOException {
+        while (true) {
+            int c = peekRaw();
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    // Next character, not consumed; -1 at end of input
+    private int peekRaw() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos];
+    }
+
+    // Next character, consumed; end of input is an error
+    private int read() throws IOException, ParseException {
+        if (pos == limit && !fill()) {
+            throw unexpected(-1);
+        }
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private ParseException unexpectedToken(Object token) {
+        return new ParseException(offset + pos, ParseException.ERROR_UNEXPECTED_TOKEN, token);
+    }
+
+    private ParseException unexpected(int c) {
+        if (c == -1) {
+            return new ParseException(offset + pos, ParseException.ERROR_UNEXPECTED_TOKEN, null);
+        }
+        return new ParseException(offset + pos, ParseException.ERROR_UNEXPECTED_CHAR,
+                Character.valueOf((char) c));
+    }
+}
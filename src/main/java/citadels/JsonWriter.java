@@ -0,0 +1,189 @@
+// File: src/main/java/citadels/JsonWriter.java
+package citadels;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON token by token straight to a {@link Writer}, without
+ * building a tree first. Output is compact (no whitespace) and strings are
+ * escaped exactly as json-simple escapes them, so files written here are
+ * byte-for-byte what {@code JSONObject.toJSONString()} produced for the
+ * same keys in the same order.
+ */
+class JsonWriter implements Closeable {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // Destination of the JSON text
+    private final Writer out;
+    // Bit per nesting level: set while the container has no elements yet
+    private long emptyMask;
+    // Current nesting level (0 = top level)
+    private int depth;
+    // True right after name(), when the value needs no separator
+    private boolean afterName;
+
+    /**
+     * Creates a writer that appends JSON to the given writer.
+     *
+     * @param out destination; should be buffered
+     */
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes an object member name; the next call must write its value.
+     *
+     * @param name the member name
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String s) throws IOException {
+        separate();
+        if (s == null) {
+            out.write("null");
+        } else {
+            string(s);
+        }
+        return this;
+    }
+
+    JsonWriter value(long n) throws IOException {
+        separate();
+        out.write(Long.toString(n));
+        return this;
+    }
+
+    JsonWriter value(boolean b) throws IOException {
+        separate();
+        out.write(b ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes an integer value, or null.
+     *
+     * @param n the value, or null
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter value(Integer n) throws IOException {
+        separate();
+        out.write(n == null ? "null" : n.toString());
+        return this;
+    }
+
+    /**
+     * Writes a value that is already JSON text, e.g. a cached object.
+     *
+     * @param json complete JSON value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter rawValue(String json) throws IOException {
+        separate();
+        out.write(json);
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Escapes a string the way json-simple's {@code JSONValue.escape} does
+     * and returns it quoted.
+     *
+     * @param s the string
+     * @return the JSON string literal
+     */
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\b': sb.append("\\b"); break;
+                case '\f': sb.append("\\f"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                case '/':  sb.append("\\/"); break;
+                default:
+                    if (ch <= '\u001F' || (ch >= '\u007F' && ch <= '\u009F')
+                            || (ch >= '\u2000' && ch <= '\u20FF')) {
+                        sb.append("\\u")
+                                .append(HEX[(ch >> 12) & 0xF]).append(HEX[(ch >> 8) & 0xF])
+                                .append(HEX[(ch >> 4) & 0xF]).append(HEX[ch & 0xF]);
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private void string(String s) throws IOException {
+        out.write(quote(s));
+    }
+
+    private JsonWriter open(char c) throws IOException {
+        separate();
+        out.write(c);
+        depth++;
+        emptyMask |= 1L << depth;
+        return this;
+    }
+
+    private JsonWriter close(char c) throws IOException {
+        out.write(c);
+        emptyMask &= ~(1L << depth);
+        depth--;
+        return this;
+    }
+
+    // Writes the comma before every element but the first in a container
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            long bit = 1L << depth;
+            if ((emptyMask & bit) != 0) {
+                emptyMask &= ~bit;
+            } else {
+                out.write(',');
+            }
+        }
+    }
+}
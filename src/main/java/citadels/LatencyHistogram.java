@@ -0,0 +1,172 @@
+// File: src/main/java/citadels/LatencyHistogram.java
+package citadels;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size histogram of latencies in microseconds, for percentiles such
+ * as the p99 of server command latency. Values below 64 us get a bucket
+ * each; above that every power of two is split into 32 buckets, so a
+ * reported percentile is within about 3% of the true value. Recording is
+ * a few array increments and never allocates, and any number of threads
+ * may record at once. A histogram recorded from many threads can be
+ * striped: each thread counts in one of several copies of the buckets,
+ * chosen by its thread ID, and reads add the copies up.
+ */
+public class LatencyHistogram {
+    // Buckets per power of two above the exact range
+    private static final int SUB_BUCKETS = 32;
+    // log2(SUB_BUCKETS)
+    private static final int SUB_BITS = 5;
+    // Values below this get a bucket each
+    private static final int EXACT = 2 * SUB_BUCKETS;
+    // Enough buckets for any non-negative long
+    private static final int BUCKETS = EXACT + (Long.SIZE - SUB_BITS - 1) * SUB_BUCKETS;
+
+    // Count per bucket, one array per stripe
+    private final AtomicLongArray[] stripes;
+    // Stripe count minus one; stripe counts are powers of two
+    private final int mask;
+    // Number of values and their sum in nanoseconds
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    // Largest value recorded
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a histogram with a single set of buckets.
+     */
+    public LatencyHistogram() {
+        this(1);
+    }
+
+    /**
+     * Creates a histogram whose buckets are striped, for recording from
+     * many threads at once without contending on the same counters.
+     *
+     * @param stripes number of copies of the buckets, rounded up to a
+     *                power of two
+     */
+    public LatencyHistogram(int stripes) {
+        int n = 1;
+        while (n < stripes) {
+            n <<= 1;
+        }
+        this.stripes = new AtomicLongArray[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+        this.mask = n - 1;
+    }
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values count as 0
+     */
+    public void recordNanos(long nanos) {
+        nanos = Math.max(0, nanos);
+        long micros = nanos / 1000;
+        AtomicLongArray counts = mask == 0 ? stripes[0]
+                : stripes[(int) Thread.currentThread().getId() & mask];
+        counts.incrementAndGet(bucket(micros));
+        count.increment();
+        sumNanos.add(nanos);
+        max.accumulate(micros);
+    }
+
+    // Bucket of a value in microseconds
+    static int bucket(long micros) {
+        if (micros < EXACT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+        return EXACT + (shift - 1) * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+    }
+
+    // Largest value in a bucket
+    static long upperBound(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        int shift = (bucket - EXACT) / SUB_BUCKETS + 1;
+        long top = (bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean latency, to a fraction of a microsecond.
+     *
+     * @return mean in microseconds, or 0 if nothing was recorded
+     */
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : sumNanos.sum() / 1000.0 / n;
+    }
+
+    /**
+     * Returns the largest latency recorded.
+     *
+     * @return maximum in microseconds
+     */
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    /**
+     * Returns a percentile of the recorded latencies: the upper bound of
+     * the bucket holding it, capped at the maximum.
+     *
+     * @param percentile between 0 and 100, e.g. 99 for the p99
+     * @return the latency in microseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += countAt(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += countAt(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Count of a bucket over all stripes
+    private long countAt(int bucket) {
+        long n = 0;
+        for (AtomicLongArray counts : stripes) {
+            n += counts.get(bucket);
+        }
+        return n;
+    }
+
+    /**
+     * Summarises the histogram on one line.
+     *
+     * @return count, mean, p50, p99 and maximum
+     */
+    public String summary() {
+        return String.format("%d samples, mean %.0f us, p50 %d us, p99 %d us, max %d us",
+                getCount(), getMeanMicros(), getPercentileMicros(50),
+                getPercentileMicros(99), getMaxMicros());
+    }
+}
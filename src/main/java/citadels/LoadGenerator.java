@@ -0,0 +1,315 @@
+// File: src/main/java/citadels/LoadGenerator.java
+package citadels;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Loopback load generator for a {@link GameServer}. Opens many sessions at
+ * once from a single selector thread and has each type commands like a
+ * fast player: the next command is sent once the reply to the last one has
+ * arrived and gone quiet, or after a timeout if no reply comes. The time
+ * from sending a command to the first byte of its reply is recorded as the
+ * command's latency. A session whose game ends reconnects and carries on
+ * until it has sent its share of commands.
+ *
+ * <p>Commands are drawn at random from a vocabulary that moves a game
+ * along: continuing, picking characters, taking gold, building, ending the
+ * turn, and looking at the hand and character info.</p>
+ */
+public class LoadGenerator {
+    // Commands sessions type, repeated to weight the common ones
+    private static final String[] COMMANDS = {
+            "t", "t", "t", "gold", "gold", "end", "end", "build 1",
+            "1", "2", "3", "4", "5", "6", "7", "8", "hand", "info 4", "no"
+    };
+    // A command with no reply after this long is counted as timed out
+    private static final long REPLY_TIMEOUT_NANOS = 200_000_000L;
+    // A reply is complete once no more bytes arrive for this long
+    private static final long QUIET_NANOS = 2_000_000L;
+
+    // Port of the server on the loopback interface
+    private final int port;
+    // Sessions kept open at once
+    private final int sessions;
+    // Commands each session sends in total
+    private final int commandsPerSession;
+    // Picks the commands
+    private final SplittableRandom random;
+
+    // Client-side latency of every answered command
+    private final LatencyHistogram latency = new LatencyHistogram();
+    // Commands sent, commands without a reply, connections made
+    private long commands;
+    private long timeouts;
+    private long connections;
+    // Wall-clock time of the run
+    private long elapsedNanos;
+
+    /**
+     * Creates a load generator.
+     *
+     * @param port               server port on the loopback interface
+     * @param sessions           sessions kept open at once
+     * @param commandsPerSession commands each session sends
+     * @param seed               seed for the command choices
+     * @throws IllegalArgumentException if a count is negative or zero sessions
+     */
+    public LoadGenerator(int port, int sessions, int commandsPerSession, long seed) {
+        if (sessions <= 0 || commandsPerSession < 0) {
+            throw new IllegalArgumentException("need at least 1 session and no negative counts");
+        }
+        this.port = port;
+        this.sessions = sessions;
+        this.commandsPerSession = commandsPerSession;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Runs the load until every session has sent its commands or the time
+     * limit is reached, then closes every connection.
+     *
+     * @param timeoutMillis time limit for the whole run
+     * @throws IOException if the selector cannot be opened or a connection
+     *                     cannot be started
+     */
+    public void run(long timeoutMillis) throws IOException {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMillis * 1_000_000L;
+        Client[] clients = new Client[sessions];
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < sessions; i++) {
+                clients[i] = new Client();
+                clients[i].connect(selector);
+            }
+            int done = 0;
+            while (done < sessions && System.nanoTime() < deadline) {
+                selector.select(1);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client c = (Client) key.attachment();
+                    if (key.isValid() && key.isConnectable()) {
+                        c.finishConnect();
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        c.read(selector);
+                    }
+                }
+                long now = System.nanoTime();
+                done = 0;
+                for (Client c : clients) {
+                    c.tick(now);
+                    if (c.done) {
+                        done++;
+                    }
+                }
+            }
+        } finally {
+            for (Client c : clients) {
+                if (c != null) {
+                    c.close();
+                }
+            }
+            elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Returns the latency of every command that got a reply, from sending
+     * it to the first byte of its reply.
+     *
+     * @return client-side latency histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of commands sent.
+     *
+     * @return commands
+     */
+    public long getCommands() {
+        return commands;
+    }
+
+    /**
+     * Returns the number of commands that got no reply within the timeout.
+     *
+     * @return timed-out commands
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Returns the number of connections opened, including reconnections
+     * after a game ended.
+     *
+     * @return connections
+     */
+    public long getConnections() {
+        return connections;
+    }
+
+    /**
+     * Returns how long the run took.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the command throughput.
+     *
+     * @return commands sent per second of wall-clock time
+     */
+    public double getCommandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : commands * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Builds a human-readable summary of the run.
+     *
+     * @return multi-line report
+     */
+    public String report() {
+        return String.format("Load test: %d sessions, %d connections, %d commands in %.2f s"
+                        + " (%.0f commands/s), %d timeouts%n  Client latency: %s%n",
+                sessions, connections, commands, elapsedNanos / 1e9,
+                getCommandsPerSecond(), timeouts, latency.summary());
+    }
+
+    /**
+     * One simulated player: its connection and where it is in the
+     * send-reply cycle.
+     */
+    private final class Client {
+        final ByteBuffer in = ByteBuffer.allocate(8192);
+        SocketChannel channel;
+        SelectionKey key;
+        boolean connected;
+        // Commands sent so far, over all connections
+        int sent;
+        // When the unanswered command was sent; 0 if none
+        long awaitingSince;
+        // When the last reply byte arrived; 0 before the greeting
+        long lastByteAt;
+        boolean done;
+
+        void connect(Selector selector) throws IOException {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            connected = channel.connect(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            key = channel.register(selector,
+                    connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+            awaitingSince = 0;
+            lastByteAt = 0;
+            connections++;
+        }
+
+        void finishConnect() {
+            try {
+                if (channel.finishConnect()) {
+                    connected = true;
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } catch (IOException e) {
+                close();
+                done = true;
+            }
+        }
+
+        void read(Selector selector) {
+            int n;
+            try {
+                n = channel.read(in);
+            } catch (IOException e) {
+                n = -1;
+            }
+            in.clear();
+            long now = System.nanoTime();
+            if (n < 0) {
+                // game over or dropped: carry on in a new game
+                close();
+                if (sent < commandsPerSession) {
+                    try {
+                        connect(selector);
+                    } catch (IOException e) {
+                        done = true;
+                    }
+                } else {
+                    done = true;
+                }
+                return;
+            }
+            if (n > 0) {
+                if (awaitingSince != 0) {
+                    latency.recordNanos(now - awaitingSince);
+                    awaitingSince = 0;
+                }
+                lastByteAt = now;
+            }
+        }
+
+        // Sends the next command when the last reply is complete
+        void tick(long now) {
+            if (done || !connected || lastByteAt == 0) {
+                return;
+            }
+            if (awaitingSince != 0) {
+                if (now - awaitingSince < REPLY_TIMEOUT_NANOS) {
+                    return;
+                }
+                timeouts++;
+                awaitingSince = 0;
+            } else if (now - lastByteAt < QUIET_NANOS) {
+                return;
+            }
+            if (sent >= commandsPerSession) {
+                close();
+                done = true;
+                return;
+            }
+            String cmd = COMMANDS[random.nextInt(COMMANDS.length)] + "\r\n";
+            ByteBuffer bytes = ByteBuffer.wrap(cmd.getBytes(StandardCharsets.UTF_8));
+            try {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } catch (IOException e) {
+                close();
+                done = true;
+                return;
+            }
+            awaitingSince = now;
+            sent++;
+            commands++;
+        }
+
+        void close() {
+            connected = false;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // already gone
+                }
+            }
+        }
+    }
+}
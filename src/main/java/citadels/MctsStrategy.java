@@ -0,0 +1,391 @@
+// File: src/main/java/citadels/MctsStrategy.java
+package citadels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Monte Carlo search player. For each decision it plays out as many
+ * random games as fit in a time budget, starting from a copy of the
+ * current position with each candidate move applied, and picks the move
+ * that UCB1 tried most. The play-outs use {@link HeuristicStrategy} for
+ * every seat.
+ *
+ * <p>Hidden information is resampled by a {@link Determinizer} in every
+ * play-out: characters the player cannot have seen (earlier pickers'
+ * choices, characters not yet revealed), opponents' hands and the deck
+ * order.</p>
+ *
+ * <p>The search runs on the player's decisions that start a phase or a
+ * turn, where a copied game can be played on exactly: the character pick
+ * and the Assassin and Thief targets. Other decisions are left to the
+ * heuristic player.</p>
+ *
+ * <p>Play-outs run on {@code threads} workers, each with its own UCB1
+ * statistics that are summed when the budget runs out (root
+ * parallelisation), so workers share nothing while searching. Throughput
+ * and decision latency are recorded for {@link #report()}.</p>
+ */
+public class MctsStrategy implements CpuStrategy, AutoCloseable {
+    /** UCB1 exploration constant. */
+    public static final double EXPLORATION = Math.sqrt(2);
+    /** Rounds a play-out may run before it is scored as it stands. */
+    public static final int MAX_PLAYOUT_ROUNDS = 50;
+
+    // Characters the Assassin may kill: 2-8
+    private static final int ASSASSIN_TARGETS = 0b1_1111_1100;
+    // Characters the Thief may rob: 3-8
+    private static final int THIEF_TARGETS = 0b1_1111_1000;
+
+    // Time allowed for each decision
+    private final long budgetNanos;
+    // Number of search workers
+    private final int threads;
+    // Runs workers 2..n; worker 1 runs on the deciding thread. Null if threads == 1
+    private final ExecutorService pool;
+    // Seeds for each decision's workers
+    private final SplittableRandom seeds;
+
+    // Decisions searched, play-outs run and time spent searching
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder playouts = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    // Slowest decision so far
+    private final LongAccumulator maxDecisionNanos = new LongAccumulator(Math::max, 0);
+
+    // Plays out a sampled world after a candidate move; 1 for a win
+    @FunctionalInterface
+    private interface Playout {
+        double play(GameState world, int seat, int move);
+    }
+
+    /**
+     * Creates a search player using every available core.
+     *
+     * @param budgetMillis time allowed for each decision, in ms
+     */
+    public MctsStrategy(long budgetMillis) {
+        this(budgetMillis, Runtime.getRuntime().availableProcessors(), System.nanoTime());
+    }
+
+    /**
+     * Creates a search player.
+     *
+     * @param budgetMillis time allowed for each decision, in ms
+     * @param threads      number of search workers
+     * @param seed         seed for the play-outs' randomness
+     * @throws IllegalArgumentException if the budget or thread count is not positive
+     */
+    public MctsStrategy(long budgetMillis, int threads, long seed) {
+        if (budgetMillis <= 0 || threads <= 0) {
+            throw new IllegalArgumentException(
+                    "budget and threads must be positive, got " + budgetMillis + ", " + threads);
+        }
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.threads = threads;
+        this.seeds = new SplittableRandom(seed);
+        if (threads == 1) {
+            this.pool = null;
+        } else {
+            AtomicInteger count = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(threads - 1, r -> {
+                Thread t = new Thread(r, "citadels-mcts-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    public int chooseCharacter(GameState game, Player self, int available) {
+        return search(game, self, available,
+                () -> Determinizer.forSelection(game, self, available),
+                (world, seat, c) -> playCharacter(world, seat, available, c));
+    }
+
+    @Override
+    public int assassinTarget(GameState game, Player self) {
+        return search(game, self, ASSASSIN_TARGETS,
+                () -> Determinizer.forTurn(game, self, 1),
+                MctsStrategy::playAssassin);
+    }
+
+    @Override
+    public int thiefTarget(GameState game, Player self) {
+        return search(game, self, THIEF_TARGETS & ~(1 << game.killedCharacter),
+                () -> Determinizer.forTurn(game, self, 2),
+                MctsStrategy::playThief);
+    }
+
+    /**
+     * Returns the number of decisions searched.
+     *
+     * @return decisions
+     */
+    public long getDecisionCount() {
+        return decisions.sum();
+    }
+
+    /**
+     * Returns the number of play-outs run, over all decisions.
+     *
+     * @return play-outs
+     */
+    public long getPlayoutCount() {
+        return playouts.sum();
+    }
+
+    /**
+     * Returns the play-outs run per second of decision time, over all
+     * workers.
+     *
+     * @return play-outs per second
+     */
+    public double getPlayoutsPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : playouts.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * Returns the mean time taken by a decision.
+     *
+     * @return mean latency in ms
+     */
+    public double getMeanLatencyMillis() {
+        long n = decisions.sum();
+        return n == 0 ? 0 : searchNanos.sum() / 1e6 / n;
+    }
+
+    /**
+     * Returns the longest time taken by a decision.
+     *
+     * @return maximum latency in ms
+     */
+    public double getMaxLatencyMillis() {
+        return maxDecisionNanos.get() / 1e6;
+    }
+
+    /**
+     * Formats the search statistics.
+     *
+     * @return multi-line report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("MCTS: %d ms budget, %d thread(s)%n", budgetNanos / 1_000_000, threads));
+        sb.append(String.format("  Decisions: %d, play-outs: %d (%.0f per decision)%n",
+                getDecisionCount(), getPlayoutCount(),
+                getDecisionCount() == 0 ? 0.0 : (double) getPlayoutCount() / getDecisionCount()));
+        sb.append(String.format("  Throughput: %.0f play-outs/s%n", getPlayoutsPerSecond()));
+        sb.append(String.format("  Latency: mean %.1f ms, max %.1f ms%n",
+                getMeanLatencyMillis(), getMaxLatencyMillis()));
+        return sb.toString();
+    }
+
+    /**
+     * Stops the search workers.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    // Searches the moves in the mask and returns the one tried most
+    private int search(GameState game, Player self, int moves,
+                       Supplier<Determinizer> view, Playout playout) {
+        if (Integer.bitCount(moves) <= 1) {
+            return moves == 0 ? 0 : Integer.numberOfTrailingZeros(moves);
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int seat = game.players.indexOf(self);
+        int[] move = new int[Integer.bitCount(moves)];
+        for (int i = 0, m = moves; m != 0; i++, m &= m - 1) {
+            move[i] = Integer.numberOfTrailingZeros(m);
+        }
+        long[] workerSeeds = new long[threads];
+        synchronized (seeds) {
+            for (int i = 0; i < threads; i++) {
+                workerSeeds[i] = seeds.nextLong();
+            }
+        }
+
+        List<Future<int[]>> others = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            long s = workerSeeds[i];
+            others.add(pool.submit(() -> work(game, seat, move, view, playout, deadline, s)));
+        }
+        int[] visits = work(game, seat, move, view, playout, deadline, workerSeeds[0]);
+        for (Future<int[]> f : others) {
+            int[] v;
+            try {
+                v = f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("MCTS worker failed", e.getCause());
+            }
+            for (int i = 0; i < visits.length; i++) {
+                visits[i] += v[i];
+            }
+        }
+
+        int best = 0;
+        long total = 0;
+        for (int i = 0; i < visits.length; i++) {
+            total += visits[i];
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        decisions.increment();
+        playouts.add(total);
+        searchNanos.add(elapsed);
+        maxDecisionNanos.accumulate(elapsed);
+        return move[best];
+    }
+
+    // One worker's UCB1 loop; returns its visit count per move
+    private static int[] work(GameState game, int seat, int[] move, Supplier<Determinizer> view,
+                              Playout playout, long deadline, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Determinizer determinizer = view.get();
+        int[] visits = new int[move.length];
+        double[] wins = new double[move.length];
+        int total = 0;
+        do {
+            int m = select(visits, wins, total);
+            GameState world = world(game, random);
+            determinizer.sample(random);
+            determinizer.apply(world);
+            wins[m] += playout.play(world, seat, move[m]);
+            visits[m]++;
+            total++;
+        } while (total < move.length // every move once, however short the budget
+                || System.nanoTime() < deadline);
+        return visits;
+    }
+
+    // UCB1: an untried move first, otherwise the best upper confidence bound
+    private static int select(int[] visits, double[] wins, int total) {
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        double logTotal = Math.log(total);
+        for (int i = 0; i < visits.length; i++) {
+            if (visits[i] == 0) {
+                return i;
+            }
+            double value = wins[i] / visits[i]
+                    + EXPLORATION * Math.sqrt(logTotal / visits[i]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Play-out of a character pick from the offered characters
+    private static double playCharacter(GameState world, int seat, int offered, int character) {
+        world.players.get(seat).setCharacter(character);
+        // Later pickers choose from what is left
+        int rest = offered & ~(1 << character);
+        for (Player p : world.players) {
+            if (p.getCharacter() == 0) {
+                int c = HeuristicStrategy.pick(rest, world.random.ai);
+                p.setCharacter(c);
+                rest &= ~(1 << c);
+            }
+        }
+        App.turnPhase(world, 1);
+        return finish(world, seat);
+    }
+
+    // Play-out of an Assassin target
+    private static double playAssassin(GameState world, int seat, int target) {
+        world.players.get(seat).setStrategy(new Forced(target, -1));
+        App.turnPhase(world, 1);
+        return finish(world, seat);
+    }
+
+    // Play-out of a Thief target
+    private static double playThief(GameState world, int seat, int target) {
+        world.players.get(seat).setStrategy(new Forced(-1, target));
+        App.turnPhase(world, 2);
+        return finish(world, seat);
+    }
+
+    // Copy of the root with every seat played by the heuristic player
+    private static GameState world(GameState root, SplittableRandom random) {
+        GameState world = root.copy(new GameRandom(random.nextLong()));
+        world.firstSelection = false;
+        for (Player p : world.players) {
+            p.setHuman(false);
+            p.setStrategy(null);
+        }
+        return world;
+    }
+
+    // Plays the copied game to the end and scores it for the seat
+    private static double finish(GameState world, int seat) {
+        if (!world.gameEndTriggered) {
+            world.resetRound();
+        }
+        for (int i = 0; i < MAX_PLAYOUT_ROUNDS && !world.gameEndTriggered; i++) {
+            App.playRound(world);
+        }
+        return App.scoreAndDeclareWinner(world) == world.players.get(seat) ? 1 : 0;
+    }
+
+    /**
+     * Plays a fixed Assassin or Thief target once, then defers to the
+     * heuristic player.
+     */
+    private static final class Forced implements CpuStrategy {
+        private int assassin;
+        private int thief;
+
+        Forced(int assassin, int thief) {
+            this.assassin = assassin;
+            this.thief = thief;
+        }
+
+        @Override
+        public int chooseCharacter(GameState game, Player self, int available) {
+            return HeuristicStrategy.INSTANCE.chooseCharacter(game, self, available);
+        }
+
+        @Override
+        public int assassinTarget(GameState game, Player self) {
+            if (assassin < 0) {
+                return HeuristicStrategy.INSTANCE.assassinTarget(game, self);
+            }
+            int t = assassin;
+            assassin = -1;
+            return t;
+        }
+
+        @Override
+        public int thiefTarget(GameState game, Player self) {
+            if (thief < 0) {
+                return HeuristicStrategy.INSTANCE.thiefTarget(game, self);
+            }
+            int t = thief;
+            thief = -1;
+            return t;
+        }
+    }
+}
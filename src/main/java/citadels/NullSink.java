@@ -0,0 +1,35 @@
+// File: src/main/java/citadels/NullSink.java
+package citadels;
+
+/**
+ * Discards every message without formatting it. Used by headless games,
+ * where nobody reads the output.
+ */
+public final class NullSink implements OutputSink {
+    /** The shared instance; the sink has no state. */
+    public static final NullSink INSTANCE = new NullSink();
+
+    private NullSink() {
+    }
+
+    @Override
+    public void print(String s) {
+    }
+
+    @Override
+    public void println(String s) {
+    }
+
+    @Override
+    public void println() {
+    }
+
+    @Override
+    public void printf(String format, Object... args) {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+}
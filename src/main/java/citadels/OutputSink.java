@@ -0,0 +1,60 @@
+// File: src/main/java/citadels/OutputSink.java
+package citadels;
+
+/**
+ * Receives the messages a game prints. The console game writes to a
+ * {@link ConsoleSink}, simulations use {@link NullSink} so no message is
+ * ever formatted, and tests read back what was printed from a
+ * {@link CaptureSink}.
+ *
+ * <p>Messages built from values should go through {@link #printf}, so a
+ * sink that discards them never pays for formatting.</p>
+ */
+public interface OutputSink {
+
+    /**
+     * Prints text without a line terminator.
+     *
+     * @param s the text to print
+     */
+    void print(String s);
+
+    /**
+     * Prints text followed by a line terminator.
+     *
+     * @param s the text to print
+     */
+    void println(String s);
+
+    /**
+     * Prints a line terminator.
+     */
+    default void println() {
+        println("");
+    }
+
+    /**
+     * Prints a formatted message, as {@link String#format(String, Object...)}.
+     *
+     * @param format format string
+     * @param args   values referenced by the format string
+     */
+    void printf(String format, Object... args);
+
+    /**
+     * Writes out anything buffered so far. Called before the game waits for
+     * input and at the end of each phase.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Indicates whether printed messages go anywhere. Code that builds a
+     * large message piece by piece can skip the work when this is false.
+     *
+     * @return false if everything printed is discarded
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+}
@@ -2,10 +2,7 @@
 package citadels;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,10 +18,14 @@ public class Player {
     private int gold;
     // List of district cards in the player's hand
     private List<District> hand;
-    // List of district cards the player has built in their city
-    private List<District> city;
+    // District cards the player has built in their city, with their index
+    private City city;
     // ID of the character selected for the current round
     private int character;
+    // True once this player is the first to complete their city
+    private boolean firstCompleter;
+    // Makes this seat's decisions when it is CPU-controlled
+    private CpuStrategy strategy = HeuristicStrategy.INSTANCE;
 
     /**
      * Constructs a new player with the specified ID and type.
@@ -37,10 +38,32 @@ public class Player {
         this.isHuman = isHuman;
         this.gold = 0;
         this.hand = new ArrayList<>();
-        this.city = new ArrayList<>();
+        this.city = new City();
         this.character = 0;
     }
 
+    /**
+     * Returns an independent copy of this player: gold, character, hand and
+     * city are copied, the district cards themselves are shared.
+     *
+     * @return the copy
+     */
+    public Player copy() {
+        return new Player(this);
+    }
+
+    // Copy constructor used by copy()
+    private Player(Player other) {
+        this.id = other.id;
+        this.isHuman = other.isHuman;
+        this.gold = other.gold;
+        this.hand = new ArrayList<>(other.hand);
+        this.city = other.city.copy();
+        this.character = other.character;
+        this.firstCompleter = other.firstCompleter;
+        this.strategy = other.strategy;
+    }
+
     /**
      * Returns the player's unique identifier.
      *
@@ -59,6 +82,34 @@ public class Player {
         return isHuman;
     }
 
+    /**
+     * Hands this seat to a human or to the CPU, e.g. when a search player
+     * plays out a copied game.
+     *
+     * @param isHuman true for a human player
+     */
+    void setHuman(boolean isHuman) {
+        this.isHuman = isHuman;
+    }
+
+    /**
+     * Returns the strategy that makes this seat's CPU decisions.
+     *
+     * @return the strategy
+     */
+    public CpuStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets the strategy that makes this seat's CPU decisions.
+     *
+     * @param strategy the strategy, or null for {@link HeuristicStrategy}
+     */
+    public void setStrategy(CpuStrategy strategy) {
+        this.strategy = strategy == null ? HeuristicStrategy.INSTANCE : strategy;
+    }
+
     /**
      * Returns the amount of gold currently held by the player.
      *
@@ -78,11 +129,13 @@ public class Player {
     }
 
     /**
-     * Returns the list of district cards in the player's city.
+     * Returns the district cards in the player's city. The returned list
+     * keeps its color, name and unique-district index up to date as it is
+     * modified.
      *
      * @return list of built city districts
      */
-    public List<District> getCity() {
+    public City getCity() {
         return city;
     }
 
@@ -128,6 +181,18 @@ public class Player {
         return true;
     }
 
+    /**
+     * Exchanges hands with another player (the Magician's power). The
+     * lists themselves change owner, so nothing is copied.
+     *
+     * @param other the player to exchange with
+     */
+    public void swapHands(Player other) {
+        List<District> mine = hand;
+        hand = other.hand;
+        other.hand = mine;
+    }
+
     /**
      * Adds a district card to the player's hand.
      *
@@ -144,12 +209,54 @@ public class Player {
      * @return true if a built district matches the name (case-insensitive)
      */
     public boolean hasBuilt(String name) {
-        return city.stream()
-                .anyMatch(d -> d.getName().equalsIgnoreCase(name));
+        return city.contains(name);
+    }
+
+    /**
+     * Indicates whether this player was the first to complete their city.
+     *
+     * @return true if this player earns the larger completion bonus
+     */
+    public boolean isFirstCompleter() {
+        return firstCompleter;
+    }
+
+    /**
+     * Marks whether this player was the first to complete their city.
+     *
+     * @param firstCompleter true if this player built 8 districts first
+     */
+    public void setFirstCompleter(boolean firstCompleter) {
+        this.firstCompleter = firstCompleter;
+    }
+
+    /**
+     * Returns the completion bonus the player would score now.
+     *
+     * @return 4 for the first player to complete their city, 2 for any
+     *         other complete city, otherwise 0
+     */
+    public int getCompletionBonus() {
+        return city.isComplete() ? (firstCompleter ? 4 : 2) : 0;
     }
 
     /**
-     * Computes this player's final score at game end.
+     * Returns the score the player would have if the game ended now. The
+     * components are kept up to date by the city as districts are built or
+     * destroyed, so this is cheap enough to call after every move.
+     *
+     * @return total points based on district costs, color diversity bonus,
+     *         completion bonus, and unique district bonuses
+     */
+    public int getScore() {
+        return city.getCostTotal()
+                + city.getDiversityBonus()
+                + getCompletionBonus()
+                + city.getUniqueBonus();
+    }
+
+    /**
+     * Computes this player's score for an explicit completion state.
      *
      * @param firstCompleter true if this player was first to build ≥8 districts
      * @param completed      true if this player built ≥8 districts
@@ -157,21 +264,9 @@ public class Player {
      *         completion bonus, and unique district bonuses
      */
     public int calculateScore(boolean firstCompleter, boolean completed) {
-        int score = 0;
-        Set<String> colorsSeen = new HashSet<>();
-
-        // Add base cost and any bonus points from each district
-        for (District d : city) {
-            score += d.getCost();
-            colorsSeen.add(d.getColor().toLowerCase());
-            score += d.getPointBonus();
-        }
-
-        // Bonus for having all five district colors
-        if (colorsSeen.containsAll(
-                Arrays.asList("yellow", "blue", "green", "red", "purple"))) {
-            score += 3;
-        }
+        int score = city.getCostTotal()
+                + city.getDiversityBonus()
+                + city.getUniqueBonus();
 
         // Bonus for completing the city (8+ districts)
         if (completed) {
@@ -0,0 +1,172 @@
+// File: src/main/java/citadels/Replay.java
+package citadels;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded console sessions headlessly. A recording is the lines a
+ * player typed, exactly as they would be piped into the console game,
+ * starting with the player count. Replaying feeds them to the game in
+ * memory and captures everything it prints, so a session runs at full
+ * speed instead of at console speed, and the transcript can be compared
+ * with a golden copy from an earlier run.
+ *
+ * <p>A corpus is a directory of recordings named {@code <name>.cmd}, each
+ * starting with a {@code seed <n>} line, next to their golden transcripts
+ * {@code <name>.golden}. Corpus recordings are replayed in parallel on the
+ * common fork-join pool.</p>
+ */
+public final class Replay {
+    /** Extension of a corpus recording. */
+    public static final String RECORDING = ".cmd";
+    /** Extension of a golden transcript. */
+    public static final String GOLDEN = ".golden";
+    /** Last line of the transcript of a recording that ends before its game. */
+    public static final String INPUT_ENDED = "[replay: input ended before the game]";
+
+    // First word of the seed line heading a corpus recording
+    private static final String SEED = "seed";
+
+    private Replay() {
+    }
+
+    /**
+     * Plays one game with the given seed, reading the human's input from
+     * the recorded lines, and returns everything the game printed. If the
+     * lines run out before the game ends, the transcript ends with
+     * {@link #INPUT_ENDED}.
+     *
+     * @param seed     seed for the game's random choices
+     * @param commands the recorded input lines, starting with the player count
+     * @return the game's transcript, with {@code \n} line endings
+     */
+    public static String play(long seed, List<String> commands) {
+        Iterator<String> lines = commands.iterator();
+        CaptureSink sink = new CaptureSink();
+        GameState game = new GameState(lines::next, sink);
+        game.random = new GameRandom(seed);
+        sink.printf("Game seed: %d%n", seed);
+        try {
+            App.playGame(game);
+        } catch (NoSuchElementException e) {
+            sink.println("");
+            sink.println(INPUT_ENDED);
+        }
+        return normalize(sink.toString());
+    }
+
+    /**
+     * Compares a transcript with its golden copy, ignoring the difference
+     * between {@code \r\n} and {@code \n} line endings.
+     *
+     * @param expected the golden transcript
+     * @param actual   the transcript of the replay
+     * @return null if they match, otherwise the first differing line
+     */
+    public static String firstDifference(String expected, String actual) {
+        String[] want = normalize(expected).split("\n", -1);
+        String[] got = normalize(actual).split("\n", -1);
+        int n = Math.min(want.length, got.length);
+        for (int i = 0; i < n; i++) {
+            if (!want[i].equals(got[i])) {
+                return String.format("line %d: expected \"%s\" but was \"%s\"",
+                        i + 1, want[i], got[i]);
+            }
+        }
+        if (want.length != got.length) {
+            return String.format("expected %d lines but was %d", want.length, got.length);
+        }
+        return null;
+    }
+
+    /**
+     * Reads a recording file. A corpus recording's first line is its seed
+     * line, read with {@link #seedOf(List)}; the commands follow it.
+     *
+     * @param file the recording
+     * @return its lines
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readRecording(Path file) throws IOException {
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the seed given by a recording's {@code seed <n>} first line.
+     *
+     * @param recording the recording's lines
+     * @return the seed
+     * @throws IllegalArgumentException if the first line is not a seed line
+     */
+    public static long seedOf(List<String> recording) {
+        String[] first = recording.isEmpty() ? new String[0]
+                : recording.get(0).trim().split("\\s+");
+        if (first.length != 2 || !first[0].equalsIgnoreCase(SEED)) {
+            throw new IllegalArgumentException("recording must start with 'seed <n>'");
+        }
+        return Long.parseLong(first[1]);
+    }
+
+    /**
+     * Replays every recording in a corpus directory and compares each
+     * transcript with its golden copy.
+     *
+     * @param dir    the corpus directory
+     * @param record if true, write the golden copy of every recording
+     *               that has none instead of counting it as a failure
+     * @return the outcome of every recording
+     * @throws IOException if the directory cannot be listed
+     */
+    public static ReplayResult runCorpus(Path dir, boolean record) throws IOException {
+        List<Path> recordings;
+        try (Stream<Path> files = Files.list(dir)) {
+            recordings = files
+                    .filter(f -> f.getFileName().toString().endsWith(RECORDING))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        long start = System.nanoTime();
+        List<ReplayResult.Case> cases = recordings.parallelStream()
+                .map(f -> replayCase(f, record))
+                .collect(Collectors.toList());
+        return new ReplayResult(cases, System.nanoTime() - start);
+    }
+
+    // Replays one corpus recording against its golden copy
+    private static ReplayResult.Case replayCase(Path recording, boolean record) {
+        String file = recording.getFileName().toString();
+        String name = file.substring(0, file.length() - RECORDING.length());
+        Path golden = recording.resolveSibling(name + GOLDEN);
+        try {
+            List<String> lines = readRecording(recording);
+            long seed = seedOf(lines);
+            String transcript = play(seed, lines.subList(1, lines.size()));
+            if (!Files.exists(golden)) {
+                if (!record) {
+                    return new ReplayResult.Case(name, "no golden transcript " + golden.getFileName());
+                }
+                Files.writeString(golden, transcript, StandardCharsets.UTF_8);
+                return new ReplayResult.Case(name, null);
+            }
+            String diff = firstDifference(Files.readString(golden, StandardCharsets.UTF_8),
+                    transcript);
+            return new ReplayResult.Case(name, diff);
+        } catch (IOException | RuntimeException e) {
+            // an unreadable recording or a crashing game fails its case only
+            return new ReplayResult.Case(name, e.toString());
+        }
+    }
+
+    // Converts \r\n line endings to \n
+    private static String normalize(String text) {
+        return text.replace("\r\n", "\n");
+    }
+}
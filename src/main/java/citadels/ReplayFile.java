@@ -0,0 +1,680 @@
+// File: src/main/java/citadels/ReplayFile.java
+package citadels;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.function.LongSupplier;
+
+/**
+ * A recorded game that can be opened at any round. The file holds every
+ * action of the game in order, that is every line the human typed and
+ * every decision a CPU seat's {@link CpuStrategy} made, with a keyframe
+ * every {@code keyframeEvery} rounds: a full snapshot of the state in the
+ * {@link BinarySerializer} format, plus the round's character effects.
+ *
+ * <p>Shuffles and the character draw come from the game's
+ * {@link GameRandom}, whose position cannot be saved, so the recorder
+ * reseeds the game from its own streams at every keyframe, as
+ * {@link GameJournal} does when it compacts, and stores the new seed in
+ * the keyframe. {@link #seek(int)} then loads the nearest keyframe at or
+ * before the round asked for and plays only the rounds after it, with
+ * every decision read back from the file instead of asking a strategy, so
+ * seeking costs at most {@code keyframeEvery - 1} rounds however long the
+ * game is. Because of the reseeding, a recorded game plays out
+ * differently from an unrecorded one with the same seed.</p>
+ *
+ * <p>Layout (version 1):</p>
+ * <pre>
+ *   magic "CTDR", version byte, player count, keyframe interval (varints)
+ *   records:
+ *     'L' and an input line (modified UTF-8)
+ *     'D' and a CPU decision (zigzag varint)
+ *     'K' keyframe: rounds played (varint), new seed (long), binary save,
+ *         face-up characters, killed and robbed character, Thief player
+ *         ID (varints), first selection (byte)
+ *     'E' end of the game
+ *   index: rounds played (varint), keyframe count (varint), then per
+ *          keyframe its rounds played (varint) and file offset (long)
+ *   offset of the index (long)
+ * </pre>
+ */
+public final class ReplayFile implements Closeable {
+    /** Default number of rounds between keyframes. */
+    public static final int DEFAULT_KEYFRAME_EVERY = 3;
+
+    // First bytes of every replay file: "CTDR"
+    private static final int MAGIC = 0x43544452;
+    private static final int VERSION = 1;
+    private static final byte LINE = 'L';
+    private static final byte DECISION = 'D';
+    private static final byte KEYFRAME = 'K';
+    private static final byte END = 'E';
+    // Bytes read from the file at a time while playing back
+    private static final int READ_BUFFER = 8192;
+
+    // Open channel on the file, read with positional reads only
+    private final FileChannel channel;
+    // Players in the recorded game
+    private final int numPlayers;
+    // Rounds between keyframes
+    private final int keyframeEvery;
+    // Rounds played in the recorded game
+    private final int rounds;
+    // Rounds played at each keyframe, ascending, and where each starts
+    private final int[] keyframeRounds;
+    private final long[] keyframeOffsets;
+
+    private ReplayFile(FileChannel channel, int numPlayers, int keyframeEvery, int rounds,
+                       int[] keyframeRounds, long[] keyframeOffsets) {
+        this.channel = channel;
+        this.numPlayers = numPlayers;
+        this.keyframeEvery = keyframeEvery;
+        this.rounds = rounds;
+        this.keyframeRounds = keyframeRounds;
+        this.keyframeOffsets = keyframeOffsets;
+    }
+
+    /**
+     * Plays a game to the end, or to {@link Simulator#MAX_ROUNDS}, and
+     * records it. The game must be set up, with its strategies and input
+     * in place, but no round played yet. It is not scored; its strategies
+     * and input are put back once recording ends, however it ends.
+     *
+     * @param file          path of the replay file, replaced if it exists
+     * @param game          the set-up game to play
+     * @param keyframeEvery rounds between keyframes (at least 1)
+     * @return number of rounds played
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the keyframe interval is below 1
+     */
+    public static int record(Path file, GameState game, int keyframeEvery) throws IOException {
+        if (keyframeEvery < 1) {
+            throw new IllegalArgumentException(
+                    "keyframe interval must be at least 1, got " + keyframeEvery);
+        }
+        InputSource live = game.input != null ? game.input : new Scanner(System.in)::nextLine;
+        CpuStrategy[] strategies = new CpuStrategy[game.players.size()];
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            Recorder recorder = new Recorder(out, live);
+            for (int i = 0; i < strategies.length; i++) {
+                Player p = game.players.get(i);
+                strategies[i] = p.getStrategy();
+                p.setStrategy(new Seat(strategies[i], recorder));
+            }
+            game.input = recorder;
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            BinarySerializer.writeVarint(out, game.players.size());
+            BinarySerializer.writeVarint(out, keyframeEvery);
+
+            int played = 0;
+            int keyframes = 0;
+            int[] roundsAt = new int[8];
+            long[] offsets = new long[8];
+            while (true) {
+                if (played % keyframeEvery == 0 && !game.gameEndTriggered) {
+                    if (keyframes == roundsAt.length) {
+                        roundsAt = Arrays.copyOf(roundsAt, keyframes * 2);
+                        offsets = Arrays.copyOf(offsets, keyframes * 2);
+                    }
+                    roundsAt[keyframes] = played;
+                    offsets[keyframes] = out.size();
+                    keyframes++;
+                    game.random = new GameRandom(game.random.nextSeed());
+                    writeKeyframe(out, game, played);
+                }
+                if (game.gameEndTriggered || played >= Simulator.MAX_ROUNDS) {
+                    break;
+                }
+                App.playRound(game);
+                played++;
+            }
+            out.writeByte(END);
+
+            long index = out.size();
+            BinarySerializer.writeVarint(out, played);
+            BinarySerializer.writeVarint(out, keyframes);
+            for (int i = 0; i < keyframes; i++) {
+                BinarySerializer.writeVarint(out, roundsAt[i]);
+                out.writeLong(offsets[i]);
+            }
+            out.writeLong(index);
+            return played;
+        } finally {
+            for (int i = 0; i < strategies.length; i++) {
+                if (strategies[i] != null) {
+                    game.players.get(i).setStrategy(strategies[i]);
+                }
+            }
+            game.input = live;
+        }
+    }
+
+    /**
+     * Opens a replay file for seeking. Only the header and the keyframe
+     * index are read.
+     *
+     * @param file path of the replay file
+     * @return the open replay
+     * @throws IOException if the file cannot be read or is not a replay
+     */
+    public static ReplayFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            DataInputStream header = new DataInputStream(new ChannelInput(channel, 0));
+            if (size < 13 || header.readInt() != MAGIC) {
+                throw new IOException("Not a Citadels replay: " + file);
+            }
+            int version = header.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+            int numPlayers = BinarySerializer.readVarint(header);
+            int keyframeEvery = BinarySerializer.readVarint(header);
+
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+            readFully(channel, trailer, size - Long.BYTES);
+            long indexOffset = trailer.getLong(0);
+            if (indexOffset < 0 || indexOffset > size - Long.BYTES) {
+                throw new IOException("Corrupt replay index: " + file);
+            }
+            DataInputStream index = new DataInputStream(new ChannelInput(channel, indexOffset));
+            int rounds = BinarySerializer.readVarint(index);
+            int count = BinarySerializer.readVarint(index);
+            if (count == 0) {
+                throw new IOException("Replay has no keyframes: " + file);
+            }
+            int[] keyframeRounds = new int[count];
+            long[] keyframeOffsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                keyframeRounds[i] = BinarySerializer.readVarint(index);
+                keyframeOffsets[i] = index.readLong();
+            }
+            return new ReplayFile(channel, numPlayers, keyframeEvery, rounds,
+                    keyframeRounds, keyframeOffsets);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (e instanceof EOFException) {
+                throw new IOException("Truncated replay: " + file, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of players in the recorded game.
+     *
+     * @return player count
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the number of rounds between keyframes.
+     *
+     * @return keyframe interval
+     */
+    public int getKeyframeEvery() {
+        return keyframeEvery;
+    }
+
+    /**
+     * Returns the number of keyframes in the file.
+     *
+     * @return keyframe count
+     */
+    public int getKeyframeCount() {
+        return keyframeRounds.length;
+    }
+
+    /**
+     * Returns the number of rounds the recorded game lasted.
+     *
+     * @return rounds played
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Rebuilds the game as it was after the given number of rounds, from
+     * the nearest keyframe at or before it. The game prints nothing; its
+     * input and CPU decisions are read from the file, so the returned
+     * cursor can play on through the rest of the recording.
+     *
+     * @param round rounds played, from 0 (just set up) to {@link #getRounds()}
+     * @return a cursor at that round
+     * @throws IOException if the file cannot be read or does not match the game
+     * @throws IllegalArgumentException if the round is out of range
+     */
+    public Cursor seek(int round) throws IOException {
+        if (round < 0 || round > rounds) {
+            throw new IllegalArgumentException(
+                    "round must be 0-" + rounds + ", got " + round);
+        }
+        // last keyframe at or before the round
+        int lo = 0;
+        int hi = keyframeRounds.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (keyframeRounds[mid] <= round) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        Playback playback = new Playback(
+                new DataInputStream(new ChannelInput(channel, keyframeOffsets[lo])));
+        GameState game = new GameState(playback, NullSink.INSTANCE);
+        if (!playback.keyframe(game, true)) {
+            throw new IOException("No keyframe at offset " + keyframeOffsets[lo]);
+        }
+        game.round = keyframeRounds[lo];
+        Seat seat = new Seat(null, playback);
+        for (Player p : game.players) {
+            p.setStrategy(seat);
+        }
+        Cursor cursor = new Cursor(game, playback, keyframeRounds[lo]);
+        while (cursor.round < round) {
+            cursor.next();
+        }
+        return cursor;
+    }
+
+    /**
+     * Closes the file. Cursors from {@link #seek(int)} cannot play on
+     * afterwards.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A game rebuilt from a replay file at some round, which can be
+     * played on round by round through the rest of the recording.
+     */
+    public final class Cursor {
+        private final GameState game;
+        private final Playback playback;
+        private int round;
+
+        private Cursor(GameState game, Playback playback, int round) {
+            this.game = game;
+            this.playback = playback;
+            this.round = round;
+        }
+
+        /**
+         * Returns the rebuilt game. It prints to a {@link NullSink} unless
+         * its sink is replaced.
+         *
+         * @return the game state
+         */
+        public GameState getGame() {
+            return game;
+        }
+
+        /**
+         * Returns the number of rounds played so far.
+         *
+         * @return the current round
+         */
+        public int getRound() {
+            return round;
+        }
+
+        /**
+         * Indicates whether the recording has another round.
+         *
+         * @return true if {@link #next()} can be called
+         */
+        public boolean hasNext() {
+            return round < rounds;
+        }
+
+        /**
+         * Plays the next recorded round.
+         *
+         * @throws IOException if the file cannot be read or does not match the game
+         * @throws IllegalStateException if the recording has no more rounds
+         */
+        public void next() throws IOException {
+            if (!hasNext()) {
+                throw new IllegalStateException("replay ended after round " + rounds);
+            }
+            try {
+                App.playRound(game);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            round++;
+            // the recorder reseeded here
+            playback.keyframe(game, false);
+        }
+    }
+
+    // Writes a keyframe: the state after the given rounds and the new seed
+    private static void writeKeyframe(DataOutputStream out, GameState game, int played)
+            throws IOException {
+        out.writeByte(KEYFRAME);
+        BinarySerializer.writeVarint(out, played);
+        out.writeLong(game.random.getSeed());
+        BinarySerializer.write(game, out);
+        BinarySerializer.writeVarint(out, game.faceUpCharacters);
+        BinarySerializer.writeVarint(out, game.killedCharacter);
+        BinarySerializer.writeVarint(out, game.robbedCharacter);
+        BinarySerializer.writeVarint(out, game.thiefPlayer == null ? 0 : game.thiefPlayer.getId());
+        out.writeBoolean(game.firstSelection);
+    }
+
+    // Writes a signed long in 7-bit groups, zigzag encoded
+    private static void writeVarlong(DataOutputStream out, long v) throws IOException {
+        long z = (v << 1) ^ (v >> 63);
+        while ((z & ~0x7FL) != 0) {
+            out.writeByte((int) (z & 0x7F) | 0x80);
+            z >>>= 7;
+        }
+        out.writeByte((int) z);
+    }
+
+    // Reads a long written by writeVarlong
+    private static long readVarlong(DataInputStream in) throws IOException {
+        long z = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            z |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (z >>> 1) ^ -(z & 1);
+            }
+        }
+        throw new IOException("Malformed varint in replay");
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position)
+            throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    /**
+     * Where a recording game's actions go, or a replayed game's come from.
+     * A strategy's decision is only computed while recording.
+     */
+    private interface Actions extends InputSource {
+        long decide(LongSupplier strategy);
+    }
+
+    /**
+     * Writes every line and decision of a recording game to the file.
+     */
+    private static final class Recorder implements Actions {
+        private final DataOutputStream out;
+        private final InputSource live;
+
+        Recorder(DataOutputStream out, InputSource live) {
+            this.out = out;
+            this.live = live;
+        }
+
+        @Override
+        public String nextLine() {
+            String line = live.nextLine();
+            try {
+                out.writeByte(LINE);
+                out.writeUTF(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return line;
+        }
+
+        @Override
+        public long decide(LongSupplier strategy) {
+            long v = strategy.getAsLong();
+            try {
+                out.writeByte(DECISION);
+                writeVarlong(out, v);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return v;
+        }
+    }
+
+    /**
+     * Reads a replayed game's lines and decisions back from the file, and
+     * applies the keyframes between rounds.
+     */
+    private static final class Playback implements Actions {
+        private final DataInputStream in;
+        // Record type read ahead by keyframe(), or -1
+        private int peeked = -1;
+
+        Playback(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public String nextLine() {
+            try {
+                expect(LINE, "an input line");
+                return in.readUTF();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public long decide(LongSupplier strategy) {
+            try {
+                expect(DECISION, "a CPU decision");
+                return readVarlong(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Applies the keyframe next in the file, if there is one: the game
+        // is reseeded and, if restore is set, its state loaded
+        boolean keyframe(GameState game, boolean restore) throws IOException {
+            if (type() != KEYFRAME) {
+                return false;
+            }
+            peeked = -1;
+            BinarySerializer.readVarint(in);
+            long seed = in.readLong();
+            GameState target = restore ? game : new GameState();
+            BinarySerializer.read(target, in);
+            target.faceUpCharacters = BinarySerializer.readVarint(in);
+            target.killedCharacter = BinarySerializer.readVarint(in);
+            target.robbedCharacter = BinarySerializer.readVarint(in);
+            int thief = BinarySerializer.readVarint(in);
+            target.firstSelection = in.readBoolean();
+            for (Player p : target.players) {
+                if (p.getId() == thief) {
+                    target.thiefPlayer = p;
+                }
+            }
+            game.random = new GameRandom(seed);
+            return true;
+        }
+
+        private int type() throws IOException {
+            if (peeked < 0) {
+                peeked = in.readUnsignedByte();
+            }
+            return peeked;
+        }
+
+        private void expect(byte type, String what) throws IOException {
+            int t = type();
+            if (t != type) {
+                throw new IOException("Replay out of step: expected " + what
+                        + " but found record '" + (char) t + "'");
+            }
+            peeked = -1;
+        }
+    }
+
+    /**
+     * A seat's strategy while recording or replaying: while recording it
+     * asks the seat's own strategy and logs the answer, while replaying
+     * (no strategy) it returns the logged answer.
+     */
+    private static final class Seat implements CpuStrategy {
+        private final CpuStrategy delegate;
+        private final Actions actions;
+
+        Seat(CpuStrategy delegate, Actions actions) {
+            this.delegate = delegate;
+            this.actions = actions;
+        }
+
+        @Override
+        public int chooseCharacter(GameState game, Player self, int available) {
+            return (int) actions.decide(() -> delegate.chooseCharacter(game, self, available));
+        }
+
+        @Override
+        public int assassinTarget(GameState game, Player self) {
+            return (int) actions.decide(() -> delegate.assassinTarget(game, self));
+        }
+
+        @Override
+        public int thiefTarget(GameState game, Player self) {
+            return (int) actions.decide(() -> delegate.thiefTarget(game, self));
+        }
+
+        @Override
+        public boolean takeGold(GameState game, Player self) {
+            return actions.decide(() -> delegate.takeGold(game, self) ? 1 : 0) != 0;
+        }
+
+        @Override
+        public District chooseKeptCard(GameState game, Player self, District first,
+                                       District second) {
+            return actions.decide(() ->
+                    delegate.chooseKeptCard(game, self, first, second) == second ? 1 : 0) != 0
+                    ? second : first;
+        }
+
+        @Override
+        public int magicianExchange(GameState game, Player self) {
+            return (int) actions.decide(() -> delegate.magicianExchange(game, self));
+        }
+
+        @Override
+        public long magicianDiscard(GameState game, Player self) {
+            return actions.decide(() -> delegate.magicianDiscard(game, self));
+        }
+
+        @Override
+        public int laboratoryDiscard(GameState game, Player self) {
+            return (int) actions.decide(() -> delegate.laboratoryDiscard(game, self));
+        }
+
+        @Override
+        public boolean useSmithy(GameState game, Player self) {
+            return actions.decide(() -> delegate.useSmithy(game, self) ? 1 : 0) != 0;
+        }
+
+        @Override
+        public int schoolOfMagicColor(GameState game, Player self, int color) {
+            return (int) actions.decide(() -> delegate.schoolOfMagicColor(game, self, color));
+        }
+
+        @Override
+        public int buildChoice(GameState game, Player self) {
+            return (int) actions.decide(() -> delegate.buildChoice(game, self));
+        }
+
+        @Override
+        public int warlordTarget(GameState game, Player self) {
+            return (int) actions.decide(() -> delegate.warlordTarget(game, self));
+        }
+
+        @Override
+        public int warlordDistrict(GameState game, Player self, Player target) {
+            return (int) actions.decide(() -> delegate.warlordDistrict(game, self, target));
+        }
+
+        @Override
+        public boolean recoverWithGraveyard(GameState game, Player self, District destroyed) {
+            return actions.decide(() ->
+                    delegate.recoverWithGraveyard(game, self, destroyed) ? 1 : 0) != 0;
+        }
+    }
+
+    /**
+     * Reads a file from a position with positional reads, so any number
+     * of cursors can read the same channel at once.
+     */
+    private static final class ChannelInput extends InputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocate(READ_BUFFER);
+        // File position of the next byte to fill the buffer from
+        private long position;
+
+        ChannelInput(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+            buf.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buf.hasRemaining() && !fill()) {
+                return -1;
+            }
+            return buf.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buf.hasRemaining() && !fill()) {
+                return -1;
+            }
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            buf.clear();
+            int n = channel.read(buf, position);
+            buf.flip();
+            if (n <= 0) {
+                return false;
+            }
+            position += n;
+            return true;
+        }
+    }
+}
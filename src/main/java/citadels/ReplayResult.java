@@ -0,0 +1,130 @@
+// File: src/main/java/citadels/ReplayResult.java
+package citadels;
+
+import java.util.List;
+
+/**
+ * Outcome of replaying a corpus of recorded sessions: which recordings
+ * matched their golden transcripts, why the others did not, and how long
+ * the corpus took.
+ */
+public class ReplayResult {
+    // Outcome of every recording, in file name order
+    private final List<Case> cases;
+    // Wall-clock time the corpus took
+    private final long elapsedNanos;
+
+    /**
+     * Creates a result from the outcome of every recording.
+     *
+     * @param cases        outcome of every recording
+     * @param elapsedNanos wall-clock time of the replay
+     */
+    public ReplayResult(List<Case> cases, long elapsedNanos) {
+        this.cases = List.copyOf(cases);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * The outcome of one recording.
+     */
+    public static final class Case {
+        private final String name;
+        private final String failure;
+
+        /**
+         * Creates the outcome of one recording.
+         *
+         * @param name    recording name, without its extension
+         * @param failure why it failed, or null if its transcript matched
+         */
+        public Case(String name, String failure) {
+            this.name = name;
+            this.failure = failure;
+        }
+
+        /**
+         * Returns the recording's name.
+         *
+         * @return name without extension
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns why the recording failed.
+         *
+         * @return the first difference or error, or null if it passed
+         */
+        public String getFailure() {
+            return failure;
+        }
+
+        /**
+         * Indicates whether the transcript matched its golden copy.
+         *
+         * @return true if it passed
+         */
+        public boolean passed() {
+            return failure == null;
+        }
+    }
+
+    /**
+     * Returns the outcome of every recording.
+     *
+     * @return cases in file name order
+     */
+    public List<Case> getCases() {
+        return cases;
+    }
+
+    /**
+     * Returns the number of recordings that failed.
+     *
+     * @return failure count
+     */
+    public long getFailures() {
+        return cases.stream().filter(c -> !c.passed()).count();
+    }
+
+    /**
+     * Indicates whether every recording matched.
+     *
+     * @return true if nothing failed
+     */
+    public boolean passed() {
+        return getFailures() == 0;
+    }
+
+    /**
+     * Returns how long the replay took.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Builds a human-readable summary: one line per failed recording and
+     * the totals.
+     *
+     * @return multi-line report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Case c : cases) {
+            if (!c.passed()) {
+                sb.append(String.format("  FAIL %s: %s%n", c.getName(), c.getFailure()));
+            }
+        }
+        double seconds = elapsedNanos / 1e9;
+        sb.append(String.format("Replayed %d recordings: %d passed, %d failed in %.2f s"
+                        + " (%.0f replays/s)%n",
+                cases.size(), cases.size() - getFailures(), getFailures(), seconds,
+                seconds == 0 ? 0 : cases.size() / seconds));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,1207 @@
+// File: src/main/java/citadels/RoundMachine.java
+package citadels;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static citadels.App.CHARACTER_NAMES;
+
+/**
+ * One round of Citadels as a resumable state machine: character selection,
+ * then for each character in turn the call, reveal, Assassin and Thief
+ * targets, the theft, resources, the Magician, Laboratory and Smithy, the
+ * Architect's cards, income, the Warlord and building, then the next
+ * character.
+ *
+ * <p>{@link #step(String)} runs the round until the human has to answer a
+ * prompt, and returns; the next call passes the answer in and carries on
+ * from there. A round waiting for input holds no thread, so one scheduler
+ * thread can drive any number of games. CPU players decide inline and never
+ * make the round wait; an all-CPU round runs to the end in one step.</p>
+ *
+ * <p>Not thread-safe: a round must only be stepped by one thread at a
+ * time.</p>
+ */
+public final class RoundMachine {
+    /** Where a round is. States ending in an input wait for the human. */
+    enum State {
+        SELECTION, DRAW_CHARACTERS, PICK, CPU_PICK, CHOOSE_CHARACTER, SELECTION_DONE,
+        TURNS, CALL, ASSASSIN, ASSASSIN_TARGET, THIEF, THIEF_TARGET, STEAL,
+        RESOURCE, RESOURCE_CHOICE, KEEP_CARD, MAGICIAN, MAGICIAN_USE, MAGICIAN_ACTION,
+        LABORATORY, LABORATORY_USE, LABORATORY_CARD, SMITHY, SMITHY_USE, ARCHITECT,
+        INCOME, SCHOOL_COLOR, WARLORD, WARLORD_TARGET, WARLORD_DISTRICT, GRAVEYARD,
+        BUILD, BUILD_COMMAND, END_TURN, NEXT_CHARACTER, CONTINUE, ROUND_END, DONE
+    }
+
+    // The game this round is played in
+    private final GameState game;
+    // True to stop after character selection
+    private final boolean selectionOnly;
+    // True to clear the round effects at the end, as a full round does
+    private final boolean resetAtEnd;
+    // Current state
+    private State state;
+    // State to go on to once the human presses t
+    private State resume;
+    // True while the round waits for a line from the human
+    private boolean waiting;
+    // True once the round has reached the turn phase, for the metrics
+    private boolean turnPhase;
+    // Flight recorder events of the selection and the current turn
+    private FlightEvents.Selection selectionEvent;
+    private FlightEvents.Turn turnEvent;
+
+    // Characters not yet chosen this round
+    private List<Integer> charDeck;
+    // The character discarded face down
+    private int faceDown;
+    // Seat of the crowned player, and how many players have chosen
+    private int crownIdx;
+    private int picked;
+
+    // Character whose turn it is, and the player holding it
+    private int r;
+    private Player cur;
+    // Cards drawn as resources, waiting for the human to keep one
+    private List<District> drawn;
+    // Colour paid for by this character's income, e.g. "yellow"
+    private String incomeColor;
+    // City the human Warlord is destroying in
+    private Player target;
+    // District just destroyed and its owner, for the Graveyard
+    private District destroyed;
+    private Player owner;
+    // Districts this character may still build, and has built
+    private int limit;
+    private int built;
+
+    private RoundMachine(GameState game, State start, boolean selectionOnly, boolean resetAtEnd) {
+        this.game = game;
+        this.state = start;
+        this.selectionOnly = selectionOnly;
+        this.resetAtEnd = resetAtEnd;
+    }
+
+    /**
+     * Creates a full round: selection, every character's turn, then the
+     * round effects are cleared unless the game has ended.
+     *
+     * @param game the game to play the round in
+     */
+    public RoundMachine(GameState game) {
+        this(game, State.SELECTION, false, true);
+    }
+
+    /**
+     * Creates a round that only selects characters.
+     *
+     * @param game the game to select in
+     * @return the selection phase
+     */
+    static RoundMachine selection(GameState game) {
+        return new RoundMachine(game, State.SELECTION, true, false);
+    }
+
+    /**
+     * Creates a round that plays the turns of the characters from the
+     * given one up to the Warlord, characters having been chosen.
+     *
+     * @param game  the game to play the turns in
+     * @param first the first character to play (1-8)
+     * @return the turn phase
+     */
+    static RoundMachine turns(GameState game, int first) {
+        RoundMachine m = new RoundMachine(game, State.CALL, false, false);
+        m.r = first;
+        m.turnPhase = true;
+        return m;
+    }
+
+    /**
+     * Runs the round until it needs input from the human or is over. Output
+     * is flushed before returning, so a prompt is always shown.
+     *
+     * @param input the human's answer to the last prompt, trimmed here;
+     *              ignored unless the round is waiting for one
+     * @return true if the round now waits for input, false once it is over
+     */
+    public boolean step(String input) {
+        long t = EngineMetrics.start(game);
+        if (waiting) {
+            if (input == null) {
+                return true;
+            }
+            waiting = false;
+            accept(input.trim());
+        }
+        while (!waiting && state != State.DONE) {
+            if (state == State.TURNS && !turnPhase) {
+                t = EngineMetrics.phase(EngineMetrics.Phase.SELECTION, t);
+                turnPhase = true;
+            }
+            advance();
+        }
+        EngineMetrics.phase(turnPhase ? EngineMetrics.Phase.TURNS : EngineMetrics.Phase.SELECTION, t);
+        if (waiting) {
+            game.out.flush();
+        }
+        return waiting;
+    }
+
+    /**
+     * Plays the round to the end, reading the human's answers from the
+     * game's input.
+     */
+    void play() {
+        String line = null;
+        while (step(line)) {
+            line = game.nextLine();
+        }
+    }
+
+    /**
+     * Indicates whether the round waits for input from the human.
+     *
+     * @return true while waiting
+     */
+    public boolean isWaitingForInput() {
+        return waiting;
+    }
+
+    /**
+     * Indicates whether the round is over.
+     *
+     * @return true once every turn has been played
+     */
+    public boolean isDone() {
+        return state == State.DONE;
+    }
+
+    /**
+     * Returns where the round is.
+     *
+     * @return the current state
+     */
+    State getState() {
+        return state;
+    }
+
+    // Waits for an answer to the prompt just printed
+    private void prompt(State s) {
+        state = s;
+        waiting = true;
+    }
+
+    // Waits for the human to press t, then goes on to next; goes on at
+    // once if nobody is there to press it
+    private void awaitContinue(State next) {
+        if (game.hasHumanPlayer()) {
+            resume = next;
+            prompt(State.CONTINUE);
+        } else {
+            state = next;
+        }
+    }
+
+    // Records a CPU decision in the engine metrics and the flight recorder
+    private void decided(EngineMetrics.Decision kind, long timer, FlightEvents.Decision event,
+                         Player p) {
+        EngineMetrics.decision(kind, timer);
+        FlightEvents.decided(event, kind, game, p);
+    }
+
+    // Runs one state that needs no input
+    private void advance() {
+        switch (state) {
+            case SELECTION:
+                startSelection();
+                break;
+            case DRAW_CHARACTERS:
+                drawCharacters();
+                break;
+            case PICK:
+                pick();
+                break;
+            case CPU_PICK:
+                cpuPick();
+                break;
+            case SELECTION_DONE:
+                selectionEvent.finish(game, null);
+                game.out.flush();
+                state = selectionOnly ? State.DONE : State.TURNS;
+                break;
+            case TURNS:
+                game.out.println("================================");
+                game.out.println("TURN PHASE");
+                game.out.println("================================");
+                r = 1;
+                state = State.CALL;
+                break;
+            case CALL:
+                call();
+                break;
+            case ASSASSIN:
+                assassin();
+                break;
+            case THIEF:
+                thief();
+                break;
+            case STEAL:
+                steal();
+                break;
+            case RESOURCE:
+                resource();
+                break;
+            case MAGICIAN:
+                magician();
+                break;
+            case LABORATORY:
+                laboratory();
+                break;
+            case SMITHY:
+                smithy();
+                break;
+            case ARCHITECT:
+                if (r == 7) {
+                    App.drawCardForPlayer(game, cur);
+                    App.drawCardForPlayer(game, cur);
+                    game.out.printf("%s drew 2 extra cards (Architect).%n",
+                            cur.isHuman() ? "You" : "Player " + cur.getId());
+                }
+                state = State.INCOME;
+                break;
+            case INCOME:
+                income();
+                break;
+            case WARLORD:
+                warlord();
+                break;
+            case BUILD:
+                build();
+                break;
+            case END_TURN:
+                turnEvent.finish(game, cur);
+                if (r < 8) {
+                    game.out.println("Press t to continue.");
+                    awaitContinue(State.NEXT_CHARACTER);
+                } else {
+                    state = State.NEXT_CHARACTER;
+                }
+                break;
+            case NEXT_CHARACTER:
+                state = ++r <= 8 ? State.CALL : State.ROUND_END;
+                break;
+            case ROUND_END:
+                game.out.flush();
+                if (resetAtEnd) {
+                    EngineMetrics.round(game);
+                }
+                if (resetAtEnd && !game.gameEndTriggered) {
+                    game.resetRound();
+                }
+                state = State.DONE;
+                break;
+            default:
+                throw new IllegalStateException("State " + state + " needs input");
+        }
+    }
+
+    // Handles the human's answer in the state waiting for it
+    private void accept(String in) {
+        switch (state) {
+            case CONTINUE:
+                if (App.continueCommand(game, in)) {
+                    state = resume;
+                } else {
+                    waiting = true;
+                }
+                break;
+            case CHOOSE_CHARACTER:
+                chooseCharacter(in);
+                break;
+            case ASSASSIN_TARGET:
+                assassinTarget(in);
+                break;
+            case THIEF_TARGET:
+                thiefTarget(in);
+                break;
+            case RESOURCE_CHOICE:
+                resourceChoice(in.toLowerCase());
+                break;
+            case KEEP_CARD:
+                keepCard(in);
+                break;
+            case MAGICIAN_USE:
+                if (in.toLowerCase().startsWith("y")) {
+                    game.out.print("Type 'exchange <player>' or 'discard <indexes>': ");
+                    prompt(State.MAGICIAN_ACTION);
+                } else {
+                    state = State.LABORATORY;
+                }
+                break;
+            case MAGICIAN_ACTION:
+                magicianAction(in.toLowerCase());
+                break;
+            case LABORATORY_USE:
+                if (in.equalsIgnoreCase("yes") && !cur.getHand().isEmpty()) {
+                    App.showHand(game, cur);
+                    game.out.printf("Which card to discard [1-%d]? ", cur.getHand().size());
+                    prompt(State.LABORATORY_CARD);
+                } else {
+                    state = State.SMITHY;
+                }
+                break;
+            case LABORATORY_CARD:
+                laboratoryCard(in);
+                break;
+            case SMITHY_USE:
+                if (in.equalsIgnoreCase("yes")) {
+                    useSmithy();
+                }
+                state = State.ARCHITECT;
+                break;
+            case SCHOOL_COLOR:
+                collectIncome(in.toLowerCase());
+                break;
+            case WARLORD_TARGET:
+                warlordTarget(in.toLowerCase());
+                break;
+            case WARLORD_DISTRICT:
+                warlordDistrict(in);
+                break;
+            case GRAVEYARD:
+                if (in.toLowerCase().startsWith("y")) {
+                    recover();
+                }
+                state = State.BUILD;
+                break;
+            case BUILD_COMMAND:
+                buildCommand(in);
+                break;
+            default:
+                throw new IllegalStateException("State " + state + " takes no input");
+        }
+    }
+
+    // ---- Selection ----
+
+    private void startSelection() {
+        game.round++;
+        if (game.firstSelection) {
+            game.out.println("Your starting hand of district cards:");
+            App.showHand(game, game.players.get(0));
+            game.firstSelection = false;
+        }
+
+        game.out.printf("Player %d is the crowned player and goes first.%n",
+                game.crownedPlayer.getId());
+        game.out.println("Press t to process turns");
+        awaitContinue(State.DRAW_CHARACTERS);
+    }
+
+    private void drawCharacters() {
+        game.out.println("================================");
+        game.out.println("SELECTION PHASE");
+        game.out.println("================================");
+        selectionEvent = new FlightEvents.Selection();
+        selectionEvent.begin();
+
+        charDeck = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) charDeck.add(i);
+        SplittableRandom rand = game.random.characters;
+
+        // 1) face-down discard
+        faceDown = charDeck.remove(rand.nextInt(charDeck.size()));
+
+        // 2) face-up discards, King cannot be face-up
+        int faceUpCount = game.players.size() == 4 ? 2
+                : game.players.size() == 5 ? 1
+                : 0;
+        List<Integer> faceUp = new ArrayList<>();
+        for (int i = 0; i < faceUpCount; ) {
+            int c = charDeck.remove(rand.nextInt(charDeck.size()));
+            if (c == 4) {
+                // King cannot be face-up: put it back and retry
+                game.out.println("King was removed.");
+                game.out.println("The King cannot be visibly removed, trying again...");
+                charDeck.add(c);
+                // return any already-picked face-up cards and restart
+                charDeck.addAll(faceUp);
+                GameRandom.shuffle(charDeck, rand);
+                faceUp.clear();
+                i = 0;
+                continue;
+            }
+            faceUp.add(c);
+            i++;
+        }
+
+        game.out.println("A mystery character was removed.");
+        game.faceUpCharacters = 0;
+        for (int c : faceUp) {
+            game.out.printf("%s was removed.%n", CHARACTER_NAMES[c]);
+            game.faceUpCharacters |= 1 << c;
+        }
+
+        // 3) players pick in crown order
+        crownIdx = game.players.indexOf(game.crownedPlayer);
+        picked = 0;
+        state = State.PICK;
+    }
+
+    // True if the current picker is the last of seven, who may also take
+    // the face-down character
+    private boolean lastOfSeven() {
+        int n = game.players.size();
+        return n == 7 && picked == n - 1;
+    }
+
+    private void pick() {
+        int n = game.players.size();
+        if (picked == n) {
+            game.out.println("Character choosing is over, action round will now begin.");
+            state = State.SELECTION_DONE;
+            return;
+        }
+        cur = game.players.get((crownIdx + picked) % n);
+        if (cur.isHuman()) {
+            game.out.print("Choose your character from: ");
+            if (lastOfSeven()) {
+                int rem = charDeck.isEmpty() ? -1 : charDeck.get(0);
+                if (rem != -1) game.out.printf("%s, ", CHARACTER_NAMES[rem]);
+                game.out.printf("%s.%n", CHARACTER_NAMES[faceDown]);
+            } else {
+                for (int i = 0; i < charDeck.size(); i++) {
+                    game.out.print(CHARACTER_NAMES[charDeck.get(i)]);
+                    if (i < charDeck.size() - 1) game.out.print(", ");
+                }
+                game.out.println(".");
+            }
+            prompt(State.CHOOSE_CHARACTER);
+        } else {
+            game.out.printf("Player %d is choosing a character...%n", cur.getId());
+            awaitContinue(State.CPU_PICK);
+        }
+    }
+
+    private void cpuPick() {
+        boolean lastOfSeven = lastOfSeven();
+        int avail = 0;
+        for (int c : charDeck) avail |= 1 << c;
+        if (lastOfSeven) avail |= 1 << faceDown;
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        int choice = cur.getStrategy().chooseCharacter(game, cur, avail);
+        decided(EngineMetrics.Decision.CHARACTER, timer, event, cur);
+        if (lastOfSeven && choice == faceDown) {
+            // the unchosen character goes face down instead
+            faceDown = charDeck.get(0);
+        }
+        cur.setCharacter(choice);
+        charDeck.remove(Integer.valueOf(choice));
+        game.emit(GameEvent.Type.CHARACTER_CHOSEN, cur, choice, 0, null, null);
+        game.out.printf("Player %d chose a character.%n", cur.getId());
+        picked++;
+        state = State.PICK;
+    }
+
+    private void chooseCharacter(String in) {
+        waiting = true;
+        if (in.equalsIgnoreCase("debug")) {
+            App.toggleDebug(game);
+            return;
+        }
+        if (in.toLowerCase().startsWith("info")) {
+            App.handleInfoCommand(game, in, cur);
+            return;
+        }
+        boolean lastOfSeven = lastOfSeven();
+        int pick = 0;
+        try { pick = Integer.parseInt(in); }
+        catch (Exception e) {
+            for (int c2 : charDeck) {
+                if (CHARACTER_NAMES[c2].equalsIgnoreCase(in)) {
+                    pick = c2; break;
+                }
+            }
+            if (lastOfSeven && CHARACTER_NAMES[faceDown].equalsIgnoreCase(in)) {
+                pick = faceDown;
+            }
+        }
+        boolean chosen = false;
+        if (lastOfSeven) {
+            int rem = charDeck.isEmpty() ? -1 : charDeck.get(0);
+            if (pick == rem || pick == faceDown) {
+                cur.setCharacter(pick);
+                if (pick == faceDown) faceDown = rem;
+                charDeck.remove(Integer.valueOf(pick));
+                chosen = true;
+            }
+        } else if (charDeck.contains(pick)) {
+            cur.setCharacter(pick);
+            charDeck.remove(Integer.valueOf(pick));
+            chosen = true;
+        }
+        if (!chosen) {
+            game.out.println("Invalid character. Please choose an available one.");
+            return;
+        }
+        waiting = false;
+        game.out.printf("You chose the %s.%n", CHARACTER_NAMES[cur.getCharacter()]);
+        game.emit(GameEvent.Type.CHARACTER_CHOSEN, cur, cur.getCharacter(), 0, null, null);
+        picked++;
+        state = State.PICK;
+    }
+
+    // ---- Turns ----
+
+    private void call() {
+        cur = null;
+        for (Player p : game.players) {
+            if (p.getCharacter() == r) {
+                cur = p; break;
+            }
+        }
+
+        game.out.printf("%d: %s%n", r, CHARACTER_NAMES[r]);
+
+        // if killed or not chosen, skip
+        if (cur == null || r == game.killedCharacter) {
+            if (cur != null && r == game.killedCharacter)
+                game.out.printf("The %s was killed.%n", CHARACTER_NAMES[r]);
+            else
+                game.out.printf("No one is the %s%n", CHARACTER_NAMES[r]);
+            if (r < 8) {
+                awaitContinue(State.NEXT_CHARACTER);
+            } else {
+                state = State.NEXT_CHARACTER;
+            }
+            return;
+        }
+
+        // reveal
+        EngineMetrics.turn(game);
+        turnEvent = new FlightEvents.Turn();
+        turnEvent.begin();
+        game.out.printf("Player %d is the %s%n", cur.getId(), CHARACTER_NAMES[r]);
+        if (cur.isHuman()) game.out.println("Your turn.");
+        if (game.debugMode && !cur.isHuman()) {
+            game.out.printf("[DEBUG] Player %d hand: ", cur.getId());
+            for (District d : cur.getHand()) {
+                game.out.printf("%s(%s) ", d.getName(), d.getColor());
+            }
+            game.out.println();
+        }
+        state = r == 1 ? State.ASSASSIN : r == 2 ? State.THIEF : State.STEAL;
+    }
+
+    // Parses a character number, or -1 if the input is not a number
+    private static int parseTarget(String in) {
+        try {
+            return Integer.parseInt(in);
+        } catch (NumberFormatException e) {
+            return -1; // invalid → skip
+        }
+    }
+
+    private void assassin() {
+        if (cur.isHuman()) {
+            game.out.print("Who do you want to kill? Choose 2–8 (invalid to skip): ");
+            prompt(State.ASSASSIN_TARGET);
+            return;
+        }
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        int t = cur.getStrategy().assassinTarget(game, cur);
+        decided(EngineMetrics.Decision.ASSASSIN, timer, event, cur);
+        if (t >= 2 && t <= 8) {
+            game.killedCharacter = t;
+            game.out.printf("Assassin chooses to kill the %s.%n", CHARACTER_NAMES[t]);
+            game.emit(GameEvent.Type.CHARACTER_KILLED, cur, t, 0, null, null);
+        }
+        state = State.STEAL;
+    }
+
+    private void assassinTarget(String in) {
+        int t = parseTarget(in);
+        if (t >= 2 && t <= 8) {
+            game.killedCharacter = t;
+            game.emit(GameEvent.Type.CHARACTER_KILLED, cur, t, 0, null, null);
+            game.out.printf("You chose to kill the %s.%n", CHARACTER_NAMES[t]);
+        } else {
+            game.out.println("Skipping Assassin ability.");
+        }
+        state = State.STEAL;
+    }
+
+    private void thief() {
+        if (cur.isHuman()) {
+            game.out.print("Who do you want to steal from? Choose 3–8 (invalid to skip): ");
+            prompt(State.THIEF_TARGET);
+            return;
+        }
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        int t = cur.getStrategy().thiefTarget(game, cur);
+        decided(EngineMetrics.Decision.THIEF, timer, event, cur);
+        game.robbedCharacter = t >= 3 && t <= 8 && t != game.killedCharacter ? t : 0;
+        game.thiefPlayer = cur;
+        game.out.printf("Thief plans to rob the %s.%n", CHARACTER_NAMES[game.robbedCharacter]);
+        state = State.STEAL;
+    }
+
+    private void thiefTarget(String in) {
+        int t = parseTarget(in);
+        if (t >= 3 && t <= 8 && t != game.killedCharacter) {
+            game.robbedCharacter = t;
+            game.thiefPlayer = cur;
+            game.out.printf("You chose to steal from the %s.%n", CHARACTER_NAMES[t]);
+        } else {
+            game.out.println("Skipping Thief ability.");
+        }
+        state = State.STEAL;
+    }
+
+    // The Thief takes the robbed character's gold on reveal
+    private void steal() {
+        if (r == game.robbedCharacter
+                && game.thiefPlayer != null
+                && game.thiefPlayer.getCharacter() == 2
+                && game.thiefPlayer != cur) {
+            int amt = cur.getGold();
+            cur.spendGold(amt);
+            game.thiefPlayer.addGold(amt);
+            game.emit(GameEvent.Type.GOLD_STOLEN, game.thiefPlayer, 2, amt, null, cur);
+            game.out.printf("The Thief stole %d gold from Player %d.%n", amt, cur.getId());
+        }
+        state = State.RESOURCE;
+    }
+
+    private void resource() {
+        if (cur.isHuman()) {
+            game.out.print("Collect 2 gold or draw two cards and pick one [gold/cards]: ");
+            prompt(State.RESOURCE_CHOICE);
+            return;
+        }
+        CpuStrategy strategy = cur.getStrategy();
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        boolean gold = strategy.takeGold(game, cur);
+        decided(EngineMetrics.Decision.RESOURCES, timer, event, cur);
+        if (gold) {
+            takeGold();
+        } else {
+            District d1 = game.deck.draw();
+            District d2 = game.deck.draw();
+            if (d1 != null && d2 != null) {
+                game.emit(GameEvent.Type.RESOURCE_TAKEN, cur, 0, 0, null, null);
+                if (cur.hasBuilt("Library")) {
+                    App.addToHand(game, cur, d1);
+                    App.addToHand(game, cur, d2);
+                } else {
+                    timer = EngineMetrics.start(game);
+                    event = FlightEvents.decision();
+                    District keep = strategy.chooseKeptCard(game, cur, d1, d2) == d2 ? d2 : d1;
+                    decided(EngineMetrics.Decision.RESOURCES, timer, event, cur);
+                    App.addToHand(game, cur, keep);
+                    game.deck.putBottom(keep == d1 ? d2 : d1);
+                }
+                game.out.printf("Player %d drew cards.%n", cur.getId());
+            } else {
+                // a single card left goes back; take gold instead
+                if (d1 != null) game.deck.putBottom(d1);
+                takeGold();
+            }
+        }
+        state = State.MAGICIAN;
+    }
+
+    private void takeGold() {
+        cur.addGold(2);
+        game.out.printf(cur.isHuman() ? "Player %d received 2 gold.%n"
+                : "Player %d took 2 gold.%n", cur.getId());
+        game.emit(GameEvent.Type.RESOURCE_TAKEN, cur, 0, 2, null, null);
+    }
+
+    private void resourceChoice(String choice) {
+        if ("gold".equals(choice)) {
+            takeGold();
+            state = State.MAGICIAN;
+            return;
+        }
+        if (!"cards".equals(choice)) {
+            game.out.print("Invalid choice. Type 'gold' or 'cards': ");
+            waiting = true;
+            return;
+        }
+        game.emit(GameEvent.Type.RESOURCE_TAKEN, cur, 0, 0, null, null);
+        int drawCount = cur.hasBuilt("Observatory") ? 3 : 2;
+        drawn = new ArrayList<>();
+        for (int i = 0; i < drawCount && !game.deck.isEmpty(); i++) {
+            drawn.add(game.deck.draw());
+        }
+
+        state = State.MAGICIAN;
+        if (drawn.isEmpty()) {
+            game.out.println("No cards could be drawn.");
+        } else if (drawn.size() == 1) {
+            // only one available
+            App.addToHand(game, cur, drawn.get(0));
+            game.out.printf("Only one card available — you drew %s.%n",
+                    drawn.get(0).displayShort());
+        } else if (cur.hasBuilt("Library")) {
+            // Library: keep all drawn
+            for (District c : drawn) App.addToHand(game, cur, c);
+            game.out.printf("Due to Library, you keep all %d cards: %s%n",
+                    drawn.size(),
+                    drawn.stream().map(District::displayShort)
+                            .collect(Collectors.joining(", ")));
+        } else {
+            // normal pick-one
+            game.out.println("You drew:");
+            for (int i = 0; i < drawn.size(); i++) {
+                game.out.printf("  %d. %s%n", i + 1, drawn.get(i).displayShort());
+            }
+            game.out.printf("Choose which to keep [1-%d]: ", drawn.size());
+            prompt(State.KEEP_CARD);
+        }
+    }
+
+    private void keepCard(String in) {
+        int sel = parseTarget(in);
+        if (sel < 1 || sel > drawn.size()) {
+            game.out.printf("Please enter a number 1–%d: ", drawn.size());
+            waiting = true;
+            return;
+        }
+        District keep = drawn.remove(sel - 1);
+        App.addToHand(game, cur, keep);
+        // return the rest to bottom of deck
+        for (District d : drawn) game.deck.putBottom(d);
+        drawn = null;
+        game.out.printf("You kept %s.%n", keep.displayShort());
+        state = State.MAGICIAN;
+    }
+
+    private void magician() {
+        state = State.LABORATORY;
+        if (r != 3) {
+            return;
+        }
+        if (cur.isHuman()) {
+            game.out.print("Use Magician ability? [yes/no]: ");
+            prompt(State.MAGICIAN_USE);
+            return;
+        }
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        int t = cur.getStrategy().magicianExchange(game, cur);
+        decided(EngineMetrics.Decision.MAGICIAN, timer, event, cur);
+        Player best = t >= 0 && t < game.players.size() ? game.players.get(t) : null;
+        if (best != null && best != cur) {
+            cur.swapHands(best);
+            game.out.printf("Player %d exchanged hands with Player %d.%n",
+                    cur.getId(), best.getId());
+        } else {
+            timer = EngineMetrics.start(game);
+            event = FlightEvents.decision();
+            long discard = cur.getStrategy().magicianDiscard(game, cur);
+            decided(EngineMetrics.Decision.MAGICIAN, timer, event, cur);
+            int cnt = 0;
+            for (int i = Math.min(cur.getHand().size(), Long.SIZE) - 1; i >= 0; i--) {
+                if ((discard & (1L << i)) != 0) {
+                    cur.getHand().remove(i);
+                    cnt++;
+                }
+            }
+            for (int i = 0; i < cnt; i++) App.drawCardForPlayer(game, cur);
+            if (cnt > 0) {
+                game.out.printf("Player %d refreshed %d cards.%n", cur.getId(), cnt);
+            }
+        }
+    }
+
+    private void magicianAction(String act) {
+        if (act.startsWith("exchange")) {
+            try {
+                int tid = Integer.parseInt(act.split("\\s+")[1]);
+                Player tp = game.players.get(tid - 1);
+                cur.swapHands(tp);
+                game.out.printf("Exchanged with Player %d.%n", tid);
+            } catch (Exception ignored) { }
+        } else if (act.startsWith("discard")) {
+            String[] ps = act.split("\\s+");
+            List<Integer> idxs = new ArrayList<>();
+            for (int i = 1; i < ps.length; i++) {
+                try { idxs.add(Integer.parseInt(ps[i]) - 1); }
+                catch (Exception ignored) { }
+            }
+            Collections.sort(idxs, Collections.reverseOrder());
+            int cnt = 0;
+            for (int i : idxs) {
+                if (i >= 0 && i < cur.getHand().size()) {
+                    cur.getHand().remove(i);
+                    cnt++;
+                }
+            }
+            for (int i = 0; i < cnt; i++) App.drawCardForPlayer(game, cur);
+            game.out.printf("Discarded %d, drew %d.%n", cnt, cnt);
+        }
+        state = State.LABORATORY;
+    }
+
+    // Laboratory: discard one card from hand for 1 gold, once per turn
+    private void laboratory() {
+        state = State.SMITHY;
+        if (!cur.hasBuilt("Laboratory")) {
+            return;
+        }
+        if (cur.isHuman()) {
+            game.out.print("Use Laboratory? Discard 1 card → gain 1 gold [yes/no]: ");
+            prompt(State.LABORATORY_USE);
+            return;
+        }
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        int idx = cur.getStrategy().laboratoryDiscard(game, cur);
+        decided(EngineMetrics.Decision.LABORATORY, timer, event, cur);
+        if (idx >= 0 && idx < cur.getHand().size()) {
+            District removed = cur.getHand().remove(idx);
+            cur.addGold(1);
+            game.out.printf("Player %d discards %s for 1 gold (Laboratory).%n",
+                    cur.getId(), removed.getName());
+        }
+    }
+
+    private void laboratoryCard(String in) {
+        int idx = parseTarget(in) - 1;
+        if (idx >= 0 && idx < cur.getHand().size()) {
+            District removed = cur.getHand().remove(idx);
+            cur.addGold(1);
+            game.out.printf("Discarded %s, gained 1 gold.%n", removed.getName());
+        } else {
+            game.out.println("Invalid index; skipping Laboratory.");
+        }
+        state = State.SMITHY;
+    }
+
+    // Smithy: pay 2 gold to draw 3 cards, once per turn
+    private void smithy() {
+        state = State.ARCHITECT;
+        if (!cur.hasBuilt("Smithy")) {
+            return;
+        }
+        if (cur.isHuman()) {
+            game.out.print("Use Smithy? Pay 2 gold → draw 3 cards [yes/no]: ");
+            prompt(State.SMITHY_USE);
+            return;
+        }
+        if (cur.getGold() < 2) {
+            return;
+        }
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        boolean use = cur.getStrategy().useSmithy(game, cur);
+        decided(EngineMetrics.Decision.SMITHY, timer, event, cur);
+        if (use) {
+            cur.spendGold(2);
+            for (int i = 0; i < 3 && !game.deck.isEmpty(); i++) {
+                App.addToHand(game, cur, game.deck.draw());
+            }
+            game.out.printf("Player %d uses Smithy to draw 3 cards.%n", cur.getId());
+        }
+    }
+
+    private void useSmithy() {
+        if (cur.spendGold(2)) {
+            List<District> cards = new ArrayList<>();
+            for (int i = 0; i < 3 && !game.deck.isEmpty(); i++) {
+                cards.add(game.deck.draw());
+            }
+            for (District c : cards) App.addToHand(game, cur, c);
+            game.out.printf("Smithy: drew %s%n",
+                    cards.stream().map(District::displayShort)
+                            .collect(Collectors.joining(", ")));
+        } else {
+            game.out.println("Not enough gold for Smithy.");
+        }
+    }
+
+    // Colour income for the King, Bishop, Merchant and Warlord
+    private void income() {
+        incomeColor = r == 4 ? "yellow"
+                : r == 5 ? "blue"
+                : r == 6 ? "green"
+                : r == 8 ? "red"
+                : null;
+        if (incomeColor == null) {
+            state = State.WARLORD;
+            return;
+        }
+        // School of Magic override
+        String schoolColor = null;
+        if (cur.hasBuilt("School of Magic")) {
+            if (cur.isHuman()) {
+                game.out.print("Choose School of Magic color for this income [yellow/blue/green/red]: ");
+                prompt(State.SCHOOL_COLOR);
+                return;
+            }
+            long timer = EngineMetrics.start(game);
+            FlightEvents.Decision event = FlightEvents.decision();
+            int c = cur.getStrategy().schoolOfMagicColor(game, cur, City.colorIndex(incomeColor));
+            decided(EngineMetrics.Decision.SCHOOL_OF_MAGIC, timer, event, cur);
+            schoolColor = c >= 0 && c < City.COLORS.length ? City.COLORS[c] : incomeColor;
+        }
+        collectIncome(schoolColor);
+    }
+
+    // Pays the colour income, then the crown and the Merchant's bonus
+    private void collectIncome(String schoolColor) {
+        String col = incomeColor;
+        int gain = cur.getCity().countColor(col);
+        if (col.equals(schoolColor)) {
+            gain += cur.getCity().countNamed("School of Magic");
+        }
+        if (gain > 0) {
+            cur.addGold(gain);
+            if (cur.isHuman())
+                game.out.printf("You received %d gold from your %s districts.%n", gain, col);
+            else
+                game.out.printf("Player %d received %d gold from their %s districts.%n",
+                        cur.getId(), gain, col);
+        }
+
+        if (r == 4) {
+            game.crownedPlayer = cur;
+            game.emit(GameEvent.Type.CROWN_PASSED, cur, 4, 0, null, null);
+        }
+        if (r == 6) {
+            cur.addGold(1);
+            game.out.println((cur.isHuman() ? "Merchant gains an extra 1 gold."
+                    : "Player " + cur.getId() + " gains an extra 1 gold (Merchant)."));
+        }
+        state = State.WARLORD;
+    }
+
+    // True if the Warlord may destroy in this player's city
+    private boolean destructible(Player tgt) {
+        return !tgt.getCity().isEmpty()
+                && tgt.getCity().size() < 8
+                && !(tgt.getCharacter() == 5 && game.killedCharacter != 5);
+    }
+
+    private void warlord() {
+        state = State.BUILD;
+        if (r != 8) {
+            return;
+        }
+        if (cur.isHuman()) {
+            game.out.print("Destroy a district? [player#/no]: ");
+            prompt(State.WARLORD_TARGET);
+            return;
+        }
+        CpuStrategy strategy = cur.getStrategy();
+        long timer = EngineMetrics.start(game);
+        FlightEvents.Decision event = FlightEvents.decision();
+        int tid = strategy.warlordTarget(game, cur);
+        decided(EngineMetrics.Decision.WARLORD, timer, event, cur);
+        Player tgt = tid >= 0 && tid < game.players.size() ? game.players.get(tid) : null;
+        if (tgt != null && destructible(tgt)) {
+            timer = EngineMetrics.start(game);
+            event = FlightEvents.decision();
+            int di = strategy.warlordDistrict(game, cur, tgt);
+            decided(EngineMetrics.Decision.WARLORD, timer, event, cur);
+            if (di >= 0 && di < tgt.getCity().size()) {
+                District td = tgt.getCity().get(di);
+                int cost = App.destroyCost(td, tgt.hasBuilt("Great Wall"));
+                if (cost <= cur.getGold()) {
+                    cur.spendGold(cost);
+                    tgt.getCity().remove(td);
+                    game.emit(GameEvent.Type.DISTRICT_DESTROYED, cur, 8, cost, td, tgt);
+                    game.out.printf("Player %d destroyed %s from Player %d.%n",
+                            cur.getId(), td.getName(), tgt.getId());
+                    offerGraveyard(tgt, td);
+                }
+            }
+        }
+    }
+
+    private void warlordTarget(String resp) {
+        state = State.BUILD;
+        if (resp.equals("no")) {
+            return;
+        }
+        String numStr = resp.replaceAll("\\D+", "");
+        if (numStr.isEmpty()) {
+            game.out.println("Invalid input. Please enter a player number or 'no'.");
+            return;
+        }
+        int tid = numStr.length() > 9 ? -1 : Integer.parseInt(numStr);
+        if (tid < 1 || tid > game.players.size()) {
+            game.out.printf("Invalid player number: %s%n", numStr);
+            return;
+        }
+        Player tgt = game.players.get(tid - 1);
+        if (!destructible(tgt)) {
+            game.out.println("Cannot destroy that city.");
+            return;
+        }
+        for (int i = 0; i < tgt.getCity().size(); i++) {
+            game.out.printf("%d. %s%n", i + 1, tgt.getCity().get(i).displayLong(true));
+        }
+        game.out.printf("Choose [1-%d / 0 to cancel]: ", tgt.getCity().size());
+        target = tgt;
+        prompt(State.WARLORD_DISTRICT);
+    }
+
+    private void warlordDistrict(String in) {
+        Player tgt = target;
+        target = null;
+        state = State.BUILD;
+        String choiceNum = in.replaceAll("\\D+", "");
+        int choice = choiceNum.isEmpty() || choiceNum.length() > 9 ? 0 : Integer.parseInt(choiceNum);
+        if (choice < 1 || choice > tgt.getCity().size()) {
+            return;
+        }
+        District td = tgt.getCity().get(choice - 1);
+        int cost = App.destroyCost(td, tgt.hasBuilt("Great Wall"));
+        if (cost <= cur.getGold()) {
+            cur.spendGold(cost);
+            tgt.getCity().remove(td);
+            game.emit(GameEvent.Type.DISTRICT_DESTROYED, cur, 8, cost, td, tgt);
+            game.out.printf("Destroyed %s from Player %d.%n", td.getName(), tgt.getId());
+            offerGraveyard(tgt, td);
+        } else {
+            game.out.printf("Not enough gold to destroy %s%n", td.getName());
+        }
+    }
+
+    // The owner of a destroyed district may take it back into their hand
+    // for 1 gold if they have the Graveyard; a human owner is asked, a CPU
+    // owner's strategy decides
+    private void offerGraveyard(Player tgt, District td) {
+        state = State.BUILD;
+        if (!tgt.hasBuilt("Graveyard") || tgt.getGold() <= 0) {
+            return;
+        }
+        owner = tgt;
+        destroyed = td;
+        if (tgt.isHuman()) {
+            game.out.print("Recover with Graveyard? [yes/no]: ");
+            prompt(State.GRAVEYARD);
+        } else {
+            long timer = EngineMetrics.start(game);
+            FlightEvents.Decision event = FlightEvents.decision();
+            boolean recovers = tgt.getStrategy().recoverWithGraveyard(game, tgt, td);
+            decided(EngineMetrics.Decision.GRAVEYARD, timer, event, tgt);
+            if (recovers) {
+                recover();
+            }
+        }
+    }
+
+    private void recover() {
+        owner.spendGold(1);
+        owner.getHand().add(destroyed);
+        game.out.printf("Recovered %s into Player %d's hand.%n",
+                destroyed.getName(), owner.getId());
+        owner = null;
+        destroyed = null;
+    }
+
+    private void build() {
+        limit = r == 7 ? 3 : 1;
+        built = 0;
+        if (cur.isHuman()) {
+            game.out.print("> ");
+            prompt(State.BUILD_COMMAND);
+            return;
+        }
+        for (int b = 0; b < limit; b++) {
+            long timer = EngineMetrics.start(game);
+            FlightEvents.Decision event = FlightEvents.decision();
+            int idx = cur.getStrategy().buildChoice(game, cur);
+            decided(EngineMetrics.Decision.BUILD, timer, event, cur);
+            District best = idx >= 0 && idx < cur.getHand().size()
+                    ? cur.getHand().get(idx) : null;
+            if (best == null || best.getCost() > cur.getGold()
+                    || cur.hasBuilt(best.getName())) {
+                break;
+            }
+            cur.spendGold(best.getCost());
+            cur.getHand().remove(idx);
+            buildDistrict(best);
+            game.out.printf("Player %d built %s.%n", cur.getId(), best.getName());
+        }
+        state = State.END_TURN;
+    }
+
+    // Adds a paid-for district to the current player's city, ending the
+    // game once the city is complete
+    private void buildDistrict(District d) {
+        cur.getCity().add(d);
+        game.emit(GameEvent.Type.DISTRICT_BUILT, cur, cur.getCharacter(), d.getCost(), d, null);
+        built++;
+        if (cur.getCity().size() >= 8 && !game.gameEndTriggered) {
+            game.gameEndTriggered = true;
+            if (game.firstCompleter == null) {
+                game.firstCompleter = cur;
+                cur.setFirstCompleter(true);
+            }
+        }
+    }
+
+    private void buildCommand(String cmd) {
+        if (cmd.equalsIgnoreCase("end")) {
+            game.out.println("You ended your turn.");
+            state = State.END_TURN;
+            return;
+        }
+        if (!App.processCommand(game, cur, cmd)) {
+            if (cmd.startsWith("build ")) {
+                buildFromHand(cmd);
+            } else {
+                game.out.println("Unknown command.");
+            }
+        }
+        game.out.print("> ");
+        waiting = true;
+    }
+
+    private void buildFromHand(String cmd) {
+        if (built >= limit) {
+            game.out.println("No builds remaining.");
+            return;
+        }
+        String[] ps = cmd.split("\\s+");
+        if (ps.length < 2) {
+            return;
+        }
+        int hi;
+        try {
+            hi = Integer.parseInt(ps[1]) - 1;
+        } catch (NumberFormatException e) {
+            game.out.println("Usage: build <hand index>");
+            return;
+        }
+        District d = (hi >= 0 && hi < cur.getHand().size()) ? cur.getHand().get(hi) : null;
+        if (d == null) {
+            game.out.println("Invalid selection.");
+        } else if (d.getCost() > cur.getGold()) {
+            game.out.println("Not enough gold.");
+        } else if (cur.hasBuilt(d.getName())) {
+            game.out.println("Already built that district.");
+        } else {
+            cur.spendGold(d.getCost());
+            cur.getHand().remove(hi);
+            buildDistrict(d);
+            game.out.printf("Built %s%n", d.displayShort());
+            if (built >= limit) {
+                game.out.println("Build limit reached.");
+            }
+        }
+    }
+}
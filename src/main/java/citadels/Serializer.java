@@ -1,169 +1,287 @@
 // File: src/main/java/citadels/Serializer.java
 package citadels;
 
-import java.io.FileReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 /**
  * Provides JSON serialization and deserialization of the Citadels game
- * state (players, deck, crown holder, flags).
+ * state (players, deck, crown holder, flags). JSON is written and read
+ * token by token, without building a document tree; the output is the
+ * same, byte for byte, as json-simple's {@code toJSONString()} of the
+ * equivalent objects (including its hash-order keys). Files named with
+ * {@link BinarySerializer#EXTENSION} are saved in the compact binary
+ * format instead, and binary saves are recognised by their header when
+ * loading, whatever their name.
  */
 public class Serializer {
+    // Buffer size for save files
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // JSON object text of each catalog card, indexed by card ID
+    private static final String[] CARD_JSON = catalogJson();
 
     /**
      * Serializes the entire game state (all players, deck, crown, flags)
-     * to the given file in JSON format.
+     * to the given file in JSON format, or in the binary format if the
+     * file name ends with {@link BinarySerializer#EXTENSION}.
      *
+     * @param game     the game state to save
      * @param filename path of the file to write
      * @throws IOException if an I/O error occurs while writing
      */
-    @SuppressWarnings("unchecked")
-    public static void saveGame(String filename) throws IOException {
-        JSONObject root = new JSONObject();
-
-        // Serialize players
-        JSONArray playersArray = new JSONArray();
-        for (Player p : App.players) {
-            JSONObject pObj = new JSONObject();
-            pObj.put("id", p.getId());
-            pObj.put("isHuman", p.isHuman());
-            pObj.put("gold", p.getGold());
-            pObj.put("character", p.getCharacter());
-
-            // Serialize hand cards
-            JSONArray handArr = new JSONArray();
-            for (District d : p.getHand()) {
-                JSONObject dObj = new JSONObject();
-                dObj.put("name", d.getName());
-                dObj.put("color", d.getColor());
-                dObj.put("cost", d.getCost());
-                dObj.put("description", d.getDescription());
-                handArr.add(dObj);
-            }
-            pObj.put("hand", handArr);
-
-            // Serialize built city districts
-            JSONArray cityArr = new JSONArray();
-            for (District d : p.getCity()) {
-                JSONObject dObj = new JSONObject();
-                dObj.put("name", d.getName());
-                dObj.put("color", d.getColor());
-                dObj.put("cost", d.getCost());
-                dObj.put("description", d.getDescription());
-                cityArr.add(dObj);
+    public static void saveGame(GameState game, String filename) throws IOException {
+        long timer = EngineMetrics.start();
+        FlightEvents.Save event = new FlightEvents.Save();
+        event.begin();
+        if (BinarySerializer.isBinaryName(filename)) {
+            BinarySerializer.saveGame(game, filename);
+            EngineMetrics.saved(timer);
+            event.file = filename;
+            event.finish(game, null);
+            return;
+        }
+        try (JsonWriter w = new JsonWriter(
+                new BufferedWriter(new FileWriter(filename), BUFFER_SIZE))) {
+            // Keys are written in the order json-simple's HashMap yields them
+            w.beginObject();
+
+            // Serialize players
+            w.name("players").beginArray();
+            for (Player p : game.players) {
+                w.beginObject();
+                w.name("gold").value(p.getGold());
+                w.name("character").value(p.getCharacter());
+                w.name("city");
+                writeCards(w, p.getCity());
+                w.name("isHuman").value(p.isHuman());
+                w.name("id").value(p.getId());
+                w.name("hand");
+                writeCards(w, p.getHand());
+                w.endObject();
             }
-            pObj.put("city", cityArr);
+            w.endArray();
 
-            playersArray.add(pObj);
-        }
-        root.put("players", playersArray);
-
-        // Serialize deck
-        JSONArray deckArr = new JSONArray();
-        for (District d : App.deck) {
-            JSONObject dObj = new JSONObject();
-            dObj.put("name", d.getName());
-            dObj.put("color", d.getColor());
-            dObj.put("cost", d.getCost());
-            dObj.put("description", d.getDescription());
-            deckArr.add(dObj);
-        }
-        root.put("deck", deckArr);
-
-        // Serialize crown holder and game flags
-        root.put("crown", App.crownedPlayer.getId());
-        root.put("firstCompleter",
-                App.firstCompleter == null ? null : App.firstCompleter.getId());
-        root.put("gameEndTriggered", App.gameEndTriggered);
-        root.put("debugMode", App.debugMode);
-
-        // Write JSON to file
-        try (FileWriter fw = new FileWriter(filename)) {
-            fw.write(root.toJSONString());
-            System.out.println("Game saved to " + filename);
+            // Serialize deck
+            w.name("deck");
+            writeCards(w, game.deck);
+
+            // Serialize crown holder and game flags
+            w.name("firstCompleter").value(
+                    game.firstCompleter == null ? null : game.firstCompleter.getId());
+            w.name("debugMode").value(game.debugMode);
+            w.name("crown").value(
+                    game.crownedPlayer == null ? null : game.crownedPlayer.getId());
+            w.name("gameEndTriggered").value(game.gameEndTriggered);
+            w.endObject();
         }
+        EngineMetrics.saved(timer);
+        event.file = filename;
+        event.finish(game, null);
+        game.out.printf("Game saved to %s%n", filename);
     }
 
     /**
-     * Reads a saved game state from the given JSON file and restores
-     * all players, deck, crown holder, and flags into App’s static fields.
+     * Reads a saved game state from the given file, JSON or binary, and
+     * restores all players, deck, crown holder, and flags into the given
+     * game state. Cards that match the district catalog are restored as its
+     * shared instances. The game state is only changed once the whole file
+     * has been read successfully. Saves do not record the round, so the
+     * game's round count starts again from 0.
      *
+     * @param game     the game state to restore into
      * @param filename path of the file to read
      * @throws IOException     if an I/O error occurs while reading
      * @throws ParseException  if the JSON is malformed
      */
-    @SuppressWarnings("unchecked")
-    public static void loadGame(String filename)
+    public static void loadGame(GameState game, String filename)
             throws IOException, ParseException {
-        JSONParser parser = new JSONParser();
-        try (FileReader fr = new FileReader(filename)) {
-            JSONObject root = (JSONObject) parser.parse(fr);
-
-            // Rebuild players from JSON
-            App.players.clear();
-            Map<Long, Player> idMap = new HashMap<>();
-            JSONArray playersArray = (JSONArray) root.get("players");
-            for (Object o : playersArray) {
-                JSONObject pObj = (JSONObject) o;
-                long id       = (Long) pObj.get("id");
-                boolean human = (Boolean) pObj.get("isHuman");
-                Player p      = new Player((int) id, human);
-                p.addGold(((Long) pObj.get("gold")).intValue());
-                p.setCharacter(((Long) pObj.get("character")).intValue());
-
-                // Rebuild hand
-                for (Object ho : (JSONArray) pObj.get("hand")) {
-                    JSONObject dObj = (JSONObject) ho;
-                    p.addCardToHand(new District(
-                            (String) dObj.get("name"),
-                            (String) dObj.get("color"),
-                            ((Long) dObj.get("cost")).intValue(),
-                            (String) dObj.get("description")));
+        long timer = EngineMetrics.start();
+        FlightEvents.Load event = new FlightEvents.Load();
+        event.begin();
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(filename))) {
+            if (BinarySerializer.hasMagic(in)) {
+                try {
+                    BinarySerializer.read(game, new DataInputStream(in));
+                } catch (EOFException e) {
+                    throw new IOException("Truncated save file: " + filename, e);
                 }
+            } else {
+                readJson(game, new JsonReader(new InputStreamReader(in)));
+            }
+        }
+        game.round = 0;
+        EngineMetrics.loaded(timer);
+        event.file = filename;
+        event.finish(game, null);
+        game.out.printf("Game loaded from %s%n", filename);
+    }
+
+    // Reads a whole JSON save, then applies it to the game
+    private static void readJson(GameState game, JsonReader r)
+            throws IOException, ParseException {
+        List<Player> players = new ArrayList<>();
+        List<District> deck = new ArrayList<>();
+        Integer crown = null;
+        Integer firstCompleter = null;
+        boolean gameEndTriggered = false;
+        boolean debugMode = false;
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "players":
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        players.add(readPlayer(r));
+                    }
+                    r.endArray();
+                    break;
+                case "deck":
+                    readCards(r, deck);
+                    break;
+                case "crown":
+                    crown = r.nextNull() ? null : r.nextInt();
+                    break;
+                case "firstCompleter":
+                    firstCompleter = r.nextNull() ? null : r.nextInt();
+                    break;
+                case "gameEndTriggered":
+                    gameEndTriggered = r.nextBoolean();
+                    break;
+                case "debugMode":
+                    debugMode = r.nextBoolean();
+                    break;
+                default:
+                    r.skipValue();
+            }
+        }
+        r.endObject();
+        r.endDocument();
+
+        // Rebuild players and deck
+        game.players.clear();
+        game.players.addAll(players);
+        game.deck.clear();
+        game.deck.addAll(deck);
+
+        // Restore crown holder and game flags
+        game.crownedPlayer = findPlayer(players, crown);
+        game.firstCompleter = findPlayer(players, firstCompleter);
+        if (game.firstCompleter != null) {
+            game.firstCompleter.setFirstCompleter(true);
+        }
+        game.gameEndTriggered = gameEndTriggered;
+        game.debugMode = debugMode;
+    }
 
-                // Rebuild city
-                for (Object co : (JSONArray) pObj.get("city")) {
-                    JSONObject dObj = (JSONObject) co;
-                    p.getCity().add(new District(
-                            (String) dObj.get("name"),
-                            (String) dObj.get("color"),
-                            ((Long) dObj.get("cost")).intValue(),
-                            (String) dObj.get("description")));
+    private static Player readPlayer(JsonReader r) throws IOException, ParseException {
+        int id = 0;
+        boolean human = false;
+        int gold = 0;
+        int character = 0;
+        List<District> hand = new ArrayList<>();
+        List<District> city = new ArrayList<>();
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "id":        id = r.nextInt(); break;
+                case "isHuman":   human = r.nextBoolean(); break;
+                case "gold":      gold = r.nextInt(); break;
+                case "character": character = r.nextInt(); break;
+                case "hand":      readCards(r, hand); break;
+                case "city":      readCards(r, city); break;
+                default:          r.skipValue();
+            }
+        }
+        r.endObject();
+
+        Player p = new Player(id, human);
+        p.addGold(gold);
+        p.setCharacter(character);
+        p.getHand().addAll(hand);
+        p.getCity().addAll(city);
+        return p;
+    }
+
+    private static void readCards(JsonReader r, List<District> into)
+            throws IOException, ParseException {
+        DistrictCatalog catalog = DistrictCatalog.get();
+        r.beginArray();
+        while (r.hasNext()) {
+            String name = null;
+            String color = null;
+            int cost = 0;
+            String description = "";
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "name":        name = r.nextString(); break;
+                    case "color":       color = r.nextString(); break;
+                    case "cost":        cost = r.nextInt(); break;
+                    case "description": description = r.nextString(); break;
+                    default:            r.skipValue();
                 }
+            }
+            r.endObject();
+            if (name == null || color == null) {
+                throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN);
+            }
+            into.add(catalog.intern(name, color, cost, description));
+        }
+        r.endArray();
+    }
 
-                App.players.add(p);
-                idMap.put(id, p);
+    private static Player findPlayer(List<Player> players, Integer id) {
+        if (id != null) {
+            for (Player p : players) {
+                if (p.getId() == id) {
+                    return p;
+                }
             }
+        }
+        return null;
+    }
 
-            // Rebuild deck from JSON
-            App.deck.clear();
-            for (Object o : (JSONArray) root.get("deck")) {
-                JSONObject dObj = (JSONObject) o;
-                App.deck.add(new District(
-                        (String) dObj.get("name"),
-                        (String) dObj.get("color"),
-                        ((Long) dObj.get("cost")).intValue(),
-                        (String) dObj.get("description")));
+    private static void writeCards(JsonWriter w, Collection<District> cards)
+            throws IOException {
+        w.beginArray();
+        for (District d : cards) {
+            int id = d.getId();
+            if (id >= 0 && DistrictCatalog.get().byId(id) == d) {
+                w.rawValue(CARD_JSON[id]);
+            } else {
+                w.rawValue(cardJson(d));
             }
+        }
+        w.endArray();
+    }
 
-            // Restore crown holder and game flags
-            long crownId = (Long) root.get("crown");
-            App.crownedPlayer    = idMap.get(crownId);
-            App.firstCompleter   = root.get("firstCompleter") == null
-                    ? null
-                    : idMap.get((Long) root.get("firstCompleter"));
-            App.gameEndTriggered = (Boolean) root.get("gameEndTriggered");
-            App.debugMode        = (Boolean) root.get("debugMode");
+    // One card as a JSON object, keys in json-simple's order
+    private static String cardJson(District d) {
+        return "{\"cost\":" + d.getCost()
+                + ",\"color\":" + JsonWriter.quote(d.getColor())
+                + ",\"name\":" + JsonWriter.quote(d.getName())
+                + ",\"description\":" + JsonWriter.quote(d.getDescription())
+                + "}";
+    }
 
-            System.out.println("Game loaded from " + filename);
+    private static String[] catalogJson() {
+        DistrictCatalog catalog = DistrictCatalog.get();
+        String[] json = new String[catalog.size()];
+        for (int id = 0; id < json.length; id++) {
+            json[id] = cardJson(catalog.byId(id));
         }
+        return json;
     }
 }
@@ -0,0 +1,198 @@
+// File: src/main/java/citadels/SimulationResult.java
+package citadels;
+
+/**
+ * Aggregate outcome of a batch of simulated games: how many finished, how
+ * long they took, and win counts and total scores per seat. Seats are the
+ * player IDs 1..n. Instances are not thread-safe; each worker fills its own
+ * and they are combined with {@link #merge(SimulationResult)}.
+ */
+public class SimulationResult {
+    // Number of players at every table in the batch
+    private final int numPlayers;
+    // Games that ended with a completed city
+    private long completedGames;
+    // Games stopped at the round cap
+    private long unfinishedGames;
+    // Rounds played across all games
+    private long totalRounds;
+    // Wins per seat, indexed by player ID (1-based)
+    private final long[] wins;
+    // Sum of final scores per seat, indexed by player ID (1-based)
+    private final long[] scoreSums;
+    // Wall-clock time the batch took
+    private long elapsedNanos;
+
+    /**
+     * Creates an empty result for tables of the given size.
+     *
+     * @param numPlayers number of players per game
+     */
+    public SimulationResult(int numPlayers) {
+        this.numPlayers = numPlayers;
+        this.wins = new long[numPlayers + 1];
+        this.scoreSums = new long[numPlayers + 1];
+    }
+
+    /**
+     * Records a game that ended normally.
+     *
+     * @param rounds   number of rounds played
+     * @param winnerId ID of the winning player
+     * @param scores   final score of each player, in seat order
+     */
+    void recordCompleted(int rounds, int winnerId, int[] scores) {
+        completedGames++;
+        totalRounds += rounds;
+        wins[winnerId]++;
+        for (int i = 0; i < scores.length; i++) {
+            scoreSums[i + 1] += scores[i];
+        }
+    }
+
+    /**
+     * Records a game that was stopped at the round cap.
+     *
+     * @param rounds number of rounds played
+     */
+    void recordUnfinished(int rounds) {
+        unfinishedGames++;
+        totalRounds += rounds;
+    }
+
+    /**
+     * Adds another result's counts into this one.
+     *
+     * @param other result to merge in
+     * @return this result
+     */
+    SimulationResult merge(SimulationResult other) {
+        completedGames += other.completedGames;
+        unfinishedGames += other.unfinishedGames;
+        totalRounds += other.totalRounds;
+        for (int i = 1; i <= numPlayers; i++) {
+            wins[i] += other.wins[i];
+            scoreSums[i] += other.scoreSums[i];
+        }
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of players per game.
+     *
+     * @return players per game
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the total number of games played.
+     *
+     * @return completed plus unfinished games
+     */
+    public long getGames() {
+        return completedGames + unfinishedGames;
+    }
+
+    /**
+     * Returns the number of games that ended with a completed city.
+     *
+     * @return completed games
+     */
+    public long getCompletedGames() {
+        return completedGames;
+    }
+
+    /**
+     * Returns the number of games stopped at the round cap.
+     *
+     * @return unfinished games
+     */
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    /**
+     * Returns the number of wins for a seat.
+     *
+     * @param playerId seat (player ID, 1-based)
+     * @return wins for that seat
+     */
+    public long getWins(int playerId) {
+        return wins[playerId];
+    }
+
+    /**
+     * Returns the fraction of completed games won by a seat.
+     *
+     * @param playerId seat (player ID, 1-based)
+     * @return win rate between 0 and 1
+     */
+    public double getWinRate(int playerId) {
+        return completedGames == 0 ? 0 : (double) wins[playerId] / completedGames;
+    }
+
+    /**
+     * Returns a seat's mean final score over completed games.
+     *
+     * @param playerId seat (player ID, 1-based)
+     * @return mean score
+     */
+    public double getMeanScore(int playerId) {
+        return completedGames == 0 ? 0 : (double) scoreSums[playerId] / completedGames;
+    }
+
+    /**
+     * Returns the mean number of rounds per game.
+     *
+     * @return mean rounds
+     */
+    public double getMeanRounds() {
+        long games = getGames();
+        return games == 0 ? 0 : (double) totalRounds / games;
+    }
+
+    /**
+     * Returns how long the batch took.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the batch throughput.
+     *
+     * @return games played per minute of wall-clock time
+     */
+    public double getGamesPerMinute() {
+        return elapsedNanos == 0 ? 0 : getGames() * 60e9 / elapsedNanos;
+    }
+
+    /**
+     * Builds a human-readable summary of the batch.
+     *
+     * @return multi-line report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Simulated ").append(getGames()).append(" games with ")
+                .append(numPlayers).append(" CPU players\n");
+        sb.append(String.format("  Completed: %d, unfinished: %d%n",
+                completedGames, unfinishedGames));
+        sb.append(String.format("  Mean rounds per game: %.2f%n", getMeanRounds()));
+        for (int i = 1; i <= numPlayers; i++) {
+            sb.append(String.format("  Player %d: win rate %.2f%%, mean score %.2f%n",
+                    i, getWinRate(i) * 100, getMeanScore(i)));
+        }
+        sb.append(String.format("  Time: %.2f s (%.0f games/min)%n",
+                elapsedNanos / 1e9, getGamesPerMinute()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,149 @@
+// File: src/main/java/citadels/Simulator.java
+package citadels;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays batches of all-CPU games headlessly across every core and collects
+ * aggregate results. Each game gets its own {@link GameState} with a seed
+ * derived from the batch seed and the game's index, so a batch is
+ * reproducible no matter how the fork-join pool splits it.
+ */
+public final class Simulator {
+    /**
+     * Safety cap on rounds per game; games that hit it are counted as
+     * unfinished instead of looping forever.
+     */
+    public static final int MAX_ROUNDS = 200;
+
+    // Games played sequentially by one task before it stops splitting
+    private static final int BATCH_THRESHOLD = 64;
+
+    private Simulator() {
+    }
+
+    /**
+     * Runs a batch of all-CPU games on the common fork-join pool.
+     *
+     * @param numPlayers players per game (4-7)
+     * @param games      number of games to play
+     * @param seed       batch seed
+     * @return aggregate results of the batch
+     * @throws IllegalArgumentException if the player or game count is invalid
+     */
+    public static SimulationResult run(int numPlayers, int games, long seed) {
+        return run(numPlayers, games, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs a batch of all-CPU games on the given fork-join pool.
+     *
+     * @param numPlayers players per game (4-7)
+     * @param games      number of games to play
+     * @param seed       batch seed
+     * @param pool       pool to run the games on
+     * @return aggregate results of the batch
+     * @throws IllegalArgumentException if the player or game count is invalid
+     */
+    public static SimulationResult run(int numPlayers, int games, long seed,
+                                       ForkJoinPool pool) {
+        if (numPlayers < 4 || numPlayers > 7) {
+            throw new IllegalArgumentException(
+                    "player count must be 4-7, got " + numPlayers);
+        }
+        if (games < 0) {
+            throw new IllegalArgumentException(
+                    "game count must not be negative, got " + games);
+        }
+        long start = System.nanoTime();
+        SimulationResult result = pool.invoke(
+                new Batch(numPlayers, seed, 0, games));
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Plays a single all-CPU game to completion (or the round cap) and adds
+     * its outcome to the given result.
+     *
+     * @param numPlayers players in the game
+     * @param gameSeed   seed for this game
+     * @param result     accumulator to record the outcome in
+     */
+    static void playOne(int numPlayers, long gameSeed, SimulationResult result) {
+        GameState game = GameState.headless(gameSeed);
+        App.setupGame(game, numPlayers, false);
+
+        int rounds = 0;
+        while (!game.gameEndTriggered && rounds < MAX_ROUNDS) {
+            App.playRound(game);
+            rounds++;
+        }
+        if (!game.gameEndTriggered) {
+            result.recordUnfinished(rounds);
+            return;
+        }
+
+        Player winner = App.scoreAndDeclareWinner(game);
+        int[] scores = new int[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            Player p = game.players.get(i);
+            scores[i] = p.getScore();
+        }
+        result.recordCompleted(rounds, winner.getId(), scores);
+    }
+
+    /**
+     * Derives the seed of one game from the batch seed and the game index.
+     *
+     * @param seed  batch seed
+     * @param index game index within the batch
+     * @return seed for that game
+     */
+    static long gameSeed(long seed, int index) {
+        // MurmurHash3 finalizer, so neighbouring indexes get unrelated seeds
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Fork-join task playing games {@code [from, to)} of a batch. Every task
+     * accumulates into its own result, which are merged on join, so workers
+     * never contend on shared counters.
+     */
+    private static final class Batch extends RecursiveTask<SimulationResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final int numPlayers;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        Batch(int numPlayers, long seed, int from, int to) {
+            this.numPlayers = numPlayers;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                SimulationResult result = new SimulationResult(numPlayers);
+                for (int i = from; i < to; i++) {
+                    playOne(numPlayers, gameSeed(seed, i), result);
+                }
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(numPlayers, seed, from, mid);
+            left.fork();
+            SimulationResult right =
+                    new Batch(numPlayers, seed, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+// File: src/main/java/citadels/Tournament.java
+package citadels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Round-robin tournament between CPU strategies. Every seating of the
+ * strategies at the table is played the same number of times, so no
+ * strategy gains from its seat or from its opponents: with at least as
+ * many strategies as seats, every ordered choice of distinct strategies;
+ * with fewer, every seating in which each strategy takes at least one
+ * seat.
+ *
+ * <p>Games are played headlessly across every core like a
+ * {@link Simulator} batch. Game {@code i} uses seating
+ * {@code i / gamesPerSeating} and the seed {@link Simulator#gameSeed}
+ * derives from the tournament seed, so results do not depend on how the
+ * fork-join pool splits the work. Each task counts into its own
+ * {@link TournamentResult}, merged on join, so workers never contend on
+ * shared counters.</p>
+ */
+public final class Tournament {
+    /** Most strategies one tournament can seat. */
+    public static final int MAX_ENTRANTS = 8;
+
+    // Games played sequentially by one task before it stops splitting
+    private static final int BATCH_THRESHOLD = 64;
+
+    /**
+     * A strategy taking part in a tournament. Each seat of each game gets
+     * its own strategy from the factory, which is closed after the game if
+     * it is {@link AutoCloseable}, so strategies need not be thread-safe.
+     */
+    public static final class Entrant {
+        private final String name;
+        private final LongFunction<CpuStrategy> factory;
+
+        /**
+         * Creates an entrant.
+         *
+         * @param name    name shown in the report
+         * @param factory creates the strategy for one seat, given a seed
+         */
+        public Entrant(String name, LongFunction<CpuStrategy> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        /**
+         * Parses a command-line strategy: {@code heuristic}, or
+         * {@code mcts:<ms>} for a single-threaded search player with the
+         * given budget per decision.
+         *
+         * @param spec the strategy's name and settings
+         * @return the entrant
+         * @throws IllegalArgumentException if the strategy is unknown
+         */
+        public static Entrant parse(String spec) {
+            String s = spec.trim().toLowerCase();
+            if (s.equals("heuristic")) {
+                return new Entrant(s, seed -> HeuristicStrategy.INSTANCE);
+            }
+            if (s.startsWith("mcts:")) {
+                long budget = Long.parseLong(s.substring(5));
+                if (budget <= 0) {
+                    throw new IllegalArgumentException("search budget must be positive: " + spec);
+                }
+                return new Entrant(s, seed -> new MctsStrategy(budget, 1, seed));
+            }
+            throw new IllegalArgumentException("unknown strategy: " + spec);
+        }
+
+        /**
+         * Returns the name shown in the report.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    private Tournament() {
+    }
+
+    /**
+     * Runs a tournament on the common fork-join pool.
+     *
+     * @param entrants         the strategies
+     * @param numPlayers       players per game (4-7)
+     * @param gamesPerSeating  games played for each seating
+     * @param seed             tournament seed
+     * @return aggregate results
+     * @throws IllegalArgumentException if a count is invalid
+     */
+    public static TournamentResult run(List<Entrant> entrants, int numPlayers,
+                                       int gamesPerSeating, long seed) {
+        return run(entrants, numPlayers, gamesPerSeating, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs a tournament on the given fork-join pool.
+     *
+     * @param entrants         the strategies
+     * @param numPlayers       players per game (4-7)
+     * @param gamesPerSeating  games played for each seating
+     * @param seed             tournament seed
+     * @param pool             pool to run the games on
+     * @return aggregate results
+     * @throws IllegalArgumentException if a count is invalid
+     */
+    public static TournamentResult run(List<Entrant> entrants, int numPlayers,
+                                       int gamesPerSeating, long seed, ForkJoinPool pool) {
+        if (numPlayers < 4 || numPlayers > 7) {
+            throw new IllegalArgumentException(
+                    "player count must be 4-7, got " + numPlayers);
+        }
+        if (entrants.isEmpty() || entrants.size() > MAX_ENTRANTS) {
+            throw new IllegalArgumentException(
+                    "need 1-" + MAX_ENTRANTS + " strategies, got " + entrants.size());
+        }
+        if (gamesPerSeating < 0) {
+            throw new IllegalArgumentException(
+                    "game count must not be negative, got " + gamesPerSeating);
+        }
+        List<int[]> seatings = seatings(entrants.size(), numPlayers);
+        long games = (long) seatings.size() * gamesPerSeating;
+        if (games > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many games: " + games);
+        }
+        List<String> names = new ArrayList<>();
+        for (Entrant e : entrants) {
+            names.add(e.getName());
+        }
+
+        long start = System.nanoTime();
+        TournamentResult result = pool.invoke(new Batch(new Plan(names, entrants, seatings,
+                numPlayers, gamesPerSeating, seed), 0, (int) games));
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Lists the seatings of a tournament: entrant index per seat.
+     *
+     * @param entrants number of strategies
+     * @param seats    players per game
+     * @return every seating, in lexicographic order
+     */
+    static List<int[]> seatings(int entrants, int seats) {
+        int all = (1 << entrants) - 1;
+        List<int[]> seatings = new ArrayList<>();
+        int[] seating = new int[seats];
+        while (true) {
+            int used = 0;
+            boolean repeats = false;
+            for (int e : seating) {
+                repeats |= (used & (1 << e)) != 0;
+                used |= 1 << e;
+            }
+            if (entrants >= seats ? !repeats : used == all) {
+                seatings.add(seating.clone());
+            }
+            // next seating, counting in base entrants
+            int i = seats - 1;
+            while (i >= 0 && ++seating[i] == entrants) {
+                seating[i--] = 0;
+            }
+            if (i < 0) {
+                return seatings;
+            }
+        }
+    }
+
+    /**
+     * Plays one game of a tournament and adds its outcome to the result.
+     *
+     * @param plan    the tournament
+     * @param index   game index
+     * @param result  accumulator to record the outcome in
+     */
+    private static void playOne(Plan plan, int index, TournamentResult result) {
+        int[] seating = plan.seatings.get(index / plan.gamesPerSeating);
+        GameState game = GameState.headless(Simulator.gameSeed(plan.seed, index));
+        App.setupGame(game, plan.numPlayers, false);
+        CpuStrategy[] strategies = new CpuStrategy[plan.numPlayers];
+        try {
+            for (int seat = 0; seat < plan.numPlayers; seat++) {
+                strategies[seat] = plan.entrants.get(seating[seat]).factory
+                        .apply(game.random.nextSeed());
+                game.players.get(seat).setStrategy(strategies[seat]);
+            }
+
+            int rounds = 0;
+            while (!game.gameEndTriggered && rounds < Simulator.MAX_ROUNDS) {
+                App.playRound(game);
+                rounds++;
+            }
+            if (!game.gameEndTriggered) {
+                result.recordUnfinished(rounds);
+                return;
+            }
+
+            Player winner = App.scoreAndDeclareWinner(game);
+            int[] scores = new int[plan.numPlayers];
+            for (int i = 0; i < plan.numPlayers; i++) {
+                scores[i] = game.players.get(i).getScore();
+            }
+            result.recordCompleted(rounds, seating, game.players.indexOf(winner), scores);
+        } finally {
+            for (CpuStrategy s : strategies) {
+                if (s instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) s).close();
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Could not close strategy", e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Everything the games of one tournament share; read-only once built.
+     */
+    private static final class Plan {
+        final List<String> names;
+        final List<Entrant> entrants;
+        final List<int[]> seatings;
+        final int numPlayers;
+        final int gamesPerSeating;
+        final long seed;
+
+        Plan(List<String> names, List<Entrant> entrants, List<int[]> seatings,
+             int numPlayers, int gamesPerSeating, long seed) {
+            this.names = names;
+            this.entrants = entrants;
+            this.seatings = seatings;
+            this.numPlayers = numPlayers;
+            this.gamesPerSeating = gamesPerSeating;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Fork-join task playing games {@code [from, to)} of a tournament.
+     */
+    private static final class Batch extends RecursiveTask<TournamentResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final Plan plan;
+        private final int from;
+        private final int to;
+
+        Batch(Plan plan, int from, int to) {
+            this.plan = plan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentResult compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                TournamentResult result = new TournamentResult(plan.names, plan.numPlayers,
+                        plan.seatings.size());
+                for (int i = from; i < to; i++) {
+                    playOne(plan, i, result);
+                }
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(plan, from, mid);
+            left.fork();
+            TournamentResult right = new Batch(plan, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+// File: src/main/java/citadels/TournamentResult.java
+package citadels;
+
+import java.util.List;
+
+/**
+ * Aggregate outcome of a {@link Tournament}: for every strategy and seat,
+ * how often the strategy sat there, how often it won and the sum and sum
+ * of squares of its final scores, from which win rates, mean scores and
+ * their 95% confidence intervals are derived. Only completed games count
+ * towards the statistics. Instances are not thread-safe; each worker fills
+ * its own and they are combined with {@link #merge(TournamentResult)}.
+ */
+public class TournamentResult {
+    /** Normal quantile for two-sided 95% confidence intervals. */
+    public static final double Z95 = 1.959964;
+
+    // Names of the strategies, by entrant index
+    private final List<String> names;
+    // Number of players at every table
+    private final int numPlayers;
+    // Number of distinct seatings played
+    private final int seatings;
+    // Games that ended with a completed city
+    private long completedGames;
+    // Games stopped at the round cap
+    private long unfinishedGames;
+    // Rounds played across all games
+    private long totalRounds;
+    // Per entrant and seat, indexed entrant * numPlayers + seat (0-based):
+    // games seated, wins, score sums and sums of squared scores
+    private final long[] seated;
+    private final long[] wins;
+    private final long[] scoreSums;
+    private final long[] scoreSquares;
+    // Wall-clock time the tournament took
+    private long elapsedNanos;
+
+    /**
+     * Creates an empty result.
+     *
+     * @param names      names of the strategies, by entrant index
+     * @param numPlayers number of players per game
+     * @param seatings   number of distinct seatings
+     */
+    public TournamentResult(List<String> names, int numPlayers, int seatings) {
+        this.names = List.copyOf(names);
+        this.numPlayers = numPlayers;
+        this.seatings = seatings;
+        int cells = names.size() * numPlayers;
+        this.seated = new long[cells];
+        this.wins = new long[cells];
+        this.scoreSums = new long[cells];
+        this.scoreSquares = new long[cells];
+    }
+
+    /**
+     * Records a game that ended normally.
+     *
+     * @param rounds     number of rounds played
+     * @param seating    entrant index per seat
+     * @param winnerSeat seat of the winner (0-based)
+     * @param scores     final score per seat
+     */
+    void recordCompleted(int rounds, int[] seating, int winnerSeat, int[] scores) {
+        completedGames++;
+        totalRounds += rounds;
+        for (int seat = 0; seat < numPlayers; seat++) {
+            int cell = seating[seat] * numPlayers + seat;
+            long score = scores[seat];
+            seated[cell]++;
+            scoreSums[cell] += score;
+            scoreSquares[cell] += score * score;
+        }
+        wins[seating[winnerSeat] * numPlayers + winnerSeat]++;
+    }
+
+    /**
+     * Records a game that was stopped at the round cap.
+     *
+     * @param rounds number of rounds played
+     */
+    void recordUnfinished(int rounds) {
+        unfinishedGames++;
+        totalRounds += rounds;
+    }
+
+    /**
+     * Adds another result's counts into this one.
+     *
+     * @param other result to merge in
+     * @return this result
+     */
+    TournamentResult merge(TournamentResult other) {
+        completedGames += other.completedGames;
+        unfinishedGames += other.unfinishedGames;
+        totalRounds += other.totalRounds;
+        for (int i = 0; i < seated.length; i++) {
+            seated[i] += other.seated[i];
+            wins[i] += other.wins[i];
+            scoreSums[i] += other.scoreSums[i];
+            scoreSquares[i] += other.scoreSquares[i];
+        }
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the names of the strategies, by entrant index.
+     *
+     * @return strategy names
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the number of players per game.
+     *
+     * @return players per game
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Returns the number of distinct seatings played.
+     *
+     * @return seatings
+     */
+    public int getSeatings() {
+        return seatings;
+    }
+
+    /**
+     * Returns the total number of games played.
+     *
+     * @return completed plus unfinished games
+     */
+    public long getGames() {
+        return completedGames + unfinishedGames;
+    }
+
+    /**
+     * Returns the number of games that ended with a completed city.
+     *
+     * @return completed games
+     */
+    public long getCompletedGames() {
+        return completedGames;
+    }
+
+    /**
+     * Returns the number of games stopped at the round cap.
+     *
+     * @return unfinished games
+     */
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    /**
+     * Returns how many completed games a strategy played in a seat.
+     *
+     * @param entrant entrant index
+     * @param seat    seat (0-based), or -1 for every seat
+     * @return games seated
+     */
+    public long getSeated(int entrant, int seat) {
+        return sum(seated, entrant, seat);
+    }
+
+    /**
+     * Returns how many games a strategy won from a seat.
+     *
+     * @param entrant entrant index
+     * @param seat    seat (0-based), or -1 for every seat
+     * @return wins
+     */
+    public long getWins(int entrant, int seat) {
+        return sum(wins, entrant, seat);
+    }
+
+    /**
+     * Returns the fraction of its games a strategy won from a seat.
+     *
+     * @param entrant entrant index
+     * @param seat    seat (0-based), or -1 for every seat
+     * @return win rate between 0 and 1
+     */
+    public double getWinRate(int entrant, int seat) {
+        long n = getSeated(entrant, seat);
+        return n == 0 ? 0 : (double) getWins(entrant, seat) / n;
+    }
+
+    /**
+     * Returns the 95% Wilson score interval of a strategy's win rate, which
+     * stays inside [0, 1] and is sensible for rates near either end.
+     *
+     * @param entrant entrant index
+     * @param seat    seat (0-based), or -1 for every seat
+     * @return lower and upper bound
+     */
+    public double[] getWinRateInterval(int entrant, int seat) {
+        long n = getSeated(entrant, seat);
+        if (n == 0) {
+            return new double[] {0, 1};
+        }
+        double p = (double) getWins(entrant, seat) / n;
+        double z2 = Z95 * Z95;
+        double denominator = 1 + z2 / n;
+        double center = (p + z2 / (2.0 * n)) / denominator;
+        double half = Z95 / denominator * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n));
+        return new double[] {Math.max(0, center - half), Math.min(1, center + half)};
+    }
+
+    /**
+     * Returns a strategy's mean final score in a seat.
+     *
+     * @param entrant entrant index
+     * @param seat    seat (0-based), or -1 for every seat
+     * @return mean score
+     */
+    public double getMeanScore(int entrant, int seat) {
+        long n = getSeated(entrant, seat);
+        return n == 0 ? 0 : (double) sum(scoreSums, entrant, seat) / n;
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of a
+     * strategy's mean score (normal approximation).
+     *
+     * @param entrant entrant index
+     * @param seat    seat (0-based), or -1 for every seat
+     * @return half-width, or 0 with fewer than two games
+     */
+    public double getMeanScoreError(int entrant, int seat) {
+        long n = getSeated(entrant, seat);
+        if (n < 2) {
+            return 0;
+        }
+        double sum = sum(scoreSums, entrant, seat);
+        double variance = (sum(scoreSquares, entrant, seat) - sum * sum / n) / (n - 1);
+        return Z95 * Math.sqrt(Math.max(0, variance) / n);
+    }
+
+    // Sum of one counter over a strategy's seats, or one seat
+    private long sum(long[] counter, int entrant, int seat) {
+        int base = entrant * numPlayers;
+        if (seat >= 0) {
+            return counter[base + seat];
+        }
+        long total = 0;
+        for (int s = 0; s < numPlayers; s++) {
+            total += counter[base + s];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the mean number of rounds per game.
+     *
+     * @return mean rounds
+     */
+    public double getMeanRounds() {
+        long games = getGames();
+        return games == 0 ? 0 : (double) totalRounds / games;
+    }
+
+    /**
+     * Returns how long the tournament took.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the tournament throughput.
+     *
+     * @return games played per minute of wall-clock time
+     */
+    public double getGamesPerMinute() {
+        return elapsedNanos == 0 ? 0 : getGames() * 60e9 / elapsedNanos;
+    }
+
+    /**
+     * Builds a human-readable summary of the tournament: every strategy
+     * overall and per seat, with 95% confidence intervals.
+     *
+     * @return multi-line report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tournament of ").append(names.size()).append(" strategies at ")
+                .append(numPlayers).append("-player tables: ")
+                .append(seatings).append(" seatings, ").append(getGames()).append(" games\n");
+        sb.append(String.format("  Completed: %d, unfinished: %d, mean rounds %.2f%n",
+                completedGames, unfinishedGames, getMeanRounds()));
+        sb.append(String.format("  Win rate by chance: %.2f%%%n", 100.0 / numPlayers));
+        for (int e = 0; e < names.size(); e++) {
+            sb.append("  ").append(names.get(e)).append(":\n");
+            appendLine(sb, "all seats", e, -1);
+            for (int seat = 0; seat < numPlayers; seat++) {
+                appendLine(sb, "seat " + (seat + 1), e, seat);
+            }
+        }
+        sb.append(String.format("  Time: %.2f s (%.0f games/min)%n",
+                elapsedNanos / 1e9, getGamesPerMinute()));
+        return sb.toString();
+    }
+
+    private void appendLine(StringBuilder sb, String label, int entrant, int seat) {
+        double[] ci = getWinRateInterval(entrant, seat);
+        sb.append(String.format("    %-9s win rate %6.2f%% [%.2f, %.2f], mean score %.2f +/- %.2f (%d games)%n",
+                label, getWinRate(entrant, seat) * 100, ci[0] * 100, ci[1] * 100,
+                getMeanScore(entrant, seat), getMeanScoreError(entrant, seat),
+                getSeated(entrant, seat)));
+    }
+}
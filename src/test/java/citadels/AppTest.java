@@ -8,21 +8,14 @@ import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AppTest {
-    private final ByteArrayOutputStream testOut = new ByteArrayOutputStream();
-    private final PrintStream       origOut  = System.out;
+    private final CaptureSink testOut = new CaptureSink();
+    private GameState game;
 
     @BeforeEach
     void setUp() {
-        // Capture System.out into testOut
-        System.setOut(new PrintStream(testOut));
-        // Reset game state
-        App.players.clear();
-        App.deck.clear();
-    }
-
-    @AfterEach
-    void tearDown() {
-        System.setOut(origOut);
+        // Fresh game state for every test, printing into testOut
+        game = new GameState();
+        game.out = testOut;
     }
 
     // ------------------------
@@ -35,7 +28,7 @@ class AppTest {
         p.addCardToHand(new District("Tavern",    "green", 1, ""));
         p.addCardToHand(new District("Cathedral", "blue",  5, ""));
 
-        App.showHand(p);
+        App.showHand(game, p);
 
         String out = testOut.toString();
         assertTrue(out.contains("You have 7 gold"),
@@ -53,9 +46,9 @@ class AppTest {
     void handleGoldCommand_noArg_showsYouHave() {
         Player p1 = new Player(1, true);
         p1.addGold(5);
-        App.players.add(p1);
+        game.players.add(p1);
 
-        App.handleGoldCommand("gold");
+        App.handleGoldCommand(game, "gold");
 
         String out = testOut.toString();
         assertTrue(out.contains("You have 5 gold"),
@@ -67,10 +60,10 @@ class AppTest {
         Player p1 = new Player(1, true);
         Player p2 = new Player(2, false);
         p2.addGold(8);
-        App.players.add(p1);
-        App.players.add(p2);
+        game.players.add(p1);
+        game.players.add(p2);
 
-        App.handleGoldCommand("gold 2");
+        App.handleGoldCommand(game, "gold 2");
 
         String out = testOut.toString();
         assertTrue(out.contains("Player 2 has 8 gold"),
@@ -79,9 +72,9 @@ class AppTest {
 
     @Test
     void handleGoldCommand_invalidPlayer_showsError() {
-        App.players.add(new Player(1, true));
+        game.players.add(new Player(1, true));
 
-        App.handleGoldCommand("gold 99");
+        App.handleGoldCommand(game, "gold 99");
 
         String out = testOut.toString();
         assertTrue(out.contains("Invalid player number."),
@@ -94,9 +87,9 @@ class AppTest {
     @Test
     void handleCityCommand_default_showsPlayer1CityEmpty() {
         Player p1 = new Player(1, true);
-        App.players.add(p1);
+        game.players.add(p1);
 
-        App.handleCityCommand("city");
+        App.handleCityCommand(game, "city");
 
         String out = testOut.toString();
         assertTrue(out.contains("Player 1 has built:")
@@ -109,10 +102,10 @@ class AppTest {
         Player p1 = new Player(1, true);
         Player p2 = new Player(2, false);
         p2.getCity().add(new District("Tavern","green",1,""));
-        App.players.add(p1);
-        App.players.add(p2);
+        game.players.add(p1);
+        game.players.add(p2);
 
-        App.handleCityCommand("city 2");
+        App.handleCityCommand(game, "city 2");
 
         String out = testOut.toString();
         assertTrue(out.contains("Player 2 has built:")
@@ -122,9 +115,9 @@ class AppTest {
 
     @Test
     void handleCityCommand_invalid_showsError() {
-        App.players.add(new Player(1, true));
+        game.players.add(new Player(1, true));
 
-        App.handleCityCommand("city 5");
+        App.handleCityCommand(game, "city 5");
 
         String out = testOut.toString();
         assertTrue(out.contains("No such player: 5"),
@@ -137,9 +130,9 @@ class AppTest {
     @Test
     void handleInfoCommand_characterName_printsCharacterInfo() {
         Player p = new Player(1, true);
-        App.players.add(p);
+        game.players.add(p);
 
-        App.handleInfoCommand("info King", p);
+        App.handleInfoCommand(game, "info King", p);
 
         String out = testOut.toString();
         assertTrue(out.startsWith("King - Gain 1 gold"),
@@ -150,9 +143,9 @@ class AppTest {
     void handleInfoCommand_nonPurpleDistrict_showsNotPurple() {
         Player p = new Player(1, true);
         p.addCardToHand(new District("Tavern","green",1,""));
-        App.players.add(p);
+        game.players.add(p);
 
-        App.handleInfoCommand("info Tavern", p);
+        App.handleInfoCommand(game, "info Tavern", p);
 
         String out = testOut.toString();
         assertTrue(out.contains("That district is not purple."),
@@ -164,9 +157,9 @@ class AppTest {
         String desc = "Some unique power.";
         Player p = new Player(1, true);
         p.addCardToHand(new District("Library","purple",6, desc));
-        App.players.add(p);
+        game.players.add(p);
 
-        App.handleInfoCommand("info Library", p);
+        App.handleInfoCommand(game, "info Library", p);
 
         String out = testOut.toString();
         assertTrue(out.contains(desc),
@@ -176,9 +169,9 @@ class AppTest {
     @Test
     void handleInfoCommand_missingName_showsNotFound() {
         Player p = new Player(1, true);
-        App.players.add(p);
+        game.players.add(p);
 
-        App.handleInfoCommand("info Nonexistent", p);
+        App.handleInfoCommand(game, "info Nonexistent", p);
 
         String out = testOut.toString();
         assertTrue(out.contains("No purple district named"),
@@ -194,14 +187,14 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_firstSelectionShowsHand() {
-        App.players.clear();
-        for (int i = 1; i <= 4; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
-        App.firstSelection = true;
+        game.players.clear();
+        for (int i = 1; i <= 4; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
+        game.firstSelection = true;
         String input = "t\nThief\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
-        assertFalse(App.firstSelection, "firstSelection should be set to false");
+        App.characterSelectionPhase(game);
+        assertFalse(game.firstSelection, "firstSelection should be set to false");
     }
 
     /**
@@ -209,13 +202,13 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_4Players_faceUpDiscards() {
-        App.players.clear();
-        for (int i = 1; i <= 4; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
+        game.players.clear();
+        for (int i = 1; i <= 4; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
         String input = "t\nThief\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
-        assertEquals(2, App.players.get(0).getCharacter());
+        App.characterSelectionPhase(game);
+        assertEquals(2, game.players.get(0).getCharacter());
     }
 
     /**
@@ -223,13 +216,13 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_5Players_faceUpDiscard() {
-        App.players.clear();
-        for (int i = 1; i <= 5; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
+        game.players.clear();
+        for (int i = 1; i <= 5; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
         String input = "t\nThief\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
-        assertEquals(2, App.players.get(0).getCharacter());
+        App.characterSelectionPhase(game);
+        assertEquals(2, game.players.get(0).getCharacter());
     }
 
     /**
@@ -237,13 +230,13 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_6Players_noFaceUpDiscard() {
-        App.players.clear();
-        for (int i = 1; i <= 6; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
+        game.players.clear();
+        for (int i = 1; i <= 6; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
         String input = "t\nThief\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
-        assertEquals(2, App.players.get(0).getCharacter());
+        App.characterSelectionPhase(game);
+        assertEquals(2, game.players.get(0).getCharacter());
     }
 
     /**
@@ -251,13 +244,13 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_7Players_lastOfSeven() {
-        App.players.clear();
-        for (int i = 1; i <= 7; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
+        game.players.clear();
+        for (int i = 1; i <= 7; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
         String input = "t\nThief\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
-        assertEquals(2, App.players.get(0).getCharacter());
+        App.characterSelectionPhase(game);
+        assertEquals(2, game.players.get(0).getCharacter());
     }
 
     /**
@@ -266,12 +259,12 @@ class AppTest {
     @Test
     void characterSelectionPhase_kingFaceUpDiscardRetry() {
         for (int i = 0; i < 10; i++) {
-            App.players.clear();
-            for (int j = 1; j <= 4; j++) App.players.add(new Player(j, j == 1));
-            App.crownedPlayer = App.players.get(0);
+            game.players.clear();
+            for (int j = 1; j <= 4; j++) game.players.add(new Player(j, j == 1));
+            game.crownedPlayer = game.players.get(0);
             String input = "t\nThief\n";
             System.setIn(new ByteArrayInputStream(input.getBytes()));
-            App.characterSelectionPhase();
+            App.characterSelectionPhase(game);
         }
     }
 
@@ -280,13 +273,13 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_invalidInputThenValid() {
-        App.players.clear();
-        for (int i = 1; i <= 4; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
+        game.players.clear();
+        for (int i = 1; i <= 4; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
         String input = "t\ninvalid\nThief\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
-        assertEquals(2, App.players.get(0).getCharacter());
+        App.characterSelectionPhase(game);
+        assertEquals(2, game.players.get(0).getCharacter());
     }
 
     /**
@@ -294,13 +287,13 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_infoAndDebugCommands() {
-        App.players.clear();
-        for (int i = 1; i <= 4; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
+        game.players.clear();
+        for (int i = 1; i <= 4; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
         String input = "t\ndebug\ninfo King\nThief\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
-        assertEquals(2, App.players.get(0).getCharacter());
+        App.characterSelectionPhase(game);
+        assertEquals(2, game.players.get(0).getCharacter());
     }
 
     /**
@@ -308,15 +301,15 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_7Players_pickFaceDown() {
-        App.players.clear();
-        for (int i = 1; i <= 7; i++) App.players.add(new Player(i, i == 1));
-        App.crownedPlayer = App.players.get(0);
+        game.players.clear();
+        for (int i = 1; i <= 7; i++) game.players.add(new Player(i, i == 1));
+        game.crownedPlayer = game.players.get(0);
         // Try to pick the face-down card by name
         String input = "t\nWarlord\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.characterSelectionPhase();
+        App.characterSelectionPhase(game);
         // Should not throw, should assign character
-        assertTrue(App.players.get(0).getCharacter() > 0);
+        assertTrue(game.players.get(0).getCharacter() > 0);
     }
 
     /**
@@ -324,12 +317,12 @@ class AppTest {
      */
     @Test
     void characterSelectionPhase_allCPUPlayers() {
-        App.players.clear();
-        for (int i = 1; i <= 4; i++) App.players.add(new Player(i, false));
-        App.crownedPlayer = App.players.get(0);
-        App.firstSelection = false;
-        App.characterSelectionPhase();
-        for (Player p : App.players) {
+        game.players.clear();
+        for (int i = 1; i <= 4; i++) game.players.add(new Player(i, false));
+        game.crownedPlayer = game.players.get(0);
+        game.firstSelection = false;
+        App.characterSelectionPhase(game);
+        for (Player p : game.players) {
             assertTrue(p.getCharacter() > 0);
         }
     }
@@ -345,11 +338,11 @@ class AppTest {
     void turnPhase_assassinSkipsIfInvalidInput() {
         Player assassin = new Player(1, true);
         assassin.setCharacter(1);
-        App.players = new ArrayList<>(Collections.singletonList(assassin));
+        game.players = new ArrayList<>(Collections.singletonList(assassin));
         String input = "invalid\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
-        assertEquals(0, App.killedCharacter, "Should skip if input is invalid");
+        App.turnPhase(game);
+        assertEquals(0, game.killedCharacter, "Should skip if input is invalid");
     }
 
     /**
@@ -359,11 +352,11 @@ class AppTest {
     void turnPhase_thiefSkipsIfInvalidInput() {
         Player thief = new Player(1, true);
         thief.setCharacter(2);
-        App.players = new ArrayList<>(Collections.singletonList(thief));
+        game.players = new ArrayList<>(Collections.singletonList(thief));
         String input = "invalid\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
-        assertEquals(0, App.robbedCharacter, "Should skip if input is invalid");
+        App.turnPhase(game);
+        assertEquals(0, game.robbedCharacter, "Should skip if input is invalid");
     }
 
     /**
@@ -375,11 +368,11 @@ class AppTest {
         magician.setCharacter(3);
         magician.addCardToHand(new District("Tavern", "green", 1, ""));
         magician.addCardToHand(new District("Cathedral", "blue", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(magician));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(magician));
+        App.initializeDeck(game);
         String input = "yes\ndiscard 1 2\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertTrue(magician.getHand().size() >= 2, "Should draw as many as discarded");
     }
 
@@ -393,10 +386,10 @@ class AppTest {
         Player other = new Player(2, false);
         magician.addCardToHand(new District("Tavern", "green", 1, ""));
         other.addCardToHand(new District("Cathedral", "blue", 5, ""));
-        App.players = new ArrayList<>(Arrays.asList(magician, other));
+        game.players = new ArrayList<>(Arrays.asList(magician, other));
         String input = "yes\nexchange 2\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, magician.getHand().size());
         assertEquals("Cathedral", magician.getHand().get(0).getName());
     }
@@ -409,12 +402,12 @@ class AppTest {
         Player king = new Player(1, true);
         king.setCharacter(4);
         king.getCity().add(new District("Palace", "yellow", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(king));
+        game.players = new ArrayList<>(Collections.singletonList(king));
         String input = "gold\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, king.getGold(), "Should gain gold for yellow district");
-        assertEquals(king, App.crownedPlayer, "Should become crowned player");
+        assertEquals(king, game.crownedPlayer, "Should become crowned player");
     }
 
     /**
@@ -425,10 +418,10 @@ class AppTest {
         Player bishop = new Player(1, true);
         bishop.setCharacter(5);
         bishop.getCity().add(new District("Church", "blue", 2, ""));
-        App.players = new ArrayList<>(Collections.singletonList(bishop));
+        game.players = new ArrayList<>(Collections.singletonList(bishop));
         String input = "gold\nend\nt\nblue\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, bishop.getGold(), "Should gain gold for blue district");
     }
 
@@ -440,10 +433,10 @@ class AppTest {
         Player merchant = new Player(1, true);
         merchant.setCharacter(6);
         merchant.getCity().add(new District("Market", "green", 2, ""));
-        App.players = new ArrayList<>(Collections.singletonList(merchant));
+        game.players = new ArrayList<>(Collections.singletonList(merchant));
         String input = "gold\nend\nt\ngreen\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(2, merchant.getGold(), "Should gain gold for green district and bonus");
     }
 
@@ -458,11 +451,11 @@ class AppTest {
         architect.addCardToHand(new District("Tavern", "green", 1, ""));
         architect.addCardToHand(new District("Market", "green", 2, ""));
         architect.addCardToHand(new District("Cathedral", "blue", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(architect));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(architect));
+        App.initializeDeck(game);
         String input = "gold\nbuild 1\nbuild 1\nbuild 1\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(3, architect.getCity().size(), "Architect should build up to 3 districts");
     }
 
@@ -476,10 +469,10 @@ class AppTest {
         warlord.addGold(10);
         Player victim = new Player(2, false);
         victim.getCity().add(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Arrays.asList(warlord, victim));
+        game.players = new ArrayList<>(Arrays.asList(warlord, victim));
         String input = "1\n1\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertTrue(victim.getCity().isEmpty(), "Victim's city should be empty after destruction");
     }
 
@@ -501,9 +494,9 @@ class AppTest {
             input.append("gold\nend\nt\n");
         }
         // End game after one round
-        App.gameEndTriggered = true;
+        game.gameEndTriggered = true;
         System.setIn(new ByteArrayInputStream(input.toString().getBytes()));
-        App.main(new String[]{});
+        App.playGame(game);
         String out = testOut.toString();
         assertTrue(out.contains("Starting Citadels with 4 players"));
         assertTrue(out.contains("GAME OVER - Final Scores"));
@@ -515,10 +508,10 @@ class AppTest {
     @Test
     void waitForContinue_handlesHandAndT() {
         Player p = new Player(1, true);
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
         String input = "hand\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.waitForContinue();
+        App.waitForContinue(game);
         String out = testOut.toString();
         assertTrue(out.contains("You have 0 gold"));
     }
@@ -526,10 +519,10 @@ class AppTest {
     @Test
     void waitForContinue_handlesUnknownCommand() {
         Player p = new Player(1, true);
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
         String input = "unknown\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.waitForContinue();
+        App.waitForContinue(game);
         String out = testOut.toString();
         assertTrue(out.contains("It is not your turn. Press t to continue."));
     }
@@ -539,18 +532,18 @@ class AppTest {
     // ------------------------
     @Test
     void initializeDeck_loadsCardsCorrectly() {
-        App.initializeDeck();
-        assertFalse(App.deck.isEmpty(), "Deck should not be empty after initialization");
-        assertTrue(App.deck.stream().allMatch(d -> d.getCost() > 0), 
+        App.initializeDeck(game);
+        assertFalse(game.deck.isEmpty(), "Deck should not be empty after initialization");
+        assertTrue(game.deck.stream().allMatch(d -> d.getCost() > 0), 
             "All cards should have positive cost");
     }
 
     @Test
     void drawCardForPlayer_addsCardToHand() {
-        App.initializeDeck();
+        App.initializeDeck(game);
         Player p = new Player(1, true);
         int initialSize = p.getHand().size();
-        App.drawCardForPlayer(p);
+        App.drawCardForPlayer(game, p);
         assertEquals(initialSize + 1, p.getHand().size(), 
             "Player's hand should increase by 1 after drawing");
     }
@@ -562,17 +555,17 @@ class AppTest {
     void turnPhase_thiefStealsGold() {
         Player thief = new Player(1, true);
         Player victim = new Player(2, false);
-        App.players = new ArrayList<>(Arrays.asList(thief, victim));
+        game.players = new ArrayList<>(Arrays.asList(thief, victim));
         thief.setCharacter(2);  // Thief
         victim.setCharacter(3); // Magician
         victim.addGold(5);
-        App.thiefPlayer = thief;
-        App.robbedCharacter = 3;
+        game.thiefPlayer = thief;
+        game.robbedCharacter = 3;
 
         String input = "gold\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
 
-        App.turnPhase();
+        App.turnPhase(game);
 
         assertEquals(0, victim.getGold(), "Victim should lose all gold");
         assertEquals(5, thief.getGold(), "Thief should gain stolen gold");
@@ -583,12 +576,12 @@ class AppTest {
         Player merchant = new Player(1, true);
         merchant.setCharacter(6);  // Merchant
         merchant.getCity().add(new District("Market", "green", 2, ""));
-        App.players = new ArrayList<>(Collections.singletonList(merchant));
+        game.players = new ArrayList<>(Collections.singletonList(merchant));
 
         String input = "gold\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
 
-        App.turnPhase();
+        App.turnPhase(game);
 
         assertEquals(3, merchant.getGold(), "Merchant should gain 2 gold + 1 bonus");
     }
@@ -597,14 +590,14 @@ class AppTest {
     void turnPhase_architectDrawsExtraCards() {
         Player architect = new Player(1, true);
         architect.setCharacter(7);  // Architect
-        App.players = new ArrayList<>(Collections.singletonList(architect));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(architect));
+        App.initializeDeck(game);
 
         String input = "gold\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
 
         int initialHandSize = architect.getHand().size();
-        App.turnPhase();
+        App.turnPhase(game);
 
         assertEquals(initialHandSize + 2, architect.getHand().size(), 
             "Architect should draw 2 extra cards");
@@ -617,9 +610,9 @@ class AppTest {
     void processCommand_buildWithInsufficientGold() {
         Player p = new Player(1, true);
         p.addCardToHand(new District("Cathedral", "blue", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
 
-        App.processCommand(p, "build 1");
+        App.processCommand(game, p, "build 1");
 
         String out = testOut.toString();
         assertTrue(out.contains("Not enough gold"), 
@@ -633,9 +626,9 @@ class AppTest {
         Player p = new Player(1, true);
         p.addGold(5);
         p.addCardToHand(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
 
-        App.processCommand(p, "build 1");
+        App.processCommand(game, p, "build 1");
 
         assertEquals(4, p.getGold(), "Should spend gold on building");
         assertEquals(1, p.getCity().size(), "City should contain the built district");
@@ -649,7 +642,7 @@ class AppTest {
     void scoreAndDeclareWinner_calculatesCorrectScores() {
         Player p1 = new Player(1, true);
         Player p2 = new Player(2, false);
-        App.players = new ArrayList<>(Arrays.asList(p1, p2));
+        game.players = new ArrayList<>(Arrays.asList(p1, p2));
         
         // Build districts for p1
         p1.getCity().add(new District("Tavern", "green", 1, ""));
@@ -660,7 +653,7 @@ class AppTest {
         p2.getCity().add(new District("Palace", "yellow", 5, ""));
         p2.getCity().add(new District("Cathedral", "blue", 5, ""));
 
-        App.scoreAndDeclareWinner();
+        App.scoreAndDeclareWinner(game);
 
         String out = testOut.toString();
         assertTrue(out.contains("GAME OVER - Final Scores"), 
@@ -679,25 +672,25 @@ class AppTest {
         p.addGold(5);
         p.addCardToHand(new District("Tavern", "green", 1, ""));
         p.getCity().add(new District("Church", "blue", 2, ""));
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        App.crownedPlayer = p;
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        game.crownedPlayer = p;
         
         // Save game
         String filename = "test_save.json";
-        App.saveGame(filename);
+        App.saveGame(game, filename);
         
         // Clear game state
-        App.players.clear();
-        App.crownedPlayer = null;
+        game.players.clear();
+        game.crownedPlayer = null;
         
         // Load game
-        App.loadGame(filename);
+        App.loadGame(game, filename);
         
         // Verify state was restored
-        assertEquals(1, App.players.size(), "Should restore correct number of players");
-        assertEquals(5, App.players.get(0).getGold(), "Should restore player's gold");
-        assertEquals(1, App.players.get(0).getHand().size(), "Should restore player's hand");
-        assertEquals(1, App.players.get(0).getCity().size(), "Should restore player's city");
+        assertEquals(1, game.players.size(), "Should restore correct number of players");
+        assertEquals(5, game.players.get(0).getGold(), "Should restore player's gold");
+        assertEquals(1, game.players.get(0).getHand().size(), "Should restore player's hand");
+        assertEquals(1, game.players.get(0).getCity().size(), "Should restore player's city");
         
         // Cleanup
         new File(filename).delete();
@@ -710,13 +703,13 @@ class AppTest {
     void turnPhase_emptyDeck() {
         Player p = new Player(1, true);
         p.setCharacter(7);  // Architect
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        App.deck.clear();  // Empty the deck
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        game.deck.clear();  // Empty the deck
 
         String input = "gold\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
 
-        App.turnPhase();
+        App.turnPhase(game);
 
         assertTrue(p.getHand().isEmpty(), 
             "Hand should remain empty when deck is empty");
@@ -726,9 +719,9 @@ class AppTest {
     void processCommand_invalidBuildIndex() {
         Player p = new Player(1, true);
         p.addGold(10);
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
 
-        App.processCommand(p, "build 99");
+        App.processCommand(game, p, "build 99");
 
         String out = testOut.toString();
         assertTrue(out.contains("Invalid selection"), 
@@ -738,9 +731,9 @@ class AppTest {
     @Test
     void handleInfoCommand_emptyHand() {
         Player p = new Player(1, true);
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
 
-        App.handleInfoCommand("info Library", p);
+        App.handleInfoCommand(game, "info Library", p);
 
         String out = testOut.toString();
         assertTrue(out.contains("No purple district named"), 
@@ -760,10 +753,10 @@ class AppTest {
         p.setCharacter(4);
         p.getCity().add(new District("Laboratory", "purple", 5, "Lab"));
         p.addCardToHand(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
         String input = "gold\nyes\n1\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, p.getGold(), "Should gain gold from Laboratory");
         assertTrue(p.getHand().isEmpty(), "Should discard card");
     }
@@ -777,11 +770,11 @@ class AppTest {
         p.setCharacter(4);
         p.getCity().add(new District("Smithy", "purple", 5, "Smithy"));
         p.addGold(3);
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        App.initializeDeck(game);
         String input = "cards\nyes\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertTrue(p.getHand().size() >= 3, "Should draw 3 cards from Smithy");
         assertEquals(1, p.getGold(), "Should spend 2 gold for Smithy");
     }
@@ -794,10 +787,10 @@ class AppTest {
         Player p = new Player(1, true);
         p.setCharacter(4);
         p.getCity().add(new District("School of Magic", "purple", 6, "School"));
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
         String input = "gold\nend\nt\nred\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         // Should prompt for color and give gold for chosen color
     }
 
@@ -812,10 +805,10 @@ class AppTest {
         Player victim = new Player(2, false);
         for (int i = 0; i < 8; i++) victim.getCity().add(new District("Tavern", "green", 1, ""));
         victim.getCity().add(new District("Keep", "red", 3, ""));
-        App.players = new ArrayList<>(Arrays.asList(warlord, victim));
+        game.players = new ArrayList<>(Arrays.asList(warlord, victim));
         String input = "2\nno\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(9, victim.getCity().size(), "Should not destroy from full city or Keep");
     }
 
@@ -831,10 +824,10 @@ class AppTest {
         victim.addGold(2);
         victim.getCity().add(new District("Tavern", "green", 1, ""));
         victim.getCity().add(new District("Graveyard", "purple", 5, ""));
-        App.players = new ArrayList<>(Arrays.asList(warlord, victim));
+        game.players = new ArrayList<>(Arrays.asList(warlord, victim));
         String input = "2\n1\nyes\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, victim.getHand().size(), "Should recover destroyed district to hand");
         assertEquals(1, victim.getGold(), "Should spend gold for Graveyard recovery");
     }
@@ -847,12 +840,12 @@ class AppTest {
         Player p = new Player(1, true);
         p.setCharacter(4);
         p.getCity().add(new District("Library", "purple", 6, "Library"));
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        App.initializeDeck(game);
         String input = "cards\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
         int initialHand = p.getHand().size();
-        App.turnPhase();
+        App.turnPhase(game);
         assertTrue(p.getHand().size() >= initialHand + 2, "Should keep all drawn cards with Library");
     }
 
@@ -864,12 +857,12 @@ class AppTest {
         Player p = new Player(1, true);
         p.setCharacter(4);
         p.getCity().add(new District("Observatory", "purple", 5, "Observatory"));
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        App.initializeDeck(game);
         String input = "cards\n1\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
         int initialHand = p.getHand().size();
-        App.turnPhase();
+        App.turnPhase(game);
         assertTrue(p.getHand().size() >= initialHand + 1, "Should draw 3 cards with Observatory");
     }
 
@@ -884,11 +877,11 @@ class AppTest {
         Player victim = new Player(2, false);
         victim.getCity().add(new District("Great Wall", "purple", 6, ""));
         victim.getCity().add(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Arrays.asList(warlord, victim));
+        game.players = new ArrayList<>(Arrays.asList(warlord, victim));
         String input = "2\n1\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
         int goldBefore = warlord.getGold();
-        App.turnPhase();
+        App.turnPhase(game);
         assertTrue(warlord.getGold() < goldBefore, "Should pay full cost to destroy with Great Wall");
     }
 
@@ -907,8 +900,8 @@ class AppTest {
         cpu.addCardToHand(new District("Tavern", "green", 1, ""));
         cpu.addCardToHand(new District("Market", "green", 2, ""));
         cpu.addCardToHand(new District("Cathedral", "blue", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(cpu));
-        App.turnPhase();
+        game.players = new ArrayList<>(Collections.singletonList(cpu));
+        App.turnPhase(game);
         assertTrue(cpu.getHand().size() < 3, "CPU should discard for Laboratory");
     }
 
@@ -921,9 +914,9 @@ class AppTest {
         cpu.setCharacter(4);
         cpu.getCity().add(new District("Smithy", "purple", 5, "Smithy"));
         cpu.addGold(3);
-        App.players = new ArrayList<>(Collections.singletonList(cpu));
-        App.initializeDeck();
-        App.turnPhase();
+        game.players = new ArrayList<>(Collections.singletonList(cpu));
+        App.initializeDeck(game);
+        App.turnPhase(game);
         assertTrue(cpu.getHand().size() >= 3, "CPU should draw 3 cards from Smithy");
         assertTrue(cpu.getGold() <= 1, "CPU should spend 2 gold for Smithy");
     }
@@ -938,8 +931,8 @@ class AppTest {
     @Test
     void processCommand_unknownCommand() {
         Player p = new Player(1, true);
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        boolean handled = App.processCommand(p, "foobar");
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        boolean handled = App.processCommand(game, p, "foobar");
         assertFalse(handled, "Unknown command should return false");
     }
 
@@ -949,8 +942,8 @@ class AppTest {
     @Test
     void processCommand_helpCommand() {
         Player p = new Player(1, true);
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        boolean handled = App.processCommand(p, "help");
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        boolean handled = App.processCommand(game, p, "help");
         assertTrue(handled, "Help command should be handled");
     }
 
@@ -960,11 +953,27 @@ class AppTest {
     @Test
     void processCommand_debugCommand() {
         Player p = new Player(1, true);
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        boolean before = App.debugMode;
-        boolean handled = App.processCommand(p, "debug");
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        boolean before = game.debugMode;
+        boolean handled = App.processCommand(game, p, "debug");
         assertTrue(handled, "Debug command should be handled");
-        assertNotEquals(before, App.debugMode, "Debug mode should toggle");
+        assertNotEquals(before, game.debugMode, "Debug mode should toggle");
+    }
+
+    /**
+     * processCommand: A network player may not save, load or turn on debug mode.
+     */
+    @Test
+    void processCommand_remoteRefusesFileAndDebugCommands() {
+        Player p = new Player(1, true);
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        game.remote = true;
+        for (String cmd : new String[] {"save x.json", "load x.json", "debug"}) {
+            assertTrue(App.processCommand(game, p, cmd), cmd);
+        }
+        assertFalse(game.debugMode, "Debug mode should stay off");
+        assertFalse(new File("x.json").exists(), "Nothing should be saved");
+        assertEquals(3, testOut.toString().split("not available over the network", -1).length - 1);
     }
 
     // ------------------------
@@ -978,8 +987,8 @@ class AppTest {
     void main_invalidPlayerCountInput() {
         String input = "abc\n3\n4\nt\nThief\ngold\nend\nt\ngold\nend\nt\ngold\nend\nt\ngold\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.gameEndTriggered = true;
-        App.main(new String[]{});
+        game.gameEndTriggered = true;
+        App.playGame(game);
         String out = testOut.toString();
         assertTrue(out.contains("Enter how many players"));
         assertTrue(out.contains("Starting Citadels with 4 players"));
@@ -1000,10 +1009,10 @@ class AppTest {
         Player bishop = new Player(2, false);
         bishop.setCharacter(5);
         bishop.getCity().add(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Arrays.asList(warlord, bishop));
+        game.players = new ArrayList<>(Arrays.asList(warlord, bishop));
         String input = "2\nno\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, bishop.getCity().size(), "Warlord should not destroy Bishop's city");
     }
 
@@ -1014,12 +1023,12 @@ class AppTest {
     void turnPhase_thiefCannotRobAssassinOrKilled() {
         Player thief = new Player(1, true);
         thief.setCharacter(2);
-        App.killedCharacter = 3;
-        App.players = new ArrayList<>(Collections.singletonList(thief));
+        game.killedCharacter = 3;
+        game.players = new ArrayList<>(Collections.singletonList(thief));
         String input = "3\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
-        assertNotEquals(3, App.robbedCharacter, "Thief should not rob killed character");
+        App.turnPhase(game);
+        assertNotEquals(3, game.robbedCharacter, "Thief should not rob killed character");
     }
 
     /**
@@ -1031,11 +1040,11 @@ class AppTest {
         assassin.setCharacter(1);
         Player victim = new Player(2, false);
         victim.setCharacter(3);
-        App.players = new ArrayList<>(Arrays.asList(assassin, victim));
+        game.players = new ArrayList<>(Arrays.asList(assassin, victim));
         String input = "3\nend\nt\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
-        assertEquals(3, App.killedCharacter, "Assassin should kill character 3");
+        App.turnPhase(game);
+        assertEquals(3, game.killedCharacter, "Assassin should kill character 3");
     }
 
     /**
@@ -1047,11 +1056,11 @@ class AppTest {
         architect.setCharacter(7);
         architect.addGold(2);
         architect.addCardToHand(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Collections.singletonList(architect));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(architect));
+        App.initializeDeck(game);
         String input = "gold\nbuild 1\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, architect.getCity().size(), "Architect should build only one district");
     }
 
@@ -1065,9 +1074,9 @@ class AppTest {
             cpu.setCharacter(r);
             cpu.addGold(5);
             cpu.addCardToHand(new District("Tavern", "green", 1, ""));
-            App.players = new ArrayList<>(Collections.singletonList(cpu));
-            App.initializeDeck();
-            App.turnPhase();
+            game.players = new ArrayList<>(Collections.singletonList(cpu));
+            App.initializeDeck(game);
+            App.turnPhase(game);
         }
     }
 
@@ -1080,9 +1089,9 @@ class AppTest {
      */
     @Test
     void printHelpAndShowAllPlayers() {
-        App.printHelp();
-        App.players.add(new Player(1, true));
-        App.showAllPlayers();
+        App.printHelp(game);
+        game.players.add(new Player(1, true));
+        App.showAllPlayers(game);
         String out = testOut.toString();
         assertTrue(out.contains("Available commands:"));
         assertTrue(out.contains("Player 1"));
@@ -1097,8 +1106,8 @@ class AppTest {
         p.addGold(3);
         p.addCardToHand(new District("Tavern", "green", 1, ""));
         p.getCity().add(new District("Cathedral", "blue", 5, ""));
-        App.showCity(p);
-        App.showHand(p);
+        App.showCity(game, p);
+        App.showHand(game, p);
         String out = testOut.toString();
         assertTrue(out.contains("Player 1 has built:"));
         assertTrue(out.contains("You have 3 gold"));
@@ -1123,7 +1132,7 @@ class AppTest {
         p1.getCity().add(new District("Library", "purple", 6, "Library"));
         // Completion bonus
         for (int i = 0; i < 3; i++) p1.getCity().add(new District("Tavern", "green", 1, ""));
-        App.firstCompleter = p1;
+        game.firstCompleter = p1;
         // Tie: p2 gets same total
         p2.getCity().add(new District("Palace", "yellow", 5, ""));
         p2.getCity().add(new District("Cathedral", "blue", 5, ""));
@@ -1131,8 +1140,8 @@ class AppTest {
         p2.getCity().add(new District("Castle", "red", 4, ""));
         p2.getCity().add(new District("Library", "purple", 6, "Library"));
         for (int i = 0; i < 3; i++) p2.getCity().add(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Arrays.asList(p1, p2));
-        App.scoreAndDeclareWinner();
+        game.players = new ArrayList<>(Arrays.asList(p1, p2));
+        App.scoreAndDeclareWinner(game);
         String out = testOut.toString();
         assertTrue(out.contains("Diversity bonus"));
         assertTrue(out.contains("Completion bonus"));
@@ -1152,12 +1161,12 @@ class AppTest {
         Player king = new Player(1, true);
         king.setCharacter(4);
         king.getCity().add(new District("Palace", "yellow", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(king));
+        game.players = new ArrayList<>(Collections.singletonList(king));
         String input = "gold\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, king.getGold());
-        assertEquals(king, App.crownedPlayer);
+        assertEquals(king, game.crownedPlayer);
     }
 
     /**
@@ -1168,10 +1177,10 @@ class AppTest {
         Player king = new Player(1, false);
         king.setCharacter(4);
         king.getCity().add(new District("Palace", "yellow", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(king));
-        App.turnPhase();
+        game.players = new ArrayList<>(Collections.singletonList(king));
+        App.turnPhase(game);
         assertEquals(1, king.getGold());
-        assertEquals(king, App.crownedPlayer);
+        assertEquals(king, game.crownedPlayer);
     }
 
     /**
@@ -1182,10 +1191,10 @@ class AppTest {
         Player bishop = new Player(1, true);
         bishop.setCharacter(5);
         bishop.getCity().add(new District("Church", "blue", 2, ""));
-        App.players = new ArrayList<>(Collections.singletonList(bishop));
+        game.players = new ArrayList<>(Collections.singletonList(bishop));
         String input = "gold\nend\nt\nblue\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, bishop.getGold());
     }
 
@@ -1197,10 +1206,10 @@ class AppTest {
         Player merchant = new Player(1, true);
         merchant.setCharacter(6);
         merchant.getCity().add(new District("Market", "green", 2, ""));
-        App.players = new ArrayList<>(Collections.singletonList(merchant));
+        game.players = new ArrayList<>(Collections.singletonList(merchant));
         String input = "gold\nend\nt\ngreen\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(2, merchant.getGold());
     }
 
@@ -1215,11 +1224,11 @@ class AppTest {
         architect.addCardToHand(new District("Tavern", "green", 1, ""));
         architect.addCardToHand(new District("Market", "green", 2, ""));
         architect.addCardToHand(new District("Cathedral", "blue", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(architect));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(architect));
+        App.initializeDeck(game);
         String input = "gold\nbuild 1\nbuild 1\nbuild 1\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(3, architect.getCity().size());
     }
 
@@ -1234,9 +1243,9 @@ class AppTest {
         architect.addCardToHand(new District("Tavern", "green", 1, ""));
         architect.addCardToHand(new District("Market", "green", 2, ""));
         architect.addCardToHand(new District("Cathedral", "blue", 5, ""));
-        App.players = new ArrayList<>(Collections.singletonList(architect));
-        App.initializeDeck();
-        App.turnPhase();
+        game.players = new ArrayList<>(Collections.singletonList(architect));
+        App.initializeDeck(game);
+        App.turnPhase(game);
         assertTrue(architect.getCity().size() <= 3);
     }
 
@@ -1261,10 +1270,10 @@ class AppTest {
         graveyard.addGold(2);
         graveyard.getCity().add(new District("Tavern", "green", 1, ""));
         graveyard.getCity().add(new District("Graveyard", "purple", 5, ""));
-        App.players = new ArrayList<>(Arrays.asList(warlord, bishop, keepPlayer, fullCity, greatWall, graveyard));
+        game.players = new ArrayList<>(Arrays.asList(warlord, bishop, keepPlayer, fullCity, greatWall, graveyard));
         String input = "2\nno\n3\nno\n4\nno\n5\n1\nyes\nend\nt\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, graveyard.getHand().size());
     }
 
@@ -1277,12 +1286,12 @@ class AppTest {
         p.setCharacter(4);
         p.getCity().add(new District("Observatory", "purple", 5, ""));
         p.getCity().add(new District("Library", "purple", 6, ""));
-        App.players = new ArrayList<>(Collections.singletonList(p));
-        App.initializeDeck();
+        game.players = new ArrayList<>(Collections.singletonList(p));
+        App.initializeDeck(game);
         String input = "cards\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
         int initialHand = p.getHand().size();
-        App.turnPhase();
+        App.turnPhase(game);
         assertTrue(p.getHand().size() >= initialHand + 2);
     }
 
@@ -1296,10 +1305,10 @@ class AppTest {
         p.addGold(1);
         p.addCardToHand(new District("Tavern", "green", 1, ""));
         p.getCity().add(new District("Tavern", "green", 1, ""));
-        App.players = new ArrayList<>(Collections.singletonList(p));
+        game.players = new ArrayList<>(Collections.singletonList(p));
         String input = "gold\nbuild 1\nbuild 99\nbuild 1\nend\nt\nyellow\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        App.turnPhase();
+        App.turnPhase(game);
         assertEquals(1, p.getCity().size());
     }
 }
@@ -0,0 +1,243 @@
+package citadels;
+
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySerializerTest {
+
+    @TempDir
+    Path dir;
+
+    // A game a few rounds in, with hands, cities and a partly drawn deck
+    private static GameState playedGame(long seed, int rounds) {
+        GameState game = TestGames.played(seed, 5, rounds);
+        for (Player p : game.players) {
+            p.setCharacter(p.getId() + 1);
+        }
+        game.debugMode = true;
+        return game;
+    }
+
+    // Everything a save records, as text, so two states can be compared
+    private static String describe(GameState game) {
+        StringBuilder sb = new StringBuilder();
+        for (Player p : game.players) {
+            sb.append(p.getId()).append(p.isHuman()).append(' ')
+                    .append(p.getGold()).append(' ').append(p.getCharacter())
+                    .append(" hand").append(p.getHand()
+                            .stream().map(BinarySerializerTest::card).collect(Collectors.toList()))
+                    .append(" city").append(p.getCity()
+                            .stream().map(BinarySerializerTest::card).collect(Collectors.toList()))
+                    .append('\n');
+        }
+        for (District d : game.deck) {
+            sb.append(card(d)).append(';');
+        }
+        sb.append("\ncrown=").append(game.crownedPlayer == null ? 0 : game.crownedPlayer.getId())
+                .append(" first=").append(game.firstCompleter == null ? 0 : game.firstCompleter.getId())
+                .append(" end=").append(game.gameEndTriggered)
+                .append(" debug=").append(game.debugMode);
+        return sb.toString();
+    }
+
+    private static String card(District d) {
+        return d.getName() + "|" + d.getColor() + "|" + d.getCost() + "|" + d.getDescription();
+    }
+
+    private String path(String name) {
+        return dir.resolve(name).toString();
+    }
+
+    /** A binary save restores the same state as a JSON save of the same game. */
+    @Test
+    void testRoundTripMatchesJson() throws Exception {
+        GameState game = playedGame(11L, 6);
+        Serializer.saveGame(game, path("game.json"));
+        Serializer.saveGame(game, path("game.cit"));
+
+        GameState fromJson = GameState.headless(0);
+        GameState fromBinary = GameState.headless(0);
+        Serializer.loadGame(fromJson, path("game.json"));
+        Serializer.loadGame(fromBinary, path("game.cit"));
+
+        assertEquals(describe(game), describe(fromJson));
+        assertEquals(describe(fromJson), describe(fromBinary));
+        assertTrue(Files.size(dir.resolve("game.cit")) * 10 < Files.size(dir.resolve("game.json")));
+    }
+
+    /** Converting an existing JSON save to binary and back loses nothing. */
+    @Test
+    void testConvertJsonSave() throws Exception {
+        GameState game = playedGame(5L, 3);
+        game.firstCompleter = game.players.get(2);
+        Serializer.saveGame(game, path("old.json"));
+
+        GameState loaded = GameState.headless(0);
+        Serializer.loadGame(loaded, path("old.json"));
+        BinarySerializer.saveGame(loaded, path("old.cit"));
+        GameState converted = GameState.headless(0);
+        Serializer.loadGame(converted, path("old.cit"));
+
+        assertEquals(describe(loaded), describe(converted));
+        assertTrue(converted.players.get(2).isFirstCompleter());
+        assertSame(DistrictCatalog.get().byId(converted.deck.peek(0).getId()),
+                converted.deck.peek(0), "catalog cards load as shared instances");
+    }
+
+    /** Cards that are not in the catalog are stored in full. */
+    @Test
+    void testCardOutsideCatalog() throws Exception {
+        GameState game = GameState.headless(0);
+        Player p = new Player(1, true);
+        p.addGold(300);
+        p.addCardToHand(new District("Folly", "purple", 4, "Hand-made card"));
+        game.players.add(p);
+        game.crownedPlayer = p;
+
+        BinarySerializer.saveGame(game, path("custom.cit"));
+        GameState loaded = GameState.headless(0);
+        Serializer.loadGame(loaded, path("custom.cit"));
+
+        assertEquals(describe(game), describe(loaded));
+        assertEquals(300, loaded.players.get(0).getGold());
+    }
+
+    /** Files that are not binary saves, or are from another version, are rejected. */
+    @Test
+    void testRejectsBadFiles() throws Exception {
+        GameState game = GameState.headless(0);
+        File junk = dir.resolve("junk.cit").toFile();
+        Files.writeString(junk.toPath(), "not a save");
+        // without the binary header it is read as JSON
+        assertThrows(ParseException.class, () -> Serializer.loadGame(game, junk.getPath()));
+
+        File future = dir.resolve("future.cit").toFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(future))) {
+            out.writeBytes("CTDL");
+            out.writeByte(BinarySerializer.VERSION + 1);
+        }
+        IOException e = assertThrows(IOException.class,
+                () -> Serializer.loadGame(game, future.getPath()));
+        assertTrue(e.getMessage().contains("version"));
+
+        File truncated = dir.resolve("truncated.cit").toFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(truncated))) {
+            out.writeBytes("CTDL");
+            out.writeByte(BinarySerializer.VERSION);
+        }
+        assertThrows(IOException.class, () -> Serializer.loadGame(game, truncated.getPath()));
+
+        // a save cut off in its deck leaves the live game as it was
+        GameState other = GameState.headless(9L);
+        App.setupGame(other, 5, false);
+        File cut = dir.resolve("cut.cit").toFile();
+        BinarySerializer.saveGame(other, cut.getPath());
+        byte[] bytes = Files.readAllBytes(cut.toPath());
+        Files.write(cut.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+        GameState live = GameState.headless(3L);
+        App.setupGame(live, 4, false);
+        List<Player> players = new ArrayList<>(live.players);
+        int deck = live.deck.size();
+        Player crown = live.crownedPlayer;
+        assertThrows(IOException.class, () -> Serializer.loadGame(live, cut.getPath()));
+        assertEquals(players, live.players);
+        assertEquals(deck, live.deck.size());
+        assertSame(crown, live.crownedPlayer);
+        assertTrue(live.players.contains(live.crownedPlayer));
+    }
+
+    // Writes a save header followed by the given bytes
+    private File header(String name, int... rest) throws IOException {
+        File file = dir.resolve(name).toFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeBytes("CTDL");
+            out.writeByte(BinarySerializer.VERSION);
+            out.writeInt(DistrictCatalog.get().getFingerprint());
+            out.writeByte(0);
+            for (int b : rest) {
+                out.writeByte(b);
+            }
+        }
+        return file;
+    }
+
+    /** Counts beyond what a game can hold and malformed numbers are rejected. */
+    @Test
+    void testRejectsOutOfRangeCounts() throws Exception {
+        GameState game = GameState.headless(0);
+        // crown, first completer, then 0x7FFFFFF0 players
+        File players = header("players.cit", 0, 0, 0xF0, 0xFF, 0xFF, 0xFF, 0x07);
+        IOException e = assertThrows(IOException.class,
+                () -> Serializer.loadGame(game, players.getPath()));
+        assertTrue(e.getMessage().contains("players"), e.getMessage());
+        App.doLoad(game, players.getPath());
+
+        // no players, then a deck far larger than the catalog
+        File deck = header("deck.cit", 0, 0, 0, 0xFF, 0xFF, 0x03);
+        e = assertThrows(IOException.class, () -> Serializer.loadGame(game, deck.getPath()));
+        assertTrue(e.getMessage().contains("deck"), e.getMessage());
+
+        // a crown ID whose fifth byte would make it negative
+        File negative = header("negative.cit", 0xFF, 0xFF, 0xFF, 0xFF, 0x0F);
+        e = assertThrows(IOException.class,
+                () -> Serializer.loadGame(game, negative.getPath()));
+        assertTrue(e.getMessage().contains("varint"), e.getMessage());
+    }
+
+    /**
+     * Benchmark: save size and save/load time of the JSON and binary
+     * formats for the same mid-game state.
+     */
+    @Test
+    @Tag("perf")
+    void benchmarkJsonVersusBinary() throws Exception {
+        GameState game = playedGame(3L, 5);
+        final int iterations = 2000;
+        String json = path("bench.json");
+        String bin = path("bench.cit");
+        GameState target = GameState.headless(0);
+
+        for (int warm = 0; warm < 2; warm++) {
+            long jsonSave = 0, jsonLoad = 0, binSave = 0, binLoad = 0;
+            for (int i = 0; i < iterations; i++) {
+                long t0 = System.nanoTime();
+                Serializer.saveGame(game, json);
+                long t1 = System.nanoTime();
+                Serializer.loadGame(target, json);
+                long t2 = System.nanoTime();
+                Serializer.saveGame(game, bin);
+                long t3 = System.nanoTime();
+                Serializer.loadGame(target, bin);
+                long t4 = System.nanoTime();
+                jsonSave += t1 - t0;
+                jsonLoad += t2 - t1;
+                binSave += t3 - t2;
+                binLoad += t4 - t3;
+            }
+            if (warm == 1) {
+                System.out.printf("JSON:   %6d bytes, save %6.1f us, load %6.1f us%n",
+                        Files.size(dir.resolve("bench.json")),
+                        jsonSave / 1e3 / iterations, jsonLoad / 1e3 / iterations);
+                System.out.printf("Binary: %6d bytes, save %6.1f us, load %6.1f us%n",
+                        Files.size(dir.resolve("bench.cit")),
+                        binSave / 1e3 / iterations, binLoad / 1e3 / iterations);
+            }
+        }
+        assertEquals(describe(game), describe(target));
+    }
+}
@@ -0,0 +1,180 @@
+package citadels;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityTest {
+
+    private City city;
+    private DistrictCatalog catalog;
+    private District keep;
+    private District tavern;
+
+    @BeforeEach
+    void setUp() {
+        city = new City();
+        catalog = DistrictCatalog.get();
+        keep = catalog.byName("Keep");
+        tavern = catalog.byName("Tavern");
+    }
+
+    // Recomputes the index from scratch and checks it against the maintained one
+    private static void assertIndexConsistent(City city) {
+        for (int c = 0; c < City.COLORS.length; c++) {
+            String color = City.COLORS[c];
+            long expected = city.stream().filter(d -> d.getColor().equals(color)).count();
+            assertEquals(expected, city.countColor(c), color);
+        }
+        assertEquals(city.stream().mapToInt(District::getCost).sum(), city.getCostTotal());
+        assertEquals(city.stream().mapToInt(District::getPointBonus).sum(), city.getUniqueBonus());
+        for (District d : city) {
+            assertTrue(city.contains(d.getName()));
+            if (d.isUnique() && d.getId() >= 0) {
+                assertTrue(city.hasUnique(d.getId()));
+            }
+        }
+    }
+
+    /** Adding districts updates color counts, names and unique flags. */
+    @Test
+    void testAddUpdatesIndex() {
+        city.add(tavern);
+        city.add(keep);
+        assertEquals(1, city.countColor("green"));
+        assertEquals(1, city.countColor("purple"));
+        assertEquals(0, city.countColor("red"));
+        assertTrue(city.contains("tavern"));
+        assertTrue(city.hasUnique(keep.getId()));
+        assertFalse(city.hasUnique(catalog.byName("Dragon Gate").getId()));
+    }
+
+    /** Removing one of two copies keeps the name and unique flag; removing both clears them. */
+    @Test
+    void testRemoveDuplicate() {
+        city.add(keep);
+        city.add(keep);
+        assertEquals(2, city.countNamed("Keep"));
+        assertTrue(city.remove(keep));
+        assertTrue(city.contains("Keep"));
+        assertTrue(city.hasUnique(keep.getId()));
+        city.remove(0);
+        assertFalse(city.contains("Keep"));
+        assertFalse(city.hasUnique(keep.getId()));
+        assertEquals(0, city.countColor("purple"));
+        assertFalse(city.remove(keep));
+    }
+
+    /** set replaces a district in both the list and the index. */
+    @Test
+    void testSet() {
+        city.add(tavern);
+        assertSame(tavern, city.set(0, keep));
+        assertFalse(city.contains("Tavern"));
+        assertEquals(0, city.countColor("green"));
+        assertEquals(1, city.countColor("purple"));
+    }
+
+    /** The diversity check needs one district of each color. */
+    @Test
+    void testHasAllColors() {
+        city.add(catalog.byName("Manor"));
+        city.add(catalog.byName("Temple"));
+        city.add(tavern);
+        city.add(catalog.byName("Watchtower"));
+        assertFalse(city.hasAllColors());
+        city.add(keep);
+        assertTrue(city.hasAllColors());
+        city.clear();
+        assertFalse(city.hasAllColors());
+        assertEquals(0, city.countColor("yellow"));
+        assertFalse(city.contains("Keep"));
+    }
+
+    /** Bulk and iterator-based changes go through the same index updates. */
+    @Test
+    void testBulkChangesStayConsistent() {
+        List<District> all = new ArrayList<>();
+        for (int id = 0; id < catalog.size(); id++) {
+            all.add(catalog.byId(id));
+        }
+        city.addAll(all);
+        assertIndexConsistent(city);
+        city.removeIf(d -> d.getCost() % 2 == 0);
+        assertIndexConsistent(city);
+        city.subList(0, city.size() / 2).clear();
+        assertIndexConsistent(city);
+    }
+
+    /** Cost and unique-bonus totals follow adds, removes and clear. */
+    @Test
+    void testRunningTotals() {
+        District university = catalog.byName("University");
+        city.add(tavern);
+        city.add(university);
+        assertEquals(tavern.getCost() + university.getCost(), city.getCostTotal());
+        assertEquals(2, city.getUniqueBonus());
+        city.remove(university);
+        assertEquals(tavern.getCost(), city.getCostTotal());
+        assertEquals(0, city.getUniqueBonus());
+        city.clear();
+        assertEquals(0, city.getCostTotal());
+        assertFalse(city.isComplete());
+    }
+
+    /** A copy has its own list and index. */
+    @Test
+    void testCopy() {
+        city.add(keep);
+        city.add(tavern);
+        City copy = city.copy();
+        assertEquals(city, copy);
+        assertIndexConsistent(copy);
+        copy.remove(keep);
+        copy.add(catalog.byName("Manor"));
+        assertTrue(city.hasUnique(keep.getId()));
+        assertEquals(0, city.countColor("yellow"));
+        assertFalse(copy.contains("Keep"));
+        assertIndexConsistent(city);
+        assertIndexConsistent(copy);
+    }
+
+    /** Districts not in the catalog are counted by color and name only. */
+    @Test
+    void testDistrictOutsideCatalog() {
+        District custom = new District("Folly", "purple", 4, "");
+        city.add(custom);
+        assertEquals(1, city.countColor("purple"));
+        assertTrue(city.contains("folly"));
+        city.remove(custom);
+        assertEquals(0, city.countColor("purple"));
+    }
+
+    /** A city rebuilt by loading a save has a consistent index. */
+    @Test
+    void testIndexAfterLoad() throws Exception {
+        GameState game = new GameState();
+        App.setupGame(game, 4, true);
+        Player p = game.getPlayers().get(0);
+        p.getCity().add(keep);
+        p.getCity().add(tavern);
+        p.getCity().add(catalog.byName("Manor"));
+
+        File f = File.createTempFile("city", ".json");
+        f.deleteOnExit();
+        Serializer.saveGame(game, f.getPath());
+
+        GameState loaded = new GameState();
+        Serializer.loadGame(loaded, f.getPath());
+        City city = loaded.getPlayers().get(0).getCity();
+        assertEquals(3, city.size());
+        assertIndexConsistent(city);
+        assertTrue(city.hasUnique(keep.getId()));
+        assertEquals(1, city.countColor("yellow"));
+    }
+}
@@ -0,0 +1,68 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsoleSinkTest {
+
+    private final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    private final ConsoleSink sink = new ConsoleSink(new PrintStream(buf));
+
+    /** Nothing reaches the stream until the sink is flushed. */
+    @Test
+    void testBufferedUntilFlush() {
+        sink.print("Gold: ");
+        sink.printf("%d%n", 5);
+        sink.println("done");
+        assertEquals(0, buf.size());
+
+        sink.flush();
+        String nl = System.lineSeparator();
+        assertEquals("Gold: 5" + nl + "done" + nl, buf.toString());
+    }
+
+    /** A large backlog is written out without waiting for a flush. */
+    @Test
+    void testFlushesWhenBufferFills() {
+        for (int i = 0; i < 2000; i++) {
+            sink.println("Player 1 took 2 gold.");
+        }
+        assertTrue(buf.size() > 0);
+    }
+
+    /** The game flushes before waiting for input, so prompts are visible. */
+    @Test
+    void testFlushedBeforeInput() {
+        GameState game = new GameState(() -> {
+            assertTrue(buf.toString().startsWith("Choose: "));
+            return "1";
+        }, sink);
+        game.out.print("Choose: ");
+        assertEquals("1", game.nextLine());
+    }
+
+    /** The null sink discards everything and reports itself disabled. */
+    @Test
+    void testNullSink() {
+        OutputSink none = NullSink.INSTANCE;
+        none.printf("%d", "not a number");  // never formatted, so no error
+        none.println("x");
+        none.flush();
+        assertFalse(none.isEnabled());
+        assertTrue(sink.isEnabled());
+    }
+
+    /** The capture sink keeps everything printed until reset. */
+    @Test
+    void testCaptureSink() {
+        CaptureSink capture = new CaptureSink();
+        capture.printf("Player %d wins!", 3);
+        assertEquals("Player 3 wins!", capture.toString());
+        capture.reset();
+        assertEquals("", capture.toString());
+    }
+}
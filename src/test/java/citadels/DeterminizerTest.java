@@ -0,0 +1,157 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeterminizerTest {
+
+    // A 6-player all-CPU game two rounds in, with characters dealt
+    private static GameState position(long seed) {
+        GameState game = TestGames.played(seed, 6, 2);
+        game.faceUpCharacters = 1 << 7;
+        int[] chars = {2, 5, 1, 8, 3, 4};
+        for (int i = 0; i < chars.length; i++) {
+            game.players.get(i).setCharacter(chars[i]);
+        }
+        return game;
+    }
+
+    // Card name -> number of copies, over the given card lists
+    @SafeVarargs
+    private static Map<String, Integer> counts(Iterable<District>... lists) {
+        Map<String, Integer> m = new HashMap<>();
+        for (Iterable<District> list : lists) {
+            for (District d : list) {
+                m.merge(d.getName(), 1, Integer::sum);
+            }
+        }
+        return m;
+    }
+
+    // Opponents' hands and the deck, as one multiset
+    private static Map<String, Integer> hiddenCards(GameState game, Player viewer) {
+        List<District> all = new ArrayList<>();
+        for (Player p : game.players) {
+            if (p != viewer) {
+                all.addAll(p.getHand());
+            }
+        }
+        all.addAll(game.deck);
+        return counts(all);
+    }
+
+    /** At a turn, revealed and own characters stay; hidden ones come from the pool. */
+    @Test
+    void testTurnSampleConsistent() {
+        GameState game = position(1L);
+        game.killedCharacter = 3;
+        Player viewer = game.players.get(1); // the Merchant
+        // at the Architect's turn: 1 and 2 and 4 are revealed, 3 was killed
+        Determinizer d = Determinizer.forTurn(game, viewer, 5);
+        assertEquals((1 << 3) | (1 << 6) | (1 << 8), d.getCharacterPool());
+
+        SplittableRandom random = new SplittableRandom(2);
+        int seen = 0;
+        for (int i = 0; i < 200; i++) {
+            d.sample(random);
+            assertEquals(2, d.characterOf(0));
+            assertEquals(5, d.characterOf(1));
+            assertEquals(1, d.characterOf(2));
+            assertEquals(4, d.characterOf(5));
+            int a = d.characterOf(3), b = d.characterOf(4);
+            assertNotEquals(a, b);
+            assertTrue((d.getCharacterPool() & (1 << a)) != 0);
+            assertTrue((d.getCharacterPool() & (1 << b)) != 0);
+            seen |= (1 << a) | (1 << b);
+        }
+        assertEquals(d.getCharacterPool(), seen);
+    }
+
+    /** During selection, earlier pickers get characters that were not offered. */
+    @Test
+    void testSelectionSample() {
+        GameState game = position(3L);
+        for (Player p : game.players) {
+            p.setCharacter(0);
+        }
+        game.players.get(0).setCharacter(4);
+        game.players.get(1).setCharacter(6);
+        int offered = (1 << 1) | (1 << 2) | (1 << 3) | (1 << 5);
+        Determinizer d = Determinizer.forSelection(game, game.players.get(2), offered);
+        assertEquals((1 << 4) | (1 << 6) | (1 << 8), d.getCharacterPool());
+
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < 100; i++) {
+            d.sample(random);
+            assertEquals(0, offered & (1 << d.characterOf(0)));
+            assertNotEquals(d.characterOf(0), d.characterOf(1));
+            for (int seat = 2; seat < 6; seat++) {
+                assertEquals(0, d.characterOf(seat));
+            }
+        }
+    }
+
+    /** Applied samples keep hand sizes, cities, the viewer's hand and the hidden cards. */
+    @Test
+    void testApplyKeepsWhatIsKnown() {
+        GameState game = position(5L);
+        Player viewer = game.players.get(0);
+        Map<String, Integer> hidden = hiddenCards(game, viewer);
+        SplittableRandom random = new SplittableRandom(6);
+        Determinizer d = Determinizer.forTurn(game, viewer, 3);
+
+        boolean changed = false;
+        for (int i = 0; i < 20; i++) {
+            GameState world = game.copy();
+            d.sample(random);
+            d.apply(world);
+            Player self = world.players.get(0);
+            assertEquals(viewer.getHand(), self.getHand());
+            assertEquals(hidden, hiddenCards(world, self));
+            for (int seat = 0; seat < 6; seat++) {
+                Player before = game.players.get(seat), after = world.players.get(seat);
+                assertEquals(before.getHand().size(), after.getHand().size());
+                assertEquals(before.getCity(), after.getCity());
+                changed |= !before.getHand().equals(after.getHand());
+            }
+            assertEquals(game.deck.size(), world.deck.size());
+        }
+        assertTrue(changed, "opponents' hands should be redealt");
+        // the view is captured once; the game itself is never touched
+        assertEquals(hidden, hiddenCards(game, viewer));
+    }
+
+    /** Samples per second for a 7-player position. */
+    @Test
+    @Tag("perf")
+    void benchmarkSample() {
+        GameState game = TestGames.played(9L, 7, 3);
+        for (int i = 0; i < 7; i++) {
+            game.players.get(i).setCharacter(i + 1);
+        }
+        Determinizer d = Determinizer.forTurn(game, game.players.get(0), 2);
+        SplittableRandom random = new SplittableRandom(1);
+        final int samples = 5_000_000;
+        long sink = 0;
+        for (int warm = 0; warm < 2; warm++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                d.sample(random);
+                sink += d.characterOf(3);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (warm == 1) {
+                System.out.printf("Determinizer.sample: %.0f ns, %.2fM samples/s (%d)%n",
+                        (double) elapsed / samples, samples * 1e3 / elapsed, sink);
+            }
+        }
+    }
+}
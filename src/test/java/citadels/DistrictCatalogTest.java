@@ -0,0 +1,63 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistrictCatalogTest {
+
+    private final DistrictCatalog catalog = DistrictCatalog.get();
+
+    /** The catalog is parsed once and shared across the process. */
+    @Test
+    void testSingleton() {
+        assertSame(catalog, DistrictCatalog.get());
+    }
+
+    /** Card IDs are compact (0..size-1) and match each district's own ID. */
+    @Test
+    void testCompactIds() {
+        assertTrue(catalog.size() > 0);
+        for (int id = 0; id < catalog.size(); id++) {
+            assertEquals(id, catalog.byId(id).getId());
+            assertTrue(catalog.quantity(id) > 0);
+        }
+        assertEquals("Watchtower", catalog.byId(0).getName(), "first row of cards.tsv");
+    }
+
+    /** Name lookup is case-insensitive and returns the shared instance. */
+    @Test
+    void testByName() {
+        District lib = catalog.byName("LIBRARY");
+        assertNotNull(lib);
+        assertEquals("Library", lib.getName());
+        assertEquals("purple", lib.getColor());
+        assertSame(lib, catalog.byName("library"));
+        assertNull(catalog.byName("No Such District"));
+    }
+
+    /** A filled deck holds every copy of every card, all shared instances. */
+    @Test
+    void testFillDeckUsesSharedInstances() {
+        DistrictDeck a = new DistrictDeck();
+        DistrictDeck b = new DistrictDeck();
+        catalog.fillDeck(a);
+        catalog.fillDeck(b);
+        assertEquals(catalog.getDeckSize(), a.size());
+        for (int i = 0; i < a.size(); i++) {
+            District d = a.peek(i);
+            assertSame(catalog.byId(d.getId()), d);
+            assertSame(d, b.peek(i));
+        }
+    }
+
+    /** intern returns the catalog card for an exact match, a new card otherwise. */
+    @Test
+    void testIntern() {
+        District tavern = catalog.byName("Tavern");
+        assertSame(tavern, catalog.intern("Tavern", "green", 1, tavern.getDescription()));
+        District custom = catalog.intern("Tavern", "green", 1, "edited");
+        assertNotSame(tavern, custom);
+        assertEquals(-1, custom.getId());
+    }
+}
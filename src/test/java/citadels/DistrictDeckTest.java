@@ -0,0 +1,141 @@
+package citadels;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistrictDeckTest {
+
+    private DistrictDeck deck;
+    private District tavern;
+    private District market;
+    private District temple;
+
+    @BeforeEach
+    void setUp() {
+        deck = new DistrictDeck();
+        tavern = new District("Tavern", "green", 1, "");
+        market = new District("Market", "green", 2, "");
+        temple = new District("Temple", "blue", 1, "");
+    }
+
+    /** Cards come off the top in the order they were put on the bottom. */
+    @Test
+    void testDrawAndPutBottomOrder() {
+        deck.putBottom(tavern);
+        deck.putBottom(market);
+        deck.add(temple);
+        assertEquals(3, deck.size());
+        assertSame(tavern, deck.draw());
+        deck.putBottom(tavern);
+        assertSame(market, deck.draw());
+        assertSame(temple, deck.draw());
+        assertSame(tavern, deck.draw());
+        assertTrue(deck.isEmpty());
+    }
+
+    /** Drawing from an empty deck returns null. */
+    @Test
+    void testDrawEmpty() {
+        assertNull(deck.draw());
+    }
+
+    /** The deck grows past its initial capacity and wraps around correctly. */
+    @Test
+    void testGrowAndWrap() {
+        for (int i = 0; i < 50; i++) {
+            deck.putBottom(new District("D" + i, "red", 1, ""));
+        }
+        for (int i = 0; i < 40; i++) {
+            deck.draw();
+        }
+        for (int i = 50; i < 300; i++) {
+            deck.putBottom(new District("D" + i, "red", 1, ""));
+        }
+        assertEquals(260, deck.size());
+        for (int i = 40; i < 300; i++) {
+            assertEquals("D" + i, deck.draw().getName());
+        }
+    }
+
+    /** peek and indexOf look into the deck without removing cards. */
+    @Test
+    void testPeekAndIndexOf() {
+        deck.putBottom(tavern);
+        deck.putBottom(market);
+        deck.putBottom(temple);
+        assertSame(market, deck.peek(1));
+        assertEquals(2, deck.indexOf("temple"));
+        assertEquals(-1, deck.indexOf("Keep"));
+        assertEquals(3, deck.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> deck.peek(3));
+    }
+
+    /** take removes a card from the middle and keeps the rest in order. */
+    @Test
+    void testTake() {
+        deck.putBottom(tavern);
+        deck.putBottom(market);
+        deck.putBottom(temple);
+        assertSame(market, deck.take(1));
+        assertEquals(2, deck.size());
+        assertSame(tavern, deck.draw());
+        assertSame(temple, deck.draw());
+    }
+
+    /** Shuffling keeps every card and is reproducible from the seed. */
+    @Test
+    void testShuffleSeeded() {
+        DistrictDeck other = new DistrictDeck();
+        for (int i = 0; i < 60; i++) {
+            District d = new District("D" + i, "red", 1, "");
+            deck.putBottom(d);
+            other.putBottom(d);
+        }
+        deck.shuffle(new Random(5));
+        other.shuffle(new Random(5));
+        assertEquals(60, deck.size());
+        List<District> a = new ArrayList<>(deck);
+        List<District> b = new ArrayList<>(other);
+        assertEquals(a, b);
+        assertEquals(60, a.stream().map(District::getName).distinct().count());
+    }
+
+    /** A copy keeps the order of a wrapped ring and changes independently. */
+    @Test
+    void testCopy() {
+        for (int i = 0; i < 80; i++) {
+            deck.putBottom(new District("D" + i, "red", 1, ""));
+        }
+        for (int i = 0; i < 30; i++) {
+            deck.putBottom(deck.draw());
+        }
+        DistrictDeck copy = deck.copy();
+        assertEquals(new ArrayList<>(deck), new ArrayList<>(copy));
+        copy.draw();
+        copy.putBottom(tavern);
+        assertEquals(80, deck.size());
+        assertEquals("D30", deck.peek(0).getName());
+        assertEquals("D31", copy.peek(0).getName());
+    }
+
+    /** clear empties the deck; iteration runs top to bottom. */
+    @Test
+    void testIteratorAndClear() {
+        deck.putBottom(tavern);
+        deck.putBottom(market);
+        Iterator<District> it = deck.iterator();
+        assertSame(tavern, it.next());
+        assertSame(market, it.next());
+        assertFalse(it.hasNext());
+        deck.clear();
+        assertEquals(0, deck.size());
+        assertNull(deck.draw());
+    }
+}
@@ -84,4 +84,11 @@ class DistrictTest {
         District tavern = new District("Tavern", "green", 1, "");
         assertEquals("Tavern (green), cost: 1", tavern.displayLong(false));
     }
-}
\ No newline at end of file
+
+    /** Districts created outside the catalog have card ID -1. */
+    @Test
+    void testIdOutsideCatalog() {
+        District tavern = new District("Tavern", "green", 1, "");
+        assertEquals(-1, tavern.getId());
+    }
+}
@@ -0,0 +1,134 @@
+package citadels;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineMetricsTest {
+
+    @TempDir
+    Path dir;
+
+    private final EngineMetrics metrics = EngineMetrics.get();
+
+    @BeforeEach
+    void enable() {
+        metrics.reset();
+        metrics.setEnabled(true);
+    }
+
+    @AfterEach
+    void disable() {
+        metrics.setEnabled(false);
+        metrics.reset();
+    }
+
+    /** A simulation counts every game, round and turn, and times each phase. */
+    @Test
+    void testRecordsSimulation() {
+        SimulationResult r = Simulator.run(4, 20, 42L);
+        assertEquals(r.getCompletedGames(), metrics.getGamesCompleted());
+        assertEquals(Math.round(r.getMeanRounds() * r.getGames()), metrics.getRounds());
+        assertTrue(metrics.getTurns() >= 3 * metrics.getRounds(), "at least 3 live characters a round");
+        assertTrue(metrics.getSelectionMillis() > 0);
+        assertTrue(metrics.getTurnPhaseMillis() > 0);
+        assertTrue(metrics.getScoringMillis() > 0);
+        assertTrue(metrics.getRoundsPerSecond() > 0);
+        assertEquals(4 * metrics.getRounds(),
+                metrics.getDecisionLatency(EngineMetrics.Decision.CHARACTER).getCount(),
+                "one character choice per player per round");
+        assertTrue(metrics.getDecisionLatency(EngineMetrics.Decision.BUILD).getCount() > 0);
+        assertTrue(metrics.report().contains("Engine metrics: 20 games"), metrics.report());
+    }
+
+    /** Nothing is recorded while metrics are off. */
+    @Test
+    void testDisabledRecordsNothing() {
+        metrics.setEnabled(false);
+        Simulator.run(4, 5, 1L);
+        assertEquals(0, metrics.getGamesCompleted());
+        assertEquals(0, metrics.getRounds());
+        assertEquals(0, metrics.getTurns());
+        assertEquals(0, metrics.getSelectionMillis());
+        assertEquals(0, metrics.getDecisionLatencies().length);
+    }
+
+    /** Rounds played out on copies by search players are not counted. */
+    @Test
+    void testCopiesAreNotCounted() {
+        GameState game = GameState.headless(3L);
+        App.setupGame(game, 4, false);
+        GameState copy = game.copy();
+        App.playRound(copy);
+        App.scoreAndDeclareWinner(copy);
+        assertEquals(0, metrics.getRounds());
+        assertEquals(0, metrics.getGamesCompleted());
+        App.playRound(game);
+        assertEquals(1, metrics.getRounds());
+    }
+
+    /** Saves and loads are timed in both formats. */
+    @Test
+    void testRecordsSaveAndLoad() throws Exception {
+        GameState game = GameState.headless(5L);
+        App.setupGame(game, 5, false);
+        for (String name : new String[] {"game.json", "game" + BinarySerializer.EXTENSION}) {
+            String file = dir.resolve(name).toString();
+            Serializer.saveGame(game, file);
+            Serializer.loadGame(GameState.headless(0L), file);
+        }
+        assertTrue(metrics.getSaveMeanMicros() > 0);
+        assertTrue(metrics.getLoadMeanMicros() > 0);
+        assertTrue(metrics.report().contains("  Save: 2 samples"), metrics.report());
+        assertTrue(metrics.report().contains("  Load: 2 samples"), metrics.report());
+    }
+
+    /** The metrics can be read and switched over JMX. */
+    @Test
+    void testPublishedOverJmx() throws Exception {
+        EngineMetrics.register();
+        EngineMetrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(EngineMetrics.OBJECT_NAME);
+        Simulator.run(4, 3, 2L);
+        assertEquals(metrics.getGamesCompleted(), server.getAttribute(name, "GamesCompleted"));
+        assertEquals(metrics.getRounds(), server.getAttribute(name, "Rounds"));
+        assertTrue(((String[]) server.getAttribute(name, "DecisionLatencies")).length > 0);
+
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "Rounds"));
+        server.setAttribute(name, new Attribute("Enabled", false));
+        assertFalse(metrics.isEnabled());
+    }
+
+    /**
+     * Overhead: plays the same batch of games with metrics off and on,
+     * alternating, and reports the best time of each.
+     */
+    @Test
+    @Tag("perf")
+    void benchmarkOverhead() {
+        final int games = 5000;
+        long off = Long.MAX_VALUE;
+        long on = Long.MAX_VALUE;
+        for (int i = 0; i < 6; i++) {
+            metrics.setEnabled(false);
+            off = Math.min(off, Simulator.run(4, games, 42L).getElapsedNanos());
+            metrics.setEnabled(true);
+            on = Math.min(on, Simulator.run(4, games, 42L).getElapsedNanos());
+        }
+        System.out.printf("%d games: metrics off %.0f ms, on %.0f ms (%+.1f%%)%n",
+                games, off / 1e6, on / 1e6, (on - off) * 100.0 / off);
+        System.out.print(metrics.report());
+    }
+}
@@ -0,0 +1,139 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusTest {
+
+    private final GameState game = new GameState();
+    private final District tavern = new District("Tavern", "green", 1, "");
+
+    /** Events reach the listener in order with the fields they were published with. */
+    @Test
+    void testPublishAndDispatch() {
+        EventBus bus = new EventBus(8);
+        List<GameEvent> seen = new ArrayList<>();
+        bus.addListener(e -> seen.add(e.copy()));
+
+        assertTrue(bus.publish(game, GameEvent.Type.DISTRICT_BUILT, 2, 5, 1, tavern, 0));
+        assertTrue(bus.publish(game, GameEvent.Type.GOLD_STOLEN, 3, 2, 4, null, 1));
+        assertEquals(2, bus.dispatchAvailable());
+        assertEquals(0, bus.dispatchAvailable());
+
+        assertEquals(2, seen.size());
+        GameEvent built = seen.get(0);
+        assertEquals(GameEvent.Type.DISTRICT_BUILT, built.getType());
+        assertSame(game, built.getGame());
+        assertEquals(2, built.getPlayer());
+        assertSame(tavern, built.getDistrict());
+        assertEquals(0, built.getSequence());
+        GameEvent stolen = seen.get(1);
+        assertEquals(4, stolen.getAmount());
+        assertEquals(1, stolen.getTarget());
+        assertEquals(1, stolen.getSequence());
+    }
+
+    /** When the ring is full, events are dropped instead of blocking. */
+    @Test
+    void testFullRingDrops() {
+        EventBus bus = new EventBus(3);
+        assertEquals(4, bus.getCapacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(bus.publish(game, GameEvent.Type.CARD_DRAWN, 1, 0, 0, tavern, 0));
+        }
+        assertFalse(bus.publish(game, GameEvent.Type.CARD_DRAWN, 1, 0, 0, tavern, 0));
+        assertEquals(1, bus.getDroppedCount());
+
+        assertEquals(4, bus.dispatchAvailable());
+        assertTrue(bus.publish(game, GameEvent.Type.CARD_DRAWN, 1, 0, 0, tavern, 0));
+        assertEquals(1, bus.dispatchAvailable());
+    }
+
+    /** A listener that throws does not stop delivery to the others. */
+    @Test
+    void testFailingListener() {
+        EventBus bus = new EventBus(4);
+        int[] count = new int[1];
+        bus.addListener(e -> { throw new IllegalStateException("boom"); });
+        bus.addListener(e -> count[0]++);
+        bus.publish(game, GameEvent.Type.CROWN_PASSED, 1, 4, 0, null, 0);
+        bus.dispatchAvailable();
+        assertEquals(1, count[0]);
+    }
+
+    /** The dispatcher thread delivers events from several publishing threads. */
+    @Test
+    void testDispatcherThread() throws Exception {
+        final int threads = 4;
+        final int perThread = 5000;
+        EventBus bus = new EventBus(threads * perThread);
+        long[] count = new long[1];
+        long[] lastSeq = {-1};
+        boolean[] ordered = {true};
+        bus.addListener(e -> {
+            if (e.getSequence() != lastSeq[0] + 1) ordered[0] = false;
+            lastSeq[0] = e.getSequence();
+            count[0]++;
+        });
+        bus.start();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int player = t + 1;
+            Thread th = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    bus.publish(game, GameEvent.Type.CARD_DRAWN, player, 0, i, null, 0);
+                }
+            });
+            producers.add(th);
+            th.start();
+        }
+        for (Thread th : producers) th.join();
+        bus.close();
+
+        assertEquals(0, bus.getDroppedCount());
+        assertEquals(threads * perThread, count[0]);
+        assertTrue(ordered[0], "events are delivered in sequence order");
+    }
+
+    /** A whole game publishes events consistent with its final state. */
+    @Test
+    void testGameEvents() {
+        EventBus bus = new EventBus(1 << 14);
+        Map<GameEvent.Type, Integer> counts = new EnumMap<>(GameEvent.Type.class);
+        bus.addListener(e -> counts.merge(e.getType(), 1, Integer::sum));
+
+        GameState g = GameState.headless(7L);
+        g.setEventBus(bus);
+        App.setupGame(g, 5, false);
+        int rounds = 0;
+        while (!g.gameEndTriggered && rounds < 200) {
+            App.playRound(g);
+            rounds++;
+            bus.dispatchAvailable();
+        }
+        App.scoreAndDeclareWinner(g);
+        bus.dispatchAvailable();
+
+        assertEquals(0, bus.getDroppedCount());
+        assertEquals(5 * rounds, counts.get(GameEvent.Type.CHARACTER_CHOSEN));
+        assertEquals(5, counts.get(GameEvent.Type.FINAL_SCORE));
+        assertEquals(1, counts.get(GameEvent.Type.GAME_END));
+        int cities = 0;
+        int held = 0;
+        for (Player p : g.getPlayers()) {
+            cities += p.getCity().size();
+            held += p.getCity().size() + p.getHand().size();
+        }
+        int destroyed = counts.getOrDefault(GameEvent.Type.DISTRICT_DESTROYED, 0);
+        assertEquals(cities + destroyed, counts.get(GameEvent.Type.DISTRICT_BUILT));
+        assertTrue(counts.get(GameEvent.Type.CARD_DRAWN) >= held,
+                "every card held or built was drawn");
+    }
+}
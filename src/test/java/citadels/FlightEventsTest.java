@@ -0,0 +1,126 @@
+package citadels;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightEventsTest {
+
+    @TempDir
+    Path dir;
+
+    // Names of every game event
+    private static final String[] EVENTS = {
+            "citadels.CharacterSelection", "citadels.Turn", "citadels.Decision",
+            "citadels.Scoring", "citadels.Save", "citadels.Load"
+    };
+
+    // Runs the action under a recording of every game event and returns them
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        try (Recording recording = new Recording()) {
+            for (String name : EVENTS) {
+                recording.enable(name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            Path file = dir.resolve("events.jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        }
+    }
+
+    // The recorded events with the given name from the given game; games
+    // other tests leave running may record at the same time
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name,
+                                             GameState game) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name)
+                        && e.getLong("gameId") == game.getId())
+                .collect(Collectors.toList());
+    }
+
+    /** A whole game records its phases, turns and decisions, tagged with the game. */
+    @Test
+    void testGameRecordsEvents() throws IOException {
+        GameState game = GameState.headless(8L);
+        App.setupGame(game, 5, false);
+        List<RecordedEvent> events = record(() -> {
+            while (!game.gameEndTriggered) {
+                App.playRound(game);
+            }
+            App.scoreAndDeclareWinner(game);
+        });
+
+        List<RecordedEvent> selections = named(events, "citadels.CharacterSelection", game);
+        assertEquals(game.getRound(), selections.size(), "one selection per round");
+        for (int i = 0; i < selections.size(); i++) {
+            assertEquals(i + 1, selections.get(i).getInt("round"));
+        }
+
+        List<RecordedEvent> turns = named(events, "citadels.Turn", game);
+        assertTrue(turns.size() >= 3 * game.getRound());
+        for (RecordedEvent e : turns) {
+            int character = e.getInt("character");
+            assertTrue(character >= 1 && character <= 8);
+            assertTrue(e.getInt("playerId") >= 1 && e.getInt("playerId") <= 5);
+        }
+
+        List<RecordedEvent> decisions = named(events, "citadels.Decision", game);
+        assertEquals(5 * game.getRound(), decisions.stream()
+                .filter(e -> e.getString("decision").equals("CHARACTER")).count());
+        assertTrue(decisions.stream().anyMatch(e -> e.getString("decision").equals("BUILD")));
+
+        List<RecordedEvent> scoring = named(events, "citadels.Scoring", game);
+        assertEquals(1, scoring.size());
+        assertEquals(game.getRound(), scoring.get(0).getInt("round"));
+    }
+
+    /** Playouts on copied games record nothing. */
+    @Test
+    void testCopiesRecordNothing() throws IOException {
+        GameState game = GameState.headless(2L);
+        App.setupGame(game, 4, false);
+        GameState copy = game.copy();
+        List<RecordedEvent> events = record(() -> {
+            App.playRound(copy);
+            App.scoreAndDeclareWinner(copy);
+        });
+        for (String name : EVENTS) {
+            assertTrue(named(events, name, copy).isEmpty(), name);
+        }
+    }
+
+    /** Saves and loads record the file. */
+    @Test
+    void testSaveAndLoadRecordFile() throws IOException {
+        GameState game = GameState.headless(3L);
+        App.setupGame(game, 4, false);
+        String file = dir.resolve("game" + BinarySerializer.EXTENSION).toString();
+        GameState loaded = GameState.headless(0L);
+        List<RecordedEvent> events = record(() -> {
+            try {
+                Serializer.saveGame(game, file);
+                Serializer.loadGame(loaded, file);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        List<RecordedEvent> saves = named(events, "citadels.Save", game);
+        assertEquals(1, saves.size());
+        assertEquals(file, saves.get(0).getString("file"));
+        List<RecordedEvent> loads = named(events, "citadels.Load", loaded);
+        assertEquals(1, loads.size());
+        assertEquals(file, loads.get(0).getString("file"));
+    }
+}
@@ -0,0 +1,260 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameHostTest {
+
+    @TempDir
+    Path dir;
+
+    // Answers that are valid at most prompts, as in GameJournalTest
+    private static final String[] ANSWERS = {
+            "t", "t", "t", "1", "2", "3", "4", "5", "6", "7", "8",
+            "gold", "end", "end", "build 1", "no"
+    };
+
+    // Polls until the condition holds or the timeout expires
+    private static boolean await(BooleanSupplier cond, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!cond.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private static PrintStream nullStream() {
+        return new PrintStream(OutputStream.nullOutputStream());
+    }
+
+    // Submits the next answers and waits until the table asks again
+    private static void play(GameTable table, Random answers, int count)
+            throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            table.submit(ANSWERS[answers.nextInt(ANSWERS.length)]);
+        }
+        assertTrue(await(() -> table.isWaitingForInput() || table.isFinished(), 5000));
+    }
+
+    // Size of a file, or -1 if it cannot be read
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /** A new table sets up its game and parks waiting for the human. */
+    @Test
+    void testOpenTableParksForInput() throws Exception {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (GameHost host = new GameHost()) {
+            GameTable table = host.openTable(4, 1L, new PrintStream(buf, true));
+            assertTrue(await(table::isWaitingForInput, 5000));
+            assertEquals(4, table.getGame().getPlayers().size());
+            assertEquals(1, host.getOpenTableCount());
+            assertSame(table, host.getTable(table.getId()));
+        }
+        assertTrue(buf.toString().contains("Starting Citadels with 4 players"));
+    }
+
+    /** Submitted lines are read by that table's game only. */
+    @Test
+    void testSubmitDrivesOnlyItsOwnTable() throws Exception {
+        ByteArrayOutputStream bufA = new ByteArrayOutputStream();
+        ByteArrayOutputStream bufB = new ByteArrayOutputStream();
+        try (GameHost host = new GameHost()) {
+            GameTable a = host.openTable(4, 1L, new PrintStream(bufA, true));
+            GameTable b = host.openTable(4, 2L, new PrintStream(bufB, true));
+            assertTrue(await(() -> a.isWaitingForInput() && b.isWaitingForInput(), 5000));
+
+            a.submit("t");
+            assertTrue(await(() -> bufA.toString().contains("SELECTION PHASE"), 5000));
+            assertTrue(await(a::isWaitingForInput, 5000));
+            assertFalse(bufB.toString().contains("SELECTION PHASE"));
+        }
+    }
+
+    /** Closing a table ends its game and removes it from the host. */
+    @Test
+    void testCloseEndsGame() throws Exception {
+        GameHost host = new GameHost();
+        GameTable table = host.openTable(5, 3L, nullStream());
+        assertTrue(await(table::isWaitingForInput, 5000));
+
+        table.close();
+
+        assertTrue(table.join(5000));
+        assertNull(table.getFailure());
+        assertEquals(0, host.getOpenTableCount());
+    }
+
+    /** Every table is stepped by the host's one scheduler thread. */
+    @Test
+    void testTablesShareOneThread() throws Exception {
+        AtomicInteger threads = new AtomicInteger();
+        try (GameHost host = new GameHost(r -> {
+            threads.incrementAndGet();
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        })) {
+            List<GameTable> open = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                open.add(host.openTable(4 + i % 4, i, nullStream()));
+            }
+            assertTrue(await(() -> host.getWaitingTableCount() == 50, 5000));
+            for (GameTable t : open) {
+                t.submit("t");
+            }
+            assertTrue(await(() -> host.getWaitingTableCount() == 50
+                    && host.getCommandLatency().getCount() == 50, 5000));
+            assertEquals(1, threads.get());
+        }
+    }
+
+    /**
+     * A journaled game reopened on a new host after its first host went
+     * away is rebuilt where it stood, and plays on exactly as the same
+     * game played without a break.
+     */
+    @Test
+    void testResumeTableFromJournal() throws Exception {
+        Path file = dir.resolve("table.journal");
+        GameTable first;
+        try (GameHost host = new GameHost()) {
+            first = host.openJournaledTable(4, 9L, nullStream(), null, file);
+            play(first, new Random(5L), 40);
+        }
+        assertTrue(first.join(5000));
+        assertNull(first.getFailure());
+        assertFalse(first.getGame().gameEndTriggered, "game should still be running");
+        assertTrue(Files.exists(file));
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (GameHost host = new GameHost()) {
+            GameTable resumed = host.resumeTable(file, new PrintStream(buf, true), null);
+            assertTrue(await(resumed::isWaitingForInput, 5000));
+            assertArrayEquals(TestGames.bytes(first.getGame()),
+                    TestGames.bytes(resumed.getGame()));
+            assertTrue(buf.size() > 0, "the last prompt should be shown again");
+
+            GameTable unbroken = host.openJournaledTable(4, 9L, nullStream(), null,
+                    dir.resolve("unbroken.journal"));
+            Random answers = new Random(5L);
+            play(unbroken, answers, 80);
+            answers = new Random(5L);
+            for (int i = 0; i < 40; i++) {
+                answers.nextInt(ANSWERS.length);
+            }
+            play(resumed, answers, 40);
+            assertArrayEquals(TestGames.bytes(unbroken.getGame()),
+                    TestGames.bytes(resumed.getGame()));
+            assertNull(resumed.getFailure());
+        }
+    }
+
+    /** A journaled table commits pending input once the delay is up. */
+    @Test
+    void testJournaledTableCommitsAfterDelay() throws Exception {
+        Path file = dir.resolve("delay.journal");
+        try (GameHost host = new GameHost()) {
+            GameTable table = host.openJournaledTable(4, 1L, nullStream(), null, file);
+            assertTrue(await(table::isWaitingForInput, 5000));
+            long before = size(file);
+            table.submit("t");
+            assertTrue(await(table::isWaitingForInput, 5000));
+            assertTrue(await(() -> size(file) > before, 5000), "input should be committed");
+        }
+    }
+
+    /** Player counts outside 4-7 are rejected. */
+    @Test
+    void testOpenTableRejectsInvalidPlayerCount() {
+        try (GameHost host = new GameHost()) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> host.openTable(3, 0L, nullStream()));
+        }
+    }
+
+    /**
+     * Load test: opens 10k tables that all wait for their human, then
+     * reports heap per waiting game, thread usage and how long the
+     * scheduler takes to step every table once.
+     */
+    @Test
+    @Tag("perf")
+    void loadTestTenThousandParkedTables() throws Exception {
+        final int tables = 10_000;
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        try (GameHost host = new GameHost()) {
+            long start = System.nanoTime();
+            List<GameTable> open = new ArrayList<>(tables);
+            for (int i = 0; i < tables; i++) {
+                open.add(host.openTable(4 + i % 4, i, nullStream()));
+            }
+            assertTrue(await(() -> host.getWaitingTableCount() == tables, 120_000),
+                    "all tables should park waiting for input");
+            long openNanos = System.nanoTime() - start;
+
+            System.gc();
+            long heapParked = rt.totalMemory() - rt.freeMemory();
+            int threadsParked = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            // Wake every table once and wait until all have parked again
+            start = System.nanoTime();
+            for (GameTable t : open) {
+                t.submit("t");
+            }
+            assertTrue(await(() -> {
+                for (GameTable t : open) {
+                    if (!t.isWaitingForInput() || t.isFinished()) {
+                        return false;
+                    }
+                }
+                return true;
+            }, 120_000), "all tables should park again after one input");
+            long wakeNanos = System.nanoTime() - start;
+
+            System.out.printf("Opened and parked %d tables in %d ms%n",
+                    tables, openNanos / 1_000_000);
+            System.out.printf("Heap per parked game: %d bytes%n",
+                    (heapParked - heapBefore) / tables);
+            System.out.printf("Live JVM threads: %d before, %d with all tables parked%n",
+                    threadsBefore, threadsParked);
+            System.out.printf("Woke and re-parked all tables in %d ms (%.1f us/table)%n",
+                    wakeNanos / 1_000_000, wakeNanos / 1e3 / tables);
+
+            host.close();
+            for (GameTable t : open) {
+                assertTrue(t.join(30_000));
+                assertNull(t.getFailure());
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+
+    @TempDir
+    Path dir;
+
+    // Answers that are valid at most prompts; "cards" is avoided because
+    // the human resource prompt keeps drawing until it reads "gold"
+    private static final String[] ANSWERS = {
+            "t", "t", "t", "1", "2", "3", "4", "5", "6", "7", "8",
+            "gold", "end", "end", "build 1", "no"
+    };
+
+    // Seeded stream of answers, optionally closing after a number of lines
+    private static final class Script implements InputSource {
+        private final Random random;
+        private final int limit;
+        private int read;
+
+        Script(long seed, int skip, int limit) {
+            this.random = new Random(seed);
+            this.limit = limit;
+            for (int i = 0; i < skip; i++) {
+                nextAnswer();
+            }
+        }
+
+        private String nextAnswer() {
+            return ANSWERS[random.nextInt(ANSWERS.length)];
+        }
+
+        @Override
+        public String nextLine() {
+            if (read == limit) {
+                throw new NoSuchElementException("script ended");
+            }
+            read++;
+            return nextAnswer();
+        }
+    }
+
+    // Final scores printed at the end of the captured output
+    private static String finalScores(CaptureSink out) {
+        String text = out.toString();
+        int i = text.lastIndexOf("GAME OVER");
+        assertTrue(i >= 0, "game did not finish");
+        return text.substring(i);
+    }
+
+    // Plays until the script closes, then closes the journal
+    private static void crash(GameJournal journal) throws IOException {
+        assertThrows(NoSuchElementException.class, journal::play);
+        journal.close();
+    }
+
+    /** A journaled game plays exactly like the same game without a journal. */
+    @Test
+    void testJournalDoesNotChangeGame() throws Exception {
+        CaptureSink plain = new CaptureSink();
+        GameState game = new GameState(new Script(3L, 0, -1), plain);
+        game.random = new GameRandom(7L);
+        App.playGame(game, 4);
+
+        CaptureSink out = new CaptureSink();
+        try (GameJournal journal = GameJournal.create(dir.resolve("a.journal"), 4, 7L,
+                new Script(3L, 0, -1), out)) {
+            journal.setCompactEvery(0);
+            journal.play();
+            assertTrue(journal.getRoundsPlayed() > 0);
+        }
+        assertEquals(plain.toString(), out.toString());
+    }
+
+    /** After a crash the log is replayed and the game ends as it would have. */
+    @Test
+    void testReplayAfterCrash() throws Exception {
+        CaptureSink whole = new CaptureSink();
+        GameState game = new GameState(new Script(5L, 0, -1), whole);
+        game.random = new GameRandom(11L);
+        App.playGame(game, 5);
+
+        Path file = dir.resolve("b.journal");
+        GameJournal first = GameJournal.create(file, 5, 11L, new Script(5L, 0, 40), new CaptureSink());
+        first.setCompactEvery(0);
+        crash(first);
+
+        CaptureSink out = new CaptureSink();
+        try (GameJournal resumed = GameJournal.open(file, new Script(5L, 40, -1), out)) {
+            resumed.setCompactEvery(0);
+            resumed.play();
+        }
+        assertEquals(finalScores(whole), finalScores(out));
+        assertFalse(out.toString().contains("Starting Citadels"),
+                "replayed output should not be shown again");
+    }
+
+    /** Compaction snapshots the game; resuming from the snapshot gives the same result. */
+    @Test
+    void testResumeFromCompactedLog() throws Exception {
+        CaptureSink whole = new CaptureSink();
+        try (GameJournal journal = GameJournal.create(dir.resolve("c.journal"), 4, 21L,
+                new Script(8L, 0, -1), whole)) {
+            journal.setCompactEvery(1);
+            journal.play();
+        }
+
+        Path file = dir.resolve("d.journal");
+        GameJournal first = GameJournal.create(file, 4, 21L, new Script(8L, 0, 750), new CaptureSink());
+        first.setCompactEvery(1);
+        crash(first);
+        int played = first.getRoundsPlayed();
+        assertTrue(played >= 2, "expected compactions before the crash");
+
+        CaptureSink out = new CaptureSink();
+        try (GameJournal resumed = GameJournal.open(file, new Script(8L, 750, -1), out)) {
+            resumed.setCompactEvery(1);
+            assertEquals(played, resumed.getRoundsPlayed());
+            resumed.play();
+        }
+        assertEquals(finalScores(whole), finalScores(out));
+        assertFalse(Files.exists(dir.resolve("d.journal.tmp")));
+    }
+
+    /** Appends are grouped: far fewer commits than records. */
+    @Test
+    void testGroupCommit() throws Exception {
+        Path file = dir.resolve("e.journal");
+        try (GameJournal journal = GameJournal.create(file, 4, 1L, () -> "t", new CaptureSink())) {
+            for (int i = 0; i < 160; i++) {
+                assertEquals("t", journal.nextLine());
+            }
+            assertEquals(160, journal.getRecordCount());
+            assertTrue(journal.getCommitCount() <= 160 / GameJournal.GROUP_SIZE,
+                    "commits: " + journal.getCommitCount());
+        }
+        long size = Files.size(file);
+        try (GameJournal reopened = GameJournal.open(file, () -> "t", new CaptureSink())) {
+            assertEquals(size, Files.size(file));
+            assertEquals(0, reopened.getRoundsPlayed());
+        }
+    }
+
+    /** A record cut short by a crash is dropped when the journal is reopened. */
+    @Test
+    void testTornRecordIgnored() throws Exception {
+        Path file = dir.resolve("f.journal");
+        try (GameJournal journal = GameJournal.create(file, 4, 1L, () -> "gold", new CaptureSink())) {
+            journal.nextLine();
+        }
+        long size = Files.size(file);
+        // 'L', then a length of 10 but only two bytes of text
+        Files.write(file, new byte[] {'L', 0, 10, 'g', 'o'}, StandardOpenOption.APPEND);
+
+        try (GameJournal reopened = GameJournal.open(file, () -> "end", new CaptureSink())) {
+            assertEquals(size, Files.size(file));
+            assertEquals("gold", reopened.nextLine());
+            assertEquals("end", reopened.nextLine());
+        }
+    }
+
+    /** Files that are not journals are rejected. */
+    @Test
+    void testRejectsOtherFiles() throws Exception {
+        Path file = dir.resolve("g.journal");
+        Files.write(file, new byte[] {'{', '}'});
+        assertThrows(IOException.class, () -> GameJournal.open(file, () -> "t", new CaptureSink()));
+    }
+
+    /** Cost of journaling a turn versus rewriting the JSON snapshot each turn. */
+    @Test
+    @Tag("perf")
+    void benchmarkJournalVersusSnapshot() throws Exception {
+        GameState game = TestGames.played(3L, 5, 4);
+        String json = dir.resolve("bench.json").toString();
+        final int turns = 5000;
+
+        for (int warm = 0; warm < 2; warm++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < turns; i++) {
+                Serializer.saveGame(game, json);
+            }
+            long t1 = System.nanoTime();
+            long commits;
+            try (GameJournal journal = GameJournal.create(dir.resolve("bench.journal"), 5, 1L,
+                    () -> "build 1", NullSink.INSTANCE)) {
+                for (int i = 0; i < turns; i++) {
+                    journal.nextLine();
+                }
+                journal.commit();
+                commits = journal.getCommitCount();
+            }
+            long t2 = System.nanoTime();
+            if (warm == 1) {
+                System.out.printf("JSON snapshot per turn: %8.1f us%n", (t1 - t0) / 1e3 / turns);
+                System.out.printf("Journal append per turn: %7.1f us (%d commits)%n",
+                        (t2 - t1) / 1e3 / turns, commits);
+            }
+        }
+    }
+}
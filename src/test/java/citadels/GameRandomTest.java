@@ -0,0 +1,86 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRandomTest {
+
+    // The first draws of a stream
+    private static long[] draws(SplittableRandom stream, int n) {
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = stream.nextLong();
+        }
+        return out;
+    }
+
+    /** The same seed gives the same streams. */
+    @Test
+    void testSameSeedSameStreams() {
+        GameRandom a = new GameRandom(42L), b = new GameRandom(42L);
+        assertEquals(42L, a.getSeed());
+        assertArrayEquals(draws(a.deck, 8), draws(b.deck, 8));
+        assertArrayEquals(draws(a.characters, 8), draws(b.characters, 8));
+        assertArrayEquals(draws(a.ai, 8), draws(b.ai, 8));
+    }
+
+    /** Drawing from one stream leaves the others where they were. */
+    @Test
+    void testStreamsAreIndependent() {
+        GameRandom a = new GameRandom(7L), b = new GameRandom(7L);
+        draws(a.ai, 100);
+        assertArrayEquals(draws(a.deck, 8), draws(b.deck, 8));
+        assertArrayEquals(draws(a.characters, 8), draws(b.characters, 8));
+        assertFalse(Arrays.equals(draws(a.deck, 8), draws(a.ai, 8)));
+    }
+
+    /** Split-off games and new seeds do not repeat the parent's streams. */
+    @Test
+    void testSplit() {
+        GameRandom parent = new GameRandom(3L);
+        GameRandom child = parent.split();
+        assertNotEquals(parent.getSeed(), child.getSeed());
+        assertFalse(Arrays.equals(draws(new GameRandom(3L).deck, 8), draws(child.deck, 8)));
+        // splitting does not disturb the parent's child streams
+        assertArrayEquals(draws(new GameRandom(3L).deck, 8), draws(parent.deck, 8));
+    }
+
+    /** Shuffling permutes the list. */
+    @Test
+    void testShuffle() {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            list.add(i);
+        }
+        GameRandom.shuffle(list, new GameRandom(5L).characters);
+        assertEquals(8, list.size());
+        for (int i = 1; i <= 8; i++) {
+            assertTrue(list.contains(i));
+        }
+    }
+
+    /** A game replays exactly from its seed, whatever else ran before it. */
+    @Test
+    void testGameReplaysFromSeed() {
+        GameState first = GameState.headless(11L);
+        App.setupGame(first, 5, false);
+        while (!first.gameEndTriggered) {
+            App.playRound(first);
+        }
+        GameState second = GameState.headless(11L);
+        App.setupGame(second, 5, false);
+        while (!second.gameEndTriggered) {
+            App.playRound(second);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(first.players.get(i).getScore(), second.players.get(i).getScore());
+            assertEquals(first.players.get(i).getCity(), second.players.get(i).getCity());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    @TempDir
+    Path dir;
+
+    // Polls until the condition holds or the timeout expires
+    private static boolean await(BooleanSupplier cond, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!cond.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private static Socket connect(GameServer server) throws IOException {
+        Socket s = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        s.setSoTimeout(5000);
+        return s;
+    }
+
+    private static BufferedReader reader(Socket s) throws IOException {
+        return new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    // Reads lines until one contains the text; fails on EOF or timeout
+    private static void readUntil(BufferedReader in, String text) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.contains(text)) {
+                return;
+            }
+        }
+        fail("connection closed before \"" + text + "\"");
+    }
+
+    private static void send(Socket s, String line) throws IOException {
+        OutputStream out = s.getOutputStream();
+        out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /** A connection gets its own game and drives it with console commands. */
+    @Test
+    void testSessionPlaysGame() throws Exception {
+        try (GameServer server = GameServer.start(0, 4, 1L);
+             Socket s = connect(server)) {
+            BufferedReader in = reader(s);
+            readUntil(in, "Starting Citadels with 4 players");
+            send(s, "t");
+            readUntil(in, "SELECTION PHASE");
+            assertEquals(1, server.getSessionCount());
+            assertEquals(1, server.getHost().getOpenTableCount());
+            assertTrue(await(() -> server.getHost().getCommandLatency().getCount() == 1, 5000));
+        }
+    }
+
+    /** Sessions are independent: input on one never reaches another's game. */
+    @Test
+    void testSessionsAreIndependent() throws Exception {
+        try (GameServer server = GameServer.start(0, 5, 2L);
+             Socket a = connect(server);
+             Socket b = connect(server)) {
+            BufferedReader inA = reader(a);
+            BufferedReader inB = reader(b);
+            readUntil(inA, "Press t to process turns");
+            readUntil(inB, "Press t to process turns");
+            assertTrue(await(() -> server.getHost().getWaitingTableCount() == 2, 5000));
+
+            send(a, "t");
+            readUntil(inA, "SELECTION PHASE");
+            assertTrue(await(() -> server.getHost().getWaitingTableCount() == 2, 5000));
+            b.setSoTimeout(200);
+            assertThrows(java.net.SocketTimeoutException.class, inB::readLine);
+        }
+    }
+
+    /** Dropping the connection closes its table. */
+    @Test
+    void testDisconnectClosesTable() throws Exception {
+        try (GameServer server = GameServer.start(0, 4, 3L)) {
+            try (Socket s = connect(server)) {
+                readUntil(reader(s), "You are player 1");
+                assertEquals(1, server.getHost().getOpenTableCount());
+            }
+            assertTrue(await(() -> server.getHost().getOpenTableCount() == 0, 5000));
+            assertTrue(await(() -> server.getSessionCount() == 0, 5000));
+        }
+    }
+
+    /** Closing the server ends every session. */
+    @Test
+    void testCloseEndsSessions() throws Exception {
+        GameServer server = GameServer.start(0, 4, 4L);
+        try (Socket s = connect(server)) {
+            BufferedReader in = reader(s);
+            readUntil(in, "Press t to process turns");
+            server.close();
+            assertNull(in.readLine());
+        }
+        assertTrue(await(() -> server.getHost().getOpenTableCount() == 0, 5000));
+    }
+
+    /** A journaling server restarted on the same directory resumes its games. */
+    @Test
+    void testRestartResumesJournaledGame() throws Exception {
+        try (GameServer server = GameServer.start(0, 4, 7L, dir);
+             Socket s = connect(server)) {
+            BufferedReader in = reader(s);
+            readUntil(in, "Press t to process turns");
+            send(s, "t");
+            readUntil(in, "SELECTION PHASE");
+            assertTrue(await(() -> server.getHost().getWaitingTableCount() == 1, 5000));
+        }
+        assertTrue(Files.exists(dir.resolve("game-0.journal")));
+
+        try (GameServer server = GameServer.start(0, 4, 7L, dir);
+             Socket s = connect(server)) {
+            // the game picks up after the "t", which is not asked for again
+            readUntil(reader(s), "SELECTION PHASE");
+            assertTrue(await(() -> server.getHost().getWaitingTableCount() == 1, 5000));
+            assertEquals(0, server.getHost().getCommandLatency().getCount());
+        }
+    }
+
+    /**
+     * Network players cannot save to the server's files. A save is tried
+     * after every answer, so it reaches the build prompt where commands
+     * are read.
+     */
+    @Test
+    void testRefusesSave() throws Exception {
+        Path file = dir.resolve("x");
+        String[] answers = {"t", "1", "2", "3", "4", "5", "6", "7", "8", "gold", "end"};
+        try (GameServer server = GameServer.start(0, 4, 8L);
+             Socket s = connect(server)) {
+            BufferedReader in = reader(s);
+            readUntil(in, "Press t to process turns");
+            for (int i = 0; i < 60; i++) {
+                send(s, answers[i % answers.length]);
+                send(s, "save " + file);
+            }
+            readUntil(in, "not available over the network");
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    /** Invalid player counts are rejected before binding. */
+    @Test
+    void testRejectsInvalidPlayerCount() {
+        assertThrows(IllegalArgumentException.class, () -> GameServer.start(0, 8, 0L));
+    }
+
+    /** The load generator drives many sessions and measures every reply. */
+    @Test
+    void testLoadGenerator() throws Exception {
+        try (GameServer server = GameServer.start(0, 4, 5L)) {
+            LoadGenerator load = new LoadGenerator(server.getPort(), 8, 20, 5L);
+            load.run(60_000);
+            assertEquals(160, load.getCommands());
+            assertTrue(load.getConnections() >= 8);
+            assertTrue(load.getLatency().getCount() + load.getTimeouts() >= 150);
+            assertTrue(server.getHost().getCommandLatency().getCount() > 0);
+            assertTrue(load.report().contains("160 commands"));
+            assertTrue(await(() -> server.getSessionCount() == 0, 5000));
+        }
+    }
+
+    /** Concurrent sessions against one server, with p99 latency. */
+    @Test
+    @Tag("perf")
+    void benchmarkLoad() throws Exception {
+        for (int sessions : new int[] {16, 256, 1024}) {
+            try (GameServer server = GameServer.start(0, 4, 6L)) {
+                LoadGenerator load = new LoadGenerator(server.getPort(), sessions, 50, 6L);
+                load.run(120_000);
+                System.out.print(load.report());
+                System.out.printf("  Server latency: %s%n",
+                        server.getHost().getCommandLatency().summary());
+            }
+        }
+    }
+}
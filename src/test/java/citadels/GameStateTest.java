@@ -0,0 +1,148 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateTest {
+
+    /** A fresh game starts with no players, an empty deck and no flags set. */
+    @Test
+    void testInitialState() {
+        GameState game = new GameState();
+        assertTrue(game.getPlayers().isEmpty());
+        assertTrue(game.getDeck().isEmpty());
+        assertNull(game.getCrownedPlayer());
+        assertNull(game.getFirstCompleter());
+        assertFalse(game.isGameEndTriggered());
+        assertTrue(game.firstSelection);
+    }
+
+    /** Two games must not see each other's players, deck or round effects. */
+    @Test
+    void testGamesAreIndependent() {
+        GameState a = new GameState();
+        GameState b = new GameState();
+        App.initializeDeck(a);
+        a.players.add(new Player(1, false));
+        a.killedCharacter = 3;
+        a.gameEndTriggered = true;
+
+        assertFalse(a.deck.isEmpty());
+        assertTrue(b.deck.isEmpty(), "deck must not be shared");
+        assertTrue(b.players.isEmpty(), "players must not be shared");
+        assertEquals(0, b.killedCharacter);
+        assertFalse(b.gameEndTriggered);
+    }
+
+    /** resetRound clears kill/rob/thief and every player's character. */
+    @Test
+    void testResetRound() {
+        GameState game = new GameState();
+        Player p = new Player(1, false);
+        p.setCharacter(2);
+        game.players.add(p);
+        game.killedCharacter = 4;
+        game.robbedCharacter = 5;
+        game.thiefPlayer = p;
+
+        game.resetRound();
+
+        assertEquals(0, game.killedCharacter);
+        assertEquals(0, game.robbedCharacter);
+        assertNull(game.thiefPlayer);
+        assertEquals(0, p.getCharacter());
+    }
+
+    /** Input is read from the scanner the game was created with. */
+    @Test
+    void testNextLineUsesOwnScanner() {
+        GameState game = new GameState(new Scanner("first\nsecond\n"));
+        assertEquals("first", game.nextLine());
+        assertEquals("second", game.nextLine());
+    }
+
+    /** A copy has the same position, with references to its own players. */
+    @Test
+    void testCopySamePosition() throws Exception {
+        GameState game = TestGames.played(4L, 7, 4);
+        game.thiefPlayer = game.players.get(2);
+        game.killedCharacter = 6;
+        game.firstCompleter = game.players.get(3);
+
+        GameState copy = game.copy();
+
+        assertArrayEquals(TestGames.bytes(game), TestGames.bytes(copy));
+        assertSame(copy.players.get(game.players.indexOf(game.crownedPlayer)),
+                copy.crownedPlayer);
+        assertSame(copy.players.get(2), copy.thiefPlayer);
+        assertSame(copy.players.get(3), copy.firstCompleter);
+        assertEquals(6, copy.killedCharacter);
+        for (int i = 0; i < game.players.size(); i++) {
+            assertNotSame(game.players.get(i), copy.players.get(i));
+            assertEquals(game.players.get(i).getScore(), copy.players.get(i).getScore());
+        }
+    }
+
+    /** Playing on in a copy leaves the original position untouched. */
+    @Test
+    void testCopyIsIndependent() throws Exception {
+        GameState game = TestGames.played(9L, 7, 4);
+        byte[] before = TestGames.bytes(game);
+
+        GameState copy = game.copy(new GameRandom(1L));
+        while (!copy.gameEndTriggered) {
+            App.playRound(copy);
+        }
+
+        assertArrayEquals(before, TestGames.bytes(game));
+        assertFalse(game.gameEndTriggered);
+    }
+
+    /** Copies never wait for a human. */
+    @Test
+    void testCopyHasNoInput() {
+        GameState game = new GameState(new Scanner("line\n"));
+        assertThrows(NoSuchElementException.class, () -> game.copy().nextLine());
+    }
+
+    /** Every game gets its own ID and copies ID 0; rounds count up and are kept by copies. */
+    @Test
+    void testIdAndRound() {
+        GameState game = GameState.headless(4L);
+        App.setupGame(game, 4, false);
+        assertNotEquals(game.getId(), new GameState().getId());
+        assertEquals(0, game.getRound());
+        App.playRound(game);
+        App.playRound(game);
+        assertEquals(2, game.getRound());
+        GameState copy = game.copy();
+        assertEquals(2, copy.getRound());
+        assertEquals(0, copy.getId());
+        assertEquals(0, game.copy(new GameRandom(1L)).getId());
+    }
+
+    /** Clones per second of a mid-game 7-player position. */
+    @Test
+    @Tag("perf")
+    void benchmarkCopy() {
+        GameState game = TestGames.played(5L, 7, 4);
+        final int iterations = 1_000_000;
+        int sink = 0;
+        for (int warm = 0; warm < 2; warm++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += game.copy().deck.size();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (warm == 1) {
+                System.out.printf("GameState.copy: %.0f ns, %.2fM clones/s (%d)%n",
+                        (double) elapsed / iterations, iterations * 1e3 / elapsed, sink);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeuristicStrategyTest {
+
+    /** nthBit counts set bits from the lowest. */
+    @Test
+    void testNthBit() {
+        int mask = 0b1010_0110;
+        assertEquals(1, HeuristicStrategy.nthBit(mask, 0));
+        assertEquals(2, HeuristicStrategy.nthBit(mask, 1));
+        assertEquals(5, HeuristicStrategy.nthBit(mask, 2));
+        assertEquals(7, HeuristicStrategy.nthBit(mask, 3));
+    }
+
+    /** pick returns every bit of the mask and nothing else. */
+    @Test
+    void testPickCoversMask() {
+        Random random = new Random(1);
+        int mask = 0b1_0010_1100;
+        int seen = 0;
+        for (int i = 0; i < 500; i++) {
+            int c = HeuristicStrategy.pick(mask, random);
+            assertTrue((mask & (1 << c)) != 0, "picked " + c);
+            seen |= 1 << c;
+        }
+        assertEquals(mask, seen);
+        assertEquals(0, HeuristicStrategy.pick(0, random));
+    }
+
+    /** Targets are always legal: the Thief never robs the killed character. */
+    @Test
+    void testTargetsLegal() {
+        GameState game = GameState.headless(3L);
+        Player p = new Player(1, false);
+        CpuStrategy s = p.getStrategy();
+        assertSame(HeuristicStrategy.INSTANCE, s);
+        for (int i = 0; i < 300; i++) {
+            int kill = s.assassinTarget(game, p);
+            assertTrue(kill >= 2 && kill <= 8);
+            game.killedCharacter = kill;
+            int rob = s.thiefTarget(game, p);
+            assertTrue(rob >= 3 && rob <= 8 && rob != kill, "robbed " + rob);
+        }
+    }
+
+    /** Games where every seat uses the heuristic player are still reproducible. */
+    @Test
+    void testSeededGamesReproducible() {
+        GameState a = GameState.headless(77L);
+        GameState b = GameState.headless(77L);
+        App.setupGame(a, 6, false);
+        App.setupGame(b, 6, false);
+        for (int i = 0; i < 3; i++) {
+            App.playRound(a);
+            App.playRound(b);
+        }
+        for (int i = 0; i < 6; i++) {
+            assertEquals(a.players.get(i).getScore(), b.players.get(i).getScore());
+            assertEquals(a.players.get(i).getGold(), b.players.get(i).getGold());
+        }
+    }
+
+    // The catalog's card with that name
+    private static District card(String name) {
+        return DistrictCatalog.get().byName(name);
+    }
+
+    // A CPU player with the given gold and hand
+    private static Player player(int id, int gold, String... hand) {
+        Player p = new Player(id, false);
+        p.addGold(gold);
+        for (String name : hand) {
+            p.addCardToHand(card(name));
+        }
+        return p;
+    }
+
+    /** Gold when the hand is empty or gold is short; the dearer drawn card is kept. */
+    @Test
+    void testResources() {
+        GameState game = GameState.headless(1L);
+        CpuStrategy s = HeuristicStrategy.INSTANCE;
+        assertTrue(s.takeGold(game, player(1, 5)));
+        assertTrue(s.takeGold(game, player(1, 1, "Tavern")));
+        assertFalse(s.takeGold(game, player(1, 2, "Tavern")));
+
+        District tavern = card("Tavern"), castle = card("Castle");
+        assertSame(castle, s.chooseKeptCard(game, player(1, 0), tavern, castle));
+        assertSame(castle, s.chooseKeptCard(game, player(1, 0), castle, tavern));
+        assertSame(tavern, s.chooseKeptCard(game, player(1, 0), tavern, card("Temple")));
+    }
+
+    /** The Magician takes the largest bigger hand, or else discards duplicates. */
+    @Test
+    void testMagician() {
+        GameState game = GameState.headless(1L);
+        CpuStrategy s = HeuristicStrategy.INSTANCE;
+        Player self = player(1, 0, "Tavern", "Manor", "Tavern", "Temple", "Manor", "Tavern");
+        game.players.add(self);
+        game.players.add(player(2, 0, "Castle"));
+        assertEquals(-1, s.magicianExchange(game, self));
+        // the first card of each repeated name goes, the last copy stays
+        assertEquals((1L << 0) | (1L << 1) | (1L << 2), s.magicianDiscard(game, self));
+
+        game.players.add(player(3, 0, "Castle", "Castle", "Castle", "Castle", "Castle", "Castle", "Castle"));
+        game.players.add(player(4, 0, "Castle", "Castle", "Castle", "Castle", "Castle", "Castle", "Castle"));
+        assertEquals(2, s.magicianExchange(game, self));
+    }
+
+    /** Laboratory, Smithy and School of Magic follow the old CPU rules. */
+    @Test
+    void testPurpleDistricts() {
+        GameState game = GameState.headless(1L);
+        CpuStrategy s = HeuristicStrategy.INSTANCE;
+        assertEquals(-1, s.laboratoryDiscard(game, player(1, 0, "Castle", "Tavern")));
+        assertEquals(1, s.laboratoryDiscard(game, player(1, 0, "Castle", "Tavern", "Temple")));
+
+        assertTrue(s.useSmithy(game, player(1, 2, "Castle", "Tavern", "Temple")));
+        assertFalse(s.useSmithy(game, player(1, 1)));
+        assertFalse(s.useSmithy(game, player(1, 9, "Castle", "Tavern", "Temple", "Manor")));
+
+        Player builder = player(1, 0);
+        int green = City.colorIndex("green");
+        assertEquals(green, s.schoolOfMagicColor(game, builder, green));
+        builder.getCity().add(card("Manor"));
+        builder.getCity().add(card("Castle"));
+        builder.getCity().add(card("Tavern"));
+        assertEquals(City.colorIndex("yellow"), s.schoolOfMagicColor(game, builder, green));
+    }
+
+    /** The cheapest affordable district not yet built is built first. */
+    @Test
+    void testBuildChoice() {
+        GameState game = GameState.headless(1L);
+        CpuStrategy s = HeuristicStrategy.INSTANCE;
+        Player p = player(1, 3, "Castle", "Manor", "Tavern", "Market");
+        assertEquals(2, s.buildChoice(game, p));
+        p.getCity().add(card("Tavern"));
+        assertEquals(3, s.buildChoice(game, p));
+        assertEquals(-1, s.buildChoice(game, player(1, 0, "Castle")));
+    }
+
+    /** The built-in player leaves cities alone, but can name the cheapest target. */
+    @Test
+    void testWarlord() {
+        GameState game = GameState.headless(1L);
+        CpuStrategy s = HeuristicStrategy.INSTANCE;
+        Player warlord = player(1, 1);
+        Player target = player(2, 1);
+        game.players.add(warlord);
+        game.players.add(target);
+        target.getCity().add(card("Castle"));
+        target.getCity().add(card("Market"));
+        assertEquals(-1, s.warlordTarget(game, warlord));
+        assertEquals(1, s.warlordDistrict(game, warlord, target));
+        target.getCity().add(card("Great Wall"));
+        assertEquals(-1, s.warlordDistrict(game, warlord, target));
+        assertTrue(s.recoverWithGraveyard(game, target, card("Market")));
+    }
+
+    /** A seat with its own strategy plays by it; the others keep the heuristic. */
+    @Test
+    void testStrategyPerSeat() {
+        GameState game = GameState.headless(12L);
+        App.setupGame(game, 4, false);
+        Player miser = game.players.get(0);
+        miser.setStrategy(new CpuStrategy() {
+            @Override
+            public int chooseCharacter(GameState g, Player self, int available) {
+                return Integer.numberOfTrailingZeros(available);
+            }
+
+            @Override
+            public int assassinTarget(GameState g, Player self) {
+                return 0;
+            }
+
+            @Override
+            public int thiefTarget(GameState g, Player self) {
+                return 0;
+            }
+
+            @Override
+            public boolean takeGold(GameState g, Player self) {
+                return true;
+            }
+
+            @Override
+            public int buildChoice(GameState g, Player self) {
+                return -1;
+            }
+        });
+        for (int i = 0; i < 4; i++) {
+            App.playRound(game);
+        }
+        assertTrue(miser.getCity().isEmpty());
+        boolean othersBuilt = false;
+        for (int i = 1; i < 4; i++) {
+            othersBuilt |= !game.players.get(i).getCity().isEmpty();
+        }
+        assertTrue(othersBuilt);
+    }
+
+    /** Deciding allocates nothing once warmed up. */
+    @Test
+    void testDecisionsDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        GameState game = TestGames.played(5L, 5, 3);
+        Player self = game.players.get(0);
+        Player other = game.players.get(1);
+        other.getCity().add(card("Manor"));
+        District a = card("Tavern"), b = card("Castle");
+        CpuStrategy s = HeuristicStrategy.INSTANCE;
+
+        long sink = 0;
+        long before = 0;
+        for (int round = 0; round < 2; round++) {
+            before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 20_000; i++) {
+                sink += s.chooseCharacter(game, self, 0b1_0110_1010);
+                sink += s.assassinTarget(game, self) + s.thiefTarget(game, self);
+                sink += s.takeGold(game, self) ? 1 : 0;
+                sink += s.chooseKeptCard(game, self, a, b).getCost();
+                sink += s.magicianExchange(game, self) + s.magicianDiscard(game, self);
+                sink += s.laboratoryDiscard(game, self) + (s.useSmithy(game, self) ? 1 : 0);
+                sink += s.schoolOfMagicColor(game, self, 2) + s.buildChoice(game, self);
+                sink += s.warlordTarget(game, self) + s.warlordDistrict(game, self, other);
+                sink += s.recoverWithGraveyard(game, self, a) ? 1 : 0;
+            }
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes (" + sink + ")");
+    }
+}
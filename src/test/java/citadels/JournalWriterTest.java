@@ -0,0 +1,68 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalWriterTest {
+
+    @TempDir
+    Path dir;
+
+    /** Journals sharing a writer each get their own records, in order. */
+    @Test
+    void testJournalsShareWriter() throws Exception {
+        JournalWriter writer = new JournalWriter();
+        try {
+            Path a = dir.resolve("a.journal");
+            Path b = dir.resolve("b.journal");
+            GameJournal first = GameJournal.create(a, 4, 1L, () -> "gold",
+                    new CaptureSink(), writer);
+            GameJournal second = GameJournal.create(b, 5, 2L, () -> "end",
+                    new CaptureSink(), writer);
+            for (int i = 0; i < 40; i++) {
+                assertEquals("gold", first.nextLine());
+                assertEquals("end", second.nextLine());
+            }
+            first.close();
+            second.close();
+
+            try (GameJournal reopened = GameJournal.open(a, () -> "t", new CaptureSink())) {
+                for (int i = 0; i < 40; i++) {
+                    assertEquals("gold", reopened.nextLine());
+                }
+                assertEquals("t", reopened.nextLine());
+            }
+            try (GameJournal reopened = GameJournal.open(b, () -> "t", new CaptureSink())) {
+                for (int i = 0; i < 40; i++) {
+                    assertEquals("end", reopened.nextLine());
+                }
+                assertEquals("t", reopened.nextLine());
+            }
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    /** A finished game's journal is deleted once the writer closes it. */
+    @Test
+    void testFinishDeletesFile() throws Exception {
+        JournalWriter writer = new JournalWriter();
+        try {
+            Path file = dir.resolve("c.journal");
+            GameJournal journal = GameJournal.create(file, 4, 1L, () -> "t",
+                    new CaptureSink(), writer);
+            journal.nextLine();
+            journal.finish(true).join();
+            assertFalse(Files.exists(file));
+            // closing again does nothing
+            journal.close();
+        } finally {
+            writer.shutdown();
+        }
+    }
+}
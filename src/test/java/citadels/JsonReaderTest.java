@@ -0,0 +1,81 @@
+package citadels;
+
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+
+    // Reads {"a": <value>, "b": 1}, skipping a, and returns b
+    private static int skipThenRead(String value) throws IOException, ParseException {
+        JsonReader r = new JsonReader(new StringReader("{\"a\": " + value + ", \"b\": 1}"));
+        r.beginObject();
+        int b = -1;
+        while (r.hasNext()) {
+            if (r.nextName().equals("a")) {
+                r.skipValue();
+            } else {
+                b = r.nextInt();
+            }
+        }
+        r.endObject();
+        r.endDocument();
+        return b;
+    }
+
+    /** Every kind of well-formed value can be skipped. */
+    @Test
+    void testSkipsValidValues() throws Exception {
+        for (String v : new String[] {"0", "-12", "3.5", "1e9", "-2.5E-3", "\"x\"", "true",
+                "null", "[1, [2], {\"c\": false}]"}) {
+            assertEquals(1, skipThenRead(v), v);
+        }
+    }
+
+    /** A bare word is an unexpected token, not something to skip over. */
+    @Test
+    void testSkipRejectsBareWord() {
+        ParseException e = assertThrows(ParseException.class, () -> skipThenRead("abc"));
+        assertEquals(ParseException.ERROR_UNEXPECTED_TOKEN, e.getErrorType());
+    }
+
+    /** Numbers that break the JSON grammar are rejected when skipped. */
+    @Test
+    void testSkipRejectsMalformedNumbers() {
+        for (String v : new String[] {"-", "1.", "1.e5", "2e", "+3", "1-2"}) {
+            assertThrows(ParseException.class, () -> skipThenRead(v), v);
+        }
+    }
+
+    /** Integers are read exactly; fractions and out-of-range values are errors. */
+    @Test
+    void testNextIntRejectsNonIntegers() throws Exception {
+        assertEquals(-2147483648, new JsonReader(new StringReader("-2147483648")).nextInt());
+        assertThrows(ParseException.class, () -> new JsonReader(new StringReader("1.5")).nextInt());
+        ParseException e = assertThrows(ParseException.class,
+                () -> new JsonReader(new StringReader("4294967297")).nextInt());
+        assertEquals(ParseException.ERROR_UNEXPECTED_TOKEN, e.getErrorType());
+        assertThrows(ParseException.class,
+                () -> new JsonReader(new StringReader("99999999999999999999")).nextLong());
+    }
+
+    // Arrays nested n deep, each holding 0 and then the next: [0, [0, 1]]
+    private static String nested(int n) {
+        return "[0, ".repeat(n - 1) + "[0, 1" + "]".repeat(n);
+    }
+
+    /** Nesting is accepted up to the limit and rejected past it, however deep. */
+    @Test
+    void testNestingIsBounded() throws Exception {
+        // the object around the skipped value is the first level
+        assertEquals(1, skipThenRead(nested(JsonReader.MAX_DEPTH - 1)));
+        ParseException e = assertThrows(ParseException.class,
+                () -> skipThenRead(nested(JsonReader.MAX_DEPTH)));
+        assertEquals(ParseException.ERROR_UNEXPECTED_TOKEN, e.getErrorType());
+        assertThrows(ParseException.class, () -> skipThenRead("[".repeat(200_000)));
+    }
+}
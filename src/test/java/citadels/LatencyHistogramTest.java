@@ -0,0 +1,74 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    /** Every value lands in a bucket whose bounds hold it, within about 3%. */
+    @Test
+    void testBucketBounds() {
+        for (long v : new long[] {0, 1, 63, 64, 65, 127, 128, 1000, 123_456, 1L << 40, Long.MAX_VALUE}) {
+            int b = LatencyHistogram.bucket(v);
+            assertTrue(v <= LatencyHistogram.upperBound(b), "upper bound of " + v);
+            if (b > 0) {
+                assertTrue(v > LatencyHistogram.upperBound(b - 1), "lower bound of " + v);
+            }
+            assertTrue(LatencyHistogram.upperBound(b) - v <= Math.max(0, v / 32), "precision at " + v);
+        }
+        assertEquals(63, LatencyHistogram.bucket(63));
+        assertEquals(64, LatencyHistogram.bucket(64));
+        assertEquals(65, LatencyHistogram.bucket(66));
+    }
+
+    /** Percentiles, mean and maximum match the recorded values. */
+    @Test
+    void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getPercentileMicros(99));
+        for (int i = 1; i <= 1000; i++) {
+            h.recordNanos(i * 1000L);
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(500.5, h.getMeanMicros(), 1e-9);
+        assertEquals(1000, h.getMaxMicros());
+        assertEquals(1, h.getPercentileMicros(0));
+        assertEquals(500, h.getPercentileMicros(50), 500 / 32.0);
+        assertEquals(990, h.getPercentileMicros(99), 990 / 32.0);
+        assertEquals(1000, h.getPercentileMicros(100));
+        assertTrue(h.summary().startsWith("1000 samples, mean 501 us"));
+    }
+
+    /** A striped histogram recorded from many threads adds up every stripe. */
+    @Test
+    void testStripedFromManyThreads() throws InterruptedException {
+        LatencyHistogram h = new LatencyHistogram(3);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    h.recordNanos(i * 1000L);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(8000, h.getCount());
+        assertEquals(500.5, h.getMeanMicros(), 1e-9);
+        assertEquals(1000, h.getMaxMicros());
+        assertEquals(500, h.getPercentileMicros(50), 500 / 32.0);
+        assertEquals(1000, h.getPercentileMicros(100));
+    }
+
+    /** Negative latencies, e.g. from clock adjustments, count as zero. */
+    @Test
+    void testNegativeIsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.recordNanos(-5000);
+        assertEquals(1, h.getCount());
+        assertEquals(0, h.getMaxMicros());
+    }
+}
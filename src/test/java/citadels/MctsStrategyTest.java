@@ -0,0 +1,102 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsStrategyTest {
+
+    /** The character chosen is one of those offered, and the position is not changed. */
+    @Test
+    void testChoosesOfferedCharacter() throws Exception {
+        GameState game = TestGames.played(2L, 5, 2);
+        game.faceUpCharacters = 1 << 6;
+        game.players.get(1).setCharacter(3);
+        Player self = game.players.get(0);
+        byte[] before = TestGames.bytes(game);
+        int offered = (1 << 1) | (1 << 4) | (1 << 7) | (1 << 8);
+
+        try (MctsStrategy mcts = new MctsStrategy(20, 1, 5L)) {
+            int c = mcts.chooseCharacter(game, self, offered);
+            assertTrue((offered & (1 << c)) != 0, "chose " + c);
+            assertEquals(1, mcts.getDecisionCount());
+            assertTrue(mcts.getPlayoutCount() >= 4, "every move tried at least once");
+            assertTrue(mcts.getMeanLatencyMillis() >= 20);
+        }
+        assertArrayEquals(before, TestGames.bytes(game));
+        assertEquals(0, self.getCharacter());
+    }
+
+    /** With a single legal move there is nothing to search. */
+    @Test
+    void testSingleMoveNotSearched() {
+        GameState game = TestGames.played(3L, 5, 2);
+        try (MctsStrategy mcts = new MctsStrategy(50, 1, 1L)) {
+            assertEquals(5, mcts.chooseCharacter(game, game.players.get(0), 1 << 5));
+            assertEquals(0, mcts.getDecisionCount());
+        }
+    }
+
+    /** Assassin and Thief targets are legal, searched on several workers. */
+    @Test
+    void testTargetsLegal() {
+        GameState game = TestGames.played(4L, 5, 2);
+        int[] chars = {1, 2, 4, 6, 8};
+        for (int i = 0; i < chars.length; i++) {
+            game.players.get(i).setCharacter(chars[i]);
+        }
+        try (MctsStrategy mcts = new MctsStrategy(10, 2, 9L)) {
+            int kill = mcts.assassinTarget(game, game.players.get(0));
+            assertTrue(kill >= 2 && kill <= 8);
+            game.killedCharacter = kill;
+            int rob = mcts.thiefTarget(game, game.players.get(1));
+            assertTrue(rob >= 3 && rob <= 8 && rob != kill, "robbed " + rob);
+            assertEquals(2, mcts.getDecisionCount());
+            assertTrue(mcts.getPlayoutsPerSecond() > 0);
+        }
+    }
+
+    /** A seat played by the search player gets through a whole game. */
+    @Test
+    void testPlaysWholeGame() {
+        GameState game = GameState.headless(6L);
+        App.setupGame(game, 4, false);
+        try (MctsStrategy mcts = new MctsStrategy(2, 2, 6L)) {
+            game.players.get(2).setStrategy(mcts);
+            for (int r = 0; r < Simulator.MAX_ROUNDS && !game.gameEndTriggered; r++) {
+                App.playRound(game);
+            }
+            assertTrue(game.gameEndTriggered);
+            assertTrue(mcts.getDecisionCount() > 0);
+            assertTrue(mcts.report().contains("play-outs/s"));
+        }
+        assertNotNull(App.scoreAndDeclareWinner(game));
+    }
+
+    /** Budget and thread count must be positive. */
+    @Test
+    void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(0, 1, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(10, 0, 1L));
+    }
+
+    /** Play-outs per second and decision latency, one worker and all cores. */
+    @Test
+    @Tag("perf")
+    void benchmarkPlayouts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] {1, cores}) {
+            try (MctsStrategy mcts = new MctsStrategy(100, threads, 1L)) {
+                for (int i = 0; i < 20; i++) {
+                    GameState game = TestGames.played(100L + i, 5, 2);
+                    mcts.chooseCharacter(game, game.players.get(0), 0b1_1111_1110);
+                }
+                System.out.print(mcts.report());
+            }
+            if (cores == 1) {
+                break;
+            }
+        }
+    }
+}
@@ -133,6 +133,36 @@ class PlayerTest {
         assertEquals(8, human.calculateScore(false, false));
     }
 
+    /** getScore follows the city as districts are built and destroyed. */
+    @Test
+    void testGetScoreRunning() {
+        assertEquals(0, human.getScore());
+        human.getCity().add(university);  // cost 6, bonus 2
+        assertEquals(8, human.getScore());
+        human.getCity().addAll(Arrays.asList(
+                redDistr, blueDistr, greenDistr, yellowDistr
+        ));
+        // 8 + 3+1+2+3 = 17, +3 diversity = 20
+        assertEquals(20, human.getScore());
+        human.getCity().remove(blueDistr);
+        assertEquals(16, human.getScore());
+        assertEquals(human.calculateScore(false, false), human.getScore());
+    }
+
+    /** getScore adds the completion bonus once the city has 8 districts. */
+    @Test
+    void testGetScoreCompletion() {
+        for (int i = 0; i < 8; i++) {
+            human.getCity().add(redDistr);
+        }
+        assertEquals(24 + 2, human.getScore());
+        human.setFirstCompleter(true);
+        assertEquals(24 + 4, human.getScore());
+        human.getCity().remove(0);
+        assertEquals(0, human.getCompletionBonus());
+        assertEquals(21, human.getScore());
+    }
+
     /** toString on empty city for CPU (no “(you)”). */
     @Test
     void testToStringEmptyCityCpu() {
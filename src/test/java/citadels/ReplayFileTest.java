@@ -0,0 +1,168 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayFileTest {
+
+    @TempDir
+    Path dir;
+
+    // Answers that are valid at most prompts
+    private static final String[] ANSWERS = {
+            "t", "t", "t", "1", "2", "3", "4", "5", "6", "7", "8",
+            "gold", "cards", "end", "end", "build 1", "no"
+    };
+
+    // Records an all-CPU game and returns the recorded game's final state
+    private byte[] recordCpuGame(Path file, int players, long seed, int every) throws IOException {
+        GameState game = GameState.headless(seed);
+        App.setupGame(game, players, false);
+        ReplayFile.record(file, game, every);
+        return TestGames.bytes(game);
+    }
+
+    // Plays the whole recording from round 0, keeping the state after each round
+    private static List<byte[]> everyRound(ReplayFile replay) throws IOException {
+        List<byte[]> states = new ArrayList<>();
+        ReplayFile.Cursor c = replay.seek(0);
+        states.add(TestGames.bytes(c.getGame()));
+        while (c.hasNext()) {
+            c.next();
+            states.add(TestGames.bytes(c.getGame()));
+        }
+        return states;
+    }
+
+    /** Seeking to any round gives the state reached by playing up to it. */
+    @Test
+    void testSeekMatchesPlayingFromStart() throws IOException {
+        Path file = dir.resolve("game.rep");
+        byte[] end = recordCpuGame(file, 5, 42L, 3);
+        try (ReplayFile replay = ReplayFile.open(file)) {
+            assertEquals(5, replay.getNumPlayers());
+            assertEquals(3, replay.getKeyframeEvery());
+            assertTrue(replay.getRounds() > 3);
+            assertEquals((replay.getRounds() - 1) / 3 + 1, replay.getKeyframeCount());
+
+            List<byte[]> states = everyRound(replay);
+            assertArrayEquals(end, states.get(replay.getRounds()), "replay ends where the game did");
+            for (int r = replay.getRounds(); r >= 0; r--) {
+                ReplayFile.Cursor c = replay.seek(r);
+                assertEquals(r, c.getRound());
+                assertArrayEquals(states.get(r), TestGames.bytes(c.getGame()), "round " + r);
+            }
+            assertTrue(replay.seek(replay.getRounds()).getGame().gameEndTriggered);
+        }
+    }
+
+    /** A human's input lines are recorded and replayed with the CPU decisions. */
+    @Test
+    void testHumanGameReplays() throws IOException {
+        Random random = new Random(5);
+        GameState game = new GameState(() -> ANSWERS[random.nextInt(ANSWERS.length)],
+                NullSink.INSTANCE);
+        game.random = new GameRandom(5L);
+        App.setupGame(game, 4, true);
+        Path file = dir.resolve("human.rep");
+        int rounds = ReplayFile.record(file, game, 2);
+        try (ReplayFile replay = ReplayFile.open(file)) {
+            assertEquals(rounds, replay.getRounds());
+            ReplayFile.Cursor c = replay.seek(rounds);
+            assertArrayEquals(TestGames.bytes(game), TestGames.bytes(c.getGame()));
+            assertTrue(c.getGame().players.get(0).isHuman());
+            assertFalse(c.hasNext());
+        }
+    }
+
+    /** Decisions are read back, not recomputed, so timed searches replay exactly. */
+    @Test
+    void testSearchStrategyReplays() throws Exception {
+        GameState game = GameState.headless(9L);
+        App.setupGame(game, 4, false);
+        try (MctsStrategy mcts = new MctsStrategy(1, 1, 3L)) {
+            game.players.get(2).setStrategy(mcts);
+            Path file = dir.resolve("mcts.rep");
+            ReplayFile.record(file, game, 4);
+            assertSame(mcts, game.players.get(2).getStrategy(), "strategy put back");
+            try (ReplayFile replay = ReplayFile.open(file)) {
+                assertArrayEquals(TestGames.bytes(game),
+                        TestGames.bytes(replay.seek(replay.getRounds()).getGame()));
+            }
+        }
+    }
+
+    /** Out-of-range rounds and files that are not replays are rejected. */
+    @Test
+    void testRejectsBadInput() throws IOException {
+        Path file = dir.resolve("game.rep");
+        recordCpuGame(file, 4, 1L, 3);
+        try (ReplayFile replay = ReplayFile.open(file)) {
+            assertThrows(IllegalArgumentException.class, () -> replay.seek(-1));
+            assertThrows(IllegalArgumentException.class, () -> replay.seek(replay.getRounds() + 1));
+            ReplayFile.Cursor c = replay.seek(replay.getRounds());
+            assertThrows(IllegalStateException.class, c::next);
+        }
+        Path other = dir.resolve("other.rep");
+        Files.write(other, "not a replay file at all".getBytes());
+        assertThrows(IOException.class, () -> ReplayFile.open(other));
+        GameState game = GameState.headless(1L);
+        App.setupGame(game, 4, false);
+        assertThrows(IllegalArgumentException.class,
+                () -> ReplayFile.record(dir.resolve("x.rep"), game, 0));
+    }
+
+    /**
+     * Seek latency: records games with a keyframe every 3 rounds and one
+     * with a single keyframe, then reports the mean time to seek to round
+     * 1 and to the last round of each. With keyframes both stay within a
+     * few rounds of play; without, the last round costs the whole game.
+     */
+    @Test
+    @Tag("perf")
+    void benchmarkSeek() throws IOException {
+        final int games = 50;
+        final int seeks = 20;
+        for (int every : new int[] {3, Simulator.MAX_ROUNDS}) {
+            int rounds = 0;
+            for (int g = 0; g < games; g++) {
+                recordCpuGame(dir.resolve(every + "-" + g + ".rep"), 4 + g % 4, g, every);
+            }
+            long first = 0;
+            long last = 0;
+            // the first pass warms up, the second is measured
+            for (int pass = 0; pass < 2; pass++) {
+                first = 0;
+                last = 0;
+                rounds = 0;
+                for (int g = 0; g < games; g++) {
+                    try (ReplayFile replay = ReplayFile.open(dir.resolve(every + "-" + g + ".rep"))) {
+                        rounds += replay.getRounds();
+                        for (int i = 0; i < seeks; i++) {
+                            long t0 = System.nanoTime();
+                            replay.seek(1);
+                            long t1 = System.nanoTime();
+                            replay.seek(replay.getRounds());
+                            first += t1 - t0;
+                            last += System.nanoTime() - t1;
+                        }
+                    }
+                }
+            }
+            int n = games * seeks;
+            System.out.printf("Keyframe every %d rounds (games of %.1f rounds): seek to round 1"
+                            + " %.0f us, to last round %.0f us%n",
+                    every, (double) rounds / games, first / 1e3 / n, last / 1e3 / n);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTest {
+
+    @TempDir
+    Path dir;
+
+    // Answers that are valid at most prompts
+    private static final String[] ANSWERS = {
+            "t", "t", "t", "1", "2", "3", "4", "5", "6", "7", "8",
+            "gold", "cards", "end", "end", "build 1", "no", "hand"
+    };
+
+    // A recording: the player count, then seeded random answers
+    private static List<String> recording(int players, long seed, int answers) {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>();
+        lines.add(String.valueOf(players));
+        for (int i = 0; i < answers; i++) {
+            lines.add(ANSWERS[random.nextInt(ANSWERS.length)]);
+        }
+        return lines;
+    }
+
+    // Writes a corpus recording headed by its seed line
+    private void writeRecording(String name, long seed, List<String> commands) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("seed " + seed);
+        lines.addAll(commands);
+        Files.write(dir.resolve(name + Replay.RECORDING), lines);
+    }
+
+    /** A long enough recording plays its game to the final scores. */
+    @Test
+    void testReplayPlaysWholeGame() {
+        String transcript = Replay.play(42L, recording(4, 1L, 3000));
+        assertTrue(transcript.startsWith("Game seed: 42\n"));
+        assertTrue(transcript.contains("Starting Citadels with 4 players..."));
+        assertTrue(transcript.contains("wins!"), "game should reach final scoring");
+        assertFalse(transcript.contains(Replay.INPUT_ENDED));
+    }
+
+    /** The same seed and recording always give the same transcript. */
+    @Test
+    void testReplayIsDeterministic() {
+        List<String> rec = recording(5, 9L, 2000);
+        assertEquals(Replay.play(7L, rec), Replay.play(7L, rec));
+        assertNotEquals(Replay.play(7L, rec), Replay.play(8L, rec));
+    }
+
+    /** The replay prints exactly what the console game prints for the same input. */
+    @Test
+    void testReplayMatchesConsoleGame() {
+        List<String> rec = recording(4, 3L, 3000);
+        CaptureSink sink = new CaptureSink();
+        GameState game = new GameState(rec.iterator()::next, sink);
+        game.random = new GameRandom(11L);
+        App.playGame(game);
+        assertEquals("Game seed: 11\n" + sink.toString().replace("\r\n", "\n"),
+                Replay.play(11L, rec));
+    }
+
+    /** A recording that stops early is marked in the transcript. */
+    @Test
+    void testShortRecordingIsMarked() {
+        String transcript = Replay.play(1L, recording(4, 1L, 20));
+        assertTrue(transcript.endsWith(Replay.INPUT_ENDED + "\n"));
+    }
+
+    /** The first differing line is reported; line endings do not matter. */
+    @Test
+    void testFirstDifference() {
+        assertNull(Replay.firstDifference("a\r\nb\r\n", "a\nb\n"));
+        assertEquals("line 2: expected \"b\" but was \"c\"",
+                Replay.firstDifference("a\nb\n", "a\nc\n"));
+        assertEquals("line 3: expected \"\" but was \"c\"",
+                Replay.firstDifference("a\nb\n", "a\nb\nc\n"));
+        assertEquals("expected 2 lines but was 3",
+                Replay.firstDifference("a\nb", "a\nb\nc"));
+    }
+
+    /** Recordings must start with a seed line. */
+    @Test
+    void testSeedOf() {
+        assertEquals(-5L, Replay.seedOf(List.of("seed -5", "4")));
+        assertThrows(IllegalArgumentException.class, () -> Replay.seedOf(List.of("4")));
+        assertThrows(IllegalArgumentException.class, () -> Replay.seedOf(List.of()));
+    }
+
+    /** A corpus records its goldens, then passes until a transcript changes. */
+    @Test
+    void testCorpusDetectsChangedTranscript() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            writeRecording("game" + i, i, recording(4 + i % 4, i, 1500));
+        }
+        ReplayResult missing = Replay.runCorpus(dir, false);
+        assertEquals(5, missing.getFailures(), "no goldens yet");
+
+        ReplayResult recorded = Replay.runCorpus(dir, true);
+        assertTrue(recorded.passed());
+        assertTrue(Files.exists(dir.resolve("game0" + Replay.GOLDEN)));
+
+        ReplayResult again = Replay.runCorpus(dir, false);
+        assertTrue(again.passed(), again.report());
+        assertEquals(5, again.getCases().size());
+
+        // a different seed changes the game
+        List<String> lines = Files.readAllLines(dir.resolve("game3" + Replay.RECORDING));
+        lines.set(0, "seed 999");
+        Files.write(dir.resolve("game3" + Replay.RECORDING), lines);
+        ReplayResult changed = Replay.runCorpus(dir, false);
+        assertEquals(1, changed.getFailures());
+        assertTrue(changed.report().contains("FAIL game3: line "), changed.report());
+    }
+
+    /** A recording without a seed line fails only its own case. */
+    @Test
+    void testBadRecordingFailsItsCase() throws IOException {
+        Files.write(dir.resolve("bad" + Replay.RECORDING), List.of("4", "t"));
+        writeRecording("good", 1L, recording(4, 1L, 100));
+        ReplayResult r = Replay.runCorpus(dir, true);
+        assertEquals(1, r.getFailures());
+        assertFalse(r.getCases().get(0).passed());
+        assertTrue(r.getCases().get(1).passed());
+    }
+
+    /**
+     * Throughput: replays a corpus of 1000 recorded games against their
+     * goldens and reports replays per second.
+     */
+    @Test
+    @Tag("perf")
+    void benchmarkCorpus() throws IOException {
+        final int games = 1000;
+        for (int i = 0; i < games; i++) {
+            writeRecording(String.format("game%04d", i), i, recording(4 + i % 4, i, 3000));
+        }
+        Replay.runCorpus(dir, true);
+        ReplayResult r = Replay.runCorpus(dir, false);
+        assertTrue(r.passed(), r.report());
+        System.out.print(r.report());
+    }
+}
@@ -0,0 +1,191 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoundMachineTest {
+
+    // A seeded game with a human at seat 1, printing into a capture sink
+    private static GameState humanGame(long seed, int numPlayers, CaptureSink out) {
+        GameState game = GameState.headless(seed);
+        game.out = out;
+        App.setupGame(game, numPlayers, true);
+        return game;
+    }
+
+    // A game whose only player is a human holding the given character
+    private static GameState soloGame(int character, CaptureSink out) {
+        GameState game = GameState.headless(1L);
+        game.out = out;
+        App.initializeDeck(game);
+        Player p = new Player(1, true);
+        p.setCharacter(character);
+        game.players.add(p);
+        game.crownedPlayer = p;
+        return game;
+    }
+
+    // A reasonable answer to every prompt
+    private static String answer(RoundMachine round, int attempt) {
+        switch (round.getState()) {
+            case CONTINUE: return "t";
+            case CHOOSE_CHARACTER: return String.valueOf(1 + attempt % 8);
+            case RESOURCE_CHOICE: return "cards";
+            case KEEP_CARD: return "1";
+            case BUILD_COMMAND: return attempt % 2 == 0 ? "build 1" : "end";
+            default: return "no";
+        }
+    }
+
+    /** A round yields at every prompt and answering them plays it to the end. */
+    @Test
+    void testStepsThroughHumanRound() {
+        CaptureSink out = new CaptureSink();
+        GameState game = humanGame(5L, 5, out);
+        RoundMachine round = new RoundMachine(game);
+
+        assertTrue(round.step(null));
+        assertEquals(RoundMachine.State.CONTINUE, round.getState());
+        assertTrue(out.toString().endsWith("Press t to process turns" + System.lineSeparator()));
+        // no input given: stays where it is
+        assertTrue(round.step(null));
+        assertEquals(RoundMachine.State.CONTINUE, round.getState());
+
+        List<RoundMachine.State> prompts = new ArrayList<>();
+        int steps = 0;
+        String input = "t";
+        while (round.step(input)) {
+            assertTrue(round.isWaitingForInput());
+            prompts.add(round.getState());
+            input = answer(round, ++steps);
+            assertTrue(steps < 500, "round should end");
+        }
+        assertTrue(round.isDone());
+        assertTrue(prompts.contains(RoundMachine.State.CHOOSE_CHARACTER));
+        assertTrue(prompts.contains(RoundMachine.State.BUILD_COMMAND));
+        assertTrue(out.toString().contains("TURN PHASE"));
+        assertTrue(out.toString().contains("You chose the "));
+    }
+
+    /** An all-CPU round never waits: one step plays it and resets it. */
+    @Test
+    void testCpuRoundRunsInOneStep() {
+        GameState game = GameState.headless(9L);
+        App.setupGame(game, 6, false);
+        RoundMachine round = new RoundMachine(game);
+        assertFalse(round.step(null));
+        assertTrue(round.isDone());
+        if (!game.gameEndTriggered) {
+            for (Player p : game.players) {
+                assertEquals(0, p.getCharacter(), "round effects cleared");
+            }
+        }
+    }
+
+    /** The machine plays the same round as before, whether stepped or blocking. */
+    @Test
+    void testSteppedMatchesBlocking() {
+        GameState a = GameState.headless(21L);
+        GameState b = GameState.headless(21L);
+        App.setupGame(a, 4, false);
+        App.setupGame(b, 4, false);
+        for (int i = 0; i < 5 && !a.gameEndTriggered; i++) {
+            App.playRound(a);
+            assertFalse(new RoundMachine(b).step(null));
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(a.players.get(i).getGold(), b.players.get(i).getGold());
+            assertEquals(a.players.get(i).getCity().size(), b.players.get(i).getCity().size());
+        }
+    }
+
+    /** Only "gold" or "cards" are accepted: anything else asks again and draws nothing. */
+    @Test
+    void testResourcePromptInsistsOnChoice() {
+        CaptureSink out = new CaptureSink();
+        GameState game = soloGame(7, out);
+        Player p = game.players.get(0);
+        RoundMachine round = RoundMachine.turns(game, 7);
+
+        assertTrue(round.step(null));
+        assertEquals(RoundMachine.State.RESOURCE_CHOICE, round.getState());
+        assertTrue(round.step("t"));
+        assertEquals(RoundMachine.State.RESOURCE_CHOICE, round.getState());
+        assertEquals(0, p.getHand().size());
+        assertTrue(out.toString().contains("Invalid choice. Type 'gold' or 'cards': "));
+
+        assertTrue(round.step(" Cards "));
+        assertEquals(RoundMachine.State.KEEP_CARD, round.getState());
+        assertTrue(round.step("9"));
+        assertEquals(RoundMachine.State.KEEP_CARD, round.getState());
+        assertTrue(round.step("2"));
+        // kept one, then the Architect's two extra cards
+        assertEquals(3, p.getHand().size());
+        assertEquals(RoundMachine.State.BUILD_COMMAND, round.getState());
+    }
+
+    /** Colour income is paid once per turn. */
+    @Test
+    void testIncomePaidOnce() {
+        CaptureSink out = new CaptureSink();
+        GameState game = soloGame(4, out);
+        Player king = game.players.get(0);
+        king.getCity().add(new District("Manor", "yellow", 3, ""));
+        king.getCity().add(new District("Palace", "yellow", 5, ""));
+        RoundMachine round = RoundMachine.turns(game, 4);
+
+        assertTrue(round.step(null));
+        assertTrue(round.step("gold"));
+        assertEquals(RoundMachine.State.BUILD_COMMAND, round.getState());
+        assertEquals(4, king.getGold(), "2 gold taken plus 2 from yellow districts");
+        assertSame(king, game.crownedPlayer);
+    }
+
+    /** The human Warlord picks a city, then a district, paying one less than its cost. */
+    @Test
+    void testWarlordDestroysDistrict() {
+        CaptureSink out = new CaptureSink();
+        GameState game = soloGame(8, out);
+        Player warlord = game.players.get(0);
+        warlord.addGold(1);
+        Player victim = new Player(2, false);
+        victim.getCity().add(new District("Tavern", "green", 1, ""));
+        victim.getCity().add(new District("Market", "green", 2, ""));
+        game.players.add(victim);
+        RoundMachine round = RoundMachine.turns(game, 8);
+
+        assertTrue(round.step(null));
+        assertTrue(round.step("gold"));
+        assertEquals(RoundMachine.State.WARLORD_TARGET, round.getState());
+        assertTrue(round.step("2"));
+        assertEquals(RoundMachine.State.WARLORD_DISTRICT, round.getState());
+        assertTrue(round.step("2"));
+        assertEquals(1, victim.getCity().size());
+        assertEquals(2, warlord.getGold());
+        assertTrue(out.toString().contains("Destroyed Market from Player 2."));
+        assertFalse(round.step("end"));
+        assertTrue(round.isDone());
+    }
+
+    /** Selection alone stops once everyone has a character. */
+    @Test
+    void testSelectionOnly() {
+        CaptureSink out = new CaptureSink();
+        GameState game = humanGame(3L, 4, out);
+        game.firstSelection = false;
+        RoundMachine round = RoundMachine.selection(game);
+        String input = null;
+        int attempt = 0;
+        while (round.step(input)) {
+            input = answer(round, attempt++);
+        }
+        for (Player p : game.players) {
+            assertTrue(p.getCharacter() > 0);
+        }
+        assertFalse(out.toString().contains("TURN PHASE"));
+    }
+}
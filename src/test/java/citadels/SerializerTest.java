@@ -1,15 +1,24 @@
 package citadels;
 
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class SerializerTest {
+    private final GameState game = new GameState();
+
     /**
      * Test saving and loading with all fields populated.
      */
@@ -19,33 +28,33 @@ class SerializerTest {
         p.addGold(3);
         p.addCardToHand(new District("Tavern", "green", 1, "desc"));
         p.getCity().add(new District("Cathedral", "blue", 5, "desc"));
-        App.players.clear();
-        App.players.add(p);
-        App.deck.clear();
-        App.deck.add(new District("Market", "green", 2, "desc"));
-        App.crownedPlayer = p;
-        App.firstCompleter = p;
-        App.gameEndTriggered = true;
-        App.debugMode = true;
+        game.players.clear();
+        game.players.add(p);
+        game.deck.clear();
+        game.deck.add(new District("Market", "green", 2, "desc"));
+        game.crownedPlayer = p;
+        game.firstCompleter = p;
+        game.gameEndTriggered = true;
+        game.debugMode = true;
 
         String filename = "test_full_save.json";
-        Serializer.saveGame(filename);
+        Serializer.saveGame(game, filename);
         // Clear state
-        App.players.clear();
-        App.deck.clear();
-        App.crownedPlayer = null;
-        App.firstCompleter = null;
-        App.gameEndTriggered = false;
-        App.debugMode = false;
-
-        Serializer.loadGame(filename);
-
-        assertEquals(1, App.players.size());
-        assertEquals(1, App.deck.size());
-        assertEquals(1, App.crownedPlayer.getId());
-        assertEquals(1, App.firstCompleter.getId());
-        assertTrue(App.gameEndTriggered);
-        assertTrue(App.debugMode);
+        game.players.clear();
+        game.deck.clear();
+        game.crownedPlayer = null;
+        game.firstCompleter = null;
+        game.gameEndTriggered = false;
+        game.debugMode = false;
+
+        Serializer.loadGame(game, filename);
+
+        assertEquals(1, game.players.size());
+        assertEquals(1, game.deck.size());
+        assertEquals(1, game.crownedPlayer.getId());
+        assertEquals(1, game.firstCompleter.getId());
+        assertTrue(game.gameEndTriggered);
+        assertTrue(game.debugMode);
 
         // Cleanup
         new File(filename).delete();
@@ -57,23 +66,23 @@ class SerializerTest {
     @Test
     void saveAndLoadGame_firstCompleterNull() throws Exception {
         Player p = new Player(1, true);
-        App.players.clear();
-        App.players.add(p);
-        App.deck.clear();
-        App.crownedPlayer = p;
-        App.firstCompleter = null;
-        App.gameEndTriggered = false;
-        App.debugMode = false;
+        game.players.clear();
+        game.players.add(p);
+        game.deck.clear();
+        game.crownedPlayer = p;
+        game.firstCompleter = null;
+        game.gameEndTriggered = false;
+        game.debugMode = false;
 
         String filename = "test_null_firstCompleter.json";
-        Serializer.saveGame(filename);
+        Serializer.saveGame(game, filename);
         // Clear state
-        App.players.clear();
-        App.crownedPlayer = null;
+        game.players.clear();
+        game.crownedPlayer = null;
 
-        Serializer.loadGame(filename);
+        Serializer.loadGame(game, filename);
 
-        assertNull(App.firstCompleter);
+        assertNull(game.firstCompleter);
 
         // Cleanup
         new File(filename).delete();
@@ -84,31 +93,31 @@ class SerializerTest {
      */
     @Test
     void saveAndLoadGame_emptyState() throws Exception {
-        App.players.clear();
-        App.deck.clear();
-        App.crownedPlayer = null;
-        App.firstCompleter = null;
-        App.gameEndTriggered = false;
-        App.debugMode = false;
+        game.players.clear();
+        game.deck.clear();
+        game.crownedPlayer = null;
+        game.firstCompleter = null;
+        game.gameEndTriggered = false;
+        game.debugMode = false;
 
         // Add a player with empty hand/city
         Player p = new Player(1, true);
-        App.players.add(p);
-        App.crownedPlayer = p;
+        game.players.add(p);
+        game.crownedPlayer = p;
 
         String filename = "test_empty_save.json";
-        Serializer.saveGame(filename);
+        Serializer.saveGame(game, filename);
         // Clear state
-        App.players.clear();
-        App.deck.clear();
-        App.crownedPlayer = null;
+        game.players.clear();
+        game.deck.clear();
+        game.crownedPlayer = null;
 
-        Serializer.loadGame(filename);
+        Serializer.loadGame(game, filename);
 
-        assertEquals(1, App.players.size());
-        assertEquals(0, App.deck.size());
-        assertEquals(1, App.crownedPlayer.getId());
-        assertNull(App.firstCompleter);
+        assertEquals(1, game.players.size());
+        assertEquals(0, game.deck.size());
+        assertEquals(1, game.crownedPlayer.getId());
+        assertNull(game.firstCompleter);
 
         // Cleanup
         new File(filename).delete();
@@ -121,7 +130,7 @@ class SerializerTest {
     void saveGame_throwsIOException() {
         assertThrows(IOException.class, () -> {
             // Try to write to a directory (should fail)
-            Serializer.saveGame("/");
+            Serializer.saveGame(game, "/");
         });
     }
 
@@ -131,7 +140,7 @@ class SerializerTest {
     @Test
     void loadGame_throwsIOException() {
         assertThrows(IOException.class, () -> {
-            Serializer.loadGame("nonexistent_file.json");
+            Serializer.loadGame(game, "nonexistent_file.json");
         });
     }
 
@@ -145,8 +154,170 @@ class SerializerTest {
             fw.write("not a json");
         }
         assertThrows(ParseException.class, () -> {
-            Serializer.loadGame(filename);
+            Serializer.loadGame(game, filename);
         });
         new File(filename).delete();
     }
-} 
\ No newline at end of file
+
+    // The save as json-simple would have built it, for comparing output
+    @SuppressWarnings("unchecked")
+    private static JSONObject domSave(GameState g) {
+        JSONObject root = new JSONObject();
+        JSONArray players = new JSONArray();
+        for (Player p : g.players) {
+            JSONObject pObj = new JSONObject();
+            pObj.put("id", p.getId());
+            pObj.put("isHuman", p.isHuman());
+            pObj.put("gold", p.getGold());
+            pObj.put("character", p.getCharacter());
+            pObj.put("hand", domCards(p.getHand()));
+            pObj.put("city", domCards(p.getCity()));
+            players.add(pObj);
+        }
+        root.put("players", players);
+        root.put("deck", domCards(g.deck));
+        root.put("crown", g.crownedPlayer == null ? null : g.crownedPlayer.getId());
+        root.put("firstCompleter",
+                g.firstCompleter == null ? null : g.firstCompleter.getId());
+        root.put("gameEndTriggered", g.gameEndTriggered);
+        root.put("debugMode", g.debugMode);
+        return root;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONArray domCards(Iterable<District> cards) {
+        JSONArray arr = new JSONArray();
+        for (District d : cards) {
+            JSONObject dObj = new JSONObject();
+            dObj.put("name", d.getName());
+            dObj.put("color", d.getColor());
+            dObj.put("cost", d.getCost());
+            dObj.put("description", d.getDescription());
+            arr.add(dObj);
+        }
+        return arr;
+    }
+
+    /**
+     * The streamed save is byte-for-byte what json-simple produced,
+     * including escaped characters and cards outside the catalog.
+     */
+    @Test
+    void saveGame_matchesJsonSimpleBytes() throws Exception {
+        GameState g = TestGames.played(21L, 6, 4);
+        g.players.get(0).addCardToHand(
+                new District("Odd \"Card\"", "purple", 3, "a/b\\c\ttab\u0001\u2013é"));
+        g.firstCompleter = g.players.get(1);
+        g.crownedPlayer = null;
+        String filename = "test_bytes.json";
+        Serializer.saveGame(g, filename);
+        try {
+            assertEquals(domSave(g).toJSONString(), Files.readString(Path.of(filename)));
+        } finally {
+            new File(filename).delete();
+        }
+    }
+
+    /**
+     * Loading accepts any key order, whitespace and unknown keys, and
+     * restores the same state json-simple's parser would.
+     */
+    @Test
+    void loadGame_streamingMatchesDomParse() throws Exception {
+        GameState g = TestGames.played(8L, 6, 4);
+        String filename = "test_stream.json";
+        try (FileWriter fw = new FileWriter(filename)) {
+            fw.write("{ \"version\" : [1, {\"x\": null}],\n"
+                    + domSave(g).toJSONString().substring(1)
+                            .replace("},{", "},\n  {").replace("\"id\":", "\"id\" : "));
+        }
+        try {
+            GameState loaded = new GameState();
+            Serializer.loadGame(loaded, filename);
+            String expected = domSave(g).toJSONString();
+            assertEquals(expected, domSave(loaded).toJSONString());
+            try (FileReader fr = new FileReader(filename)) {
+                JSONObject parsed = (JSONObject) new JSONParser().parse(fr);
+                parsed.remove("version");
+                assertEquals(expected, parsed.toJSONString());
+            }
+        } finally {
+            new File(filename).delete();
+        }
+    }
+
+    /** A truncated file fails with ParseException and leaves the game untouched. */
+    @Test
+    void loadGame_truncatedLeavesStateUnchanged() throws Exception {
+        GameState g = TestGames.played(3L, 6, 4);
+        String filename = "test_truncated.json";
+        String json = domSave(g).toJSONString();
+        try (FileWriter fw = new FileWriter(filename)) {
+            fw.write(json.substring(0, json.length() / 2));
+        }
+        try {
+            Player first = game.players.isEmpty() ? null : game.players.get(0);
+            assertThrows(ParseException.class, () -> Serializer.loadGame(game, filename));
+            assertEquals(first == null, game.players.isEmpty());
+        } finally {
+            new File(filename).delete();
+        }
+    }
+
+    /**
+     * Benchmark: a batch of saves and loads through json-simple's document
+     * tree versus the streaming codec, with allocated bytes per operation.
+     */
+    @Test
+    @Tag("perf")
+    void benchmarkStreamingVersusDom() throws Exception {
+        GameState g = TestGames.played(5L, 6, 4);
+        String filename = "bench_stream.json";
+        final int iterations = 3000;
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean)
+                java.lang.management.ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        try {
+            for (int round = 0; round < 2; round++) {
+                long a0 = mx.getThreadAllocatedBytes(tid);
+                long t0 = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    try (FileWriter fw = new FileWriter(filename)) {
+                        fw.write(domSave(g).toJSONString());
+                    }
+                }
+                long t1 = System.nanoTime();
+                long a1 = mx.getThreadAllocatedBytes(tid);
+                for (int i = 0; i < iterations; i++) {
+                    try (FileReader fr = new FileReader(filename)) {
+                        new JSONParser().parse(fr);
+                    }
+                }
+                long t2 = System.nanoTime();
+                long a2 = mx.getThreadAllocatedBytes(tid);
+                for (int i = 0; i < iterations; i++) {
+                    Serializer.saveGame(g, filename);
+                }
+                long t3 = System.nanoTime();
+                long a3 = mx.getThreadAllocatedBytes(tid);
+                for (int i = 0; i < iterations; i++) {
+                    Serializer.loadGame(game, filename);
+                }
+                long t4 = System.nanoTime();
+                long a4 = mx.getThreadAllocatedBytes(tid);
+                if (round == 1) {
+                    System.out.printf("DOM save:    %7.1f us, %8d B/op%n",
+                            (t1 - t0) / 1e3 / iterations, (a1 - a0) / iterations);
+                    System.out.printf("DOM parse:   %7.1f us, %8d B/op%n",
+                            (t2 - t1) / 1e3 / iterations, (a2 - a1) / iterations);
+                    System.out.printf("Stream save: %7.1f us, %8d B/op%n",
+                            (t3 - t2) / 1e3 / iterations, (a3 - a2) / iterations);
+                    System.out.printf("Stream load: %7.1f us, %8d B/op%n",
+                            (t4 - t3) / 1e3 / iterations, (a4 - a3) / iterations);
+                }
+            }
+        } finally {
+            new File(filename).delete();
+        }
+    }
+}
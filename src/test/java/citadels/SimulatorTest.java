@@ -0,0 +1,66 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+
+    /** Every requested game is played and accounted for. */
+    @Test
+    void testRunPlaysAllGames() {
+        SimulationResult r = Simulator.run(4, 50, 42L);
+        assertEquals(50, r.getGames());
+        assertEquals(50, r.getCompletedGames() + r.getUnfinishedGames());
+        long wins = 0;
+        for (int i = 1; i <= 4; i++) {
+            wins += r.getWins(i);
+        }
+        assertEquals(r.getCompletedGames(), wins, "one winner per completed game");
+    }
+
+    /** The same seed gives the same results, whatever the parallelism. */
+    @Test
+    void testRunIsReproducible() {
+        SimulationResult a = Simulator.run(5, 200, 7L, new ForkJoinPool(1));
+        SimulationResult b = Simulator.run(5, 200, 7L, new ForkJoinPool(4));
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(a.getWins(i), b.getWins(i));
+            assertEquals(a.getMeanScore(i), b.getMeanScore(i));
+        }
+        assertEquals(a.getMeanRounds(), b.getMeanRounds());
+    }
+
+    /** All table sizes from 4 to 7 can be simulated. */
+    @Test
+    void testRunAllTableSizes() {
+        for (int n = 4; n <= 7; n++) {
+            SimulationResult r = Simulator.run(n, 10, n);
+            assertEquals(n, r.getNumPlayers());
+            assertEquals(10, r.getGames());
+        }
+    }
+
+    /** Player counts outside 4-7 are rejected. */
+    @Test
+    void testRunRejectsInvalidPlayerCount() {
+        assertThrows(IllegalArgumentException.class, () -> Simulator.run(3, 1, 0L));
+        assertThrows(IllegalArgumentException.class, () -> Simulator.run(8, 1, 0L));
+    }
+
+    /** Headless games, which the simulator plays, print to no stream at all. */
+    @Test
+    void testHeadlessGameIsSilent() {
+        assertSame(NullSink.INSTANCE, GameState.headless(1L).out);
+    }
+
+    /** The report names the table size and every seat. */
+    @Test
+    void testReport() {
+        String report = Simulator.run(4, 10, 3L).report();
+        assertTrue(report.contains("Simulated 10 games with 4 CPU players"));
+        assertTrue(report.contains("Player 4: win rate"));
+    }
+}
@@ -0,0 +1,46 @@
+package citadels;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Games for tests to start from, and a way to compare their positions.
+ */
+final class TestGames {
+
+    private TestGames() {
+    }
+
+    /**
+     * An all-CPU headless game some rounds in, at the start of a round,
+     * or earlier if the game ends first.
+     *
+     * @param seed    seed for the game's random choices
+     * @param players number of players (4-7)
+     * @param rounds  rounds to play
+     * @return the game
+     */
+    static GameState played(long seed, int players, int rounds) {
+        GameState game = GameState.headless(seed);
+        App.setupGame(game, players, false);
+        for (int i = 0; i < rounds && !game.gameEndTriggered; i++) {
+            App.playRound(game);
+        }
+        return game;
+    }
+
+    /**
+     * The game's position in the binary save format, for comparing two
+     * games.
+     *
+     * @param game the game
+     * @return the encoded position
+     * @throws IOException never, as the bytes are kept in memory
+     */
+    static byte[] bytes(GameState game) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySerializer.write(game, new DataOutputStream(out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,137 @@
+package citadels;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    // Two copies of the built-in CPU, told apart only by name
+    private static List<Tournament.Entrant> twoHeuristics() {
+        return List.of(new Tournament.Entrant("a", seed -> HeuristicStrategy.INSTANCE),
+                new Tournament.Entrant("b", seed -> HeuristicStrategy.INSTANCE));
+    }
+
+    /** Seatings cover every permutation, and every strategy sits in every seat equally. */
+    @Test
+    void testSeatings() {
+        // 2 strategies, 4 seats: all 16 seatings but AAAA and BBBB
+        assertEquals(14, Tournament.seatings(2, 4).size());
+        // as many strategies as seats: the 4! orderings
+        assertEquals(24, Tournament.seatings(4, 4).size());
+        // more strategies than seats: 5 * 4 * 3 * 2 ordered choices
+        assertEquals(120, Tournament.seatings(5, 4).size());
+        assertEquals(1, Tournament.seatings(1, 7).size());
+
+        for (int entrants = 1; entrants <= 5; entrants++) {
+            List<int[]> seatings = Tournament.seatings(entrants, 5);
+            int[][] counts = new int[entrants][5];
+            for (int[] seating : seatings) {
+                for (int seat = 0; seat < 5; seat++) {
+                    counts[seating[seat]][seat]++;
+                }
+            }
+            for (int[] perSeat : counts) {
+                for (int c : perSeat) {
+                    assertEquals(counts[0][0], c);
+                }
+            }
+        }
+    }
+
+    /** Every game is played and every seat of every completed game is counted. */
+    @Test
+    void testRunCountsEverySeat() {
+        TournamentResult r = Tournament.run(twoHeuristics(), 4, 10, 42L);
+        assertEquals(14, r.getSeatings());
+        assertEquals(140, r.getGames());
+        long seated = 0, wins = 0;
+        for (int e = 0; e < 2; e++) {
+            seated += r.getSeated(e, -1);
+            wins += r.getWins(e, -1);
+            long perSeat = 0;
+            for (int seat = 0; seat < 4; seat++) {
+                perSeat += r.getWins(e, seat);
+            }
+            assertEquals(r.getWins(e, -1), perSeat);
+        }
+        assertEquals(4 * r.getCompletedGames(), seated);
+        assertEquals(r.getCompletedGames(), wins, "one winner per completed game");
+    }
+
+    /** The same seed gives the same results, whatever the parallelism. */
+    @Test
+    void testRunIsReproducible() {
+        TournamentResult a = Tournament.run(twoHeuristics(), 5, 20, 7L, new ForkJoinPool(1));
+        TournamentResult b = Tournament.run(twoHeuristics(), 5, 20, 7L, new ForkJoinPool(4));
+        for (int e = 0; e < 2; e++) {
+            for (int seat = 0; seat < 5; seat++) {
+                assertEquals(a.getWins(e, seat), b.getWins(e, seat));
+                assertEquals(a.getMeanScore(e, seat), b.getMeanScore(e, seat));
+            }
+        }
+    }
+
+    /** Confidence intervals contain the estimate and shrink with more games. */
+    @Test
+    void testConfidenceIntervals() {
+        TournamentResult small = Tournament.run(twoHeuristics(), 4, 5, 3L);
+        TournamentResult large = Tournament.run(twoHeuristics(), 4, 80, 3L);
+        for (TournamentResult r : List.of(small, large)) {
+            double[] ci = r.getWinRateInterval(0, -1);
+            assertTrue(ci[0] <= r.getWinRate(0, -1) && r.getWinRate(0, -1) <= ci[1]);
+            assertTrue(ci[0] >= 0 && ci[1] <= 1);
+            assertTrue(r.getMeanScoreError(0, -1) > 0);
+        }
+        double[] s = small.getWinRateInterval(0, -1), l = large.getWinRateInterval(0, -1);
+        assertTrue(l[1] - l[0] < s[1] - s[0]);
+        assertTrue(large.getMeanScoreError(0, -1) < small.getMeanScoreError(0, -1));
+        // identical players: an even split is well inside the interval
+        assertTrue(l[0] < 0.25 && 0.25 < l[1], "win rate " + large.getWinRate(0, -1));
+    }
+
+    /** Strategies are parsed from their command-line names; search players are closed. */
+    @Test
+    void testParseEntrants() {
+        assertEquals("heuristic", Tournament.Entrant.parse(" Heuristic ").getName());
+        assertEquals("mcts:1", Tournament.Entrant.parse("mcts:1").getName());
+        assertThrows(IllegalArgumentException.class, () -> Tournament.Entrant.parse("greedy"));
+        assertThrows(IllegalArgumentException.class, () -> Tournament.Entrant.parse("mcts:0"));
+        assertThrows(IllegalArgumentException.class, () -> Tournament.Entrant.parse("mcts:x"));
+
+        TournamentResult r = Tournament.run(List.of(Tournament.Entrant.parse("heuristic"),
+                Tournament.Entrant.parse("mcts:1")), 4, 1, 5L);
+        assertEquals(14, r.getGames());
+        assertTrue(r.report().contains("mcts:1:"));
+    }
+
+    /** Invalid counts are rejected. */
+    @Test
+    void testRunRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> Tournament.run(twoHeuristics(), 3, 1, 0L));
+        assertThrows(IllegalArgumentException.class, () -> Tournament.run(List.of(), 4, 1, 0L));
+        assertThrows(IllegalArgumentException.class, () -> Tournament.run(twoHeuristics(), 4, -1, 0L));
+    }
+
+    /** Tournament throughput on the common pool against a single worker. */
+    @Test
+    @Tag("perf")
+    void benchmarkScaling() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Tournament.Entrant> entrants = List.of(Tournament.Entrant.parse("heuristic"),
+                new Tournament.Entrant("copy", seed -> HeuristicStrategy.INSTANCE),
+                new Tournament.Entrant("third", seed -> HeuristicStrategy.INSTANCE));
+        for (int warm = 0; warm < 2; warm++) {
+            TournamentResult one = Tournament.run(entrants, 5, 40, 1L, new ForkJoinPool(1));
+            TournamentResult all = Tournament.run(entrants, 5, 40, 1L, new ForkJoinPool(cores));
+            if (warm == 1) {
+                System.out.printf("Tournament: %d games, 1 worker %.0f games/min, %d workers %.0f games/min%n",
+                        all.getGames(), one.getGamesPerMinute(), cores, all.getGamesPerMinute());
+            }
+        }
+    }
+}